@@ -55,7 +55,8 @@ public class CorsConfig {
         config.setAllowCredentials(true);
 
         // Hlavičky, které mohou být dostupné na frontendové straně po odpovědi serveru
-        config.setExposedHeaders(List.of("Authorization", "Content-Type"));
+        config.setExposedHeaders(List.of("Authorization", "Content-Type", "ETag",
+                "Content-Disposition", "Content-Range", "Accept-Ranges"));
 
         // Registrace CORS konfigurace pro všechny API endpointy
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
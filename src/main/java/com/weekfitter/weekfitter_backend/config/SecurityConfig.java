@@ -2,6 +2,7 @@ package com.weekfitter.weekfitter_backend.config;
 
 import com.weekfitter.weekfitter_backend.security.JwtAuthenticationFilter;
 import com.weekfitter.weekfitter_backend.service.CustomUserDetailsService;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -73,6 +74,9 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                     .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
 
+                        // Async dispatch streamovaných odpovědí – původní request už byl ověřen
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // Veřejné endpointy (bez JWT)
                         .requestMatchers(
                                 "/api/users/register",
@@ -80,6 +84,7 @@ public class SecurityConfig {
                                 "/api/users/forgot-password",
                                 "/api/users/reset-password",
                                 "/api/health",
+                                "/api/feed/**",
                                 "/error"
                         ).permitAll()
 
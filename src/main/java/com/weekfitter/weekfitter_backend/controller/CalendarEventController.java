@@ -1,20 +1,60 @@
 package com.weekfitter.weekfitter_backend.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.weekfitter.weekfitter_backend.dto.BulkCreateResponse;
+import com.weekfitter.weekfitter_backend.dto.CopyEventsRequest;
+import com.weekfitter.weekfitter_backend.dto.EventChangesResponse;
+import com.weekfitter.weekfitter_backend.dto.EventConflict;
+import com.weekfitter.weekfitter_backend.dto.EventCursor;
+import com.weekfitter.weekfitter_backend.dto.EventResponse;
+import com.weekfitter.weekfitter_backend.dto.ImportJobResponse;
+import com.weekfitter.weekfitter_backend.dto.PlanWeekRequest;
+import com.weekfitter.weekfitter_backend.dto.SearchCursor;
+import com.weekfitter.weekfitter_backend.dto.ShiftEventsRequest;
+import com.weekfitter.weekfitter_backend.dto.ShiftEventsResponse;
 import com.weekfitter.weekfitter_backend.model.ActivityType;
 import com.weekfitter.weekfitter_backend.model.CalendarEvent;
-import com.weekfitter.weekfitter_backend.model.NotificationType;
 import com.weekfitter.weekfitter_backend.model.SportType;
 import com.weekfitter.weekfitter_backend.model.User;
 
 import com.weekfitter.weekfitter_backend.service.CalendarEventService;
+import com.weekfitter.weekfitter_backend.service.CalendarVersionService;
 import com.weekfitter.weekfitter_backend.service.NotificationService;
 import com.weekfitter.weekfitter_backend.service.UserService;
-
+import com.weekfitter.weekfitter_backend.service.ics.IcsExportService;
+import com.weekfitter.weekfitter_backend.service.ics.IcsImportService;
+import com.weekfitter.weekfitter_backend.service.planner.FreeSlotService;
+import com.weekfitter.weekfitter_backend.service.planner.WorkoutPlanService;
+import com.weekfitter.weekfitter_backend.service.recurrence.RecurrenceRule;
+import com.weekfitter.weekfitter_backend.service.route.RoutePreviewService;
+import com.weekfitter.weekfitter_backend.service.activity.FitActivityService;
+import com.weekfitter.weekfitter_backend.service.attachment.AttachmentFile;
+import com.weekfitter.weekfitter_backend.service.attachment.AttachmentService;
+import com.weekfitter.weekfitter_backend.service.search.EventSearchService;
+import com.weekfitter.weekfitter_backend.service.search.TitleSuggestService;
+import com.weekfitter.weekfitter_backend.service.workout.GarminWorkoutService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.*;
 
 /**
@@ -22,6 +62,10 @@ import java.util.*;
  *
  * Poskytuje funkce pro vytváření, načítání, aktualizaci a mazání událostí (CRUD).
  * Identita uživatele je ověřena pomocí JWT tokenu.
+ *
+ * Čtecí endpointy podporují podmíněné požadavky: ETag odpovídá verzi dat
+ * uživatele (CalendarVersionService) a při shodě s If-None-Match se vrací
+ * 304 Not Modified bez dotazu na události.
  */
 @CrossOrigin(origins = {
         "https://weekfitter.vercel.app",
@@ -35,45 +79,410 @@ public class CalendarEventController {
     private final NotificationService notificationService;
     private final CalendarEventService calendarEventService;
     private final UserService userService;
+    private final CalendarVersionService calendarVersionService;
+    private final FreeSlotService freeSlotService;
+    private final WorkoutPlanService workoutPlanService;
+    private final IcsExportService icsExportService;
+    private final IcsImportService icsImportService;
+    private final EventSearchService eventSearchService;
+    private final TitleSuggestService titleSuggestService;
+    private final GarminWorkoutService garminWorkoutService;
+    private final FitActivityService fitActivityService;
+    private final RoutePreviewService routePreviewService;
+    private final AttachmentService attachmentService;
+    private final ObjectMapper objectMapper;
+
+    /** Maximální velikost stránky ve stránkovaném výpisu. */
+    private static final int MAX_PAGE_SIZE = 500;
+
+    /** Nejvyšší velikost stránky výsledků vyhledávání. */
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+
+    /** Nejvyšší počet návrhů názvů. */
+    private static final int MAX_SUGGESTIONS = 20;
+
+    /** Nejdelší prefix pro návrhy názvů (delší už nic nenajde – název má nejvýše 255 znaků). */
+    private static final int MAX_SUGGEST_PREFIX = 255;
+
+    /** Maximální počet událostí v jednom hromadném požadavku. */
+    private static final int MAX_BULK_SIZE = 5000;
 
     /** Konstruktor s explicitními závislostmi. */
     public CalendarEventController(
             CalendarEventService calendarEventService,
             NotificationService notificationService,
-            UserService userService
+            UserService userService,
+            CalendarVersionService calendarVersionService,
+            FreeSlotService freeSlotService,
+            WorkoutPlanService workoutPlanService,
+            IcsExportService icsExportService,
+            IcsImportService icsImportService,
+            EventSearchService eventSearchService,
+            TitleSuggestService titleSuggestService,
+            GarminWorkoutService garminWorkoutService,
+            FitActivityService fitActivityService,
+            RoutePreviewService routePreviewService,
+            AttachmentService attachmentService,
+            ObjectMapper objectMapper
     ) {
         this.calendarEventService = calendarEventService;
         this.notificationService = notificationService;
         this.userService = userService;
+        this.calendarVersionService = calendarVersionService;
+        this.freeSlotService = freeSlotService;
+        this.workoutPlanService = workoutPlanService;
+        this.icsExportService = icsExportService;
+        this.icsImportService = icsImportService;
+        this.eventSearchService = eventSearchService;
+        this.titleSuggestService = titleSuggestService;
+        this.garminWorkoutService = garminWorkoutService;
+        this.fitActivityService = fitActivityService;
+        this.routePreviewService = routePreviewService;
+        this.attachmentService = attachmentService;
+        this.objectMapper = objectMapper;
     }
 
     /**
-     * Vrátí všechny události přihlášeného uživatele.
+     * Vrátí události přihlášeného uživatele.
+     *
+     * Bez parametrů vrací celou historii. S parametry from/to (ISO datum a čas)
+     * vrací pouze události zasahující do okna [from, to) – typicky jeden týden.
+     *
+     * Opakované série se bez okna vrací jednou (s pravidlem opakování),
+     * v okně se rozbalí na jednotlivé výskyty (s recurrenceId).
      */
     @GetMapping
-    public ResponseEntity<?> getEventsByUser(java.security.Principal principal) {
+    public ResponseEntity<?> getEventsByUser(
+            java.security.Principal principal,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            WebRequest webRequest
+    ) {
 
         String email = principal.getName();
         User user = userService.getUserOrThrow(email);
 
-        List<CalendarEvent> events = calendarEventService.getEventsByUser(user);
+        if ((from == null) != (to == null)) {
+            return ResponseEntity.badRequest().body("Parametry 'from' a 'to' je nutné zadat společně.");
+        }
+
+        String etag = calendarVersionService.etag(user);
+        if (webRequest.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+
+        List<EventResponse> response;
+        try {
+            response = calendarEventService.getEventResponses(user, from, to);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(response);
+    }
+
+    /**
+     * Stránkovaný výpis událostí přihlášeného uživatele (keyset pagination).
+     *
+     * Aktivuje se parametrem limit; parametr cursor je token vrácený
+     * v předchozí odpovědi jako nextCursor. Události jsou řazeny podle
+     * (startTime, id), události bez začátku se ve výpisu nevyskytují.
+     *
+     * Odpověď se zapisuje průběžně přes JsonGenerator – jednotlivé DTO
+     * se serializují a hned odesílají, celý seznam odpovědí se v paměti
+     * nesestavuje.
+     *
+     * Formát: {"events": [...], "nextCursor": "..." | null}
+     */
+    @GetMapping(params = "limit")
+    public ResponseEntity<?> getEventsPage(
+            java.security.Principal principal,
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor,
+            WebRequest webRequest
+    ) {
+        String email = principal.getName();
+        User user = userService.getUserOrThrow(email);
+
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body("Parametr 'limit' musí být v rozsahu 1–" + MAX_PAGE_SIZE + ".");
+        }
+
+        String etag = calendarVersionService.etag(user);
+        if (webRequest.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+
+        List<EventResponse> page;
+        try {
+            EventCursor after = (cursor == null || cursor.isBlank()) ? null : EventCursor.decode(cursor);
+            page = calendarEventService.getEventResponsePage(user, after, limit);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+
+        // Načteno je limit + 1 událostí – přebývající značí existenci další stránky
+        boolean hasMore = page.size() > limit;
+        List<EventResponse> events = hasMore ? page.subList(0, limit) : page;
+
+        EventResponse last = events.isEmpty() ? null : events.get(events.size() - 1);
+        String nextCursor = (hasMore && last != null)
+                ? new EventCursor(last.getStartTime(), last.getId()).encode()
+                : null;
+
+        // Bez flush po každém záznamu – o odesílání se stará buffer výstupního streamu
+        ObjectWriter writer = objectMapper.writerFor(EventResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+                gen.writeStartObject();
+                gen.writeArrayFieldStart("events");
+                for (EventResponse e : events) {
+                    writer.writeValue(gen, e);
+                }
+                gen.writeEndArray();
+                gen.writeStringField("nextCursor", nextCursor);
+                gen.writeEndObject();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    /**
+     * Fulltextové vyhledávání v událostech přihlášeného uživatele
+     * (název, popis, sportovní popis).
+     *
+     * Výsledky jsou seřazené podle relevance a stránkované kurzorem –
+     * parametr cursor je token nextCursor z předchozí odpovědi.
+     *
+     * Formát: {"events": [...], "nextCursor": "..." | null}
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchEvents(
+            java.security.Principal principal,
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor
+    ) {
+        User user = userService.getUserOrThrow(principal.getName());
 
-        List<EventResponse> response = new ArrayList<>();
-        for (CalendarEvent e : events) {
-            List<Integer> offsets = notificationService.getNotificationOffsetsForEvent(e);
-            response.add(mapEntityToResponse(e, offsets));
+        if (limit < 1 || limit > MAX_SEARCH_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body("Parametr 'limit' musí být v rozsahu 1–" + MAX_SEARCH_PAGE_SIZE + ".");
         }
 
-        return ResponseEntity.ok(response);
+        try {
+            SearchCursor after = (cursor == null || cursor.isBlank()) ? null : SearchCursor.decode(cursor);
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .body(eventSearchService.search(user, q, after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Návrhy názvů pro rychlé zakládání události – nejčastější názvy
+     * uživatele začínající napsaným textem (bez ohledu na velikost písmen
+     * a diakritiku), s počtem událostí. Odpovídá se z indexu v paměti.
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<?> suggestTitles(
+            java.security.Principal principal,
+            @RequestParam(defaultValue = "") String prefix,
+            @RequestParam(defaultValue = "8") int limit
+    ) {
+        User user = userService.getUserOrThrow(principal.getName());
+
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            return ResponseEntity.badRequest().body("Parametr 'limit' musí být v rozsahu 1–" + MAX_SUGGESTIONS + ".");
+        }
+        if (prefix.length() > MAX_SUGGEST_PREFIX) {
+            return ResponseEntity.ok(List.of());
+        }
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(titleSuggestService.suggest(user.getId(), prefix, limit));
+    }
+
+    /**
+     * Export celého kalendáře přihlášeného uživatele ve formátu iCalendar
+     * (VEVENT s VALARM podle notifikací).
+     *
+     * Události se zapisují do odpovědi průběžně při čtení z databáze –
+     * velikost kalendáře neovlivňuje spotřebu paměti.
+     */
+    @GetMapping("/export.ics")
+    public ResponseEntity<StreamingResponseBody> exportIcs(java.security.Principal principal) {
+        User user = userService.getUserOrThrow(principal.getName());
+
+        StreamingResponseBody body = out -> icsExportService.export(user, out);
+
+        return ResponseEntity.ok()
+                .header("Content-Disposition", "attachment; filename=\"weekfitter.ics\"")
+                .cacheControl(CacheControl.noStore())
+                .contentType(new MediaType("text", "calendar", java.nio.charset.StandardCharsets.UTF_8))
+                .body(body);
+    }
+
+    /**
+     * Import kalendáře ze souboru .ics (multipart, pole "file").
+     *
+     * Soubor se zpracuje asynchronně po dávkách – odpověď 202 obsahuje
+     * ID úlohy, jejíž průběh vrací GET /api/events/import/{id}.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<?> importIcs(
+            java.security.Principal principal,
+            @RequestParam("file") MultipartFile file
+    ) {
+        User user = userService.getUserOrThrow(principal.getName());
+
+        try {
+            ImportJobResponse job = icsImportService.start(user, file);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Chyba při importu kalendáře: " + e.getMessage());
+        }
+    }
+
+    /** Stav importu kalendáře přihlášeného uživatele. */
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<?> getImportStatus(java.security.Principal principal, @PathVariable UUID jobId) {
+        User user = userService.getUserOrThrow(principal.getName());
+
+        ImportJobResponse job = icsImportService.status(user, jobId);
+        if (job == null) return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Import nebyl nalezen.");
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(job);
+    }
+
+    /**
+     * Delta synchronizace kalendáře pro klienty s lokální kopií.
+     *
+     * Vrací události vytvořené/změněné od watermarku since, ID smazaných
+     * událostí a nový watermark. Bez parametru since vrací celý kalendář.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<?> getChanges(
+            java.security.Principal principal,
+            @RequestParam(required = false) Long since,
+            WebRequest webRequest
+    ) {
+        User user = userService.getUserOrThrow(principal.getName());
+
+        String etag = calendarVersionService.etag(user);
+        if (webRequest.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+
+        EventChangesResponse changes = calendarEventService.getChangesSince(user, since);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(changes);
+    }
+
+    /**
+     * Kolize (překrývající se události) přihlášeného uživatele v okně [from, to).
+     *
+     * Celodenní události se za kolizi nepovažují. Výskyty opakovaných sérií
+     * se kontrolují jednotlivě.
+     */
+    @GetMapping("/conflicts")
+    public ResponseEntity<?> getConflicts(
+            java.security.Principal principal,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        User user = userService.getUserOrThrow(principal.getName());
+
+        try {
+            return ResponseEntity.ok(calendarEventService.getConflicts(user, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Volné úseky v okně [from, to), do kterých se vejde aktivita délky duration (minuty).
+     *
+     * Úseky se hledají jen v pracovním okně dne (dayStart–dayEnd, výchozí
+     * z konfigurace), celodenní události blokují celý den. Výsledek je seřazen
+     * podle vhodnosti – nejdřív nejméně vytížené dny.
+     */
+    @GetMapping("/free-slots")
+    public ResponseEntity<?> getFreeSlots(
+            java.security.Principal principal,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam int duration,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime dayStart,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime dayEnd,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        User user = userService.getUserOrThrow(principal.getName());
+
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body("Parametr 'limit' musí být v rozsahu 1–" + MAX_PAGE_SIZE + ".");
+        }
+
+        try {
+            return ResponseEntity.ok(freeSlotService.findFreeSlots(user, from, to, duration, dayStart, dayEnd, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Automaticky rozmístí požadované tréninky do týdne kolem existujících událostí.
+     *
+     * Naplánované tréninky se vytvoří v jedné transakci. S parametrem
+     * dryRun=true se vrátí pouze návrh bez uložení. Tréninky, které se
+     * do týdne nevešly, jsou v odpovědi v seznamu unplaced.
+     */
+    @PostMapping("/plan-week")
+    public ResponseEntity<?> planWeek(
+            java.security.Principal principal,
+            @RequestBody PlanWeekRequest request,
+            @RequestParam(defaultValue = "false") boolean dryRun
+    ) {
+        User user = userService.getUserOrThrow(principal.getName());
+
+        try {
+            return ResponseEntity.ok(workoutPlanService.planWeek(user, request, dryRun));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     /**
      * Vytvoří novou událost přihlášeného uživatele.
+     *
+     * S parametrem checkConflicts=true se událost při kolizi s jinou událostí
+     * neuloží a vrátí se 409 Conflict se seznamem kolizí.
      */
     @PostMapping
     public ResponseEntity<?> createEvent(
             java.security.Principal principal,
-            @RequestBody EventRequest request
+            @RequestBody EventRequest request,
+            @RequestParam(defaultValue = "false") boolean checkConflicts
     ) {
         String email = principal.getName();
         User user = userService.getUserOrThrow(email);
@@ -82,80 +491,334 @@ public class CalendarEventController {
             CalendarEvent toSave = mapRequestToEntity(request);
             toSave.setUser(user);
 
+            if (checkConflicts) {
+                List<EventConflict> conflicts = calendarEventService.findConflictsForNew(user, toSave);
+                if (!conflicts.isEmpty()) return ResponseEntity.status(HttpStatus.CONFLICT).body(conflicts);
+            }
+
             CalendarEvent saved = calendarEventService.createEvent(toSave);
 
             // Notifikace
-            notificationService.deleteByEvent(saved.getId());
-
-            if (request.getNotifications() != null && !request.getNotifications().isEmpty()) {
-                for (Integer minutes : request.getNotifications()) {
-                    if (minutes != null && minutes > 0 && saved.getStartTime() != null) {
-                        NotificationType type = NotificationType.fromMinutes(minutes);
-                        LocalDateTime notifyAt = saved.getStartTime().minusMinutes(minutes.longValue());
-                        notificationService.createNotification(saved, notifyAt, type);
-                    }
-                }
-            }
+            notificationService.createNotifications(saved, request.getNotifications());
 
             return ResponseEntity.ok(saved);
 
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Chyba při vytváření události: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Chyba při vytváření události: " + e.getMessage());
         }
     }
 
     /**
-     * Vrací detail jedné události podle ID.
+     * Hromadně vytvoří události přihlášeného uživatele včetně notifikací
+     * (import tréninkového plánu) v jediné transakci.
+     *
+     * Uživatel se načte jednou a události i notifikace se ukládají po JDBC
+     * dávkách. Pokud je kterákoliv událost neplatná, neuloží se žádná.
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<?> createEventsBulk(
+            java.security.Principal principal,
+            @RequestBody List<EventRequest> requests
+    ) {
+        User user = userService.getUserOrThrow(principal.getName());
+
+        if (requests == null || requests.isEmpty())
+            return ResponseEntity.badRequest().body("Seznam událostí je prázdný.");
+        if (requests.size() > MAX_BULK_SIZE)
+            return ResponseEntity.badRequest().body("Najednou lze vytvořit nejvýše " + MAX_BULK_SIZE + " událostí.");
+
+        try {
+            List<CalendarEvent> events = new ArrayList<>(requests.size());
+            List<List<Integer>> notifications = new ArrayList<>(requests.size());
+            for (EventRequest r : requests) {
+                events.add(mapRequestToEntity(r));
+                notifications.add(r.getNotifications());
+            }
+
+            List<UUID> ids = calendarEventService.createEventsBulk(user, events, notifications);
+            return ResponseEntity.ok(new BulkCreateResponse(ids.size(), ids));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Chyba při vytváření událostí: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Chyba při vytváření událostí: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Hromadně posune události přihlášeného uživatele o deltaMinutes
+     * (např. přetažení celého týdne). Události se vybírají seznamem ids,
+     * nebo oknem [from, to) podle začátku. Notifikace se posunou s nimi.
+     *
+     * Cizí ID a opakované série se přeskočí; odpověď obsahuje ID
+     * skutečně posunutých událostí.
+     */
+    @PostMapping("/shift")
+    public ResponseEntity<?> shiftEvents(
+            java.security.Principal principal,
+            @RequestBody ShiftEventsRequest request
+    ) {
+        User user = userService.getUserOrThrow(principal.getName());
+
+        if (request.getDeltaMinutes() == null)
+            return ResponseEntity.badRequest().body("Chybí posun 'deltaMinutes'.");
+        if (request.getIds() != null && request.getIds().size() > MAX_BULK_SIZE)
+            return ResponseEntity.badRequest().body("Najednou lze posunout nejvýše " + MAX_BULK_SIZE + " událostí.");
+
+        try {
+            List<UUID> ids = calendarEventService.shiftEvents(user, request.getIds(),
+                    request.getFrom(), request.getTo(), request.getDeltaMinutes());
+            return ResponseEntity.ok(new ShiftEventsResponse(ids.size(), ids));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Zkopíruje události okna [from, to) přihlášeného uživatele tak, aby okno
+     * začínalo v targetFrom (např. zopakování tréninkového týdne), včetně
+     * notifikací. Opakované série se nekopírují.
+     */
+    @PostMapping("/copy")
+    public ResponseEntity<?> copyEvents(
+            java.security.Principal principal,
+            @RequestBody CopyEventsRequest request
+    ) {
+        User user = userService.getUserOrThrow(principal.getName());
+
+        try {
+            return ResponseEntity.ok(calendarEventService.copyEvents(user,
+                    request.getFrom(), request.getTo(), request.getTargetFrom()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Vrací detail jedné události přihlášeného uživatele podle ID.
+     *
+     * Událost jiného uživatele se chová jako neexistující (404).
      */
     @GetMapping("/{id}")
-    public ResponseEntity<CalendarEvent> getEventById(@PathVariable UUID id) {
-        return calendarEventService.getEventById(id)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<?> getEventById(
+            @PathVariable UUID id,
+            java.security.Principal principal,
+            WebRequest webRequest
+    ) {
+        User user = userService.getUserOrThrow(principal.getName());
+
+        String etag = calendarVersionService.etag(user);
+        if (webRequest.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+
+        return calendarEventService.getEventResponse(user, id)
+                .<ResponseEntity<?>>map(r -> ResponseEntity.ok()
+                        .eTag(etag)
+                        .cacheControl(CacheControl.noCache().cachePrivate())
+                        .body(r))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Strukturovaný trénink připojený k události (JSON export z Garmin Connect) –
+     * kroky včetně opakovaných bloků a odhad vzdálenosti a délky.
+     *
+     * 404, pokud událost neexistuje, patří jinému uživateli nebo nemá
+     * připojený čitelný trénink.
+     */
+    @GetMapping("/{id}/workout")
+    public ResponseEntity<?> getEventWorkout(@PathVariable UUID id, java.security.Principal principal) {
+        User user = userService.getUserOrThrow(principal.getName());
+
+        return calendarEventService.getEventResponse(user, id)
+                .flatMap(r -> garminWorkoutService.summary(user.getId(), r.getFilePath()))
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Odjetá aktivita připojená k události (soubor FIT) – souhrn a záznamy
+     * ve sloupcích (time, heartRate, speed, distance, power).
+     *
+     * 404, pokud událost neexistuje, patří jinému uživateli nebo nemá
+     * připojený čitelný soubor FIT.
+     */
+    @GetMapping("/{id}/activity")
+    public ResponseEntity<?> getEventActivity(@PathVariable UUID id, java.security.Principal principal) {
+        User user = userService.getUserOrThrow(principal.getName());
+
+        return calendarEventService.getEventResponse(user, id)
+                .flatMap(r -> fitActivityService.activity(user.getId(), r.getFilePath()))
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Náhled trasy připojené k události (GPX/TCX) – délka, stoupání, čas
+     * v pohybu a zjednodušené čáry úseků pro mapu (Google Encoded Polyline).
+     *
+     * 404, pokud událost neexistuje, patří jinému uživateli nebo nemá
+     * připojenou čitelnou trasu.
+     */
+    @GetMapping("/{id}/route")
+    public ResponseEntity<?> getEventRoute(@PathVariable UUID id, java.security.Principal principal) {
+        User user = userService.getUserOrThrow(principal.getName());
+
+        return calendarEventService.getEventResponse(user, id)
+                .flatMap(r -> routePreviewService.preview(user.getId(), r.getFilePath()))
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Nahraje soubor jako přílohu události (multipart, pole "file").
+     *
+     * Soubor se nahradí novým, předchozí nahraná příloha se smaže, pokud na
+     * ni neodkazuje jiná událost. Z tréninku, aktivity nebo trasy se doplní
+     * chybějící vzdálenost a sport. Vrací upravenou událost.
+     */
+    @PostMapping("/{id}/attachment")
+    public ResponseEntity<?> uploadAttachment(
+            @PathVariable UUID id,
+            java.security.Principal principal,
+            @RequestParam("file") MultipartFile file
+    ) {
+        User user = userService.getUserOrThrow(principal.getName());
+
+        Optional<EventResponse> event = calendarEventService.getEventResponse(user, id);
+        if (event.isEmpty()) return ResponseEntity.notFound().build();
+
+        String filePath;
+        try {
+            filePath = attachmentService.store(user.getId(), id, file);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Chyba při ukládání přílohy: " + e.getMessage());
+        }
+
+        try {
+            calendarEventService.attachFile(id, filePath);
+        } catch (RuntimeException e) {
+            attachmentService.release(user.getId(), filePath);
+            return ResponseEntity.badRequest().body("Chyba při připojení přílohy: " + e.getMessage());
+        }
+        attachmentService.release(user.getId(), event.get().getFilePath());
+
+        return ResponseEntity.ok(calendarEventService.getEventResponse(user, id).orElseThrow());
+    }
+
+    /**
+     * Stáhne přílohu události.
+     *
+     * Podporuje podmíněné požadavky (ETag, Last-Modified → 304) a stahování
+     * po částech (jeden rozsah Range, If-Range → 206; rozsah za koncem
+     * souboru → 416). Obsah se posílá bez kopírování přes haldu JVM
+     * (sendfile, FileChannel.transferTo).
+     *
+     * 404, pokud událost neexistuje, patří jinému uživateli nebo nemá
+     * připojený existující soubor.
+     */
+    @GetMapping("/{id}/attachment")
+    public ResponseEntity<?> downloadAttachment(
+            @PathVariable UUID id,
+            java.security.Principal principal,
+            WebRequest webRequest,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws java.io.IOException {
+        User user = userService.getUserOrThrow(principal.getName());
+
+        AttachmentFile file = calendarEventService.getEventResponse(user, id)
+                .flatMap(r -> attachmentService.file(user.getId(), r.getFilePath()))
+                .orElse(null);
+        if (file == null) return ResponseEntity.notFound().build();
+
+        if (webRequest.checkNotModified(file.getEtag(), file.getLastModified())) {
+            return notModified(file.getEtag());
+        }
+
+        AttachmentService.Range range = AttachmentService.range(
+                request.getHeader(HttpHeaders.RANGE), request.getHeader(HttpHeaders.IF_RANGE), file);
+        if (range == null) {
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes */" + file.getSize())
+                    .build();
+        }
+
+        response.setStatus(range.isPartial() ? HttpStatus.PARTIAL_CONTENT.value() : HttpStatus.OK.value());
+        response.setHeader(HttpHeaders.ETAG, file.getEtag());
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, file.getLastModified());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(file.getName(), java.nio.charset.StandardCharsets.UTF_8).build().toString());
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        response.setContentType(file.getMediaType().toString());
+        response.setContentLengthLong(range.length());
+        if (range.isPartial()) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE,
+                    "bytes " + range.getStart() + "-" + range.getEnd() + "/" + file.getSize());
+        }
+
+        if (!"HEAD".equals(request.getMethod())) {
+            attachmentService.transfer(file, range, request, response);
+        }
+        // odpověď je zapsaná, Spring už nic nepřidává
+        return null;
+    }
+
     /**
      * Aktualizuje existující událost přihlášeného uživatele.
+     *
+     * Událost jiného uživatele se odmítne (403) ještě před úpravou, vlastník
+     * se úpravou nemění. Nahrazená nebo odebraná nahraná příloha se smaže,
+     * pokud na ni neodkazuje jiná událost.
+     *
+     * S parametrem checkConflicts=true se změna při kolizi neuloží (409 Conflict).
      */
     @PutMapping("/{id}")
     public ResponseEntity<?> updateEvent(
             @PathVariable UUID id,
             java.security.Principal principal,
-            @RequestBody EventRequest request
+            @RequestBody EventRequest request,
+            @RequestParam(defaultValue = "false") boolean checkConflicts
     ) {
         String email = principal.getName();
         User user = userService.getUserOrThrow(email);
 
         try {
-            // Původní start time pro přepočet notifikací
-            LocalDateTime oldStartTime = calendarEventService.getEventById(id)
-                    .map(CalendarEvent::getStartTime)
-                    .orElse(null);
+            // Kontrola vlastnictví – ještě před úpravou
+            Optional<CalendarEvent> before = calendarEventService.getEventById(id);
+            if (before.isEmpty()) return ResponseEntity.notFound().build();
+            if (before.get().getUser() == null || !before.get().getUser().getId().equals(user.getId())) {
+                return ResponseEntity.status(403).body("Nemáte oprávnění upravovat tuto událost.");
+            }
+
+            // Původní start time pro přepočet notifikací a příloha pro úklid
+            LocalDateTime oldStartTime = before.get().getStartTime();
+            String oldFilePath = before.get().getFilePath();
 
             // Převod DTO → entita
             CalendarEvent toUpdate = mapRequestToEntity(request);
             toUpdate.setUser(user);
 
-            CalendarEvent updated = calendarEventService.updateEvent(id, toUpdate);
-
-            // Kontrola vlastnictví
-            if (!updated.getUser().getId().equals(user.getId())) {
-                return ResponseEntity.status(403).body("Nemáte oprávnění upravovat tuto událost.");
+            if (checkConflicts) {
+                List<EventConflict> conflicts = calendarEventService.findConflictsForUpdate(user, id, toUpdate);
+                if (!conflicts.isEmpty()) return ResponseEntity.status(HttpStatus.CONFLICT).body(conflicts);
             }
 
+            CalendarEvent updated = calendarEventService.updateEvent(id, toUpdate);
+
             // ===== NOTIFIKACE =====
             if (request.getNotifications() != null) {
-                notificationService.deleteByEvent(updated.getId());
-
-                if (!request.getNotifications().isEmpty() && updated.getStartTime() != null) {
-                    for (Integer minutes : request.getNotifications()) {
-                        if (minutes != null && minutes > 0) {
-                            NotificationType type = NotificationType.fromMinutes(minutes);
-                            LocalDateTime notifyAt = updated.getStartTime().minusMinutes(minutes.longValue());
-                            notificationService.createNotification(updated, notifyAt, type);
-                        }
-                    }
-                }
+                notificationService.replaceNotifications(updated, request.getNotifications());
+            } else if (updated.isRecurring()) {
+                // série – notifikace míří na nejbližší výskyt, který se mohl změnit
+                notificationService.rescheduleSeriesNotifications(updated);
             } else {
                 // drag&drop případ
                 if (oldStartTime != null &&
@@ -166,6 +829,11 @@ public class CalendarEventController {
                 }
             }
 
+            // Nahrazená nebo odebraná příloha se smaže, pokud na ni nic neodkazuje
+            if (oldFilePath != null && !oldFilePath.equals(updated.getFilePath())) {
+                attachmentService.release(user.getId(), oldFilePath);
+            }
+
             return ResponseEntity.ok(updated);
 
         } catch (Exception e) {
@@ -192,9 +860,18 @@ public class CalendarEventController {
         }
 
         calendarEventService.deleteEvent(id);
+        attachmentService.release(user.getId(), existing.get().getFilePath());
         return ResponseEntity.noContent().build();
     }
 
+    /** Odpověď 304 Not Modified pro podmíněný GET se shodným ETagem. */
+    private static ResponseEntity<?> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .build();
+    }
+
     // ============ DTOs ============
 
     @Data
@@ -211,23 +888,10 @@ public class CalendarEventController {
         private Double distance;
         private String sportDescription;
         private String filePath;
-        private List<Integer> notifications;
-    }
-
-    @Data
-    static class EventResponse {
-        private UUID id;
-        private String title;
-        private String description;
-        private LocalDateTime startTime;
-        private LocalDateTime endTime;
-        private ActivityType category;
-        private SportType sportType;
-        private Boolean allDay;
-        private Double duration;
-        private Double distance;
-        private String sportDescription;
-        private String filePath;
+        /** Pravidlo opakování (RRULE); při úpravě null = beze změny, "" = zrušit opakování. */
+        private String recurrenceRule;
+        /** Vynechané výskyty série; při úpravě null = beze změny. */
+        private List<LocalDate> recurrenceExceptions;
         private List<Integer> notifications;
     }
 
@@ -245,24 +909,12 @@ public class CalendarEventController {
         e.setDistance(r.getDistance());
         e.setSportDescription(r.getSportDescription());
         e.setFilePath(r.getFilePath());
+        e.setRecurrenceRule(r.getRecurrenceRule());
+        if (r.getRecurrenceExceptions() != null) {
+            // prázdný řetězec odliší "smazat výjimky" od "beze změny"
+            String formatted = RecurrenceRule.formatExceptions(r.getRecurrenceExceptions());
+            e.setRecurrenceExceptions(formatted != null ? formatted : "");
+        }
         return e;
     }
-
-    private static EventResponse mapEntityToResponse(CalendarEvent e, List<Integer> notifications) {
-        EventResponse r = new EventResponse();
-        r.setId(e.getId());
-        r.setTitle(e.getTitle());
-        r.setDescription(e.getDescription());
-        r.setStartTime(e.getStartTime());
-        r.setEndTime(e.getEndTime());
-        r.setCategory(e.getCategory());
-        r.setSportType(e.getSportType());
-        r.setAllDay(e.isAllDay());
-        r.setDuration(e.getDuration());
-        r.setDistance(e.getDistance());
-        r.setSportDescription(e.getSportDescription());
-        r.setFilePath(e.getFilePath());
-        r.setNotifications(notifications);
-        return r;
-    }
 }
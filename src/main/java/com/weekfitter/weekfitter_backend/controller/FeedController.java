@@ -0,0 +1,69 @@
+package com.weekfitter.weekfitter_backend.controller;
+
+import com.weekfitter.weekfitter_backend.service.ics.IcsFeedService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * Veřejná adresa odběru kalendáře pro kalendářové aplikace
+ * (Google Calendar, Apple Calendar, Outlook).
+ *
+ * Místo JWT ověřuje tajný token v URL. Odpověď podporuje podmíněný GET
+ * (If-None-Match / If-Modified-Since → 304) a gzip – obojí předpočítané
+ * v IcsFeedService, dotazování bez změn tak nestojí skoro nic.
+ */
+@RestController
+@RequestMapping("/api/feed")
+public class FeedController {
+
+    private static final MediaType TEXT_CALENDAR = new MediaType("text", "calendar", StandardCharsets.UTF_8);
+
+    private final IcsFeedService icsFeedService;
+
+    /** Konstruktor s explicitními závislostmi. */
+    public FeedController(IcsFeedService icsFeedService) {
+        this.icsFeedService = icsFeedService;
+    }
+
+    @GetMapping("/{token}.ics")
+    public ResponseEntity<byte[]> getFeed(
+            @PathVariable String token,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest
+    ) {
+        Optional<IcsFeedService.Feed> found = icsFeedService.find(token);
+        if (found.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        IcsFeedService.Feed feed = found.get();
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        String etag = feed.etag(gzip);
+
+        if (webRequest.checkNotModified(etag, feed.lastModified())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .lastModified(feed.lastModified())
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .lastModified(feed.lastModified())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(TEXT_CALENDAR);
+        if (gzip) response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+
+        return response.body(feed.body(gzip));
+    }
+}
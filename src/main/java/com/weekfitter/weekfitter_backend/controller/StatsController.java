@@ -0,0 +1,78 @@
+package com.weekfitter.weekfitter_backend.controller;
+
+import com.weekfitter.weekfitter_backend.model.User;
+import com.weekfitter.weekfitter_backend.service.UserService;
+import com.weekfitter.weekfitter_backend.service.stats.TrainingLoadService;
+import com.weekfitter.weekfitter_backend.service.stats.WeeklySummaryService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+/**
+ * REST controller pro tréninkové statistiky uživatele (dashboard).
+ *
+ * Data se čtou z průběžně udržovaných souhrnů, ne ze všech událostí.
+ * Identita uživatele je ověřena pomocí JWT tokenu.
+ */
+@CrossOrigin(origins = {
+        "https://weekfitter.vercel.app",
+        "http://localhost:3000",
+        "https://*.vercel.app"
+})
+@RestController
+@RequestMapping("/api/stats")
+public class StatsController {
+
+    private final WeeklySummaryService weeklySummaryService;
+    private final TrainingLoadService trainingLoadService;
+    private final UserService userService;
+
+    /** Konstruktor s explicitními závislostmi. */
+    public StatsController(WeeklySummaryService weeklySummaryService,
+                           TrainingLoadService trainingLoadService,
+                           UserService userService) {
+        this.weeklySummaryService = weeklySummaryService;
+        this.trainingLoadService = trainingLoadService;
+        this.userService = userService;
+    }
+
+    /**
+     * Týdenní souhrny tréninků (vzdálenost, délka, počet) po sportech
+     * pro ISO týdny, do kterých spadají data from a to (včetně).
+     */
+    @GetMapping("/weekly")
+    public ResponseEntity<?> getWeekly(
+            java.security.Principal principal,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        User user = userService.getUserOrThrow(principal.getName());
+
+        try {
+            return ResponseEntity.ok(weeklySummaryService.getWeekly(user, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Denní tréninková zátěž (akutní 7 dní, chronická 42 dní, ramp rate
+     * a jejich poměr) pro dny from až to (včetně).
+     */
+    @GetMapping("/load")
+    public ResponseEntity<?> getLoad(
+            java.security.Principal principal,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        User user = userService.getUserOrThrow(principal.getName());
+
+        try {
+            return ResponseEntity.ok(trainingLoadService.getLoad(user, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
@@ -2,13 +2,19 @@ package com.weekfitter.weekfitter_backend.controller;
 
 import com.weekfitter.weekfitter_backend.model.User;
 import com.weekfitter.weekfitter_backend.repository.UserRepository;
+import com.weekfitter.weekfitter_backend.dto.FeedTokenResponse;
 import com.weekfitter.weekfitter_backend.dto.LoginResponse;
 import com.weekfitter.weekfitter_backend.model.Gender;
+import com.weekfitter.weekfitter_backend.service.CalendarVersionService;
 import com.weekfitter.weekfitter_backend.service.UserService;
+import com.weekfitter.weekfitter_backend.service.ics.IcsFeedService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
 import java.util.Map;
@@ -27,6 +33,12 @@ public class UserController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CalendarVersionService calendarVersionService;
+
+    @Autowired
+    private IcsFeedService icsFeedService;
+
     // ============ AUTENTIZACE ============
 
     @PostMapping("/register")
@@ -69,11 +81,24 @@ public class UserController {
 
     // ============ PROFIL ============
 
+    /**
+     * Profil přihlášeného uživatele.
+     * Podporuje podmíněný GET – ETag odpovídá verzi dat uživatele.
+     */
     @GetMapping("/profile")
-    public ResponseEntity<?> getUserProfile(java.security.Principal principal) {
+    public ResponseEntity<?> getUserProfile(java.security.Principal principal, WebRequest webRequest) {
         String email = principal.getName();
         User user = userService.getUserOrThrow(email);
-        return ResponseEntity.ok(user);
+
+        String etag = calendarVersionService.etag(user);
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(user);
     }
 
     @PutMapping("/profile")
@@ -102,6 +127,30 @@ public class UserController {
         }
 
         userRepository.save(user);
+        calendarVersionService.bump(user.getId());
         return ResponseEntity.ok(user);
     }
+
+    // ============ ODBĚR KALENDÁŘE ============
+
+    /**
+     * Vygeneruje novou tajnou adresu odběru kalendáře (.ics).
+     * Případná předchozí adresa přestane platit.
+     */
+    @PostMapping("/feed-token")
+    public ResponseEntity<FeedTokenResponse> rotateFeedToken(java.security.Principal principal) {
+        User user = userService.getUserOrThrow(principal.getName());
+
+        String token = icsFeedService.rotateToken(user);
+        return ResponseEntity.ok(new FeedTokenResponse(token, "/api/feed/" + token + ".ics"));
+    }
+
+    /** Zruší adresu odběru kalendáře. */
+    @DeleteMapping("/feed-token")
+    public ResponseEntity<Void> revokeFeedToken(java.security.Principal principal) {
+        User user = userService.getUserOrThrow(principal.getName());
+
+        icsFeedService.revokeToken(user);
+        return ResponseEntity.noContent().build();
+    }
 }
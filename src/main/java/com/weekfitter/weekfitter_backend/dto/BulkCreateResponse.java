@@ -0,0 +1,19 @@
+package com.weekfitter.weekfitter_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Výsledek hromadného vytvoření událostí (POST /api/events/bulk).
+ *
+ * ids odpovídají pořadí událostí v požadavku.
+ */
+@Data
+@AllArgsConstructor
+public class BulkCreateResponse {
+    private int created;
+    private List<UUID> ids;
+}
@@ -0,0 +1,19 @@
+package com.weekfitter.weekfitter_backend.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Požadavek na kopírování událostí okna (POST /api/events/copy).
+ *
+ * Zkopírují se jednorázové události se začátkem v [from, to); kopie
+ * se posunou tak, aby okno začínalo v targetFrom (typicky pondělí
+ * jiného týdne).
+ */
+@Data
+public class CopyEventsRequest {
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private LocalDateTime targetFrom;
+}
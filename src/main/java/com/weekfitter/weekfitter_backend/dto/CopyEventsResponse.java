@@ -0,0 +1,14 @@
+package com.weekfitter.weekfitter_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Výsledek kopírování okna událostí – počet vytvořených událostí a notifikací.
+ */
+@Data
+@AllArgsConstructor
+public class CopyEventsResponse {
+    private int events;
+    private int notifications;
+}
@@ -0,0 +1,10 @@
+package com.weekfitter.weekfitter_backend.dto;
+
+/**
+ * Počty řádků vytvořených kopírováním okna událostí (copyWindow) –
+ * projekce nativního dotazu.
+ */
+public interface CopyWindowCounts {
+    long getEvents();
+    long getNotifications();
+}
@@ -0,0 +1,26 @@
+package com.weekfitter.weekfitter_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Odpověď delta synchronizace kalendáře (GET /api/events/changes).
+ *
+ * Obsahuje:
+ * - vytvořené a změněné události od watermarku klienta,
+ * - ID smazaných událostí (tombstony),
+ * - nový watermark, který klient pošle při příští synchronizaci,
+ * - příznak full – odpověď je kompletní snapshot a klient má lokální
+ *   kopii nahradit (první synchronizace nebo neplatný watermark).
+ */
+@Data
+@AllArgsConstructor
+public class EventChangesResponse {
+    private List<EventResponse> events;
+    private List<UUID> deleted;
+    private long watermark;
+    private boolean full;
+}
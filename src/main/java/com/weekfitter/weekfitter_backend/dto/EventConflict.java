@@ -0,0 +1,30 @@
+package com.weekfitter.weekfitter_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Dvojice překrývajících se událostí (kolize v kalendáři).
+ *
+ * U opakované série odpovídají časy konkrétnímu výskytu, ID je ID série.
+ * U kontroly nové události je eventId null.
+ */
+@Data
+@AllArgsConstructor
+public class EventConflict {
+    private UUID eventId;
+    private LocalDateTime eventStart;
+    private LocalDateTime eventEnd;
+    private UUID conflictingEventId;
+    private LocalDateTime conflictingStart;
+    private LocalDateTime conflictingEnd;
+
+    /** Kolize dvou intervalů (první je "událost", druhý ten, se kterým koliduje). */
+    public static EventConflict of(EventInterval event, EventInterval other) {
+        return new EventConflict(event.getId(), event.getStartTime(), event.getEndTime(),
+                other.getId(), other.getStartTime(), other.getEndTime());
+    }
+}
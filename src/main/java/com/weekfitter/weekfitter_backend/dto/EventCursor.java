@@ -0,0 +1,50 @@
+package com.weekfitter.weekfitter_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Pozice ve stránkovaném výpisu událostí (keyset pagination).
+ *
+ * Výpis je řazen podle dvojice (startTime, id); kurzor nese poslední
+ * vrácenou dvojici a další stránka začíná těsně za ní. Na rozdíl od
+ * OFFSET stránkování tak databáze nemusí přeskakovat již vrácené řádky.
+ *
+ * Pro klienta je kurzor neprůhledný řetězec (Base64 URL-safe).
+ */
+@Data
+@AllArgsConstructor
+public class EventCursor {
+
+    private LocalDateTime startTime;
+    private UUID id;
+
+    /** Zakóduje kurzor do neprůhledného tokenu pro klienta. */
+    public String encode() {
+        String raw = startTime + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Dekóduje token vrácený klientem.
+     *
+     * @throws IllegalArgumentException pokud token není platný kurzor
+     */
+    public static EventCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            return new EventCursor(
+                    LocalDateTime.parse(raw.substring(0, sep)),
+                    UUID.fromString(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Neplatný kurzor stránkování.");
+        }
+    }
+}
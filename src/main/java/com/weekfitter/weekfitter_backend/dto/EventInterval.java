@@ -0,0 +1,48 @@
+package com.weekfitter.weekfitter_backend.dto;
+
+import com.weekfitter.weekfitter_backend.model.CalendarEvent;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Časový interval jedné události pro index překryvů.
+ *
+ * Obsahuje jen data potřebná k detekci kolizí – vzniká přímo v JPQL
+ * dotazu (constructor expression) nebo z uložené entity.
+ *
+ * U opakované série nese pravidlo a výjimky; výskyty série vzniknou
+ * kopií s posunutým začátkem a koncem (viz atOccurrence).
+ */
+@Data
+@AllArgsConstructor
+public class EventInterval {
+    private UUID id;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private boolean allDay;
+    private String recurrenceRule;
+    private String recurrenceExceptions;
+
+    /** Interval uložené události (null, pokud událost nemá začátek nebo konec). */
+    public static EventInterval of(CalendarEvent e) {
+        if (e.getStartTime() == null || e.getEndTime() == null) return null;
+        return new EventInterval(e.getId(), e.getStartTime(), e.getEndTime(), e.isAllDay(),
+                e.getRecurrenceRule(), e.getRecurrenceExceptions());
+    }
+
+    /** Je interval opakovanou sérií? */
+    public boolean isSeries() {
+        return recurrenceRule != null;
+    }
+
+    /** Kopie intervalu série pro výskyt začínající v occurrenceStart. */
+    public EventInterval atOccurrence(LocalDateTime occurrenceStart) {
+        return new EventInterval(id, occurrenceStart,
+                occurrenceStart.plus(Duration.between(startTime, endTime)),
+                allDay, recurrenceRule, recurrenceExceptions);
+    }
+}
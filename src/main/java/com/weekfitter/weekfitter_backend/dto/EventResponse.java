@@ -0,0 +1,130 @@
+package com.weekfitter.weekfitter_backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.weekfitter.weekfitter_backend.model.ActivityType;
+import com.weekfitter.weekfitter_backend.model.CalendarEvent;
+import com.weekfitter.weekfitter_backend.model.SportType;
+import com.weekfitter.weekfitter_backend.service.recurrence.RecurrenceRule;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO jedné události v kalendáři, jak ji vrací API.
+ *
+ * Kromě polí entity CalendarEvent obsahuje seznam offsetů notifikací
+ * (v minutách před začátkem události).
+ *
+ * Konstruktor bez notifikací slouží pro JPQL constructor expression –
+ * DTO tak vzniká přímo z výsledku dotazu bez načítání entit do
+ * persistence contextu. Offsety se doplňují dodatečně hromadným dotazem.
+ *
+ * U opakované série nese DTO pravidlo a výjimky. Pokud jde o konkrétní
+ * výskyt rozbalený pro časové okno, obsahuje recurrenceId (původní začátek
+ * výskytu) a startTime/endTime daného výskytu; id zůstává ID série.
+ */
+@Data
+@NoArgsConstructor
+public class EventResponse {
+    private UUID id;
+    private String title;
+    private String description;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private ActivityType category;
+    private SportType sportType;
+    private Boolean allDay;
+    private Double duration;
+    private Double distance;
+    private String sportDescription;
+    private String filePath;
+    private String recurrenceRule;
+    private List<LocalDate> recurrenceExceptions;
+    private LocalDateTime recurrenceId;
+    private List<Integer> notifications;
+
+    /** Konstruktor pro projekční dotazy (SELECT new ...EventResponse(...)). */
+    public EventResponse(
+            UUID id,
+            String title,
+            String description,
+            LocalDateTime startTime,
+            LocalDateTime endTime,
+            ActivityType category,
+            SportType sportType,
+            boolean allDay,
+            Double duration,
+            Double distance,
+            String sportDescription,
+            String filePath,
+            String recurrenceRule,
+            String recurrenceExceptions
+    ) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.category = category;
+        this.sportType = sportType;
+        this.allDay = allDay;
+        this.duration = duration;
+        this.distance = distance;
+        this.sportDescription = sportDescription;
+        this.filePath = filePath;
+        this.recurrenceRule = recurrenceRule;
+        this.recurrenceExceptions = recurrenceRule == null
+                ? null
+                : new ArrayList<>(RecurrenceRule.parseExceptions(recurrenceExceptions));
+    }
+
+    /** Převede načtenou entitu na DTO (cesta přes entity – např. po uložení). */
+    public static EventResponse fromEntity(CalendarEvent e, List<Integer> notifications) {
+        EventResponse r = new EventResponse(
+                e.getId(),
+                e.getTitle(),
+                e.getDescription(),
+                e.getStartTime(),
+                e.getEndTime(),
+                e.getCategory(),
+                e.getSportType(),
+                e.isAllDay(),
+                e.getDuration(),
+                e.getDistance(),
+                e.getSportDescription(),
+                e.getFilePath(),
+                e.getRecurrenceRule(),
+                e.getRecurrenceExceptions());
+        r.setNotifications(notifications);
+        return r;
+    }
+
+    /** Je DTO opakovanou sérií (nerozbalenou)? */
+    @JsonIgnore
+    public boolean isSeries() {
+        return recurrenceRule != null && recurrenceId == null;
+    }
+
+    /**
+     * Kopie DTO série pro jeden konkrétní výskyt.
+     *
+     * @param occurrenceStart začátek výskytu
+     */
+    public EventResponse toOccurrence(LocalDateTime occurrenceStart) {
+        EventResponse o = new EventResponse(id, title, description, occurrenceStart,
+                occurrenceStart.plus(Duration.between(startTime, endTime)),
+                category, sportType, Boolean.TRUE.equals(allDay), duration, distance,
+                sportDescription, filePath, null, null);
+        o.setRecurrenceRule(recurrenceRule);
+        o.setRecurrenceExceptions(recurrenceExceptions);
+        o.setRecurrenceId(occurrenceStart);
+        o.setNotifications(notifications);
+        return o;
+    }
+}
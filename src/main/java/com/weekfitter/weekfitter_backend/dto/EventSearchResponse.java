@@ -0,0 +1,20 @@
+package com.weekfitter.weekfitter_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Stránka výsledků vyhledávání událostí.
+ *
+ * Obsahuje:
+ * - události seřazené podle relevance (a novější dřív),
+ * - kurzor další stránky (null = poslední stránka).
+ */
+@Data
+@AllArgsConstructor
+public class EventSearchResponse {
+    private List<EventResponse> events;
+    private String nextCursor;
+}
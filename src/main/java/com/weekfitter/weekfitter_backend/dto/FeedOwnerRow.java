@@ -0,0 +1,19 @@
+package com.weekfitter.weekfitter_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.UUID;
+
+/**
+ * Vlastník adresy odběru kalendáře a aktuální verze jeho dat.
+ *
+ * Vzniká přímo v JPQL dotazu (constructor expression) – pro ověření,
+ * zda je uložený feed aktuální, se nenačítá celá entita User.
+ */
+@Data
+@AllArgsConstructor
+public class FeedOwnerRow {
+    private UUID userId;
+    private long calendarVersion;
+}
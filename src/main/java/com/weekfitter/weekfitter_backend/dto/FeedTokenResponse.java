@@ -0,0 +1,18 @@
+package com.weekfitter.weekfitter_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Odpověď po vygenerování adresy odběru kalendáře.
+ *
+ * Obsahuje:
+ * - tajný token,
+ * - cestu feedu (relativní k API), kterou si uživatel vloží do kalendářové aplikace.
+ */
+@Data
+@AllArgsConstructor
+public class FeedTokenResponse {
+    private String token;
+    private String path;
+}
@@ -0,0 +1,21 @@
+package com.weekfitter.weekfitter_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Volný časový úsek v kalendáři, do kterého se vejde požadovaná aktivita.
+ *
+ * Úsek může být delší než požadovaná délka – aktivitu lze umístit
+ * kamkoliv mezi start a end. dayBusyMinutes je obsazenost pracovního
+ * okna daného dne (slouží k řazení – preferují se méně vytížené dny).
+ */
+@Data
+@AllArgsConstructor
+public class FreeSlot {
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private long dayBusyMinutes;
+}
@@ -0,0 +1,46 @@
+package com.weekfitter.weekfitter_backend.dto;
+
+import com.weekfitter.weekfitter_backend.model.ActivityType;
+import com.weekfitter.weekfitter_backend.model.NotificationType;
+import com.weekfitter.weekfitter_backend.model.SportType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Jeden řádek exportu kalendáře do iCalendar – událost spojená s jednou
+ * svou notifikací (LEFT JOIN, u události bez notifikací je notifyAt null).
+ *
+ * Řádky jedné události jdou v dotazu za sebou; exportér je seskupí
+ * do jednoho VEVENT s alarmy (VALARM).
+ */
+@Data
+@AllArgsConstructor
+public class IcsEventRow {
+    private UUID id;
+    private String title;
+    private String description;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private boolean allDay;
+    private ActivityType category;
+    private SportType sportType;
+    private Double distance;
+    private String recurrenceRule;
+    private String recurrenceExceptions;
+    private LocalDateTime notifyAt;
+    private NotificationType notificationType;
+
+    /**
+     * Offset notifikace řádku v minutách před začátkem (null bez notifikace).
+     * Standardní offset se bere z typu – u série míří notifikace na pozdější výskyt.
+     */
+    public Integer notificationOffset() {
+        if (notificationType != null) return notificationType.getMinutesBefore();
+        if (notifyAt == null || startTime == null || notifyAt.isAfter(startTime)) return null;
+        return (int) Duration.between(notifyAt, startTime).toMinutes();
+    }
+}
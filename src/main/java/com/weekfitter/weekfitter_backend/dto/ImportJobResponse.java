@@ -0,0 +1,33 @@
+package com.weekfitter.weekfitter_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Stav importu kalendáře (.ics) pro dotazování klienta.
+ *
+ * Obsahuje:
+ * - stav úlohy (QUEUED, RUNNING, DONE, FAILED),
+ * - průběh podle přečtených bajtů souboru,
+ * - počty přečtených, uložených, přeskočených a zjednodušených událostí
+ *   (zjednodušená = nepodporované opakování, uložen jen první výskyt),
+ * - chybovou zprávu u neúspěšného importu (dříve uložené dávky zůstávají).
+ */
+@Data
+@AllArgsConstructor
+public class ImportJobResponse {
+    private UUID id;
+    private String status;
+    private long totalBytes;
+    private long bytesRead;
+    private int read;
+    private int imported;
+    private int skipped;
+    private int simplified;
+    private String error;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
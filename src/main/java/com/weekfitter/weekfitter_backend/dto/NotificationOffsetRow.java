@@ -0,0 +1,27 @@
+package com.weekfitter.weekfitter_backend.dto;
+
+import com.weekfitter.weekfitter_backend.model.NotificationType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Odlehčený řádek notifikace pro hromadné načítání offsetů.
+ *
+ * Obsahuje pouze:
+ * - ID události, ke které notifikace patří,
+ * - čas odeslání notifikace (notifyAt),
+ * - typ notifikace (offset v minutách; null u nestandardního offsetu).
+ *
+ * Vzniká přímo v JPQL dotazu (constructor expression), takže se
+ * nenačítají celé entity Notification ani jejich vazby.
+ */
+@Data
+@AllArgsConstructor
+public class NotificationOffsetRow {
+    private UUID eventId;
+    private LocalDateTime notifyAt;
+    private NotificationType notificationType;
+}
@@ -0,0 +1,61 @@
+package com.weekfitter.weekfitter_backend.dto;
+
+import com.weekfitter.weekfitter_backend.model.ActivityType;
+import com.weekfitter.weekfitter_backend.model.SportType;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Požadavek automatického naplánování týdne (POST /api/events/plan-week).
+ *
+ * Obsahuje seznam požadovaných tréninků a pravidla jejich rozmístění.
+ * Nevyplněná pravidla mají rozumné výchozí hodnoty.
+ */
+@Data
+public class PlanWeekRequest {
+
+    /** Intenzita tréninku – dva náročné tréninky nesmí být v po sobě jdoucích dnech. */
+    public enum Intensity { EASY, HARD }
+
+    /** Preferovaná část dne. */
+    public enum TimeOfDay { MORNING, MIDDAY, EVENING, ANY }
+
+    /** Jeden požadovaný trénink. */
+    @Data
+    public static class Workout {
+        private String title;
+        private SportType sportType;
+        /** Délka v minutách (povinná). */
+        private Integer duration;
+        private Double distance;
+        private Intensity intensity = Intensity.EASY;
+        /** Offsety notifikací v minutách (volitelné). */
+        private List<Integer> notifications;
+    }
+
+    /** Libovolný den plánovaného týdne (plánuje se pondělí–neděle). */
+    private LocalDate weekStart;
+
+    private List<Workout> workouts;
+
+    /** Zákaz dvou náročných tréninků ve stejný nebo následující den. */
+    private boolean noConsecutiveHardDays = true;
+
+    /** Minimální odstup mezi plánovanými tréninky v minutách. */
+    private int minRestGapMinutes = 8 * 60;
+
+    /** Nejvyšší počet plánovaných tréninků v jednom dni. */
+    private int maxPerDay = 1;
+
+    private TimeOfDay preferredTimeOfDay = TimeOfDay.ANY;
+
+    /** Pracovní okno dne (null = výchozí z konfigurace). */
+    private LocalTime dayStart;
+    private LocalTime dayEnd;
+
+    /** Kategorie vytvořených událostí. */
+    private ActivityType category = ActivityType.SPORT;
+}
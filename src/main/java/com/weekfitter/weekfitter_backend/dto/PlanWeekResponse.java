@@ -0,0 +1,24 @@
+package com.weekfitter.weekfitter_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Výsledek automatického naplánování týdne.
+ *
+ * - events: naplánované (případně už vytvořené) tréninky,
+ * - unplaced: pořadí tréninků z požadavku, které se do týdne nevešly,
+ * - optimal: false, pokud hledání ukončil časový limit (výsledek je
+ *   nejlepší nalezený, ne nutně optimální),
+ * - created: false u zkušebního běhu (dryRun) – nic se neuložilo.
+ */
+@Data
+@AllArgsConstructor
+public class PlanWeekResponse {
+    private List<EventResponse> events;
+    private List<Integer> unplaced;
+    private boolean optimal;
+    private boolean created;
+}
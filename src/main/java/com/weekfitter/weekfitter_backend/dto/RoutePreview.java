@@ -0,0 +1,37 @@
+package com.weekfitter.weekfitter_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Náhled trasy připojené k události (GPX/TCX) – souhrnné hodnoty
+ * a zjednodušená lomená čára pro mapu.
+ *
+ * polylines obsahuje jednu čáru v kódování Google Encoded Polyline
+ * (přesnost 1e-5) pro každý úsek trasy, bounds ohraničují celou trasu. Ukládá se i jako soubor vedle trasy,
+ * proto má bezparametrický konstruktor pro Jackson.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoutePreview {
+    /** Délka trasy v metrech. */
+    private double distanceMeters;
+    /** Součet stoupání v metrech. */
+    private double elevationGainMeters;
+    /** Čas v pohybu v sekundách (0, pokud trasa nemá časy). */
+    private long movingTimeSeconds;
+    /** Počet bodů původní trasy. */
+    private int pointCount;
+    /** Počet bodů zjednodušené čáry. */
+    private int previewPointCount;
+    /** Zjednodušené čáry jednotlivých úseků trasy. */
+    private List<String> polylines;
+    private double minLat;
+    private double minLon;
+    private double maxLat;
+    private double maxLon;
+}
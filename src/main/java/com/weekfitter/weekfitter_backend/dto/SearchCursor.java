@@ -0,0 +1,52 @@
+package com.weekfitter.weekfitter_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Pozice ve stránkovaných výsledcích vyhledávání (keyset pagination).
+ *
+ * Výsledky jsou řazeny sestupně podle (rank, startTime, id); kurzor nese
+ * poslední vrácenou trojici. Rank je float4 z databáze – v tokenu se
+ * přenáší přesně (bitově), aby porovnání v dalším dotazu sedělo.
+ *
+ * Pro klienta je kurzor neprůhledný řetězec (Base64 URL-safe).
+ */
+@Data
+@AllArgsConstructor
+public class SearchCursor {
+
+    private float rank;
+    private LocalDateTime startTime;
+    private UUID id;
+
+    /** Zakóduje kurzor do neprůhledného tokenu pro klienta. */
+    public String encode() {
+        String raw = Integer.toHexString(Float.floatToIntBits(rank)) + "|" + startTime + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Dekóduje token vrácený klientem.
+     *
+     * @throws IllegalArgumentException pokud token není platný kurzor
+     */
+    public static SearchCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            return new SearchCursor(
+                    Float.intBitsToFloat(Integer.parseUnsignedInt(parts[0], 16)),
+                    LocalDateTime.parse(parts[1]),
+                    UUID.fromString(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Neplatný kurzor stránkování.");
+        }
+    }
+}
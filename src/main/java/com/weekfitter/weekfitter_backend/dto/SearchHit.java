@@ -0,0 +1,15 @@
+package com.weekfitter.weekfitter_backend.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Řádek výsledku fulltextového dotazu – ID události, relevance a začátek
+ * (klíč řazení a kurzoru). Projekce nativního dotazu, data události
+ * se dočítají zvlášť.
+ */
+public interface SearchHit {
+    UUID getId();
+    Float getRank();
+    LocalDateTime getStartTime();
+}
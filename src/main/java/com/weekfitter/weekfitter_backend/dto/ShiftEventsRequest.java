@@ -0,0 +1,21 @@
+package com.weekfitter.weekfitter_backend.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Požadavek na hromadný posun událostí (POST /api/events/shift).
+ *
+ * Události se vybírají buď seznamem ids, nebo oknem [from, to) podle
+ * začátku události. Posun je v minutách (záporný = dříve).
+ */
+@Data
+public class ShiftEventsRequest {
+    private List<UUID> ids;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private Integer deltaMinutes;
+}
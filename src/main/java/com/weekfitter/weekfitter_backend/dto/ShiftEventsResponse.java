@@ -0,0 +1,18 @@
+package com.weekfitter.weekfitter_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Výsledek hromadného posunu událostí – ID skutečně posunutých událostí
+ * (cizí ID a opakované série se neposouvají).
+ */
+@Data
+@AllArgsConstructor
+public class ShiftEventsResponse {
+    private int shifted;
+    private List<UUID> ids;
+}
@@ -0,0 +1,17 @@
+package com.weekfitter.weekfitter_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Název události a počet událostí uživatele s tímto názvem.
+ *
+ * Vzniká přímo v JPQL dotazu (constructor expression) při sestavení
+ * indexu pro doplňování názvů.
+ */
+@Data
+@AllArgsConstructor
+public class TitleCountRow {
+    private String title;
+    private long count;
+}
@@ -0,0 +1,15 @@
+package com.weekfitter.weekfitter_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Návrh názvu pro rychlé zakládání události – název a počet událostí,
+ * které ho už nesou.
+ */
+@Data
+@AllArgsConstructor
+public class TitleSuggestion {
+    private String title;
+    private int count;
+}
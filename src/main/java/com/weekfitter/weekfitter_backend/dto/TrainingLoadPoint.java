@@ -0,0 +1,26 @@
+package com.weekfitter.weekfitter_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Tréninková zátěž jednoho dne (GET /api/stats/load).
+ *
+ * - load: zátěž dne (minuty tréninku),
+ * - acute: exponenciálně vážený průměr za 7 dní (únava),
+ * - chronic: exponenciálně vážený průměr za 42 dní (kondice),
+ * - rampRate: změna chronic za posledních 7 dní,
+ * - acuteChronicRatio: acute / chronic (null, dokud je chronic nulové).
+ */
+@Data
+@AllArgsConstructor
+public class TrainingLoadPoint {
+    private LocalDate date;
+    private double load;
+    private double acute;
+    private double chronic;
+    private double rampRate;
+    private Double acuteChronicRatio;
+}
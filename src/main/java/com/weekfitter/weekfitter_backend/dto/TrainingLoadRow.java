@@ -0,0 +1,55 @@
+package com.weekfitter.weekfitter_backend.dto;
+
+import com.weekfitter.weekfitter_backend.model.CalendarEvent;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Data jedné sportovní události potřebná pro výpočet tréninkové zátěže.
+ *
+ * Vzniká přímo v JPQL dotazu (constructor expression) nebo z uložené entity.
+ * U opakované série nese pravidlo a výjimky – zátěž se počítá pro každý výskyt.
+ */
+@Data
+@AllArgsConstructor
+public class TrainingLoadRow {
+
+    /** Odhad tempa pro události se vzdáleností, ale bez zadané délky (min/km). */
+    private static final double MINUTES_PER_KM = 6.0;
+
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private Double duration;
+    private Double distance;
+    private String recurrenceRule;
+    private String recurrenceExceptions;
+
+    /** Řádek uložené události (null, pokud událost nemá začátek). */
+    public static TrainingLoadRow of(CalendarEvent e) {
+        if (e.getStartTime() == null) return null;
+        return new TrainingLoadRow(e.getStartTime(), e.getEndTime(), e.getDuration(), e.getDistance(),
+                e.getRecurrenceRule(), e.getRecurrenceExceptions());
+    }
+
+    /** Je řádek opakovanou sérií? */
+    public boolean isSeries() {
+        return recurrenceRule != null;
+    }
+
+    /**
+     * Zátěž jednoho tréninku v minutách.
+     *
+     * Přednost má zadané duration. Bez něj se u tréninku se vzdáleností délka
+     * odhadne z ní (konec by byl jen výchozí hodina), jinak se použije
+     * rozdíl začátku a konce.
+     */
+    public double load() {
+        if (duration != null && duration > 0) return duration;
+        if (distance != null && distance > 0) return distance * MINUTES_PER_KM;
+        if (startTime == null || endTime == null || endTime.isBefore(startTime)) return 0;
+        return Duration.between(startTime, endTime).getSeconds() / 60.0;
+    }
+}
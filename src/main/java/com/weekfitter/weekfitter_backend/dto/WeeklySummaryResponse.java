@@ -0,0 +1,23 @@
+package com.weekfitter.weekfitter_backend.dto;
+
+import com.weekfitter.weekfitter_backend.model.SportType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Týdenní souhrn tréninků jednoho sportu pro dashboard (GET /api/stats/weekly).
+ *
+ * weekStart je pondělí ISO týdne, vzdálenost je v kilometrech,
+ * doba trvání v minutách.
+ */
+@Data
+@AllArgsConstructor
+public class WeeklySummaryResponse {
+    private LocalDate weekStart;
+    private SportType sportType;
+    private double totalDistance;
+    private double totalDuration;
+    private int sessionCount;
+}
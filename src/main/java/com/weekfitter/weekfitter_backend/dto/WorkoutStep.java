@@ -0,0 +1,33 @@
+package com.weekfitter.weekfitter_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Krok strukturovaného tréninku (z exportu Garmin Connect).
+ *
+ * Běžný krok má typ (warmup, main, rest, cooldown…), podmínku ukončení
+ * (distance, time, lap.button…) a její hodnotu – metry u vzdálenosti,
+ * sekundy u času. Opakovaný blok má typ "repeat", počet opakování
+ * a vnořené kroky.
+ */
+@Data
+@AllArgsConstructor
+public class WorkoutStep {
+    private String type;
+    private String endCondition;
+    private Double endConditionValue;
+    private String description;
+    /** Počet opakování (jen u bloku "repeat"). */
+    private Integer iterations;
+    /** Vynechat odpočinek po posledním opakování (jen u bloku "repeat"). */
+    private boolean skipLastRest;
+    /** Vnořené kroky (jen u bloku "repeat"), jinak prázdný seznam. */
+    private List<WorkoutStep> steps;
+
+    public boolean isRepeat() {
+        return iterations != null;
+    }
+}
@@ -0,0 +1,26 @@
+package com.weekfitter.weekfitter_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Souhrn strukturovaného tréninku připojeného k události (JSON export
+ * z Garmin Connect) – kroky a odhad vzdálenosti a délky.
+ *
+ * Instance se sdílí mezi všemi událostmi se stejným souborem (cache podle
+ * obsahu), proto se po vytvoření nemění.
+ */
+@Data
+@AllArgsConstructor
+public class WorkoutSummary {
+    private String name;
+    /** Sport podle Garminu (swimming, running, cycling…). */
+    private String sport;
+    private List<WorkoutStep> steps;
+    /** Odhad vzdálenosti v metrech. */
+    private double distanceMeters;
+    /** Odhad délky v sekundách. */
+    private long durationSeconds;
+}
@@ -0,0 +1,41 @@
+package com.weekfitter.weekfitter_backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Aplikační událost (Spring ApplicationEvent) oznamující změnu kalendáře uživatele.
+ *
+ * Publikuje se při každé změně událostí nebo jejich notifikací
+ * (vytvoření, úprava, smazání, přepočet notifikací).
+ *
+ * Na událost reagují komponenty, které drží odvozená data kalendáře
+ * (např. cache výpisu událostí) a potřebují je zneplatnit, a také
+ * verzování dat pro podmíněné požadavky a delta synchronizaci.
+ */
+@Getter
+@AllArgsConstructor
+public class CalendarChangedEvent {
+
+    /** ID uživatele, jehož kalendář se změnil. */
+    private final UUID userId;
+
+    /**
+     * ID existujících událostí, jejichž data se změnila (včetně notifikací).
+     * Smazané události sem nepatří – za ně se zapisuje tombstone.
+     */
+    private final Set<UUID> eventIds;
+
+    /** Změna bez vazby na konkrétní existující událost (např. smazání). */
+    public CalendarChangedEvent(UUID userId) {
+        this(userId, Set.of());
+    }
+
+    /** Změna jedné konkrétní události. */
+    public static CalendarChangedEvent forEvent(UUID userId, UUID eventId) {
+        return new CalendarChangedEvent(userId, Set.of(eventId));
+    }
+}
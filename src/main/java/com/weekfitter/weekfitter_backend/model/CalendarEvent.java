@@ -16,13 +16,28 @@ import java.util.*;
  * Událost je v databázi navázaná na konkrétního uživatele (ManyToOne)
  * a může mít přiřazené notifikace (OneToMany), které se automaticky smažou
  * při odstranění události.
+ *
+ * Složený index (user_id, start_time) slouží dotazům na časové okno
+ * (např. týdenní pohled) – databáze prochází jen události daného uživatele
+ * v okolí požadovaného intervalu, nikoliv celou jeho historii.
+ * Index (user_id, change_version) slouží delta synchronizaci.
+ *
+ * Opakovaná událost (série) je uložena jako jediný řádek s pravidlem
+ * opakování – jednotlivé výskyty se dopočítávají až pro požadované okno
+ * (viz RecurrenceRule).
  */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "calendar_events")
+@Table(
+        name = "calendar_events",
+        indexes = {
+                @Index(name = "idx_calendar_events_user_start", columnList = "user_id, start_time"),
+                @Index(name = "idx_calendar_events_user_version", columnList = "user_id, change_version")
+        }
+)
 public class CalendarEvent {
 
     /** Primární klíč – jednoznačný identifikátor události. */
@@ -76,6 +91,39 @@ public class CalendarEvent {
     @Column(name = "file_path")
     private String filePath;
 
+    /**
+     * Pravidlo opakování ve tvaru RRULE (např. "FREQ=WEEKLY;BYDAY=MO,WE;COUNT=20").
+     * Null u jednorázové události.
+     */
+    @Column(name = "recurrence_rule")
+    private String recurrenceRule;
+
+    /** Data vynechaných výskytů série oddělená čárkou (ISO formát yyyy-MM-dd). */
+    @Column(name = "recurrence_exceptions", columnDefinition = "text")
+    private String recurrenceExceptions;
+
+    /**
+     * Konec posledního výskytu série – počítá se při ukládání z pravidla.
+     * Null u nekonečné série i u jednorázové události.
+     *
+     * Slouží k výběru sérií zasahujících do časového okna bez jejich rozbalení.
+     */
+    @Column(name = "recurrence_end")
+    private LocalDateTime recurrenceEnd;
+
+    /**
+     * Verze dat uživatele, ve které byla událost naposledy změněna
+     * (včetně změn jejích notifikací).
+     *
+     * Nastavuje se výhradně UPDATE dotazem po zvýšení verze uživatele
+     * (CalendarVersionService), Hibernate ji proto nezapisuje.
+     * Slouží delta synchronizaci (GET /api/events/changes).
+     */
+    @JsonIgnore
+    @Column(name = "change_version", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "bigint default 0")
+    private long changeVersion;
+
     /**
      * Vazba na uživatele, kterému tato událost patří.
      *
@@ -121,6 +169,11 @@ public class CalendarEvent {
         }
     }
 
+    /** Je událost opakovanou sérií? */
+    public boolean isRecurring() {
+        return recurrenceRule != null;
+    }
+
     // ==========================
     // Pomocné metody manipulace
     // ==========================
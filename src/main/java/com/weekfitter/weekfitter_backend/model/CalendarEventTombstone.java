@@ -0,0 +1,50 @@
+package com.weekfitter.weekfitter_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Záznam o smazané události (tombstone) pro delta synchronizaci kalendáře.
+ *
+ * Klient, který drží lokální kopii kalendáře, se při synchronizaci
+ * dozví nejen o nových a změněných událostech, ale i o smazaných –
+ * podle tombstonů s verzí vyšší než jeho poslední watermark.
+ *
+ * Vazby jsou uložené jako prosté ID: událost už neexistuje a tombstone
+ * se načítá výhradně podle uživatele a verze.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(
+        name = "calendar_event_tombstones",
+        indexes = @Index(name = "idx_tombstones_user_version", columnList = "user_id, change_version")
+)
+public class CalendarEventTombstone {
+
+    /** Primární klíč záznamu. */
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private UUID id;
+
+    /** ID smazané události. */
+    @Column(name = "event_id", nullable = false)
+    private UUID eventId;
+
+    /** ID uživatele, z jehož kalendáře událost zmizela. */
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    /** Verze dat uživatele, ve které ke smazání došlo. */
+    @Column(name = "change_version", nullable = false)
+    private long changeVersion;
+
+    /** Čas smazání. */
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+}
@@ -17,7 +17,9 @@ import java.util.UUID;
  * - identifikační údaje (jméno, příjmení, e-mail),
  * - přihlašovací údaje (heslo – hash),
  * - volitelné osobní údaje (pohlaví, datum narození, profilové foto),
- * - informace potřebné pro proces obnovy hesla (reset token + expirace).
+ * - informace potřebné pro proces obnovy hesla (reset token + expirace),
+ * - tajný token odběru kalendáře (iCalendar feed),
+ * - verzi dat pro podmíněné požadavky (ETag).
  *
  * Objekt je perzistován v tabulce "users" a slouží jako hlavní model
  * pro autentizaci a práci s profilem uživatele.
@@ -92,4 +94,38 @@ public class User {
     @Column(name = "token_expiration")
     private LocalDateTime tokenExpiration;
 
+    /**
+     * Tajný token adresy odběru kalendáře (/api/feed/{token}.ics).
+     * - kalendářové aplikace neumí poslat JWT, token je jediné ověření,
+     * - null = odběr vypnutý; při přegenerování přestane platit stará adresa.
+     */
+    @JsonIgnore
+    @Column(name = "feed_token", unique = true, length = 64)
+    private String feedToken;
+
+    /**
+     * Verze dat uživatele (kalendář a profil).
+     *
+     * - monotónně roste při každé změně událostí, notifikací nebo profilu,
+     * - slouží jako ETag pro podmíněné GET požadavky (If-None-Match → 304),
+     * - zvyšuje se výhradně atomickým UPDATE v databázi (UserRepository),
+     *   proto ji Hibernate při ukládání entity nikdy nepřepisuje.
+     */
+    @JsonIgnore
+    @Column(name = "calendar_version", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "bigint default 0")
+    private long calendarVersion;
+
+    /**
+     * Nejvyšší verze smazaných tombstonů (retence delta synchronizace).
+     *
+     * - klient s watermarkem nižším než tato verze se už nemusí dozvědět
+     *   o všech smazaných událostech, dostane proto celý snapshot,
+     * - mění se výhradně atomickým UPDATE v databázi při mazání tombstonů.
+     */
+    @JsonIgnore
+    @Column(name = "tombstones_pruned_version", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "bigint default 0")
+    private long tombstonesPrunedVersion;
+
 }
@@ -0,0 +1,65 @@
+package com.weekfitter.weekfitter_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Průběžně udržovaný týdenní souhrn tréninků uživatele pro jeden sport.
+ *
+ * Klíčem je (uživatel, ISO týden, sport); týden je určen svým pondělím.
+ * Řádek se neaktualizuje přepočtem, ale přičtením rozdílu při každém
+ * vytvoření, úpravě a smazání sportovní události (WeeklySummaryService).
+ * Dashboard tak čte desítky řádků místo tisíců událostí.
+ *
+ * Jednorázové události bez sportu se nezapočítávají, opakované série se
+ * dopočítávají až při čtení (jejich výskyty se nematerializují).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(
+        name = "weekly_training_summary",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_weekly_summary_user_week_sport",
+                columnNames = {"user_id", "week_start", "sport_type"})
+)
+public class WeeklyTrainingSummary {
+
+    /** Primární klíč záznamu. */
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private UUID id;
+
+    /**
+     * ID uživatele (vlastníka událostí). Cizí klíč s ON DELETE CASCADE
+     * přidává schema.sql – souhrny smazaného uživatele nezůstanou.
+     */
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    /** Pondělí ISO týdne. */
+    @Column(name = "week_start", nullable = false)
+    private LocalDate weekStart;
+
+    /** Sport, za který se souhrn počítá. */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "sport_type", nullable = false)
+    private SportType sportType;
+
+    /** Celková vzdálenost v kilometrech. */
+    @Column(name = "total_distance", nullable = false)
+    private double totalDistance;
+
+    /** Celková doba trvání v minutách. */
+    @Column(name = "total_duration", nullable = false)
+    private double totalDuration;
+
+    /** Počet tréninků. */
+    @Column(name = "session_count", nullable = false)
+    private int sessionCount;
+}
@@ -1,11 +1,29 @@
 package com.weekfitter.weekfitter_backend.repository;
 
+import com.weekfitter.weekfitter_backend.dto.CopyWindowCounts;
+import com.weekfitter.weekfitter_backend.dto.EventInterval;
+import com.weekfitter.weekfitter_backend.dto.EventResponse;
+import com.weekfitter.weekfitter_backend.dto.IcsEventRow;
+import com.weekfitter.weekfitter_backend.dto.SearchHit;
+import com.weekfitter.weekfitter_backend.dto.TitleCountRow;
+import com.weekfitter.weekfitter_backend.dto.TrainingLoadRow;
+import com.weekfitter.weekfitter_backend.model.ActivityType;
 import com.weekfitter.weekfitter_backend.model.CalendarEvent;
 import com.weekfitter.weekfitter_backend.model.User;
+import org.springframework.data.domain.Limit;
+import jakarta.persistence.QueryHint;
+import jakarta.transaction.Transactional;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.stream.Stream;
 
 /**
  * Repository rozhraní pro práci s entitou CalendarEvent.
@@ -17,7 +35,8 @@ import java.util.*;
  * - smazat (delete),
  * - a další utility metody.
  *
- * Dále obsahuje vlastní dotazovou metodu pro načtení událostí konkrétního uživatele.
+ * Dále obsahuje vlastní dotazové metody pro načtení událostí konkrétního uživatele
+ * (celé historie nebo jen zadaného časového okna).
  */
 @Repository
 public interface CalendarEventRepository extends JpaRepository<CalendarEvent, UUID> {
@@ -32,4 +51,307 @@ public interface CalendarEventRepository extends JpaRepository<CalendarEvent, UU
      * @return seznam událostí uživatele
      */
     List<CalendarEvent> findByUser(User user);
+
+    /**
+     * Společná SELECT část projekčních dotazů.
+     *
+     * DTO EventResponse vzniká přímo v dotazu (constructor expression) –
+     * nevytváří se spravované entity, líné proxy uživatele ani snapshoty
+     * pro dirty checking.
+     */
+    String EVENT_RESPONSE_SELECT =
+            "SELECT new com.weekfitter.weekfitter_backend.dto.EventResponse(" +
+            "e.id, e.title, e.description, e.startTime, e.endTime, e.category, e.sportType, " +
+            "e.allDay, e.duration, e.distance, e.sportDescription, e.filePath, " +
+            "e.recurrenceRule, e.recurrenceExceptions) " +
+            "FROM CalendarEvent e ";
+
+    /** Projekce všech událostí uživatele (bez hydratace entit). */
+    @Query(EVENT_RESPONSE_SELECT +
+           "WHERE e.user.id = :userId " +
+           "ORDER BY e.startTime")
+    List<EventResponse> findResponsesByUserId(@Param("userId") UUID userId);
+
+    /** Projekce jedné události, pokud patří danému uživateli. */
+    @Query(EVENT_RESPONSE_SELECT +
+           "WHERE e.id = :id AND e.user.id = :userId")
+    Optional<EventResponse> findResponseByIdAndUserId(@Param("id") UUID id, @Param("userId") UUID userId);
+
+    /**
+     * Projekce jednorázových událostí uživatele, které se alespoň částečně překrývají
+     * s oknem [from, to). Opakované série vrací findSeriesByUserIdInRange.
+     *
+     * Překryv: start_time < :to AND end_time > :from.
+     *
+     * Podmínka start_time >= :earliestStart je pouze pomocná spodní mez pro index
+     * (user_id, start_time) – bez ní by databáze musela projít všechny starší události
+     * uživatele, protože samotné end_time > :from index nevyužije.
+     *
+     * @param userId        ID vlastníka událostí
+     * @param from          začátek okna (včetně)
+     * @param to            konec okna (bez)
+     * @param earliestStart nejstarší možný začátek události, která může do okna zasahovat
+     * @return události seřazené podle začátku
+     */
+    @Query(EVENT_RESPONSE_SELECT +
+           "WHERE e.user.id = :userId " +
+           "AND e.startTime >= :earliestStart " +
+           "AND e.startTime < :to " +
+           "AND e.endTime > :from " +
+           "AND e.recurrenceRule IS NULL " +
+           "ORDER BY e.startTime")
+    List<EventResponse> findResponsesByUserIdInRange(
+            @Param("userId") UUID userId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("earliestStart") LocalDateTime earliestStart);
+
+    /**
+     * Projekce opakovaných sérií uživatele, jejichž výskyty mohou zasahovat do okna [from, to).
+     *
+     * Série začíná před koncem okna a její poslední výskyt končí po začátku okna
+     * (recurrence_end je null u nekonečné série). Výskyty se rozbalují až v aplikaci.
+     */
+    @Query(EVENT_RESPONSE_SELECT +
+           "WHERE e.user.id = :userId " +
+           "AND e.recurrenceRule IS NOT NULL " +
+           "AND e.startTime < :to " +
+           "AND (e.recurrenceEnd IS NULL OR e.recurrenceEnd > :from) " +
+           "ORDER BY e.startTime")
+    List<EventResponse> findSeriesByUserIdInRange(
+            @Param("userId") UUID userId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    /**
+     * Časové intervaly všech událostí uživatele pro index překryvů
+     * (EventIntervalIndexService). Události bez začátku nebo konce se vynechávají.
+     */
+    @Query("SELECT new com.weekfitter.weekfitter_backend.dto.EventInterval(" +
+           "e.id, e.startTime, e.endTime, e.allDay, e.recurrenceRule, e.recurrenceExceptions) " +
+           "FROM CalendarEvent e " +
+           "WHERE e.user.id = :userId AND e.startTime IS NOT NULL AND e.endTime IS NOT NULL")
+    List<EventInterval> findIntervalsByUserId(@Param("userId") UUID userId);
+
+    /**
+     * Počty událostí uživatele podle názvu, nejčastější první – podklad
+     * indexu doplňování názvů (TitleSuggestService). Limit omezuje počet
+     * různých názvů u uživatelů s velkými importy.
+     */
+    @Query("SELECT new com.weekfitter.weekfitter_backend.dto.TitleCountRow(e.title, COUNT(e)) " +
+           "FROM CalendarEvent e " +
+           "WHERE e.user.id = :userId AND e.title IS NOT NULL " +
+           "GROUP BY e.title ORDER BY COUNT(e) DESC")
+    List<TitleCountRow> findTitleCountsByUserId(@Param("userId") UUID userId, Limit limit);
+
+    /**
+     * Intervaly jednorázových událostí uživatele s danými ID (cizí ID a série
+     * se vynechají) – výběr událostí pro hromadný posun.
+     */
+    @Query("SELECT new com.weekfitter.weekfitter_backend.dto.EventInterval(" +
+           "e.id, e.startTime, e.endTime, e.allDay, e.recurrenceRule, e.recurrenceExceptions) " +
+           "FROM CalendarEvent e " +
+           "WHERE e.user.id = :userId AND e.id IN :ids " +
+           "AND e.recurrenceRule IS NULL AND e.startTime IS NOT NULL")
+    List<EventInterval> findSingleIntervalsByIds(@Param("userId") UUID userId, @Param("ids") Collection<UUID> ids);
+
+    /** Intervaly jednorázových událostí uživatele se začátkem v okně [from, to). */
+    @Query("SELECT new com.weekfitter.weekfitter_backend.dto.EventInterval(" +
+           "e.id, e.startTime, e.endTime, e.allDay, e.recurrenceRule, e.recurrenceExceptions) " +
+           "FROM CalendarEvent e " +
+           "WHERE e.user.id = :userId AND e.recurrenceRule IS NULL " +
+           "AND e.startTime >= :from AND e.startTime < :to")
+    List<EventInterval> findSingleIntervalsStartingIn(
+            @Param("userId") UUID userId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    /**
+     * Posune začátek a konec událostí o daný počet minut jedním příkazem
+     * (hromadný drag & drop). Opakované série se neposouvají.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query(value = "UPDATE calendar_events " +
+                   "SET start_time = start_time + make_interval(mins => :minutes), " +
+                   "end_time = end_time + make_interval(mins => :minutes) " +
+                   "WHERE id IN (:ids) AND recurrence_rule IS NULL",
+           nativeQuery = true)
+    int shiftByIds(@Param("ids") Collection<UUID> ids, @Param("minutes") int minutes);
+
+    /**
+     * Zkopíruje jednorázové události uživatele se začátkem v okně [from, to)
+     * posunuté o daný počet minut i s jejich notifikacemi – jediným příkazem
+     * s datovými CTE (šablona týdne).
+     *
+     * CTE src přiřadí každému originálu nové ID (gen_random_uuid) a slouží
+     * jako mapování originál → kopie. Notifikace se kopírují jen ke kopiím,
+     * které INSERT skutečně vrátil (RETURNING). Kopie dostane aktuální verzi
+     * dat uživatele (verze se zvyšuje před kopírováním).
+     *
+     * @return počet vytvořených událostí a notifikací
+     */
+    @Transactional
+    @Query(value = "WITH src AS MATERIALIZED (" +
+                   "SELECT e.id, gen_random_uuid() AS copy_id FROM calendar_events e " +
+                   "WHERE e.user_id = :userId AND e.recurrence_rule IS NULL " +
+                   "AND e.start_time >= :from AND e.start_time < :to), " +
+                   "copies AS (" +
+                   "INSERT INTO calendar_events " +
+                   "(id, title, description, start_time, end_time, category, sport_type, all_day, " +
+                   "duration, distance, sport_description, file_path, user_id, change_version) " +
+                   "SELECT s.copy_id, e.title, e.description, " +
+                   "e.start_time + make_interval(mins => :minutes), e.end_time + make_interval(mins => :minutes), " +
+                   "e.category, e.sport_type, e.all_day, e.duration, e.distance, e.sport_description, e.file_path, " +
+                   "e.user_id, (SELECT u.calendar_version FROM users u WHERE u.id = :userId) " +
+                   "FROM src s JOIN calendar_events e ON e.id = s.id " +
+                   "RETURNING id), " +
+                   "copied_notifications AS (" +
+                   "INSERT INTO notifications (id, event_id, user_id, notify_at, notification_type, sent) " +
+                   "SELECT gen_random_uuid(), c.id, n.user_id, " +
+                   "n.notify_at + make_interval(mins => :minutes), n.notification_type, false " +
+                   "FROM copies c JOIN src s ON s.copy_id = c.id JOIN notifications n ON n.event_id = s.id " +
+                   "RETURNING id) " +
+                   "SELECT (SELECT count(*) FROM copies) AS events, " +
+                   "(SELECT count(*) FROM copied_notifications) AS notifications",
+           nativeQuery = true)
+    CopyWindowCounts copyWindow(@Param("userId") UUID userId,
+                                @Param("from") LocalDateTime from,
+                                @Param("to") LocalDateTime to,
+                                @Param("minutes") int minutes);
+
+    /**
+     * Události uživatele s jejich notifikacemi pro export do iCalendar,
+     * čtené dopředným kurzorem po dávkách (fetch size) – výsledek se nikdy
+     * nedrží v paměti celý. Řádky jedné události jdou za sebou.
+     *
+     * Stream je nutné číst uvnitř transakce a po použití zavřít.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.weekfitter.weekfitter_backend.dto.IcsEventRow(" +
+           "e.id, e.title, e.description, e.startTime, e.endTime, e.allDay, e.category, e.sportType, " +
+           "e.distance, e.recurrenceRule, e.recurrenceExceptions, n.notifyAt, n.notificationType) " +
+           "FROM CalendarEvent e LEFT JOIN e.notifications n " +
+           "WHERE e.user.id = :userId AND e.startTime IS NOT NULL " +
+           "ORDER BY e.startTime, e.id")
+    Stream<IcsEventRow> streamIcsRowsByUserId(@Param("userId") UUID userId);
+
+    /**
+     * Data pro výpočet tréninkové zátěže (TrainingLoadService) – události
+     * uživatele dané kategorie včetně sérií. Události bez začátku se vynechávají.
+     */
+    @Query("SELECT new com.weekfitter.weekfitter_backend.dto.TrainingLoadRow(" +
+           "e.startTime, e.endTime, e.duration, e.distance, e.recurrenceRule, e.recurrenceExceptions) " +
+           "FROM CalendarEvent e " +
+           "WHERE e.user.id = :userId AND e.category = :category AND e.startTime IS NOT NULL")
+    List<TrainingLoadRow> findTrainingLoadRowsByUserId(@Param("userId") UUID userId,
+                                                       @Param("category") ActivityType category);
+
+    /**
+     * Projekce událostí uživatele změněných po verzi since (delta synchronizace).
+     */
+    @Query(EVENT_RESPONSE_SELECT +
+           "WHERE e.user.id = :userId AND e.changeVersion > :since " +
+           "ORDER BY e.changeVersion")
+    List<EventResponse> findResponsesChangedSince(@Param("userId") UUID userId, @Param("since") long since);
+
+    /**
+     * Označí události aktuální verzí dat jejich vlastníka.
+     *
+     * Volá se po zvýšení verze uživatele ve stejné transakci. flushAutomatically
+     * zajistí, že čerstvě vytvořené události jsou už v databázi vložené.
+     *
+     * @return počet označených událostí
+     */
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query(value = "UPDATE calendar_events " +
+                   "SET change_version = (SELECT u.calendar_version FROM users u WHERE u.id = :userId) " +
+                   "WHERE user_id = :userId AND id IN (:eventIds)",
+           nativeQuery = true)
+    int stampChangeVersion(@Param("userId") UUID userId, @Param("eventIds") Collection<UUID> eventIds);
+
+    /**
+     * První stránka výpisu událostí uživatele řazená podle (startTime, id).
+     *
+     * Události bez začátku se ve stránkovaném výpisu nevyskytují.
+     */
+    @Query(EVENT_RESPONSE_SELECT +
+           "WHERE e.user.id = :userId AND e.startTime IS NOT NULL " +
+           "ORDER BY e.startTime, e.id")
+    List<EventResponse> findFirstPage(@Param("userId") UUID userId, Limit limit);
+
+    /**
+     * Další stránka výpisu – události za pozicí (start, id) podle řazení (startTime, id).
+     *
+     * Porovnání řádkových hodnot (startTime, id) > (:start, :id) odpovídá
+     * keyset stránkování a databáze ho vyhodnotí nad indexem (user_id, start_time).
+     */
+    @Query(EVENT_RESPONSE_SELECT +
+           "WHERE e.user.id = :userId AND e.startTime IS NOT NULL " +
+           "AND (e.startTime, e.id) > (:start, :id) " +
+           "ORDER BY e.startTime, e.id")
+    List<EventResponse> findPageAfter(
+            @Param("userId") UUID userId,
+            @Param("start") LocalDateTime start,
+            @Param("id") UUID id,
+            Limit limit);
+
+    /**
+     * Společná část fulltextových dotazů (sloupce a indexy viz schema.sql).
+     *
+     * Shoda: slova dotazu jako prefixy (search_vector @@ tsquery, GIN index),
+     * nebo – u dotazu od 3 znaků – výskyt textu kdekoliv ve slově
+     * (search_text LIKE, trigramový GIN index). Rank = ts_rank podle vah
+     * (název > sportovní popis > popis) + podobnost částí slov
+     * (search_similarity – bez rozšíření pg_trgm nulová, LIKE bez indexu).
+     */
+    String SEARCH_RANKED =
+            "SELECT e.id AS id, e.start_time AS startTime, " +
+            "CAST(ts_rank(e.search_vector, q) + 0.1 * search_similarity(:text, e.search_text) AS real) AS rank " +
+            "FROM calendar_events e CROSS JOIN to_tsquery('simple', :tsquery) q " +
+            "WHERE e.user_id = :userId AND e.start_time IS NOT NULL " +
+            "AND (e.search_vector @@ q OR (:infix = true AND e.search_text LIKE :pattern))";
+
+    /** První stránka výsledků vyhledávání, řazeno sestupně podle (rank, start, id). */
+    @Query(value = "SELECT r.id AS id, r.rank AS rank, r.startTime AS startTime FROM (" + SEARCH_RANKED + ") r " +
+                   "ORDER BY r.rank DESC, r.startTime DESC, r.id DESC LIMIT :limit",
+           nativeQuery = true)
+    List<SearchHit> searchFirstPage(
+            @Param("userId") UUID userId,
+            @Param("tsquery") String tsquery,
+            @Param("text") String text,
+            @Param("infix") boolean infix,
+            @Param("pattern") String pattern,
+            @Param("limit") int limit);
+
+    /** Další stránka výsledků – za pozicí (rank, start, id) kurzoru. */
+    @Query(value = "SELECT r.id AS id, r.rank AS rank, r.startTime AS startTime FROM (" + SEARCH_RANKED + ") r " +
+                   "WHERE (r.rank, r.startTime, r.id) < (CAST(:rank AS real), :start, :id) " +
+                   "ORDER BY r.rank DESC, r.startTime DESC, r.id DESC LIMIT :limit",
+           nativeQuery = true)
+    List<SearchHit> searchPageAfter(
+            @Param("userId") UUID userId,
+            @Param("tsquery") String tsquery,
+            @Param("text") String text,
+            @Param("infix") boolean infix,
+            @Param("pattern") String pattern,
+            @Param("rank") float rank,
+            @Param("start") LocalDateTime start,
+            @Param("id") UUID id,
+            @Param("limit") int limit);
+
+    /** Projekce událostí uživatele s danými ID (pořadí neurčeno). */
+    @Query(EVENT_RESPONSE_SELECT +
+           "WHERE e.user.id = :userId AND e.id IN :ids")
+    List<EventResponse> findResponsesByUserIdAndIds(@Param("userId") UUID userId, @Param("ids") Collection<UUID> ids);
+
+    /**
+     * Zda na soubor odkazuje některá událost uživatele – ověření cesty zadané
+     * klientem; nahraná příloha se smaže, až na ni neodkazuje žádná.
+     */
+    boolean existsByUserIdAndFilePath(UUID userId, String filePath);
 }
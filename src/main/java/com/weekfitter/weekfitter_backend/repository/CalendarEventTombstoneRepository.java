@@ -0,0 +1,49 @@
+package com.weekfitter.weekfitter_backend.repository;
+
+import com.weekfitter.weekfitter_backend.model.CalendarEventTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Repository rozhraní pro tombstony smazaných událostí.
+ *
+ * Slouží delta synchronizaci – vrací ID událostí smazaných
+ * po zadané verzi dat uživatele. Staré tombstony se po retenci mažou.
+ */
+public interface CalendarEventTombstoneRepository extends JpaRepository<CalendarEventTombstone, UUID> {
+
+    /**
+     * Vrací ID událostí uživatele smazaných po verzi since.
+     *
+     * @param userId ID uživatele
+     * @param since  poslední verze známá klientovi
+     * @return ID smazaných událostí
+     */
+    @Query("SELECT DISTINCT t.eventId FROM CalendarEventTombstone t " +
+           "WHERE t.userId = :userId AND t.changeVersion > :since")
+    List<UUID> findDeletedEventIdsSince(@Param("userId") UUID userId, @Param("since") long since);
+
+    /**
+     * Smaže tombstony smazané před cutoff a dotčeným uživatelům zvýší
+     * tombstones_pruned_version na nejvyšší smazanou verzi – jeden příkaz,
+     * takže synchronizace nikdy neuvidí smazané tombstony bez nové meze.
+     *
+     * @return počet uživatelů, jejichž tombstony se smazaly
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "WITH pruned AS (" +
+                   "  DELETE FROM calendar_event_tombstones WHERE deleted_at < :cutoff " +
+                   "  RETURNING user_id, change_version) " +
+                   "UPDATE users u SET tombstones_pruned_version = GREATEST(u.tombstones_pruned_version, p.version) " +
+                   "FROM (SELECT user_id, MAX(change_version) AS version FROM pruned GROUP BY user_id) p " +
+                   "WHERE u.id = p.user_id",
+           nativeQuery = true)
+    int pruneDeletedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,5 +1,6 @@
 package com.weekfitter.weekfitter_backend.repository;
 
+import com.weekfitter.weekfitter_backend.dto.NotificationOffsetRow;
 import com.weekfitter.weekfitter_backend.model.Notification;
 import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.*;
@@ -41,6 +42,19 @@ public interface NotificationRepository extends JpaRepository<Notification, UUID
      */
     List<Notification> findAllByEventId(UUID eventId);
 
+    /**
+     * Vrací časy notifikací pro celou množinu událostí jedním dotazem.
+     *
+     * Nahrazuje opakované volání findAllByEventId při výpisu kalendáře
+     * (místo 1 + N dotazů se provede jediný).
+     *
+     * @param eventIds ID událostí
+     * @return řádky (ID události, notifyAt, typ notifikace)
+     */
+    @Query("SELECT new com.weekfitter.weekfitter_backend.dto.NotificationOffsetRow(n.event.id, n.notifyAt, n.notificationType) " +
+           "FROM Notification n WHERE n.event.id IN :eventIds")
+    List<NotificationOffsetRow> findOffsetRowsByEventIds(@Param("eventIds") Collection<UUID> eventIds);
+
     /**
      * Vrací všechny notifikace patřící konkrétnímu uživateli.
      *
@@ -61,4 +75,18 @@ public interface NotificationRepository extends JpaRepository<Notification, UUID
     @Query("delete from Notification n where n.event.id = :eventId")
     int deleteAllByEventId(@Param("eventId") UUID eventId);
 
+    /**
+     * Posune čas odeslání všech notifikací daných událostí o počet minut
+     * jedním příkazem (notifikace si tak drží offset vůči posunuté události).
+     *
+     * @return počet posunutých notifikací
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Transactional
+    @Query(value = "UPDATE notifications " +
+                   "SET notify_at = notify_at + make_interval(mins => :minutes) " +
+                   "WHERE event_id IN (:eventIds)",
+           nativeQuery = true)
+    int shiftByEventIds(@Param("eventIds") Collection<UUID> eventIds, @Param("minutes") int minutes);
+
 }
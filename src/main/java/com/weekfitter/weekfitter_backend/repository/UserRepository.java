@@ -1,7 +1,13 @@
 package com.weekfitter.weekfitter_backend.repository;
 
+import com.weekfitter.weekfitter_backend.dto.FeedOwnerRow;
 import com.weekfitter.weekfitter_backend.model.User;
+import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import java.util.*;
 
 /**
@@ -11,7 +17,8 @@ import java.util.*;
  * (uložení, smazání, aktualizace, hledání podle ID, výpis všech záznamů).
  *
  * Navíc obsahuje vlastní metody pro vyhledávání podle e-mailu
- * a podle reset tokenu pro obnovu hesla.
+ * a podle reset tokenu pro obnovu hesla, pro práci s verzí dat uživatele
+ * a pro ověření adresy odběru kalendáře.
  */
 public interface UserRepository extends JpaRepository<User, UUID> {
 
@@ -37,4 +44,30 @@ public interface UserRepository extends JpaRepository<User, UUID> {
      */
     Optional<User> findByResetToken(String token);
 
+    /**
+     * Atomicky zvýší verzi dat uživatele o 1.
+     *
+     * UPDATE zároveň zamkne řádek uživatele do konce transakce, takže
+     * souběžné změny kalendáře téhož uživatele dostávají verze postupně.
+     *
+     * @return počet upravených záznamů
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE users SET calendar_version = calendar_version + 1 WHERE id = :userId",
+           nativeQuery = true)
+    int incrementCalendarVersion(@Param("userId") UUID userId);
+
+    /** Vrací aktuální verzi dat uživatele. */
+    @Query("SELECT u.calendarVersion FROM User u WHERE u.id = :userId")
+    long findCalendarVersionById(@Param("userId") UUID userId);
+
+    /**
+     * Vlastník a verze dat podle tokenu odběru kalendáře.
+     * Jediný indexovaný dotaz bez načtení entity – volá se při dotazování feedu.
+     */
+    @Query("SELECT new com.weekfitter.weekfitter_backend.dto.FeedOwnerRow(u.id, u.calendarVersion) " +
+           "FROM User u WHERE u.feedToken = :token")
+    Optional<FeedOwnerRow> findFeedOwnerByToken(@Param("token") String token);
+
 }
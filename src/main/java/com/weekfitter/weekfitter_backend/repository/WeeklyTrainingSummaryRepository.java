@@ -0,0 +1,114 @@
+package com.weekfitter.weekfitter_backend.repository;
+
+import com.weekfitter.weekfitter_backend.model.WeeklyTrainingSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository rozhraní pro týdenní souhrny tréninků.
+ *
+ * Zápisy jsou nativní SQL (PostgreSQL):
+ * - applyDelta přičte rozdíl jedné události (INSERT ... ON CONFLICT DO UPDATE),
+ * - recompute přepočítá rozsah týdnů množinově z calendar_events
+ *   (hromadné operace, počáteční naplnění).
+ *
+ * Doba trvání události = duration, pokud je kladné, jinak end_time - start_time
+ * (stejně jako WeeklySummaryService.durationMinutes pro Contribution).
+ */
+public interface WeeklyTrainingSummaryRepository extends JpaRepository<WeeklyTrainingSummary, UUID> {
+
+    /** Souhrny uživatele pro týdny v rozsahu [fromWeek, toWeek]. */
+    List<WeeklyTrainingSummary> findByUserIdAndWeekStartBetweenOrderByWeekStartAscSportTypeAsc(
+            UUID userId, LocalDate fromWeek, LocalDate toWeek);
+
+    /**
+     * Přičte k souhrnu (uživatel, týden, sport) rozdíl – řádek případně založí.
+     * Záporné hodnoty rozdílu souhrn snižují.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO weekly_training_summary " +
+                   "(id, user_id, week_start, sport_type, total_distance, total_duration, session_count) " +
+                   "VALUES (gen_random_uuid(), :userId, :weekStart, :sportType, :distance, :duration, :sessions) " +
+                   "ON CONFLICT (user_id, week_start, sport_type) DO UPDATE SET " +
+                   "total_distance = weekly_training_summary.total_distance + EXCLUDED.total_distance, " +
+                   "total_duration = weekly_training_summary.total_duration + EXCLUDED.total_duration, " +
+                   "session_count = weekly_training_summary.session_count + EXCLUDED.session_count",
+           nativeQuery = true)
+    void applyDelta(@Param("userId") UUID userId,
+                    @Param("weekStart") LocalDate weekStart,
+                    @Param("sportType") String sportType,
+                    @Param("distance") double distance,
+                    @Param("duration") double duration,
+                    @Param("sessions") int sessions);
+
+    /** Odstraní souhrn, ve kterém po odečtení nezůstal žádný trénink. */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM weekly_training_summary " +
+                   "WHERE user_id = :userId AND week_start = :weekStart AND sport_type = :sportType " +
+                   "AND session_count <= 0",
+           nativeQuery = true)
+    void deleteIfEmpty(@Param("userId") UUID userId,
+                       @Param("weekStart") LocalDate weekStart,
+                       @Param("sportType") String sportType);
+
+    /** Smaže souhrny uživatele pro týdny začínající v [from, to). */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM weekly_training_summary " +
+                   "WHERE user_id = :userId AND week_start >= CAST(date_trunc('week', CAST(:from AS timestamp)) AS date) " +
+                   "AND week_start < CAST(:to AS date)",
+           nativeQuery = true)
+    void deleteRange(@Param("userId") UUID userId,
+                     @Param("from") LocalDateTime from,
+                     @Param("to") LocalDateTime to);
+
+    /**
+     * Množinově spočítá souhrny uživatele z událostí se začátkem v celých týdnech
+     * pokrývajících [from, to). Volá se po deleteRange se stejným rozsahem.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO weekly_training_summary " +
+                   "(id, user_id, week_start, sport_type, total_distance, total_duration, session_count) " +
+                   "SELECT gen_random_uuid(), e.user_id, CAST(date_trunc('week', e.start_time) AS date), e.sport_type, " +
+                   "COALESCE(SUM(e.distance), 0), " +
+                   "COALESCE(SUM(CASE WHEN e.duration > 0 THEN e.duration " +
+                   "ELSE EXTRACT(EPOCH FROM (e.end_time - e.start_time)) / 60 END), 0), " +
+                   "COUNT(*) " +
+                   "FROM calendar_events e " +
+                   "WHERE e.user_id = :userId AND e.sport_type IS NOT NULL AND e.recurrence_rule IS NULL " +
+                   "AND e.start_time >= date_trunc('week', CAST(:from AS timestamp)) " +
+                   "AND e.start_time < CAST(:to AS date) " +
+                   "GROUP BY e.user_id, CAST(date_trunc('week', e.start_time) AS date), e.sport_type",
+           nativeQuery = true)
+    void insertRecomputed(@Param("userId") UUID userId,
+                          @Param("from") LocalDateTime from,
+                          @Param("to") LocalDateTime to);
+
+    /** Počáteční naplnění souhrnů všech uživatelů (prázdná tabulka). */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO weekly_training_summary " +
+                   "(id, user_id, week_start, sport_type, total_distance, total_duration, session_count) " +
+                   "SELECT gen_random_uuid(), e.user_id, CAST(date_trunc('week', e.start_time) AS date), e.sport_type, " +
+                   "COALESCE(SUM(e.distance), 0), " +
+                   "COALESCE(SUM(CASE WHEN e.duration > 0 THEN e.duration " +
+                   "ELSE EXTRACT(EPOCH FROM (e.end_time - e.start_time)) / 60 END), 0), " +
+                   "COUNT(*) " +
+                   "FROM calendar_events e " +
+                   "WHERE e.user_id IS NOT NULL AND e.start_time IS NOT NULL " +
+                   "AND e.sport_type IS NOT NULL AND e.recurrence_rule IS NULL " +
+                   "GROUP BY e.user_id, CAST(date_trunc('week', e.start_time) AS date), e.sport_type",
+           nativeQuery = true)
+    int backfillAll();
+}
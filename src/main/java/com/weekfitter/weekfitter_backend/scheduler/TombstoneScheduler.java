@@ -0,0 +1,35 @@
+package com.weekfitter.weekfitter_backend.scheduler;
+
+import com.weekfitter.weekfitter_backend.service.CalendarEventService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduler komponenta, která jednou denně maže staré tombstony smazaných
+ * událostí (retence delta synchronizace, CalendarEventService.pruneTombstones).
+ */
+@Component
+@RequiredArgsConstructor
+public class TombstoneScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(TombstoneScheduler.class);
+
+    private final CalendarEventService calendarEventService;
+
+    /**
+     * Denní úklid tombstonů (ve 3:30). V případě chyby se chyba zaloguje
+     * a úklid proběhne další den.
+     */
+    @Scheduled(cron = "${weekfitter.sync.tombstone-prune-cron:0 30 3 * * *}")
+    public void pruneTombstones() {
+        try {
+            int users = calendarEventService.pruneTombstones();
+            log.info("[SCHEDULER] Smazány staré tombstony {} uživatelů", users);
+        } catch (Exception e) {
+            log.error("[SCHEDULER-ERROR] Chyba při mazání tombstonů: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -49,12 +49,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
          * Veřejné endpointy – zde se JWT nesmí aplikovat.
          * Pokud by filtr běžel nad login/registrací, Spring by ztratil request body,
          * což způsobovalo chybu: rawPassword == null.
+         *
+         * Odběr kalendáře (/api/feed/) ověřuje tajný token v URL – kalendářové
+         * aplikace hlavičku Authorization neposílají.
          */
         if (uri.equals("/api/users/login") ||
             uri.equals("/api/users/register") ||
             uri.startsWith("/api/users/forgot-password") ||
             uri.startsWith("/api/users/reset-password") ||
-            uri.equals("/api/health")) {
+            uri.equals("/api/health") ||
+            uri.startsWith("/api/feed/")) {
 
             filterChain.doFilter(request, response);
             return;
@@ -0,0 +1,92 @@
+package com.weekfitter.weekfitter_backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.weekfitter.weekfitter_backend.dto.EventResponse;
+import com.weekfitter.weekfitter_backend.event.CalendarChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * In-process cache výpisu kalendáře jednotlivých uživatelů.
+ *
+ * Frontend po každé navigaci znovu načítá celý seznam událostí, přičemž
+ * čtení výrazně převažuje nad zápisy. Cache proto drží hotový seznam
+ * EventResponse (včetně offsetů notifikací) pod klíčem ID uživatele.
+ *
+ * - velikost je omezena počtem uživatelů, položky expirují po TTL,
+ * - statistiky zásahů/výpadků se publikují do Micrometeru (metrika cache.gets),
+ * - položka uživatele se zneplatní po potvrzení každé transakce, která
+ *   publikovala CalendarChangedEvent.
+ *
+ * Uložené seznamy jsou neměnné a sdílené mezi requesty – volající je nesmí upravovat.
+ */
+@Service
+public class CalendarCacheService {
+
+    private static final Logger log = LoggerFactory.getLogger(CalendarCacheService.class);
+
+    private final Cache<UUID, List<EventResponse>> eventsByUser;
+
+    public CalendarCacheService(
+            MeterRegistry meterRegistry,
+            @Value("${weekfitter.cache.calendar.max-users:1000}") long maxUsers,
+            @Value("${weekfitter.cache.calendar.ttl:10m}") Duration ttl
+    ) {
+        this.eventsByUser = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, eventsByUser, "calendarEvents");
+    }
+
+    /**
+     * Vrátí seznam událostí uživatele z cache, případně ho načte přes loader a uloží.
+     *
+     * @param userId ID uživatele
+     * @param loader načtení seznamu z databáze při výpadku cache
+     * @return neměnný seznam událostí
+     */
+    public List<EventResponse> getEvents(UUID userId, Function<UUID, List<EventResponse>> loader) {
+        return eventsByUser.get(userId, id -> List.copyOf(loader.apply(id)));
+    }
+
+    /**
+     * Vrátí seznam událostí uživatele, pouze pokud je v cache (bez načítání).
+     *
+     * @return seznam nebo null při výpadku
+     */
+    public List<EventResponse> getEventsIfPresent(UUID userId) {
+        return eventsByUser.getIfPresent(userId);
+    }
+
+    /** Odstraní z cache seznam událostí uživatele. */
+    public void invalidate(UUID userId) {
+        eventsByUser.invalidate(userId);
+    }
+
+    /**
+     * Zneplatnění po změně kalendáře.
+     *
+     * Spouští se až po commitu transakce (nebo ihned, pokud změna proběhla
+     * mimo transakci), aby souběžné čtení nemohlo do cache vrátit stav
+     * před potvrzením změny.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCalendarChanged(CalendarChangedEvent event) {
+        invalidate(event.getUserId());
+        log.debug("Zneplatněna cache kalendáře uživatele {}", event.getUserId());
+    }
+}
@@ -1,14 +1,44 @@
 package com.weekfitter.weekfitter_backend.service;
 
+import com.weekfitter.weekfitter_backend.dto.CopyEventsResponse;
+import com.weekfitter.weekfitter_backend.dto.CopyWindowCounts;
+import com.weekfitter.weekfitter_backend.dto.EventChangesResponse;
+import com.weekfitter.weekfitter_backend.dto.EventConflict;
+import com.weekfitter.weekfitter_backend.dto.EventCursor;
+import com.weekfitter.weekfitter_backend.dto.EventInterval;
+import com.weekfitter.weekfitter_backend.dto.EventResponse;
+import com.weekfitter.weekfitter_backend.event.CalendarChangedEvent;
 import com.weekfitter.weekfitter_backend.model.ActivityType;
 import com.weekfitter.weekfitter_backend.model.CalendarEvent;
+import com.weekfitter.weekfitter_backend.model.CalendarEventTombstone;
+import com.weekfitter.weekfitter_backend.model.Notification;
 import com.weekfitter.weekfitter_backend.model.User;
 import com.weekfitter.weekfitter_backend.repository.CalendarEventRepository;
+import com.weekfitter.weekfitter_backend.repository.CalendarEventTombstoneRepository;
 import com.weekfitter.weekfitter_backend.repository.NotificationRepository;
+import com.weekfitter.weekfitter_backend.repository.UserRepository;
+import com.weekfitter.weekfitter_backend.service.activity.FitActivityService;
+import com.weekfitter.weekfitter_backend.service.route.RoutePreviewService;
+import com.weekfitter.weekfitter_backend.service.interval.EventIntervalIndexService;
+import com.weekfitter.weekfitter_backend.service.recurrence.RecurrenceRule;
+import com.weekfitter.weekfitter_backend.service.search.TitleSuggestService;
+import com.weekfitter.weekfitter_backend.service.stats.TrainingLoadService;
+import com.weekfitter.weekfitter_backend.service.stats.WeeklySummaryService;
+import com.weekfitter.weekfitter_backend.service.workout.GarminWorkoutService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
 
 
@@ -18,7 +48,17 @@ import java.util.*;
  * Obsahuje aplikační logiku, která doplňuje základní CRUD operace:
  * - výpočet konce události (endTime) podle duration nebo startTime,
  * - zachování původních hodnot při aktualizaci,
- * - odstranění navázaných notifikací při smazání události.
+ * - odstranění navázaných notifikací při smazání události,
+ * - read-only výpisy kalendáře přes DTO projekce (s cache celého výpisu),
+ * - líné rozbalení opakovaných sérií na výskyty v požadovaném okně,
+ * - detekci kolizí přes index intervalů (EventIntervalIndexService),
+ * - průběžnou údržbu týdenních souhrnů tréninků a tréninkové zátěže,
+ * - průběžnou údržbu indexu návrhů názvů (TitleSuggestService),
+ * - vzdálenost a délku z připojeného souboru – odhad z tréninku Garmin
+ *   (GarminWorkoutService), skutečnost z aktivity FIT (FitActivityService)
+ *   nebo z trasy GPX/TCX (RoutePreviewService),
+ * - kontrolu, že připojený soubor patří vlastníkovi události,
+ * - oznámení o změně kalendáře (CalendarChangedEvent) po každém zápisu.
  *
  * CalendarEventService slouží jako prostředník mezi controllery
  * a JPA repository komponentami.
@@ -29,6 +69,59 @@ public class CalendarEventService {
 
     private final NotificationRepository notificationRepository;
     private final CalendarEventRepository calendarEventRepository;
+    private final CalendarEventTombstoneRepository tombstoneRepository;
+    private final UserRepository userRepository;
+    private final NotificationService notificationService;
+    private final CalendarCacheService calendarCacheService;
+    private final EventIntervalIndexService intervalIndexService;
+    private final WeeklySummaryService weeklySummaryService;
+    private final TrainingLoadService trainingLoadService;
+    private final TitleSuggestService titleSuggestService;
+    private final GarminWorkoutService garminWorkoutService;
+    private final FitActivityService fitActivityService;
+    private final RoutePreviewService routePreviewService;
+    private final UploadStorage uploadStorage;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PlatformTransactionManager transactionManager;
+
+    /** Persistence context pro dávkové ukládání (flush + clear po dávkách). */
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Maximální délka jedné události ve dnech, se kterou počítají dotazy na časové okno.
+     * Určuje spodní mez pro index (user_id, start_time); delší události se proto
+     * při zápisu odmítnou (checkSpan), jinak by v okně chyběly.
+     */
+    @Value("${weekfitter.events.max-span-days:31}")
+    private int maxEventSpanDays;
+
+    /** Jak dlouho se drží tombstony smazaných událostí pro delta synchronizaci (dny). */
+    @Value("${weekfitter.sync.tombstone-retention-days:90}")
+    private int tombstoneRetentionDays;
+
+    /**
+     * Jak daleko od začátku série se kontrolují kolize jejích výskytů
+     * (nekonečná série se nekontroluje donekonečna).
+     */
+    @Value("${weekfitter.events.conflict-horizon-days:365}")
+    private int conflictHorizonDays;
+
+    /**
+     * Velikost dávky hromadného zakládání – shodná s JDBC dávkou Hibernate,
+     * po každé dávce se persistence context vyprázdní.
+     */
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int bulkChunkSize;
+
+    /** Nejdelší hromadný posun událostí (rok, v minutách). */
+    private static final int MAX_SHIFT_MINUTES = 366 * 24 * 60;
+
+    /** Nejvyšší počet událostí jednoho hromadného posunu (velikost IN seznamu). */
+    private static final int MAX_SHIFT_EVENTS = 5000;
+
+    /** Nejdelší kopírované okno (dny). */
+    private static final long MAX_COPY_WINDOW_DAYS = 62;
 
     /** Vrací všechny události v systému (administrativní funkce). */
     public List<CalendarEvent> getAllEvents() {
@@ -45,16 +138,482 @@ public class CalendarEventService {
         return calendarEventRepository.findByUser(user);
     }
 
+    /**
+     * Vrací jednu událost uživatele jako DTO (včetně offsetů notifikací).
+     *
+     * @return prázdný Optional, pokud událost neexistuje nebo patří jinému uživateli
+     */
+    @Transactional(readOnly = true)
+    public Optional<EventResponse> getEventResponse(User user, UUID id) {
+        return calendarEventRepository.findResponseByIdAndUserId(id, user.getId())
+                .map(r -> withNotificationOffsets(new ArrayList<>(List.of(r))).get(0));
+    }
+
+    /**
+     * Vrací události uživatele jako DTO pro výpis kalendáře.
+     *
+     * Bez časového okna vrací celou historii, s oknem [from, to) pouze události,
+     * které do něj zasahují (typicky týdenní pohled).
+     *
+     * Čte se přes projekční dotaz v read-only transakci – nevznikají spravované
+     * entity, Hibernate neprovádí dirty checking ani flush a persistence context
+     * s počtem událostí neroste. Offsety notifikací se doplní jedním hromadným dotazem.
+     *
+     * Celý výpis uživatele se drží v CalendarCacheService. Dotaz na okno se
+     * při zásahu cache vyhodnotí v paměti, jinak jde přímo do databáze
+     * (cache se jím neplní). Při zásahu cache se transakce vůbec neotevírá.
+     *
+     * Opakované série jsou v databázi i v cache uložené jednou. V okně se
+     * rozbalí na jednotlivé výskyty, bez okna se vrací série s pravidlem.
+     *
+     * @throws IllegalArgumentException pokud je okno zadané jen částečně nebo je prázdné
+     */
+    public List<EventResponse> getEventResponses(User user, LocalDateTime from, LocalDateTime to) {
+        UUID userId = user.getId();
+
+        if (from == null && to == null) {
+            return calendarCacheService.getEvents(userId,
+                    id -> readOnly(() -> withNotificationOffsets(calendarEventRepository.findResponsesByUserId(id))));
+        }
+
+        if (from == null || to == null || !from.isBefore(to))
+            throw new IllegalArgumentException("Neplatné časové okno: 'from' musí být před 'to'.");
+
+        List<EventResponse> cached = calendarCacheService.getEventsIfPresent(userId);
+        if (cached != null) {
+            List<EventResponse> inWindow = new ArrayList<>();
+            for (EventResponse r : cached) {
+                if (r.getStartTime() == null || r.getEndTime() == null) continue;
+
+                if (r.isSeries()) {
+                    expandSeries(r, from, to, inWindow);
+                } else if (r.getStartTime().isBefore(to) && r.getEndTime().isAfter(from)) {
+                    inWindow.add(r);
+                }
+            }
+            inWindow.sort(Comparator.comparing(EventResponse::getStartTime));
+            return inWindow;
+        }
+
+        LocalDateTime earliestStart = from.minusDays(maxEventSpanDays);
+        return readOnly(() -> {
+            List<EventResponse> single = calendarEventRepository.findResponsesByUserIdInRange(userId, from, to, earliestStart);
+            List<EventResponse> series = calendarEventRepository.findSeriesByUserIdInRange(userId, from, to);
+
+            List<EventResponse> inWindow = new ArrayList<>(single.size() + series.size());
+            inWindow.addAll(single);
+            inWindow.addAll(series);
+            withNotificationOffsets(inWindow);
+
+            // Série se v okně nahradí svými výskyty
+            inWindow.subList(single.size(), inWindow.size()).clear();
+            for (EventResponse r : series) {
+                expandSeries(r, from, to, inWindow);
+            }
+            inWindow.sort(Comparator.comparing(EventResponse::getStartTime));
+            return inWindow;
+        });
+    }
+
+    /**
+     * Rozbalí sérii na výskyty zasahující do okna [from, to) a přidá je do out.
+     * Výskyty sdílejí ID série a offsety notifikací.
+     */
+    private static void expandSeries(EventResponse series, LocalDateTime from, LocalDateTime to,
+                                     List<EventResponse> out) {
+        RecurrenceRule rule = RecurrenceRule.parse(series.getRecurrenceRule());
+        long lengthMinutes = Duration.between(series.getStartTime(), series.getEndTime()).toMinutes();
+        Set<LocalDate> exceptions = series.getRecurrenceExceptions() == null
+                ? Collections.emptySet()
+                : new HashSet<>(series.getRecurrenceExceptions());
+
+        for (LocalDateTime start : rule.occurrencesBetween(series.getStartTime(), lengthMinutes, from, to, exceptions)) {
+            out.add(series.toOccurrence(start));
+        }
+    }
+
+    /**
+     * Vrací jednu stránku událostí uživatele řazenou podle (startTime, id).
+     *
+     * Načítá se o jednu událost více, než je limit – podle ní volající pozná,
+     * zda existuje další stránka.
+     *
+     * @param user   vlastník událostí
+     * @param cursor pozice poslední události předchozí stránky (null = první stránka)
+     * @param limit  velikost stránky
+     * @return nejvýše limit + 1 událostí
+     */
+    @Transactional(readOnly = true)
+    public List<EventResponse> getEventResponsePage(User user, EventCursor cursor, int limit) {
+        List<EventResponse> page = (cursor == null)
+                ? calendarEventRepository.findFirstPage(user.getId(), Limit.of(limit + 1))
+                : calendarEventRepository.findPageAfter(
+                        user.getId(), cursor.getStartTime(), cursor.getId(), Limit.of(limit + 1));
+        return withNotificationOffsets(page);
+    }
+
+    /**
+     * Delta synchronizace – změny kalendáře uživatele od verze since.
+     *
+     * Watermark je verze uživatele načtená na začátku requestu (před dotazy
+     * na události). Změna, která proběhne souběžně, tak dostane vyšší verzi
+     * a klient ji obdrží při příští synchronizaci – nic se neztratí,
+     * nanejvýš se událost pošle dvakrát.
+     *
+     * @param user  uživatel načtený v aktuálním requestu
+     * @param since poslední watermark klienta (null = první synchronizace)
+     */
+    @Transactional(readOnly = true)
+    public EventChangesResponse getChangesSince(User user, Long since) {
+        long watermark = user.getCalendarVersion();
+
+        // Bez watermarku, s watermarkem "z budoucnosti" nebo starším než smazané
+        // tombstony (retence) se posílá celý snapshot
+        if (since == null || since < 0 || since > watermark || since < user.getTombstonesPrunedVersion()) {
+            List<EventResponse> all = withNotificationOffsets(calendarEventRepository.findResponsesByUserId(user.getId()));
+            return new EventChangesResponse(all, List.of(), watermark, true);
+        }
+
+        List<EventResponse> changed = withNotificationOffsets(
+                calendarEventRepository.findResponsesChangedSince(user.getId(), since));
+        List<UUID> deleted = tombstoneRepository.findDeletedEventIdsSince(user.getId(), since);
+        return new EventChangesResponse(changed, deleted, watermark, false);
+    }
+
+    /**
+     * Kolize mezi událostmi uživatele v okně [from, to).
+     *
+     * @throws IllegalArgumentException pokud okno není platné
+     */
+    public List<EventConflict> getConflicts(User user, LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || !from.isBefore(to))
+            throw new IllegalArgumentException("Neplatné časové okno: 'from' musí být před 'to'.");
+        return intervalIndexService.findConflicts(user.getId(), from, to);
+    }
+
+    /**
+     * Kolize nové události s ostatními událostmi uživatele.
+     * Kandidát se předem doplní stejně jako při vytvoření (konec, pravidlo opakování).
+     */
+    public List<EventConflict> findConflictsForNew(User user, CalendarEvent candidate) {
+        prepareNew(candidate);
+        return intervalIndexService.findConflictsWith(user.getId(), candidateIntervals(candidate), null);
+    }
+
+    /**
+     * Kolize upravené události s ostatními událostmi uživatele.
+     * Změny se promítnou do kopie události, uložená událost zůstane beze změny.
+     */
+    @Transactional(readOnly = true)
+    public List<EventConflict> findConflictsForUpdate(User user, UUID id, CalendarEvent changes) {
+        CalendarEvent existing = calendarEventRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Událost nebyla nalezena"));
+
+        CalendarEvent preview = CalendarEvent.builder()
+                .id(existing.getId())
+                .title(existing.getTitle())
+                .description(existing.getDescription())
+                .startTime(existing.getStartTime())
+                .endTime(existing.getEndTime())
+                .category(existing.getCategory())
+                .sportType(existing.getSportType())
+                .allDay(existing.isAllDay())
+                .duration(existing.getDuration())
+                .distance(existing.getDistance())
+                .sportDescription(existing.getSportDescription())
+                .filePath(existing.getFilePath())
+                .recurrenceRule(existing.getRecurrenceRule())
+                .recurrenceExceptions(existing.getRecurrenceExceptions())
+                .user(existing.getUser())
+                .build();
+        applyChanges(preview, changes);
+
+        return intervalIndexService.findConflictsWith(user.getId(), candidateIntervals(preview), id);
+    }
+
+    /** Intervaly kandidáta – u série jeho výskyty v horizontu conflictHorizonDays. */
+    private List<EventInterval> candidateIntervals(CalendarEvent event) {
+        EventInterval interval = EventInterval.of(event);
+        if (interval == null) return List.of();
+        if (!interval.isSeries()) return List.of(interval);
+
+        LocalDateTime horizon = event.getStartTime().plusDays(conflictHorizonDays);
+        LocalDateTime until = event.getRecurrenceEnd() != null && event.getRecurrenceEnd().isBefore(horizon)
+                ? event.getRecurrenceEnd()
+                : horizon;
+
+        List<EventInterval> occurrences = new ArrayList<>();
+        for (LocalDateTime start : RecurrenceRule.parse(event.getRecurrenceRule()).occurrencesBetween(
+                event.getStartTime(),
+                Duration.between(event.getStartTime(), event.getEndTime()).toMinutes(),
+                event.getStartTime(), until,
+                RecurrenceRule.parseExceptions(event.getRecurrenceExceptions()))) {
+            occurrences.add(interval.atOccurrence(start));
+        }
+        return occurrences;
+    }
+
+    /** Doplní do DTO offsety notifikací (jeden dotaz pro celý seznam). */
+    private List<EventResponse> withNotificationOffsets(List<EventResponse> events) {
+        Map<UUID, LocalDateTime> startById = new HashMap<>();
+        for (EventResponse r : events) {
+            if (r.getStartTime() != null) startById.put(r.getId(), r.getStartTime());
+        }
+
+        Map<UUID, List<Integer>> offsetsByEvent = notificationService.getNotificationOffsets(startById);
+        for (EventResponse r : events) {
+            r.setNotifications(offsetsByEvent.getOrDefault(r.getId(), Collections.emptyList()));
+        }
+        return events;
+    }
+
+    /** Provede čtení v read-only transakci (bez dirty checkingu a flush). */
+    private <T> T readOnly(java.util.function.Supplier<T> action) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        return tx.execute(status -> action.get());
+    }
+
+    /**
+     * Smaže tombstony starší než weekfitter.sync.tombstone-retention-days.
+     * Klienti se starším watermarkem pak dostanou celý snapshot (getChangesSince).
+     *
+     * @return počet uživatelů, jejichž tombstony se smazaly
+     */
+    public int pruneTombstones() {
+        return tombstoneRepository.pruneDeletedBefore(LocalDateTime.now().minusDays(tombstoneRetentionDays));
+    }
+
+    /**
+     * Zapíše tombstone smazané události s aktuální verzí dat uživatele.
+     * Volá se až po publikování změny, tedy po zvýšení verze.
+     */
+    private void recordTombstone(UUID eventId, UUID userId) {
+        tombstoneRepository.save(CalendarEventTombstone.builder()
+                .eventId(eventId)
+                .userId(userId)
+                .changeVersion(userRepository.findCalendarVersionById(userId))
+                .deletedAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Ověří a normalizuje pravidlo opakování a dopočítá konec série.
+     *
+     * Prázdné pravidlo událost mění na jednorázovou. Volá se až po výpočtu
+     * endTime, protože konec série = začátek posledního výskytu + délka výskytu.
+     *
+     * @throws IllegalArgumentException při neplatném pravidle nebo chybějícím začátku
+     */
+    private static void applyRecurrence(CalendarEvent event) {
+        if (event.getRecurrenceRule() == null || event.getRecurrenceRule().isBlank()) {
+            event.setRecurrenceRule(null);
+            event.setRecurrenceExceptions(null);
+            event.setRecurrenceEnd(null);
+            return;
+        }
+
+        if (event.getStartTime() == null)
+            throw new IllegalArgumentException("Opakovaná událost musí mít začátek.");
+
+        RecurrenceRule rule = RecurrenceRule.parse(event.getRecurrenceRule());
+        event.setRecurrenceRule(rule.toString());
+        event.setRecurrenceExceptions(RecurrenceRule.formatExceptions(
+                RecurrenceRule.parseExceptions(event.getRecurrenceExceptions())));
+
+        LocalDateTime lastStart = rule.lastOccurrenceStart(event.getStartTime());
+        LocalDateTime end = event.getEndTime() != null ? event.getEndTime() : event.getStartTime().plusHours(1);
+        event.setRecurrenceEnd(lastStart == null
+                ? null
+                : lastStart.plus(Duration.between(event.getStartTime(), end)));
+    }
+
+    /**
+     * Oznámí změnu události v kalendáři uživatele (zneplatnění cache, verze apod.).
+     *
+     * @param userId  vlastník události
+     * @param eventId změněná existující událost (null u smazání)
+     */
+    private void publishChange(UUID userId, UUID eventId) {
+        if (userId == null) return;
+        eventPublisher.publishEvent(eventId != null
+                ? CalendarChangedEvent.forEvent(userId, eventId)
+                : new CalendarChangedEvent(userId));
+    }
+
     /**
      * Vytvoří novou událost.
      *
      * Logika zahrnuje:
      * - doplnění výchozí kategorie (OTHER),
      * - kontrolu, zda je uveden název,
-     * - výpočet endTime na základě startu a trvání.
+     * - výpočet endTime na základě startu a trvání,
+     * - ověření pravidla opakování a výpočet konce série,
+     * - kontrolu připojeného souboru (checkFilePath) a doplnění vzdálenosti
+     *   a délky z něj (trénink, aktivita).
+     *
+     * @throws IllegalArgumentException pro soubor, který uživateli nepatří
      */
     @Transactional
     public CalendarEvent createEvent(CalendarEvent event) {
+        event.setFilePath(checkFilePath(event.getUser(), event.getFilePath()));
+        applyAttachedFile(event, false);
+        prepareNew(event);
+        checkSpan(event);
+
+        CalendarEvent saved = calendarEventRepository.save(event);
+        UUID ownerId = saved.getUser() != null ? saved.getUser().getId() : null;
+        publishChange(ownerId, saved.getId());
+        if (ownerId != null) intervalIndexService.put(ownerId, EventInterval.of(saved));
+        titleSuggestService.titleChanged(ownerId, null, saved.getTitle());
+        weeklySummaryService.apply(null, WeeklySummaryService.Contribution.of(saved));
+        trainingLoadService.apply(null, TrainingLoadService.Contribution.of(saved));
+        return saved;
+    }
+
+    /**
+     * Vytvoří více událostí včetně notifikací v jediné transakci
+     * (např. tréninky naplánované automatickým plánovačem).
+     * Pokud selže kterákoliv z nich, neuloží se žádná.
+     *
+     * @param events        nové události
+     * @param notifications offsety notifikací pro každou událost (stejné pořadí)
+     * @return uložené události
+     */
+    @Transactional
+    public List<CalendarEvent> createEvents(List<CalendarEvent> events, List<List<Integer>> notifications) {
+        List<CalendarEvent> saved = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            CalendarEvent e = createEvent(events.get(i));
+            // změnu události (a tím i jejích notifikací) už oznámil createEvent
+            notificationRepository.saveAll(notificationService.buildNotifications(e, notifications.get(i)));
+            saved.add(e);
+        }
+        return saved;
+    }
+
+    /**
+     * Hromadně vytvoří události jednoho uživatele včetně notifikací
+     * (import tréninkového plánu).
+     *
+     * Oproti createEvent se vše zapisuje po dávkách: události a jejich
+     * notifikace se předají persistence contextu, flush je odešle jako JDBC
+     * dávky (ID jsou UUID generovaná v aplikaci, takže INSERT nemusí čekat
+     * na databázi) a clear uvolní paměť. Odvozená data se neaktualizují po
+     * jedné události – verze se zvýší jednou, index intervalů a řada zátěže
+     * se zahodí a týdenní souhrny se přepočítají jedním dotazem.
+     * Připojené soubory se kontrolují a promítají do událostí stejně jako
+     * v createEvent.
+     *
+     * @param user          vlastník všech událostí
+     * @param events        nové události (ID z requestu se ignoruje)
+     * @param notifications offsety notifikací pro každou událost (stejné pořadí)
+     * @return ID uložených událostí ve stejném pořadí
+     * @throws IllegalArgumentException pro soubor, který uživateli nepatří
+     */
+    @Transactional
+    public List<UUID> createEventsBulk(User user, List<CalendarEvent> events, List<List<Integer>> notifications) {
+        List<UUID> ids = new ArrayList<>(events.size());
+        LocalDateTime minStart = null;
+        LocalDateTime maxStart = null;
+
+        for (int from = 0; from < events.size(); from += bulkChunkSize) {
+            int to = Math.min(events.size(), from + bulkChunkSize);
+            List<Notification> chunkNotifications = new ArrayList<>();
+
+            for (int i = from; i < to; i++) {
+                CalendarEvent event = events.get(i);
+                // Nová entita s ID by se ukládala přes merge (SELECT navíc)
+                event.setId(null);
+                event.setUser(user);
+                event.setFilePath(checkFilePath(user, event.getFilePath()));
+                applyAttachedFile(event, false);
+                prepareNew(event);
+                checkSpan(event);
+                entityManager.persist(event);
+                ids.add(event.getId());
+                chunkNotifications.addAll(notificationService.buildNotifications(event, notifications.get(i)));
+
+                if (event.getStartTime() != null) {
+                    if (minStart == null || event.getStartTime().isBefore(minStart)) minStart = event.getStartTime();
+                    if (maxStart == null || event.getStartTime().isAfter(maxStart)) maxStart = event.getStartTime();
+                }
+            }
+            chunkNotifications.forEach(entityManager::persist);
+
+            entityManager.flush();
+            entityManager.clear();
+        }
+
+        if (!ids.isEmpty()) {
+            eventPublisher.publishEvent(new CalendarChangedEvent(user.getId(), new HashSet<>(ids)));
+            intervalIndexService.invalidate(user.getId());
+            trainingLoadService.invalidate(user.getId());
+            titleSuggestService.invalidate(user.getId());
+            if (minStart != null) weeklySummaryService.recompute(user.getId(), minStart, maxStart.plusDays(1));
+        }
+        return ids;
+    }
+
+    /**
+     * Zda je událost delší než maxEventSpanDays – taková se neuloží
+     * (import kalendáře ji přeskočí).
+     */
+    public boolean exceedsMaxSpan(CalendarEvent event) {
+        return event.getStartTime() != null && event.getEndTime() != null
+                && event.getEndTime().isAfter(event.getStartTime().plusDays(maxEventSpanDays));
+    }
+
+    /**
+     * Odmítne událost delší než maxEventSpanDays – dotaz na okno hledá
+     * události jen od from − maxEventSpanDays a delší by v něm chyběly.
+     *
+     * @throws IllegalArgumentException pro příliš dlouhou událost
+     */
+    private void checkSpan(CalendarEvent event) {
+        if (exceedsMaxSpan(event))
+            throw new IllegalArgumentException("Událost může trvat nejvýše " + maxEventSpanDays + " dní.");
+    }
+
+    /**
+     * Ověří cestu k souboru zadanou klientem. Povolí ji, jen pokud vede do
+     * adresáře příloh vlastníka (uloží se v jednotném zápisu), nebo pokud na
+     * ni už odkazuje jiná událost téhož uživatele (kopie události, starší
+     * ručně zadané cesty). Prázdná cesta (odebrání souboru) projde beze změny.
+     *
+     * @return cesta k uložení
+     * @throws IllegalArgumentException pro cestu, která uživateli nepatří
+     */
+    private String checkFilePath(User owner, String filePath) {
+        if (filePath == null || filePath.isBlank()) return filePath;
+
+        if (owner != null && owner.getId() != null) {
+            UUID ownerId = owner.getId();
+            if (uploadStorage.isAttachmentOf(ownerId, filePath)) return uploadStorage.normalize(filePath).orElseThrow();
+            if (calendarEventRepository.existsByUserIdAndFilePath(ownerId, filePath)) return filePath;
+        }
+        throw new IllegalArgumentException("Soubor '" + filePath + "' nepatří k vašim přílohám.");
+    }
+
+    /**
+     * Doplní do události hodnoty z připojeného souboru, které nejsou vyplněné:
+     * odhad z plánovaného tréninku Garmin (.json) nebo skutečnost z odjeté
+     * aktivity (.fit) či trasy (.gpx, .tcx). Jiné soubory se ignorují.
+     *
+     * @param replaceEnd délka se doplní i u události, která už má konec
+     *                   (ten se pak z délky přepočítá – attachFile)
+     */
+    private void applyAttachedFile(CalendarEvent event, boolean replaceEnd) {
+        garminWorkoutService.applyEstimate(event, replaceEnd);
+        fitActivityService.applyActual(event, replaceEnd);
+        routePreviewService.applyRoute(event, replaceEnd);
+    }
+
+    /**
+     * Doplní a ověří novou událost před uložením (kategorie, název, konec, opakování).
+     * Opakované volání nad stejnou událostí nic nemění.
+     */
+    private static void prepareNew(CalendarEvent event) {
 
         // Kategorie musí být vždy vyplněna
         if (event.getCategory() == null) event.setCategory(ActivityType.OTHER);
@@ -78,11 +637,9 @@ public class CalendarEventService {
             }
         }
 
-        return calendarEventRepository.save(event);
+        applyRecurrence(event);
     }
 
-    
-
     /**
      * Aktualizuje existující událost.
      *
@@ -91,57 +648,229 @@ public class CalendarEventService {
      * - aktualizuje jen hodnoty, které uživatel změnil,
      * - přepočítá endTime podle startTime a duration,
      * - pokud není duration, ale je poslán endTime → použije jej,
-     * - pokud ani jedno → nastaví výchozí 1 hodinu.
+     * - pokud ani jedno → nastaví výchozí 1 hodinu,
+     * - pravidlo opakování: null = beze změny, prázdný řetězec = zrušení série,
+     * - vlastník se nemění (user z requestu se ignoruje; oprávnění ověřuje
+     *   controller ještě před úpravou).
      *
      * Tato metoda bere ohled na použití ve dvou scénářích:
      * 1) úprava události v detailním formuláři,
      * 2) drag & drop v kalendáři (přesun bez změny ostatních hodnot).
+     *
+     * @throws IllegalArgumentException pro nově připojený soubor, který vlastníkovi nepatří
      */
     @Transactional
     public CalendarEvent updateEvent(UUID id, CalendarEvent updatedEvent) {
         return calendarEventRepository.findById(id)
                 .map(existing -> {
 
-                    // Pokud nebyl poslán user, ponechat původního
-                    if (updatedEvent.getUser() == null)
-                        updatedEvent.setUser(existing.getUser());
+                    UUID ownerId = existing.getUser() != null ? existing.getUser().getId() : null;
+                    WeeklySummaryService.Contribution summaryBefore = WeeklySummaryService.Contribution.of(existing);
+                    TrainingLoadService.Contribution loadBefore = TrainingLoadService.Contribution.of(existing);
+                    String titleBefore = existing.getTitle();
 
-                    // Pokud kategorie není poslaná → ponechat původní / OTHER
-                    if (updatedEvent.getCategory() == null)
-                        updatedEvent.setCategory(existing.getCategory() != null ? existing.getCategory() : ActivityType.OTHER);
-
-                    // Aktualizace běžných polí (pouze pokud nejsou null)
-                    if (updatedEvent.getTitle() != null) existing.setTitle(updatedEvent.getTitle());
-                    if (updatedEvent.getDescription() != null) existing.setDescription(updatedEvent.getDescription());
-                    if (updatedEvent.getStartTime() != null) existing.setStartTime(updatedEvent.getStartTime());
-                    if (updatedEvent.getDuration() != null) existing.setDuration(updatedEvent.getDuration());
-                    if (updatedEvent.getDistance() != null) existing.setDistance(updatedEvent.getDistance());
-                    if (updatedEvent.getSportDescription() != null) existing.setSportDescription(updatedEvent.getSportDescription());
-                    if (updatedEvent.getSportType() != null) existing.setSportType(updatedEvent.getSportType());
-                    if (updatedEvent.getFilePath() != null) existing.setFilePath(updatedEvent.getFilePath());
-                    if (updatedEvent.getCategory() != null) existing.setCategory(updatedEvent.getCategory());
-                    existing.setAllDay(updatedEvent.isAllDay());
-                    existing.setUser(updatedEvent.getUser());
-
-                    // Logika výpočtu konce události
-                    if (existing.getStartTime() != null) {
-                        boolean clientSentEndTime = updatedEvent.getEndTime() != null;
-                        if (existing.getDuration() != null && existing.getDuration() > 0) {
-                            existing.setEndTime(existing.getStartTime().plusMinutes(existing.getDuration().longValue()));
-                        } else if (!clientSentEndTime || updatedEvent.getEndTime().isBefore(existing.getStartTime())) {
-                            existing.setEndTime(existing.getStartTime().plusHours(1));
-                        } else {
-                            existing.setEndTime(updatedEvent.getEndTime());
-                        }
-                    } else if (updatedEvent.getEndTime() != null) {
-                        existing.setEndTime(updatedEvent.getEndTime());
+                    // Nově připojený soubor doplní vzdálenost a délku, které request neposlal
+                    if (updatedEvent.getFilePath() != null && !updatedEvent.getFilePath().equals(existing.getFilePath())) {
+                        updatedEvent.setUser(existing.getUser());
+                        updatedEvent.setFilePath(checkFilePath(existing.getUser(), updatedEvent.getFilePath()));
+                        applyAttachedFile(updatedEvent, false);
                     }
 
-                    return calendarEventRepository.save(existing);
+                    applyChanges(existing, updatedEvent);
+                    checkSpan(existing);
+
+                    CalendarEvent saved = calendarEventRepository.save(existing);
+
+                    titleSuggestService.titleChanged(ownerId, titleBefore, saved.getTitle());
+                    publishChange(ownerId, saved.getId());
+                    if (ownerId != null) intervalIndexService.put(ownerId, EventInterval.of(saved));
+                    weeklySummaryService.apply(summaryBefore, WeeklySummaryService.Contribution.of(saved));
+                    trainingLoadService.apply(loadBefore, TrainingLoadService.Contribution.of(saved));
+
+                    return saved;
                 })
                 .orElseThrow(() -> new RuntimeException("Událost nebyla nalezena"));
     }
 
+    /**
+     * Připojí k události nahraný soubor (viz AttachmentService) a doplní z něj
+     * hodnoty, které událost nemá – vzdálenost, délku a sport (applyAttachedFile).
+     *
+     * Na rozdíl od updateEvent mění jen filePath a doplněné hodnoty. Délka
+     * se doplní i u události, která už má konec (uložená událost ho má vždy,
+     * nejméně výchozí hodinu), a konec události (a série) se z ní přepočítá;
+     * délku zadanou uživatelem soubor nepřepíše, příznak celodenní zůstává.
+     */
+    @Transactional
+    public CalendarEvent attachFile(UUID id, String filePath) {
+        CalendarEvent existing = calendarEventRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Událost nebyla nalezena"));
+
+        WeeklySummaryService.Contribution summaryBefore = WeeklySummaryService.Contribution.of(existing);
+        TrainingLoadService.Contribution loadBefore = TrainingLoadService.Contribution.of(existing);
+        Double durationBefore = existing.getDuration();
+
+        existing.setFilePath(filePath);
+        applyAttachedFile(existing, true);
+
+        // Doplněná délka má přednost před koncem jako v updateEvent
+        if (existing.getStartTime() != null && existing.getDuration() != null && existing.getDuration() > 0
+                && !existing.getDuration().equals(durationBefore)) {
+            existing.setEndTime(existing.getStartTime().plusMinutes(existing.getDuration().longValue()));
+            applyRecurrence(existing);
+            checkSpan(existing);
+        }
+
+        CalendarEvent saved = calendarEventRepository.save(existing);
+        UUID ownerId = saved.getUser() != null ? saved.getUser().getId() : null;
+        publishChange(ownerId, saved.getId());
+        if (ownerId != null) intervalIndexService.put(ownerId, EventInterval.of(saved));
+        weeklySummaryService.apply(summaryBefore, WeeklySummaryService.Contribution.of(saved));
+        trainingLoadService.apply(loadBefore, TrainingLoadService.Contribution.of(saved));
+        return saved;
+    }
+
+    /**
+     * Promítne změny z requestu do existující události (viz updateEvent).
+     * Přepočítá konec události i konec série.
+     */
+    private static void applyChanges(CalendarEvent existing, CalendarEvent updatedEvent) {
+        // Pokud kategorie není poslaná → ponechat původní / OTHER
+        if (updatedEvent.getCategory() == null)
+            updatedEvent.setCategory(existing.getCategory() != null ? existing.getCategory() : ActivityType.OTHER);
+
+        // Aktualizace běžných polí (pouze pokud nejsou null)
+        if (updatedEvent.getTitle() != null) existing.setTitle(updatedEvent.getTitle());
+        if (updatedEvent.getDescription() != null) existing.setDescription(updatedEvent.getDescription());
+        if (updatedEvent.getStartTime() != null) existing.setStartTime(updatedEvent.getStartTime());
+        if (updatedEvent.getDuration() != null) existing.setDuration(updatedEvent.getDuration());
+        if (updatedEvent.getDistance() != null) existing.setDistance(updatedEvent.getDistance());
+        if (updatedEvent.getSportDescription() != null) existing.setSportDescription(updatedEvent.getSportDescription());
+        if (updatedEvent.getSportType() != null) existing.setSportType(updatedEvent.getSportType());
+        if (updatedEvent.getFilePath() != null) existing.setFilePath(updatedEvent.getFilePath());
+        if (updatedEvent.getCategory() != null) existing.setCategory(updatedEvent.getCategory());
+        if (updatedEvent.getRecurrenceRule() != null) existing.setRecurrenceRule(updatedEvent.getRecurrenceRule());
+        if (updatedEvent.getRecurrenceExceptions() != null) existing.setRecurrenceExceptions(updatedEvent.getRecurrenceExceptions());
+        existing.setAllDay(updatedEvent.isAllDay());
+
+        // Logika výpočtu konce události
+        if (existing.getStartTime() != null) {
+            boolean clientSentEndTime = updatedEvent.getEndTime() != null;
+            if (existing.getDuration() != null && existing.getDuration() > 0) {
+                existing.setEndTime(existing.getStartTime().plusMinutes(existing.getDuration().longValue()));
+            } else if (!clientSentEndTime || updatedEvent.getEndTime().isBefore(existing.getStartTime())) {
+                existing.setEndTime(existing.getStartTime().plusHours(1));
+            } else {
+                existing.setEndTime(updatedEvent.getEndTime());
+            }
+        } else if (updatedEvent.getEndTime() != null) {
+            existing.setEndTime(updatedEvent.getEndTime());
+        }
+
+        // Série se mohla posunout, zkrátit nebo zrušit
+        applyRecurrence(existing);
+    }
+
+    /**
+     * Hromadně posune jednorázové události uživatele (drag & drop celého týdne).
+     *
+     * Místo načítání a ukládání jednotlivých událostí se vše provede dvěma
+     * množinovými UPDATE příkazy v jedné transakci – jeden posune začátky
+     * a konce událostí, druhý časy jejich notifikací. Předtím se jedním
+     * projekčním dotazem zjistí, které události se skutečně posunou (vlastní,
+     * jednorázové); opakované série se neposouvají – posun série je změna
+     * jejího pravidla, ne hromadná operace.
+     *
+     * @param ids          vybrané události (null nebo prázdné = výběr oknem)
+     * @param from         začátek okna pro výběr podle začátku události
+     * @param to           konec okna (bez)
+     * @param deltaMinutes posun v minutách (záporný = dříve)
+     * @return ID posunutých událostí
+     * @throws IllegalArgumentException při neplatném posunu nebo výběru
+     */
+    @Transactional
+    public List<UUID> shiftEvents(User user, Collection<UUID> ids, LocalDateTime from, LocalDateTime to,
+                                  int deltaMinutes) {
+        if (deltaMinutes == 0 || Math.abs((long) deltaMinutes) > MAX_SHIFT_MINUTES)
+            throw new IllegalArgumentException("Posun musí být nenulový a nejvýše " + MAX_SHIFT_MINUTES / (24 * 60) + " dní.");
+
+        List<EventInterval> selected;
+        if (ids != null && !ids.isEmpty()) {
+            selected = calendarEventRepository.findSingleIntervalsByIds(user.getId(), ids);
+        } else {
+            if (from == null || to == null || !from.isBefore(to))
+                throw new IllegalArgumentException("Zadejte ID událostí nebo platné okno 'from' < 'to'.");
+            selected = calendarEventRepository.findSingleIntervalsStartingIn(user.getId(), from, to);
+        }
+        if (selected.isEmpty()) return List.of();
+        if (selected.size() > MAX_SHIFT_EVENTS)
+            throw new IllegalArgumentException("Najednou lze posunout nejvýše " + MAX_SHIFT_EVENTS + " událostí.");
+
+        List<UUID> shiftedIds = new ArrayList<>(selected.size());
+        LocalDateTime minStart = selected.get(0).getStartTime();
+        LocalDateTime maxStart = minStart;
+        for (EventInterval i : selected) {
+            shiftedIds.add(i.getId());
+            if (i.getStartTime().isBefore(minStart)) minStart = i.getStartTime();
+            if (i.getStartTime().isAfter(maxStart)) maxStart = i.getStartTime();
+        }
+
+        calendarEventRepository.shiftByIds(shiftedIds, deltaMinutes);
+        notificationRepository.shiftByEventIds(shiftedIds, deltaMinutes);
+
+        UUID userId = user.getId();
+        eventPublisher.publishEvent(new CalendarChangedEvent(userId, new HashSet<>(shiftedIds)));
+        intervalIndexService.invalidate(userId);
+        trainingLoadService.invalidate(userId);
+
+        // Souhrny týdnů před posunem i po něm
+        LocalDateTime recomputeFrom = deltaMinutes < 0 ? minStart.plusMinutes(deltaMinutes) : minStart;
+        LocalDateTime recomputeTo = (deltaMinutes > 0 ? maxStart.plusMinutes(deltaMinutes) : maxStart).plusDays(1);
+        weeklySummaryService.recompute(userId, recomputeFrom, recomputeTo);
+
+        return shiftedIds;
+    }
+
+    /**
+     * Zkopíruje jednorázové události okna [from, to) tak, aby okno začínalo
+     * v targetFrom (opakování tréninkového týdne).
+     *
+     * Kopie událostí i jejich notifikací vzniknou jedním příkazem s datovými
+     * CTE (INSERT ... SELECT ... RETURNING) přímo v databázi – žádný řádek
+     * neprochází aplikací. Série se nekopírují (opakují se samy). Verze dat uživatele se zvýší před kopírováním, aby
+     * kopie nesly novou verzi pro delta synchronizaci.
+     *
+     * @throws IllegalArgumentException při neplatném okně nebo cíli
+     */
+    @Transactional
+    public CopyEventsResponse copyEvents(User user, LocalDateTime from, LocalDateTime to, LocalDateTime targetFrom) {
+        if (from == null || to == null || !from.isBefore(to))
+            throw new IllegalArgumentException("Neplatné časové okno: 'from' musí být před 'to'.");
+        if (Duration.between(from, to).toDays() > MAX_COPY_WINDOW_DAYS)
+            throw new IllegalArgumentException("Kopírované okno může mít nejvýše " + MAX_COPY_WINDOW_DAYS + " dní.");
+        if (targetFrom == null)
+            throw new IllegalArgumentException("Chybí cíl kopírování 'targetFrom'.");
+
+        long offset = Duration.between(from, targetFrom).toMinutes();
+        if (offset == 0 || Math.abs(offset) > MAX_SHIFT_MINUTES)
+            throw new IllegalArgumentException("Cíl musí být jiný než zdroj a nejvýše " + MAX_SHIFT_MINUTES / (24 * 60) + " dní od něj.");
+
+        UUID userId = user.getId();
+        publishChange(userId, null);
+
+        CopyWindowCounts copied = calendarEventRepository.copyWindow(userId, from, to, (int) offset);
+        int events = (int) copied.getEvents();
+        int notifications = (int) copied.getNotifications();
+
+        if (events > 0) {
+            intervalIndexService.invalidate(userId);
+            trainingLoadService.invalidate(userId);
+            titleSuggestService.invalidate(userId);
+            weeklySummaryService.recompute(userId, targetFrom, targetFrom.plus(Duration.between(from, to)));
+        }
+        return new CopyEventsResponse(events, notifications);
+    }
+
     /**
      * Smaže událost podle ID.
      *
@@ -152,10 +881,28 @@ public class CalendarEventService {
      * Kaskádové mazání je sice nastaveno i na entitě CalendarEvent,
      * ale ruční smazání předem pomáhá předcházet problémům
      * s orphanRemoval a lazy kolekcemi.
+     *
+     * Za smazanou událost se zapíše tombstone, aby se o smazání dozvěděli
+     * i klienti synchronizující kalendář přes delta endpoint.
      */
     @Transactional
     public void deleteEvent(UUID id) {
+        CalendarEvent existing = calendarEventRepository.findById(id).orElse(null);
+        UUID ownerId = existing != null && existing.getUser() != null ? existing.getUser().getId() : null;
+        WeeklySummaryService.Contribution summaryBefore = WeeklySummaryService.Contribution.of(existing);
+        TrainingLoadService.Contribution loadBefore = TrainingLoadService.Contribution.of(existing);
+
         notificationRepository.deleteAllByEventId(id);
         calendarEventRepository.deleteById(id);
+
+        if (ownerId != null) {
+            // Nejdřív zvýšení verze, tombstone pak dostane novou verzi uživatele
+            publishChange(ownerId, null);
+            recordTombstone(id, ownerId);
+            intervalIndexService.remove(ownerId, id);
+            titleSuggestService.titleChanged(ownerId, existing.getTitle(), null);
+        }
+        weeklySummaryService.apply(summaryBefore, null);
+        trainingLoadService.apply(loadBefore, null);
     }
 }
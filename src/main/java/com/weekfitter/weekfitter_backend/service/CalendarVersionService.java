@@ -0,0 +1,59 @@
+package com.weekfitter.weekfitter_backend.service;
+
+import com.weekfitter.weekfitter_backend.event.CalendarChangedEvent;
+import com.weekfitter.weekfitter_backend.model.User;
+import com.weekfitter.weekfitter_backend.repository.CalendarEventRepository;
+import com.weekfitter.weekfitter_backend.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+/**
+ * Správa verze dat uživatele pro podmíněné GET požadavky.
+ *
+ * Každá změna kalendáře (CalendarChangedEvent) nebo profilu zvýší verzi
+ * uložené v tabulce users. Z verze se odvozuje silný ETag – pokud klient
+ * pošle If-None-Match se stejnou hodnotou, controller vrátí 304 bez
+ * spouštění dotazů na události.
+ *
+ * Změněné události se zároveň označí novou verzí (change_version) –
+ * na tom staví delta synchronizace kalendáře.
+ */
+@Service
+@RequiredArgsConstructor
+public class CalendarVersionService {
+
+    private final UserRepository userRepository;
+    private final CalendarEventRepository calendarEventRepository;
+
+    /** Zvýší verzi dat uživatele. */
+    public void bump(UUID userId) {
+        userRepository.incrementCalendarVersion(userId);
+    }
+
+    /**
+     * Zvýšení verze při změně kalendáře a označení změněných událostí.
+     *
+     * Běží synchronně v transakci, která změnu provedla – verze se tak
+     * potvrdí (nebo odvolá) společně se samotnou změnou.
+     */
+    @EventListener
+    public void onCalendarChanged(CalendarChangedEvent event) {
+        bump(event.getUserId());
+        if (!event.getEventIds().isEmpty()) {
+            calendarEventRepository.stampChangeVersion(event.getUserId(), event.getEventIds());
+        }
+    }
+
+    /**
+     * Silný ETag odvozený z ID a aktuální verze uživatele.
+     *
+     * @param user uživatel načtený v aktuálním requestu
+     * @return hodnota hlavičky ETag (včetně uvozovek)
+     */
+    public String etag(User user) {
+        return "\"" + user.getId() + "-" + user.getCalendarVersion() + "\"";
+    }
+}
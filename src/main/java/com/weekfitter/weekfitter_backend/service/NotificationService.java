@@ -1,12 +1,17 @@
 package com.weekfitter.weekfitter_backend.service;
 
+import com.weekfitter.weekfitter_backend.dto.NotificationOffsetRow;
+import com.weekfitter.weekfitter_backend.event.CalendarChangedEvent;
 import com.weekfitter.weekfitter_backend.model.Notification;
 import com.weekfitter.weekfitter_backend.model.NotificationType;
+import com.weekfitter.weekfitter_backend.model.User;
 import com.weekfitter.weekfitter_backend.repository.NotificationRepository;
 import com.weekfitter.weekfitter_backend.model.CalendarEvent;
+import com.weekfitter.weekfitter_backend.service.recurrence.RecurrenceRule;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,6 +26,14 @@ import java.time.*;
  * - tvorbu notifikací pro konkrétní události,
  * - přepočet časů notifikací při změně začátku události,
  * - periodické vyhledávání a odesílání e-mailových upozornění.
+ *
+ * U opakované série existuje pro každý offset jediná notifikace, která
+ * vždy míří na nejbližší nadcházející výskyt. Po odeslání se posune
+ * na další výskyt – notifikace se tak nikdy nematerializují pro celou sérii.
+ *
+ * Změny notifikací se promítají do výpisu kalendáře (offsety), proto
+ * publikují CalendarChangedEvent – jeden za operaci nad událostí, ne za
+ * každý řádek notifikace (každá publikace zvyšuje verzi kalendáře).
  */
 @Service
 @RequiredArgsConstructor
@@ -33,6 +46,7 @@ public class NotificationService {
 
     private final NotificationRepository notificationRepository;
     private final EmailService emailService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Vytvoří novou notifikaci k dané události.
@@ -58,6 +72,7 @@ public class NotificationService {
                 .build();
 
         notificationRepository.save(notification);
+        eventPublisher.publishEvent(CalendarChangedEvent.forEvent(event.getUser().getId(), event.getId()));
         log.info("Vytvořena notifikace typu {} pro uživatele {} (odeslání v {})",
                 type, event.getUser().getEmail(), notifyAt);
     }
@@ -68,12 +83,141 @@ public class NotificationService {
      *
      * Používá se např. při smazání události nebo jejím kompletním přegenerování.
      *
-     * @param eventId ID události
+     * @param event událost, jejíž notifikace se mají odstranit
+     */
+    @Transactional
+    public void deleteByEvent(CalendarEvent event) {
+        int deleted = notificationRepository.deleteAllByEventId(event.getId());
+        if (deleted > 0 && event.getUser() != null) {
+            eventPublisher.publishEvent(CalendarChangedEvent.forEvent(event.getUser().getId(), event.getId()));
+        }
+        log.info("Odstraněny notifikace pro událost ID {}", event.getId());
+    }
+
+    /**
+     * Vytvoří notifikace události podle offsetů zadaných ve frontendové aplikaci.
+     *
+     * U jednorázové události míří notifikace na její začátek. U opakované série
+     * na nejbližší výskyt, který ještě nezačal a jehož upozornění ještě nepropadlo.
+     * Série podporuje pouze standardní offsety (NotificationType) – offset se
+     * po posunu na další výskyt odvozuje z typu.
+     *
+     * Všechny notifikace se uloží najednou a změna kalendáře se oznámí jednou.
+     *
+     * @param event   uložená událost
+     * @param offsets offsety v minutách před začátkem
      */
     @Transactional
-    public void deleteByEvent(UUID eventId) {
-        notificationRepository.deleteAllByEventId(eventId);
-        log.info("Odstraněny notifikace pro událost ID {}", eventId);
+    public void createNotifications(CalendarEvent event, Collection<Integer> offsets) {
+        List<Notification> built = buildNotifications(event, offsets);
+        if (built.isEmpty()) return;
+
+        notificationRepository.saveAll(built);
+        eventPublisher.publishEvent(CalendarChangedEvent.forEvent(event.getUser().getId(), event.getId()));
+        log.info("Vytvořeno {} notifikací pro událost ID {}", built.size(), event.getId());
+    }
+
+    /**
+     * Nahradí notifikace události novými podle offsetů (úprava události
+     * ve formuláři). Smazání i vytvoření proběhne v jedné transakci
+     * a změna kalendáře se oznámí jednou.
+     *
+     * @param event   uložená událost
+     * @param offsets offsety v minutách před začátkem
+     */
+    @Transactional
+    public void replaceNotifications(CalendarEvent event, Collection<Integer> offsets) {
+        int deleted = notificationRepository.deleteAllByEventId(event.getId());
+        List<Notification> built = buildNotifications(event, offsets);
+        if (!built.isEmpty()) notificationRepository.saveAll(built);
+
+        if ((deleted > 0 || !built.isEmpty()) && event.getUser() != null) {
+            eventPublisher.publishEvent(CalendarChangedEvent.forEvent(event.getUser().getId(), event.getId()));
+        }
+        log.info("Nahrazeny notifikace pro událost ID {} ({} odstraněno, {} vytvořeno)",
+                event.getId(), deleted, built.size());
+    }
+
+    /**
+     * Sestaví (neuloží) notifikace události podle offsetů – stejná pravidla
+     * jako createNotifications. Slouží hromadnému zakládání událostí, které
+     * notifikace uloží v dávkách spolu s událostmi.
+     *
+     * @return nové notifikace (prázdný seznam u události bez vlastníka nebo začátku)
+     */
+    public List<Notification> buildNotifications(CalendarEvent event, Collection<Integer> offsets) {
+        if (offsets == null || event.getStartTime() == null || event.getUser() == null) return List.of();
+
+        List<Notification> built = new ArrayList<>(offsets.size());
+        LocalDateTime now = ZonedDateTime.now(APP_ZONE).toLocalDateTime();
+        for (Integer minutes : offsets) {
+            if (minutes == null || minutes <= 0) continue;
+
+            NotificationType type = NotificationType.fromMinutes(minutes);
+            if (event.isRecurring() && type == null) {
+                log.warn("Nestandardní offset {} min nelze použít u opakované série {}", minutes, event.getId());
+                continue;
+            }
+
+            LocalDateTime anchor = event.isRecurring()
+                    ? nextOccurrence(event, now.plusMinutes(minutes))
+                    : event.getStartTime();
+            if (anchor == null) continue;
+
+            built.add(Notification.builder()
+                    .event(event)
+                    .user(event.getUser())
+                    .notifyAt(anchor.minusMinutes(minutes.longValue()))
+                    .notificationType(type)
+                    .sent(false)
+                    .build());
+        }
+        return built;
+    }
+
+    /**
+     * Přeplánuje notifikace opakované série na nejbližší nadcházející výskyt.
+     *
+     * Volá se po změně začátku, pravidla nebo výjimek série. Notifikace,
+     * pro které už série nemá žádný další výskyt, se označí jako odeslané.
+     */
+    @Transactional
+    public void rescheduleSeriesNotifications(CalendarEvent series) {
+        if (!series.isRecurring()) return;
+
+        List<Notification> existing = notificationRepository.findAllByEventId(series.getId());
+        if (existing.isEmpty()) return;
+
+        LocalDateTime now = ZonedDateTime.now(APP_ZONE).toLocalDateTime();
+        for (Notification n : existing) {
+            if (n.getNotificationType() == null) continue;
+
+            int minutes = n.getNotificationType().getMinutesBefore();
+            LocalDateTime next = nextOccurrence(series, now.plusMinutes(minutes));
+            if (next == null) {
+                n.setSent(true);
+            } else {
+                n.setNotifyAt(next.minusMinutes(minutes));
+                n.setSent(false);
+            }
+        }
+        notificationRepository.saveAll(existing);
+
+        if (series.getUser() != null) {
+            eventPublisher.publishEvent(CalendarChangedEvent.forEvent(series.getUser().getId(), series.getId()));
+        }
+        log.info("Přeplánovány notifikace série ID {}", series.getId());
+    }
+
+    /**
+     * Začátek nejbližšího výskytu série v čase notBefore nebo později (s ohledem na výjimky).
+     *
+     * @return začátek výskytu nebo null, pokud série už skončila
+     */
+    private static LocalDateTime nextOccurrence(CalendarEvent series, LocalDateTime notBefore) {
+        LocalDateTime from = notBefore.isAfter(series.getStartTime()) ? notBefore : series.getStartTime();
+        return RecurrenceRule.parse(series.getRecurrenceRule()).firstOccurrenceAtOrAfter(
+                series.getStartTime(), from, RecurrenceRule.parseExceptions(series.getRecurrenceExceptions()));
     }
 
     /**
@@ -108,6 +252,11 @@ public class NotificationService {
         }
 
         notificationRepository.saveAll(existing);
+
+        User owner = existing.get(0).getUser();
+        if (owner != null) {
+            eventPublisher.publishEvent(CalendarChangedEvent.forEvent(owner.getId(), eventId));
+        }
         log.info("Přepočítány časy notifikací pro událost ID {}", eventId);
     }
 
@@ -137,27 +286,17 @@ public class NotificationService {
 
                 CalendarEvent e = n.getEvent();
 
-                String subject = "Upozornění: " + e.getTitle();
-                String message =
-                        "Připomenutí vaší aktivity:\n\n" +
-                        "Název: " + e.getTitle() + "\n" +
-                        "Popis: " + (e.getDescription() != null ? e.getDescription() : "—") + "\n" +
-                        "Kategorie: " + e.getCategory() + "\n" +
-                        (e.getSportType() != null ? "Typ sportu: " + e.getSportType() + "\n" : "") +
-                        (e.getDistance() != null ? "Vzdálenost: " + e.getDistance() + " km\n" : "") +
-                        (e.getDuration() != null ? "Doba trvání: " + e.getDuration() + " min\n" : "") +
-                        "\nZačíná: " + e.getStartTime().format(formatter);
+                if (e.isRecurring()) {
+                    sendSeriesNotification(n, e, now, formatter);
+                    continue;
+                }
 
-                // Odeslání e-mailu přes EmailService
-                emailService.sendNotificationEmail(n.getUser().getEmail(), subject, message);
+                send(n, e, e.getStartTime(), formatter);
 
                 // Označení notifikace jako odeslané
                 n.setSent(true);
                 notificationRepository.save(n);
 
-                log.info("Notifikace odeslána uživateli {} pro událost '{}'",
-                        n.getUser().getEmail(), e.getTitle());
-
             } catch (Exception ex) {
                 // Chyba při odeslání neukončí celý proces – pouze se zaloguje
                 log.error("Chyba při odesílání notifikace: {}", ex.getMessage(), ex);
@@ -165,6 +304,59 @@ public class NotificationService {
         }
     }
 
+    /**
+     * Zpracuje notifikaci opakované série.
+     *
+     * - notifikace míří na výskyt notifyAt + offset; pokud ten už začal
+     *   (např. po výpadku scheduleru), přeskočí se na nejbližší budoucí výskyt,
+     * - e-mail se odešle, jen pokud čas upozornění na cílový výskyt už nastal,
+     * - poté se notifikace posune na následující výskyt, případně se po
+     *   posledním výskytu označí jako odeslaná.
+     */
+    private void sendSeriesNotification(Notification n, CalendarEvent series, LocalDateTime now,
+                                        DateTimeFormatter formatter) {
+        int minutes = n.getNotificationType() != null
+                ? n.getNotificationType().getMinutesBefore()
+                : (int) Math.max(0, Duration.between(n.getNotifyAt(), series.getStartTime()).toMinutes());
+
+        LocalDateTime occurrence = nextOccurrence(series, n.getNotifyAt().plusMinutes(minutes));
+        if (occurrence != null && !occurrence.isAfter(now)) {
+            occurrence = nextOccurrence(series, now.plusSeconds(1));
+        }
+
+        if (occurrence != null && !occurrence.minusMinutes(minutes).isAfter(now)) {
+            send(n, series, occurrence, formatter);
+            occurrence = nextOccurrence(series, occurrence.plusSeconds(1));
+        }
+
+        if (occurrence == null) {
+            n.setSent(true);
+        } else {
+            n.setNotifyAt(occurrence.minusMinutes(minutes));
+        }
+        notificationRepository.save(n);
+    }
+
+    /** Sestaví a odešle e-mail s upozorněním na (výskyt) události začínající ve start. */
+    private void send(Notification n, CalendarEvent e, LocalDateTime start, DateTimeFormatter formatter) {
+        String subject = "Upozornění: " + e.getTitle();
+        String message =
+                "Připomenutí vaší aktivity:\n\n" +
+                "Název: " + e.getTitle() + "\n" +
+                "Popis: " + (e.getDescription() != null ? e.getDescription() : "—") + "\n" +
+                "Kategorie: " + e.getCategory() + "\n" +
+                (e.getSportType() != null ? "Typ sportu: " + e.getSportType() + "\n" : "") +
+                (e.getDistance() != null ? "Vzdálenost: " + e.getDistance() + " km\n" : "") +
+                (e.getDuration() != null ? "Doba trvání: " + e.getDuration() + " min\n" : "") +
+                "\nZačíná: " + start.format(formatter);
+
+        // Odeslání e-mailu přes EmailService
+        emailService.sendNotificationEmail(n.getUser().getEmail(), subject, message);
+
+        log.info("Notifikace odeslána uživateli {} pro událost '{}'",
+                n.getUser().getEmail(), e.getTitle());
+    }
+
     /**
      * Vrátí seznam offsetů (v minutách před začátkem události),
      * které odpovídají aktuálně uloženým notifikacím v databázi.
@@ -203,4 +395,41 @@ public class NotificationService {
         return offsets;
     }
 
+    /**
+     * Hromadně načte offsety notifikací pro události zadané ID a časem začátku.
+     *
+     * Jeden dotaz pro celý výpis bez ohledu na počet událostí (výpisy
+     * kalendáře pracují s projekcemi, ne s entitami CalendarEvent).
+     *
+     * @param startById mapa ID události → začátek události
+     * @return mapa ID události → seřazený seznam offsetů v minutách
+     */
+    public Map<UUID, List<Integer>> getNotificationOffsets(Map<UUID, LocalDateTime> startById) {
+        if (startById == null || startById.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        List<NotificationOffsetRow> rows = notificationRepository.findOffsetRowsByEventIds(startById.keySet());
+
+        Map<UUID, List<Integer>> offsetsByEvent = new HashMap<>();
+        for (NotificationOffsetRow row : rows) {
+            if (row.getNotifyAt() == null) continue;
+
+            LocalDateTime start = startById.get(row.getEventId());
+            if (start == null) continue;
+
+            // Standardní offset určuje typ – u série se notifyAt posouvá s výskyty,
+            // rozdíl vůči začátku série by tedy neodpovídal
+            long minutes = row.getNotificationType() != null
+                    ? row.getNotificationType().getMinutesBefore()
+                    : Duration.between(row.getNotifyAt(), start).toMinutes();
+            if (minutes > 0) {
+                offsetsByEvent.computeIfAbsent(row.getEventId(), id -> new ArrayList<>()).add((int) minutes);
+            }
+        }
+
+        offsetsByEvent.values().forEach(Collections::sort);
+        return offsetsByEvent;
+    }
+
 }
@@ -0,0 +1,99 @@
+package com.weekfitter.weekfitter_backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Adresář nahraných souborů (přílohy událostí – tréninky, aktivity, trasy).
+ *
+ * CalendarEvent.filePath je cesta relativní k tomuto adresáři, může být
+ * uvedena i s jeho názvem ("uploads/x.json"). Cesty vedoucí mimo adresář
+ * (absolutní, "../") se odmítnou.
+ *
+ * Přílohy mají vlastníka – leží v "attachments/{userId}/". Soubory události
+ * se čtou jen z adresáře příloh jejího vlastníka, nebo přímo z adresáře
+ * nahraných souborů (starší cesty zadané ručně); přílohy ostatních
+ * uživatelů ani jiné podadresáře (fotky profilů) se nevrátí.
+ */
+@Service
+public class UploadStorage {
+
+    /** Podadresář příloh (po uživatelích). */
+    public static final String ATTACHMENTS = "attachments";
+
+    private final Path dir;
+
+    public UploadStorage(@Value("${weekfitter.uploads.dir:uploads}") String dir) {
+        this.dir = Path.of(dir).toAbsolutePath().normalize();
+    }
+
+    /** Adresář nahraných souborů (absolutní cesta). */
+    public Path dir() {
+        return dir;
+    }
+
+    /** Adresář příloh uživatele. */
+    public Path attachmentsDir(UUID userId) {
+        return dir.resolve(ATTACHMENTS).resolve(userId.toString());
+    }
+
+    /**
+     * Existující soubor události uživatele ownerId – z jeho adresáře příloh,
+     * nebo přímo z adresáře nahraných souborů.
+     *
+     * @return prázdný Optional pro chybějící soubor, cestu mimo adresář
+     *         nebo soubor jiného uživatele
+     */
+    public Optional<Path> resolve(UUID ownerId, String filePath) {
+        if (ownerId == null) return Optional.empty();
+        Path attachments = attachmentsDir(ownerId);
+        return locate(filePath)
+                .filter(f -> f.getParent().equals(dir) || f.startsWith(attachments))
+                .filter(Files::isRegularFile);
+    }
+
+    /** Zda cesta vede do adresáře příloh uživatele (soubor nemusí existovat). */
+    public boolean isAttachmentOf(UUID userId, String filePath) {
+        Path attachments = attachmentsDir(userId);
+        return locate(filePath).filter(f -> f.startsWith(attachments) && !f.equals(attachments)).isPresent();
+    }
+
+    /**
+     * Jednotný zápis cesty pro CalendarEvent.filePath ("uploads/…" s lomítky,
+     * bez "." a ".."). Soubor nemusí existovat.
+     *
+     * @return prázdný Optional pro neplatnou cestu nebo cestu mimo adresář
+     */
+    public Optional<String> normalize(String filePath) {
+        return locate(filePath).map(this::filePath);
+    }
+
+    /** Cesta pro CalendarEvent.filePath k souboru v adresáři nahraných souborů. */
+    public String filePath(Path file) {
+        StringBuilder out = new StringBuilder(dir.getFileName().toString());
+        for (Path part : dir.relativize(file)) out.append('/').append(part);
+        return out.toString();
+    }
+
+    /** Absolutní cesta uvnitř adresáře (bez kontroly existence). */
+    private Optional<Path> locate(String filePath) {
+        if (filePath == null || filePath.isBlank()) return Optional.empty();
+        try {
+            Path relative = Path.of(filePath.trim()).normalize();
+            if (relative.isAbsolute()) return Optional.empty();
+            if (relative.getNameCount() > 1 && relative.startsWith(dir.getFileName())) {
+                relative = relative.subpath(1, relative.getNameCount());
+            }
+            Path file = dir.resolve(relative).normalize();
+            return file.startsWith(dir) && !file.equals(dir) ? Optional.of(file) : Optional.empty();
+        } catch (InvalidPathException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.weekfitter.weekfitter_backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Cache indexů jednotlivých uživatelů, které se sestaví z databáze
+ * a dále udržují inkrementálně (intervaly událostí, tréninková zátěž,
+ * návrhy názvů).
+ *
+ * Změna se do indexu promítne až po commitu transakce, aby index nikdy
+ * neobsahoval neuloženou změnu. Index, který není v paměti, se kvůli
+ * změně nesestavuje – při další potřebě se načte už se změnou.
+ *
+ * Index sestavený souběžně se změnou už ji může obsahovat (dotaz proběhl
+ * po commitu, ale před promítnutím rozdílu). Každé sestavení proto nese
+ * pořadové číslo přidělené po dokončení dotazu a každá změna číslo
+ * přidělené při registraci (před commitem). Index dokončený až po
+ * registraci změny se po commitu zahodí místo toho, aby se na něj rozdíl
+ * aplikoval podruhé. Mimo transakci je změna v databázi už potvrzená,
+ * index se proto zahodí vždy.
+ *
+ * @param <V> typ indexu
+ */
+public class UserIndexCache<V> {
+
+    /** Index a pořadové číslo jeho sestavení. */
+    private static final class Built<V> {
+        private final V index;
+        private final long version;
+
+        private Built(V index, long version) {
+            this.index = index;
+            this.version = version;
+        }
+    }
+
+    private final Cache<UUID, Built<V>> cache;
+    private final AtomicLong clock = new AtomicLong();
+
+    /**
+     * @param builder nastavení Caffeine (velikost, expirace, statistiky)
+     * @param weigher váha indexu pro maximumWeight (null = bez vážení)
+     * @param name    název cache v metrikách
+     */
+    public UserIndexCache(Caffeine<Object, Object> builder, ToIntFunction<V> weigher,
+                          MeterRegistry meterRegistry, String name) {
+        this.cache = weigher == null
+                ? builder.build()
+                : builder.weigher((UUID userId, Built<V> built) -> weigher.applyAsInt(built.index)).build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+    }
+
+    /** Index uživatele (při výpadku se sestaví přes loader). */
+    public V get(UUID userId, Function<UUID, V> loader) {
+        return cache.get(userId, id -> build(id, loader)).index;
+    }
+
+    /**
+     * Index uživatele; sestaví se znovu i tehdy, když uložený index
+     * nevyhovuje podmínce fresh (např. je sestaven k jinému dni).
+     */
+    public V get(UUID userId, Function<UUID, V> loader, Predicate<V> fresh) {
+        return cache.asMap().compute(userId, (id, current) ->
+                current != null && fresh.test(current.index) ? current : build(id, loader)).index;
+    }
+
+    /** Po commitu aplikuje změnu na index uživatele, pokud je v paměti. */
+    public void update(UUID userId, UnaryOperator<V> change) {
+        long registered = clock.incrementAndGet();
+
+        afterCommit(userId, () -> cache.asMap().computeIfPresent(userId, (id, built) -> {
+            if (built.version > registered) return null;
+            V changed = change.apply(built.index);
+            return changed == null ? null : new Built<>(changed, built.version);
+        }));
+    }
+
+    /** Po commitu zahodí index uživatele (při další potřebě se sestaví znovu). */
+    public void invalidate(UUID userId) {
+        afterCommit(userId, () -> cache.invalidate(userId));
+    }
+
+    private Built<V> build(UUID userId, Function<UUID, V> loader) {
+        V index = loader.apply(userId);
+        return new Built<>(index, clock.incrementAndGet());
+    }
+
+    /** Spustí akci po commitu aktuální transakce (mimo transakci index uživatele zahodí). */
+    private void afterCommit(UUID userId, Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            cache.invalidate(userId);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.weekfitter.weekfitter_backend.service.activity;
+
+import java.time.Instant;
+
+/**
+ * Záznam odjeté aktivity ze souboru FIT ve sloupcové podobě.
+ *
+ * Každý záznam (FIT record) je index i do primitivních polí stejné délky:
+ * - time[i] – sekundy od začátku aktivity,
+ * - heartRate[i] – tep (bpm), -1 pokud chybí,
+ * - speed[i] – rychlost (m/s), NaN pokud chybí,
+ * - distance[i] – kumulativní vzdálenost (m), NaN pokud chybí,
+ * - power[i] – výkon (W), -1 pokud chybí.
+ *
+ * Souhrn (distanceMeters, durationSeconds) pochází ze session zprávy,
+ * případně z posledního záznamu. Instance se po vytvoření nemění.
+ */
+public final class FitActivity {
+
+    private final Instant startTime;
+    private final String sport;
+    private final double distanceMeters;
+    private final long durationSeconds;
+    private final int[] time;
+    private final int[] heartRate;
+    private final float[] speed;
+    private final float[] distance;
+    private final int[] power;
+
+    FitActivity(Instant startTime, String sport, double distanceMeters, long durationSeconds,
+                int[] time, int[] heartRate, float[] speed, float[] distance, int[] power) {
+        this.startTime = startTime;
+        this.sport = sport;
+        this.distanceMeters = distanceMeters;
+        this.durationSeconds = durationSeconds;
+        this.time = time;
+        this.heartRate = heartRate;
+        this.speed = speed;
+        this.distance = distance;
+        this.power = power;
+    }
+
+    /** Začátek aktivity (null, pokud soubor neobsahuje čas). */
+    public Instant getStartTime() { return startTime; }
+
+    /** Sport podle FIT (running, cycling, swimming…), null pokud chybí. */
+    public String getSport() { return sport; }
+
+    /** Celková vzdálenost v metrech. */
+    public double getDistanceMeters() { return distanceMeters; }
+
+    /** Čistý čas aktivity v sekundách (bez pauz, pokud je soubor uvádí). */
+    public long getDurationSeconds() { return durationSeconds; }
+
+    /** Počet záznamů. */
+    public int getCount() { return time.length; }
+
+    public int[] getTime() { return time; }
+    public int[] getHeartRate() { return heartRate; }
+    public float[] getSpeed() { return speed; }
+    public float[] getDistance() { return distance; }
+    public int[] getPower() { return power; }
+}
@@ -0,0 +1,103 @@
+package com.weekfitter.weekfitter_backend.service.activity;
+
+import com.weekfitter.weekfitter_backend.model.ActivityType;
+import com.weekfitter.weekfitter_backend.model.CalendarEvent;
+import com.weekfitter.weekfitter_backend.model.SportType;
+import com.weekfitter.weekfitter_backend.service.UploadStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Odjeté aktivity připojené k událostem jako soubor FIT (export z hodinek
+ * nebo Garmin Connect).
+ *
+ * Soubor se namapuje do paměti (FileChannel.map) a FitDecoder ho čte
+ * přímo z mapovaného bufferu – ani vícehodinová aktivita o desítkách MB
+ * se nekopíruje na haldu a záznamy nevytvářejí objekty.
+ */
+@Service
+public class FitActivityService {
+
+    private static final Logger log = LoggerFactory.getLogger(FitActivityService.class);
+
+    private final UploadStorage uploadStorage;
+    private final long maxBytes;
+
+    public FitActivityService(
+            UploadStorage uploadStorage,
+            @Value("${weekfitter.activity.max-bytes:67108864}") long maxBytes
+    ) {
+        this.uploadStorage = uploadStorage;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Aktivita z připojeného souboru události uživatele ownerId.
+     *
+     * @return prázdný Optional, pokud cesta nevede na čitelný soubor FIT
+     *         nebo na soubor jiného uživatele (UploadStorage.resolve);
+     *         poškozený soubor nikdy nepřeruší uložení události
+     */
+    public Optional<FitActivity> activity(UUID ownerId, String filePath) {
+        if (filePath == null || !filePath.toLowerCase(Locale.ROOT).endsWith(".fit")) return Optional.empty();
+
+        Path file = uploadStorage.resolve(ownerId, filePath).orElse(null);
+        if (file == null) return Optional.empty();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > maxBytes) return Optional.empty();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return Optional.of(FitDecoder.decode(buffer));
+        } catch (IOException | RuntimeException e) {
+            log.debug("Soubor aktivity {} nelze přečíst: {}", filePath, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Doplní do události skutečnou vzdálenost a délku z připojené aktivity –
+     * jen hodnoty, které uživatel sám nezadal (stejně jako odhad tréninku).
+     *
+     * @param replaceEnd délka se doplní i u události s koncem
+     *                   (viz GarminWorkoutService.applyEstimate)
+     */
+    public void applyActual(CalendarEvent event, boolean replaceEnd) {
+        if (event.getUser() == null) return;
+        activity(event.getUser().getId(), event.getFilePath()).ifPresent(a -> {
+            if (event.getDistance() == null && a.getDistanceMeters() > 0) {
+                event.setDistance(Math.round(a.getDistanceMeters() / 10.0) / 100.0);
+            }
+            boolean hasEnd = event.getEndTime() != null && event.getStartTime() != null
+                    && event.getEndTime().isAfter(event.getStartTime());
+            if (event.getDuration() == null && (replaceEnd || !hasEnd) && a.getDurationSeconds() > 0) {
+                event.setDuration((double) Math.max(1, Math.round(a.getDurationSeconds() / 60.0)));
+            }
+            if (event.getSportType() == null && event.getCategory() == ActivityType.SPORT) {
+                event.setSportType(sportType(a.getSport()));
+            }
+        });
+    }
+
+    /** Sport FIT → SportType aplikace. */
+    static SportType sportType(String sport) {
+        if (sport == null) return SportType.OTHER;
+        return switch (sport) {
+            case "running" -> SportType.RUNNING;
+            case "cycling" -> SportType.CYCLING;
+            case "swimming" -> SportType.SWIMMING;
+            default -> SportType.OTHER;
+        };
+    }
+}
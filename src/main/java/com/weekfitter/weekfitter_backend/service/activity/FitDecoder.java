@@ -0,0 +1,375 @@
+package com.weekfitter.weekfitter_backend.service.activity;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Dekodér binárního formátu FIT (Garmin Flexible and Interoperable Data
+ * Transfer) pro záznamy aktivit.
+ *
+ * Čte přímo z ByteBufferu (typicky namapovaného souboru) absolutními
+ * indexy – bez kopírování vstupu a bez objektu na zprávu:
+ * - definiční zprávy se ukládají do předalokovaných polí podle lokálního
+ *   typu (0–15), včetně pořadí bajtů a vývojářských polí (ta se přeskočí),
+ * - datové zprávy record (20) se zapisují rovnou do sloupcových polí,
+ *   která rostou zdvojením; ostatní zprávy se přeskočí podle definice,
+ *   ze session (18) se převezmou souhrnné hodnoty,
+ * - komprimovaná hlavička času se dopočítá z posledního úplného času.
+ * Zřetězené soubory (více FIT za sebou) se čtou postupně.
+ *
+ * Kontrolní součet (CRC) souboru se ověřuje, pokud je uveden.
+ *
+ * Třída je bezstavová – stav jednoho dekódování drží vnitřní State.
+ */
+public final class FitDecoder {
+
+    /** Počátek času FIT (1989-12-31T00:00:00Z) v sekundách epochy Unix. */
+    static final long FIT_EPOCH = 631_065_600L;
+
+    private static final int MESG_SESSION = 18;
+    private static final int MESG_RECORD = 20;
+
+    private static final int FIELD_TIMESTAMP = 253;
+
+    private static final int RECORD_HEART_RATE = 3;
+    private static final int RECORD_DISTANCE = 5;
+    private static final int RECORD_SPEED = 6;
+    private static final int RECORD_POWER = 7;
+    private static final int RECORD_ENHANCED_SPEED = 73;
+
+    private static final int SESSION_START_TIME = 2;
+    private static final int SESSION_SPORT = 5;
+    private static final int SESSION_TOTAL_ELAPSED_TIME = 7;
+    private static final int SESSION_TOTAL_TIMER_TIME = 8;
+    private static final int SESSION_TOTAL_DISTANCE = 9;
+
+    private static final int LOCAL_TYPES = 16;
+    private static final int MAX_FIELDS = 255;
+
+    private static final int[] CRC_TABLE = {
+            0x0000, 0xCC01, 0xD801, 0x1400, 0xF001, 0x3C00, 0x2800, 0xE401,
+            0xA001, 0x6C00, 0x7800, 0xB401, 0x5000, 0x9C01, 0x8801, 0x4400
+    };
+
+    private FitDecoder() {
+    }
+
+    /**
+     * Dekóduje aktivitu ze souboru FIT.
+     *
+     * @param buf obsah souboru (čte se od pozice 0 do limitu, pozice se nemění)
+     * @throws IllegalArgumentException pokud obsah není platný soubor FIT
+     */
+    public static FitActivity decode(ByteBuffer buf) {
+        State s = new State(buf);
+        int pos = 0;
+        int files = 0;
+        try {
+            while (buf.limit() - pos >= 12) {
+                int next = s.file(pos);
+                if (next < 0) break;
+                pos = next;
+                files++;
+            }
+        } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+            // Čtení mimo obsah (poškozený nebo useknutý soubor) – stejná chyba jako jiný neplatný vstup
+            throw new IllegalArgumentException("Soubor FIT je poškozený nebo neúplný.", e);
+        }
+        if (files == 0) throw new IllegalArgumentException("Soubor není ve formátu FIT.");
+        return s.result();
+    }
+
+    /** Počáteční kapacita sloupců záznamů (při 1 Hz asi 17 minut). */
+    private static final int INITIAL_RECORDS = 1024;
+
+    /** Stav dekódování – definice lokálních zpráv a rostoucí sloupce záznamů. */
+    private static final class State {
+        private final ByteBuffer buf;
+
+        // Definice podle lokálního typu zprávy
+        private final boolean[] defined = new boolean[LOCAL_TYPES];
+        private final boolean[] bigEndian = new boolean[LOCAL_TYPES];
+        private final int[] globalNum = new int[LOCAL_TYPES];
+        private final int[] fieldCount = new int[LOCAL_TYPES];
+        private final int[][] fieldNum = new int[LOCAL_TYPES][MAX_FIELDS];
+        private final int[][] fieldSize = new int[LOCAL_TYPES][MAX_FIELDS];
+        private final int[] devBytes = new int[LOCAL_TYPES];
+
+        private long lastTimestamp = -1;
+
+        // Sloupce záznamů
+        private int count;
+        private long[] timestamps;
+        private int[] heartRate;
+        private float[] speed;
+        private float[] distance;
+        private int[] power;
+
+        // Souhrn ze session zpráv (multisport = součet)
+        private long sessionStart = -1;
+        private int sessionSport = -1;
+        private double sessionDistance = -1;
+        private double sessionTimerTime = -1;
+        private double sessionElapsedTime = -1;
+
+        State(ByteBuffer buf) {
+            this.buf = buf;
+            // Malá počáteční kapacita, sloupce rostou zdvojnásobením – velký
+            // soubor s málo záznamy (lapy, zařízení, vývojářská data) tak
+            // nealokuje desítky MB předem
+            timestamps = new long[INITIAL_RECORDS];
+            heartRate = new int[INITIAL_RECORDS];
+            speed = new float[INITIAL_RECORDS];
+            distance = new float[INITIAL_RECORDS];
+            power = new int[INITIAL_RECORDS];
+        }
+
+        /**
+         * Přečte jeden soubor FIT od pozice start.
+         *
+         * @return pozice za souborem, nebo -1 pokud na pozici soubor FIT nezačíná
+         */
+        int file(int start) {
+            int headerSize = u8(start);
+            if (headerSize < 12 || start + headerSize > buf.limit()) return -1;
+            if (buf.get(start + 8) != '.' || buf.get(start + 9) != 'F'
+                    || buf.get(start + 10) != 'I' || buf.get(start + 11) != 'T') return -1;
+
+            long dataSize = u32(start + 4, false);
+            long declaredEnd = start + headerSize + dataSize;
+            // Neúplný soubor (přerušený zápis) se přečte, kam až sahá
+            int end = (int) Math.min(declaredEnd, buf.limit());
+
+            if (declaredEnd + 2 <= buf.limit()) {
+                int expected = u16((int) declaredEnd, false);
+                if (expected != 0 && crc(buf, start, (int) declaredEnd) != expected)
+                    throw new IllegalArgumentException("Soubor FIT je poškozený (nesouhlasí kontrolní součet).");
+            }
+
+            Arrays.fill(defined, false);
+            int pos = start + headerSize;
+            while (pos < end) {
+                pos = message(pos, end);
+            }
+            return (int) Math.min(declaredEnd + 2, buf.limit());
+        }
+
+        /** Přečte zprávu (definiční nebo datovou) a vrátí pozici za ní. */
+        private int message(int pos, int end) {
+            int header = u8(pos++);
+
+            if ((header & 0x80) != 0) {
+                // Komprimovaná hlavička času: lokální typ v bitech 5–6, posun v bitech 0–4
+                int local = (header >> 5) & 0x03;
+                int offset = header & 0x1F;
+                long timestamp = lastTimestamp < 0 ? -1
+                        : lastTimestamp + ((offset - (lastTimestamp & 0x1F)) & 0x1F);
+                if (timestamp >= 0) lastTimestamp = timestamp;
+                return data(local, pos, end, timestamp);
+            }
+
+            int local = header & 0x0F;
+            if ((header & 0x40) != 0) return definition(local, (header & 0x20) != 0, pos, end);
+            return data(local, pos, end, -1);
+        }
+
+        private int definition(int local, boolean developer, int pos, int end) {
+            if (pos + 5 > end) return end;
+            boolean big = u8(pos + 1) == 1;
+            int global = u16(pos + 2, big);
+            int fields = u8(pos + 4);
+            pos += 5;
+            if (pos + 3 * fields > end) return end;
+
+            for (int i = 0; i < fields; i++) {
+                fieldNum[local][i] = u8(pos);
+                fieldSize[local][i] = u8(pos + 1);
+                pos += 3;
+            }
+
+            int dev = 0;
+            if (developer) {
+                if (pos + 1 > end) return end;
+                int devFields = u8(pos++);
+                if (pos + 3 * devFields > end) return end;
+                for (int i = 0; i < devFields; i++) {
+                    dev += u8(pos + 1);
+                    pos += 3;
+                }
+            }
+
+            defined[local] = true;
+            bigEndian[local] = big;
+            globalNum[local] = global;
+            fieldCount[local] = fields;
+            devBytes[local] = dev;
+            return pos;
+        }
+
+        private int data(int local, int pos, int end, long timestamp) {
+            if (!defined[local])
+                throw new IllegalArgumentException("Soubor FIT obsahuje data bez definice zprávy.");
+
+            boolean big = bigEndian[local];
+            int global = globalNum[local];
+            int[] nums = fieldNum[local];
+            int[] sizes = fieldSize[local];
+            int n = fieldCount[local];
+
+            int hr = -1;
+            float spd = Float.NaN;
+            float dist = Float.NaN;
+            int pwr = -1;
+
+            for (int i = 0; i < n; i++) {
+                int size = sizes[i];
+                if (pos + size > end) return end;
+                int field = nums[i];
+
+                if (field == FIELD_TIMESTAMP && size == 4) {
+                    long value = u32(pos, big);
+                    if (value != 0xFFFFFFFFL) {
+                        timestamp = value;
+                        lastTimestamp = value;
+                    }
+                } else if (global == MESG_RECORD) {
+                    switch (field) {
+                        case RECORD_HEART_RATE -> { if (size == 1 && u8(pos) != 0xFF) hr = u8(pos); }
+                        case RECORD_DISTANCE -> { if (size == 4 && u32(pos, big) != 0xFFFFFFFFL) dist = u32(pos, big) / 100f; }
+                        case RECORD_SPEED -> { if (size == 2 && u16(pos, big) != 0xFFFF && Float.isNaN(spd)) spd = u16(pos, big) / 1000f; }
+                        case RECORD_ENHANCED_SPEED -> { if (size == 4 && u32(pos, big) != 0xFFFFFFFFL) spd = u32(pos, big) / 1000f; }
+                        case RECORD_POWER -> { if (size == 2 && u16(pos, big) != 0xFFFF) pwr = u16(pos, big); }
+                        default -> { }
+                    }
+                } else if (global == MESG_SESSION) {
+                    session(field, pos, size, big);
+                }
+                pos += size;
+            }
+            pos += devBytes[local];
+
+            if (global == MESG_RECORD && timestamp >= 0) append(timestamp, hr, spd, dist, pwr);
+            return Math.min(pos, end);
+        }
+
+        private void session(int field, int pos, int size, boolean big) {
+            switch (field) {
+                case SESSION_START_TIME -> {
+                    if (size == 4 && u32(pos, big) != 0xFFFFFFFFL && sessionStart < 0) sessionStart = u32(pos, big);
+                }
+                case SESSION_SPORT -> {
+                    if (size == 1 && u8(pos) != 0xFF && sessionSport < 0) sessionSport = u8(pos);
+                }
+                case SESSION_TOTAL_ELAPSED_TIME -> {
+                    if (size == 4 && u32(pos, big) != 0xFFFFFFFFL) sessionElapsedTime = add(sessionElapsedTime, u32(pos, big) / 1000.0);
+                }
+                case SESSION_TOTAL_TIMER_TIME -> {
+                    if (size == 4 && u32(pos, big) != 0xFFFFFFFFL) sessionTimerTime = add(sessionTimerTime, u32(pos, big) / 1000.0);
+                }
+                case SESSION_TOTAL_DISTANCE -> {
+                    if (size == 4 && u32(pos, big) != 0xFFFFFFFFL) sessionDistance = add(sessionDistance, u32(pos, big) / 100.0);
+                }
+                default -> { }
+            }
+        }
+
+        private static double add(double total, double value) {
+            return total < 0 ? value : total + value;
+        }
+
+        private void append(long timestamp, int hr, float spd, float dist, int pwr) {
+            if (count == timestamps.length) {
+                int capacity = count * 2;
+                timestamps = Arrays.copyOf(timestamps, capacity);
+                heartRate = Arrays.copyOf(heartRate, capacity);
+                speed = Arrays.copyOf(speed, capacity);
+                distance = Arrays.copyOf(distance, capacity);
+                power = Arrays.copyOf(power, capacity);
+            }
+            timestamps[count] = timestamp;
+            heartRate[count] = hr;
+            speed[count] = spd;
+            distance[count] = dist;
+            power[count] = pwr;
+            count++;
+        }
+
+        FitActivity result() {
+            long start = sessionStart >= 0 ? sessionStart : count > 0 ? timestamps[0] : -1;
+
+            int[] time = new int[count];
+            for (int i = 0; i < count; i++) time[i] = (int) (timestamps[i] - (start >= 0 ? start : timestamps[0]));
+
+            double totalDistance = sessionDistance;
+            if (totalDistance < 0) {
+                totalDistance = 0;
+                for (int i = count - 1; i >= 0; i--) {
+                    if (!Float.isNaN(distance[i])) {
+                        totalDistance = distance[i];
+                        break;
+                    }
+                }
+            }
+
+            double totalTime = sessionTimerTime >= 0 ? sessionTimerTime : sessionElapsedTime;
+            if (totalTime < 0) totalTime = count > 1 ? timestamps[count - 1] - timestamps[0] : 0;
+
+            return new FitActivity(
+                    start >= 0 ? Instant.ofEpochSecond(FIT_EPOCH + start) : null,
+                    sport(sessionSport),
+                    totalDistance,
+                    Math.round(totalTime),
+                    time,
+                    Arrays.copyOf(heartRate, count),
+                    Arrays.copyOf(speed, count),
+                    Arrays.copyOf(distance, count),
+                    Arrays.copyOf(power, count));
+        }
+
+        private int u8(int i) {
+            return buf.get(i) & 0xFF;
+        }
+
+        private int u16(int i, boolean big) {
+            int a = buf.get(i) & 0xFF;
+            int b = buf.get(i + 1) & 0xFF;
+            return big ? (a << 8) | b : (b << 8) | a;
+        }
+
+        private long u32(int i, boolean big) {
+            long a = buf.get(i) & 0xFF;
+            long b = buf.get(i + 1) & 0xFF;
+            long c = buf.get(i + 2) & 0xFF;
+            long d = buf.get(i + 3) & 0xFF;
+            return big ? (a << 24) | (b << 16) | (c << 8) | d : (d << 24) | (c << 16) | (b << 8) | a;
+        }
+    }
+
+    /** CRC-16 úseku [from, to) podle specifikace FIT (polynom 0xA001, po půlbajtech). */
+    static int crc(ByteBuffer buf, int from, int to) {
+        int crc = 0;
+        for (int i = from; i < to; i++) {
+            int b = buf.get(i) & 0xFF;
+            int tmp = CRC_TABLE[crc & 0xF];
+            crc = ((crc >> 4) & 0x0FFF) ^ tmp ^ CRC_TABLE[b & 0xF];
+            tmp = CRC_TABLE[crc & 0xF];
+            crc = ((crc >> 4) & 0x0FFF) ^ tmp ^ CRC_TABLE[(b >> 4) & 0xF];
+        }
+        return crc;
+    }
+
+    /** Název sportu podle výčtu FIT (sport). */
+    static String sport(int code) {
+        return switch (code) {
+            case -1 -> null;
+            case 1 -> "running";
+            case 2 -> "cycling";
+            case 5 -> "swimming";
+            case 11 -> "walking";
+            case 17 -> "hiking";
+            default -> "generic";
+        };
+    }
+}
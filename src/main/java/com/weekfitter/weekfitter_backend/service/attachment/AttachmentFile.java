@@ -0,0 +1,48 @@
+package com.weekfitter.weekfitter_backend.service.attachment;
+
+import org.springframework.http.MediaType;
+
+import java.nio.file.Path;
+
+/**
+ * Soubor připojený k události, připravený ke stažení – cesta na disku
+ * a hodnoty pro hlavičky odpovědi (délka, ETag, Last-Modified, typ).
+ *
+ * ETag se odvozuje z velikosti a času změny souboru; nahrané přílohy se
+ * nepřepisují (každé nahrání má vlastní adresář), takže je stabilní.
+ */
+public final class AttachmentFile {
+
+    private final Path path;
+    private final String name;
+    private final long size;
+    private final long lastModified;
+    private final String etag;
+    private final MediaType mediaType;
+
+    AttachmentFile(Path path, String name, long size, long lastModified, String etag, MediaType mediaType) {
+        this.path = path;
+        this.name = name;
+        this.size = size;
+        this.lastModified = lastModified;
+        this.etag = etag;
+        this.mediaType = mediaType;
+    }
+
+    /** Absolutní cesta k souboru. */
+    public Path getPath() { return path; }
+
+    /** Název souboru pro Content-Disposition. */
+    public String getName() { return name; }
+
+    /** Velikost v bajtech. */
+    public long getSize() { return size; }
+
+    /** Čas poslední změny (ms od epochy). */
+    public long getLastModified() { return lastModified; }
+
+    /** Silný ETag včetně uvozovek. */
+    public String getEtag() { return etag; }
+
+    public MediaType getMediaType() { return mediaType; }
+}
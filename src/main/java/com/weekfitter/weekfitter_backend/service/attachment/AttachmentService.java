@@ -0,0 +1,256 @@
+package com.weekfitter.weekfitter_backend.service.attachment;
+
+import com.weekfitter.weekfitter_backend.repository.CalendarEventRepository;
+import com.weekfitter.weekfitter_backend.service.UploadStorage;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.Normalizer;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Přílohy událostí – nahrání souboru a jeho stažení po částech.
+ *
+ * Nahraný soubor se uloží do "attachments/{userId}/{eventId}/{uploadId}/{název}"
+ * v adresáři nahraných souborů (UploadStorage.attachmentsDir). Multipart část je už na disku (servlet
+ * kontejner ji ukládá do dočasného souboru), transferTo ji jen přesune –
+ * obsah neprochází haldou. Každé nahrání má vlastní adresář, soubor se
+ * pak nemění a ETag z velikosti a času změny zůstává platný.
+ *
+ * Stahování podporuje jeden rozsah (Range, If-Range). Data se zapisují
+ * bez kopírování přes haldu: Tomcat je odešle sám přes sendfile, jinak
+ * FileChannel.transferTo do výstupu odpovědi.
+ */
+@Service
+public class AttachmentService {
+
+    private static final Logger log = LoggerFactory.getLogger(AttachmentService.class);
+
+    /** Nejdelší název uloženého souboru. */
+    private static final int MAX_NAME_LENGTH = 100;
+
+    /** Menší soubory se zapíšou přímo, sendfile se vyplatí až od této velikosti (jako DefaultServlet). */
+    private static final long SENDFILE_MIN_BYTES = 48 * 1024;
+
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final UploadStorage uploadStorage;
+    private final CalendarEventRepository calendarEventRepository;
+
+    public AttachmentService(UploadStorage uploadStorage, CalendarEventRepository calendarEventRepository) {
+        this.uploadStorage = uploadStorage;
+        this.calendarEventRepository = calendarEventRepository;
+    }
+
+    /**
+     * Uloží nahraný soubor jako přílohu události uživatele userId.
+     *
+     * @return cesta pro CalendarEvent.filePath ("uploads/attachments/…")
+     * @throws IllegalArgumentException pro prázdný soubor
+     */
+    public String store(UUID userId, UUID eventId, MultipartFile file) throws IOException {
+        if (file == null || file.isEmpty()) throw new IllegalArgumentException("Soubor je prázdný.");
+
+        Path uploadDir = uploadStorage.attachmentsDir(userId)
+                .resolve(eventId.toString())
+                .resolve(UUID.randomUUID().toString());
+        Files.createDirectories(uploadDir);
+        Path target = uploadDir.resolve(fileName(file.getOriginalFilename()));
+
+        try {
+            // absolutní File – Tomcat dočasný soubor části jen přejmenuje
+            file.transferTo(target.toFile());
+        } catch (IOException | RuntimeException e) {
+            deleteUploadDir(uploadDir);
+            throw e;
+        }
+        return uploadStorage.filePath(target);
+    }
+
+    /**
+     * Smaže nahranou přílohu uživatele ownerId, pokud na ni už neodkazuje
+     * žádná jeho událost (kopie události sdílí stejný soubor). Soubory mimo
+     * jeho adresář příloh (starší cesty zadané ručně, přílohy jiných
+     * uživatelů) se nemažou.
+     */
+    public void release(UUID ownerId, String filePath) {
+        if (ownerId == null || !uploadStorage.isAttachmentOf(ownerId, filePath)) return;
+        Path file = uploadStorage.resolve(ownerId, filePath).orElse(null);
+        if (file == null) return;
+
+        // jen soubor nahrání "{eventId}/{uploadId}/{název}", ne jiné soubory v adresáři příloh
+        if (uploadStorage.attachmentsDir(ownerId).relativize(file).getNameCount() != 3) return;
+        if (calendarEventRepository.existsByUserIdAndFilePath(ownerId, uploadStorage.filePath(file))) return;
+
+        deleteUploadDir(file.getParent());
+    }
+
+    /**
+     * Soubor připojený k události uživatele ownerId pro stažení.
+     *
+     * @return prázdný Optional, pokud cesta nevede na existující soubor
+     *         nebo na soubor jiného uživatele (UploadStorage.resolve)
+     */
+    public Optional<AttachmentFile> file(UUID ownerId, String filePath) {
+        Path file = uploadStorage.resolve(ownerId, filePath).orElse(null);
+        if (file == null) return Optional.empty();
+
+        try {
+            long size = Files.size(file);
+            long lastModified = Files.getLastModifiedTime(file).toMillis();
+            String name = file.getFileName().toString();
+            String etag = "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+            MediaType mediaType = MediaTypeFactory.getMediaType(name).orElse(MediaType.APPLICATION_OCTET_STREAM);
+            return Optional.of(new AttachmentFile(file, name, size, lastModified, etag, mediaType));
+        } catch (IOException e) {
+            log.debug("Přílohu {} nelze přečíst: {}", filePath, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Vybere část souboru podle hlaviček Range a If-Range.
+     *
+     * Celý soubor se vrací bez Range, při neshodě If-Range s ETagem,
+     * pro neplatnou hlavičku a pro více rozsahů najednou (server je smí
+     * ignorovat – klienti stahování navazují jedním rozsahem).
+     *
+     * @return null, pokud rozsah leží celý za koncem souboru (416)
+     */
+    public static Range range(String rangeHeader, String ifRange, AttachmentFile file) {
+        Range whole = new Range(0, file.getSize() - 1, false);
+        if (rangeHeader == null || file.getSize() == 0) return whole;
+        if (ifRange != null && !ifRange.equals(file.getEtag())) return whole;
+
+        List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            return whole;
+        }
+        if (ranges.size() != 1) return whole;
+
+        HttpRange range = ranges.get(0);
+        long start;
+        long end;
+        try {
+            start = range.getRangeStart(file.getSize());
+            end = range.getRangeEnd(file.getSize());
+        } catch (IllegalArgumentException e) {
+            return whole;
+        }
+        if (start >= file.getSize() || end < start) return null;
+        return new Range(start, end, true);
+    }
+
+    /**
+     * Zapíše vybranou část souboru do odpovědi. Hlavičky (Content-Length,
+     * Content-Range) nastavuje volající před zavoláním.
+     *
+     * Pokud to Tomcat podporuje, předá mu soubor přes atributy sendfile –
+     * data pak posílá jádro přímo ze souboru do socketu až po návratu
+     * z controlleru. Jinak FileChannel.transferTo do výstupu odpovědi.
+     */
+    public void transfer(AttachmentFile file, Range range, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        if (range.length() == 0) return;
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED)) && range.length() >= SENDFILE_MIN_BYTES) {
+            request.setAttribute(SENDFILE_FILENAME, file.getPath().toString());
+            request.setAttribute(SENDFILE_START, range.getStart());
+            request.setAttribute(SENDFILE_END, range.getEnd() + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file.getPath(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = range.getStart();
+            long remaining = range.length();
+            while (remaining > 0) {
+                long written = channel.transferTo(position, remaining, out);
+                if (written <= 0) throw new EOFException("Příloha " + file.getName() + " se během stahování zkrátila.");
+                position += written;
+                remaining -= written;
+            }
+        }
+    }
+
+    /**
+     * Bezpečný název uloženého souboru – bez cesty, bez diakritiky (kódování
+     * názvů souborů na serveru nemusí být UTF-8), jen písmena, číslice,
+     * mezery a ". _ -", nejvýše MAX_NAME_LENGTH znaků se zachovanou příponou.
+     */
+    static String fileName(String original) {
+        String name = original == null ? "" : original;
+        name = name.substring(Math.max(name.lastIndexOf('/'), name.lastIndexOf('\\')) + 1);
+        name = Normalizer.normalize(name, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        name = name.replaceAll("[^A-Za-z0-9._ -]", "_").strip();
+        while (name.startsWith(".")) name = name.substring(1);
+        if (name.isEmpty()) return "attachment";
+
+        if (name.length() > MAX_NAME_LENGTH) {
+            int dot = name.lastIndexOf('.');
+            String extension = dot > 0 && name.length() - dot <= 10 ? name.substring(dot) : "";
+            name = name.substring(0, MAX_NAME_LENGTH - extension.length()).strip() + extension;
+        }
+        return name;
+    }
+
+    /** Smaže adresář jednoho nahrání (soubor, náhled trasy) a prázdný adresář události. */
+    private static void deleteUploadDir(Path uploadDir) {
+        try (Stream<Path> files = Files.list(uploadDir)) {
+            for (Path f : (Iterable<Path>) files::iterator) Files.deleteIfExists(f);
+            Files.deleteIfExists(uploadDir);
+            Files.deleteIfExists(uploadDir.getParent());
+        } catch (DirectoryNotEmptyException e) {
+            // událost má další nahrání
+        } catch (IOException e) {
+            log.warn("Přílohu {} nelze smazat: {}", uploadDir, e.getMessage());
+        }
+    }
+
+    /** Vybraná část souboru (start a end včetně). */
+    public static final class Range {
+        private final long start;
+        private final long end;
+        private final boolean partial;
+
+        Range(long start, long end, boolean partial) {
+            this.start = start;
+            this.end = end;
+            this.partial = partial;
+        }
+
+        public long getStart() { return start; }
+
+        /** Poslední bajt (včetně); pro prázdný soubor -1. */
+        public long getEnd() { return end; }
+
+        /** Zda jde o část souboru (206 Partial Content). */
+        public boolean isPartial() { return partial; }
+
+        public long length() { return end - start + 1; }
+    }
+}
@@ -0,0 +1,258 @@
+package com.weekfitter.weekfitter_backend.service.ics;
+
+import com.weekfitter.weekfitter_backend.model.CalendarEvent;
+import com.weekfitter.weekfitter_backend.service.recurrence.RecurrenceRule;
+import com.weekfitter.weekfitter_backend.service.ics.IcsReader.Component;
+import com.weekfitter.weekfitter_backend.service.ics.IcsReader.Property;
+
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+import static com.weekfitter.weekfitter_backend.service.ics.IcsWriter.APP_ZONE;
+
+/**
+ * Převod události VEVENT (z IcsReader) na CalendarEvent a offsety notifikací.
+ *
+ * - časy se převádějí do zóny aplikace (UTC "Z", TZID, nebo plovoucí čas),
+ *   VALUE=DATE je celodenní událost,
+ * - konec z DTEND, nebo DTSTART + DURATION,
+ * - RRULE se převezme, pokud ho aplikace podporuje (UNTIL v UTC se převede
+ *   na místní čas); jinak se importuje jen první výskyt (simplified),
+ * - VALARM s relativním TRIGGER před začátkem → offset notifikace;
+ *   u jednorázové události jen upozornění, jehož čas ještě nenastal,
+ * - zrušené události (STATUS:CANCELLED) a upravené výskyty série
+ *   (RECURRENCE-ID) se přeskočí – aplikace je neumí reprezentovat.
+ *
+ * Třída je bezstavová.
+ */
+public final class IcsEventMapper {
+
+    /** Délka textových sloupců události (varchar). */
+    static final int MAX_TEXT = 255;
+
+    private static final String UNTITLED = "(bez názvu)";
+
+    private static final DateTimeFormatter LOCAL = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    private IcsEventMapper() {
+    }
+
+    /** Převedená událost a offsety jejích upozornění (minuty před začátkem). */
+    public static final class Mapped {
+        private final CalendarEvent event;
+        private final List<Integer> offsets;
+        private final boolean simplified;
+
+        Mapped(CalendarEvent event, List<Integer> offsets, boolean simplified) {
+            this.event = event;
+            this.offsets = offsets;
+            this.simplified = simplified;
+        }
+
+        public CalendarEvent event() { return event; }
+        public List<Integer> offsets() { return offsets; }
+
+        /** Bylo nutné zahodit nepodporované pravidlo opakování? */
+        public boolean simplified() { return simplified; }
+    }
+
+    /**
+     * Převede událost.
+     *
+     * @param now aktuální čas v zóně aplikace (pro vyřazení proběhlých upozornění)
+     * @return převedená událost, nebo null, pokud se událost neimportuje
+     */
+    public static Mapped map(Component vevent, LocalDateTime now) {
+        if (vevent.first("RECURRENCE-ID") != null) return null;
+        Property status = vevent.first("STATUS");
+        if (status != null && status.value().trim().equalsIgnoreCase("CANCELLED")) return null;
+
+        Property dtStart = vevent.first("DTSTART");
+        if (dtStart == null) return null;
+
+        LocalDateTime start;
+        boolean allDay;
+        LocalDateTime end = null;
+        try {
+            allDay = isDate(dtStart);
+            start = toLocal(dtStart);
+
+            Property dtEnd = vevent.first("DTEND");
+            Property duration = vevent.first("DURATION");
+            if (dtEnd != null) {
+                end = toLocal(dtEnd);
+            } else if (duration != null) {
+                end = start.plus(parseDuration(duration.value()));
+            } else if (allDay) {
+                end = start.plusDays(1);
+            }
+        } catch (DateTimeException | IllegalArgumentException e) {
+            return null;
+        }
+        if (end != null && end.isBefore(start)) end = null;
+
+        CalendarEvent event = CalendarEvent.builder()
+                .title(title(vevent))
+                .description(truncate(text(vevent.first("DESCRIPTION"))))
+                .startTime(start)
+                .endTime(end)
+                .allDay(allDay)
+                .build();
+        if (end != null && !allDay) event.setDuration((double) Duration.between(start, end).toMinutes());
+
+        boolean simplified = false;
+        Property rrule = vevent.first("RRULE");
+        if (rrule != null) {
+            try {
+                String rule = RecurrenceRule.parse(localUntil(rrule.value().trim())).toString();
+                event.setRecurrenceRule(rule);
+                event.setRecurrenceExceptions(RecurrenceRule.formatExceptions(exceptions(vevent)));
+            } catch (IllegalArgumentException | DateTimeException e) {
+                event.setRecurrenceRule(null);
+                event.setRecurrenceExceptions(null);
+                simplified = true;
+            }
+        }
+
+        return new Mapped(event, offsets(vevent, start, event.getRecurrenceRule() != null, now), simplified);
+    }
+
+    /** Název události (SUMMARY), oříznutý na délku sloupce. */
+    private static String title(Component vevent) {
+        String summary = text(vevent.first("SUMMARY"));
+        return summary == null || summary.isBlank() ? UNTITLED : truncate(summary.trim());
+    }
+
+    /** Offsety upozornění (VALARM s TRIGGER před začátkem), bez duplicit, seřazené. */
+    private static List<Integer> offsets(Component vevent, LocalDateTime start, boolean recurring, LocalDateTime now) {
+        TreeSet<Integer> offsets = new TreeSet<>();
+        for (Component alarm : vevent.children()) {
+            if (!alarm.name().equals("VALARM")) continue;
+            Property trigger = alarm.first("TRIGGER");
+            if (trigger == null) continue;
+            if ("DATE-TIME".equalsIgnoreCase(trigger.param("VALUE"))) continue;
+            if ("END".equalsIgnoreCase(trigger.param("RELATED"))) continue;
+
+            String value = trigger.value().trim();
+            if (!value.startsWith("-")) continue;
+            try {
+                long minutes = parseDuration(value.substring(1)).toMinutes();
+                if (minutes <= 0 || minutes > 366L * 24 * 60) continue;
+                if (!recurring && !start.minusMinutes(minutes).isAfter(now)) continue;
+                offsets.add((int) minutes);
+            } catch (DateTimeException | IllegalArgumentException ignored) {
+                // neplatný trigger se vynechá
+            }
+        }
+        return new ArrayList<>(offsets);
+    }
+
+    /** Data výjimek série ze všech EXDATE (každý může obsahovat seznam hodnot). */
+    private static Set<LocalDate> exceptions(Component vevent) {
+        Set<LocalDate> dates = new TreeSet<>();
+        for (Property exdate : vevent.all("EXDATE")) {
+            for (String value : exdate.value().split(",")) {
+                if (value.isBlank()) continue;
+                dates.add(toLocal(value.trim(), exdate.param("TZID")).toLocalDate());
+            }
+        }
+        return dates;
+    }
+
+    private static boolean isDate(Property p) {
+        return "DATE".equalsIgnoreCase(p.param("VALUE")) || p.value().trim().length() == 8;
+    }
+
+    private static LocalDateTime toLocal(Property p) {
+        return toLocal(p.value().trim(), p.param("TZID"));
+    }
+
+    /**
+     * Čas z iCalendar v zóně aplikace:
+     * yyyyMMdd (datum), yyyyMMdd'T'HHmmss'Z' (UTC), s TZID (zóna), jinak plovoucí čas.
+     * Neznámá zóna (např. názvy z Windows) se bere jako zóna aplikace.
+     */
+    static LocalDateTime toLocal(String value, String tzid) {
+        if (value.length() == 8) return LocalDate.parse(value, DateTimeFormatter.BASIC_ISO_DATE).atStartOfDay();
+
+        if (value.endsWith("Z")) {
+            LocalDateTime utc = LocalDateTime.parse(value.substring(0, value.length() - 1), LOCAL);
+            return utc.atOffset(ZoneOffset.UTC).atZoneSameInstant(APP_ZONE).toLocalDateTime();
+        }
+
+        LocalDateTime local = LocalDateTime.parse(value, LOCAL);
+        ZoneId zone = zone(tzid);
+        return zone == null || zone.equals(APP_ZONE)
+                ? local
+                : local.atZone(zone).withZoneSameInstant(APP_ZONE).toLocalDateTime();
+    }
+
+    private static ZoneId zone(String tzid) {
+        if (tzid == null || tzid.isBlank()) return null;
+        try {
+            return ZoneId.of(tzid.startsWith("/") ? tzid.substring(1) : tzid);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /** UNTIL v UTC (…Z) převede na místní čas aplikace – tak ho ukládá RecurrenceRule. */
+    static String localUntil(String rule) {
+        int i = rule.toUpperCase(Locale.ROOT).indexOf("UNTIL=");
+        if (i < 0) return rule;
+
+        int valueStart = i + "UNTIL=".length();
+        int valueEnd = rule.indexOf(';', valueStart);
+        if (valueEnd < 0) valueEnd = rule.length();
+
+        String value = rule.substring(valueStart, valueEnd);
+        if (!value.endsWith("Z")) return rule;
+
+        String local = toLocal(value, null).format(LOCAL);
+        return rule.substring(0, valueStart) + local + rule.substring(valueEnd);
+    }
+
+    /** Délka podle RFC 5545 (P1W, P1D, PT1H30M, P1DT2H…). */
+    static Duration parseDuration(String value) {
+        String v = value.startsWith("+") ? value.substring(1) : value;
+        if (v.endsWith("W") && v.startsWith("P")) {
+            return Duration.ofDays(7L * Long.parseLong(v.substring(1, v.length() - 1)));
+        }
+        try {
+            return Duration.parse(v);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Neplatná délka: " + value);
+        }
+    }
+
+    /** Hodnota typu TEXT bez escapování (RFC 5545, 3.3.11). */
+    static String text(Property p) {
+        if (p == null) return null;
+        String v = p.value();
+        StringBuilder sb = new StringBuilder(v.length());
+        for (int i = 0; i < v.length(); i++) {
+            char c = v.charAt(i);
+            if (c == '\\' && i + 1 < v.length()) {
+                char n = v.charAt(++i);
+                sb.append(n == 'n' || n == 'N' ? '\n' : n);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String truncate(String text) {
+        if (text == null || text.length() <= MAX_TEXT) return text;
+        int end = MAX_TEXT;
+        if (Character.isHighSurrogate(text.charAt(end - 1))) end--;
+        return text.substring(0, end);
+    }
+}
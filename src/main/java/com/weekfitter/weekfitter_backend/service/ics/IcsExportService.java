@@ -0,0 +1,86 @@
+package com.weekfitter.weekfitter_backend.service.ics;
+
+import com.weekfitter.weekfitter_backend.dto.IcsEventRow;
+import com.weekfitter.weekfitter_backend.model.User;
+import com.weekfitter.weekfitter_backend.repository.CalendarEventRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Export kalendáře uživatele do formátu iCalendar (.ics).
+ *
+ * Události se čtou dopředným kurzorem (Stream s fetch size) v read-only
+ * transakci a každá se ihned zapíše do výstupního streamu odpovědi.
+ * V paměti je vždy jen jedna událost a dávka řádků JDBC driveru – export
+ * desítek tisíc událostí nepotřebuje víc paměti než export deseti.
+ */
+@Service
+public class IcsExportService {
+
+    private final CalendarEventRepository calendarEventRepository;
+    private final TransactionTemplate readOnlyTx;
+
+    public IcsExportService(CalendarEventRepository calendarEventRepository,
+                            PlatformTransactionManager transactionManager) {
+        this.calendarEventRepository = calendarEventRepository;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    /**
+     * Zapíše celý kalendář uživatele do výstupního streamu.
+     * Stream se nezavírá (patří volajícímu).
+     */
+    public void export(User user, OutputStream outputStream) throws IOException {
+        export(user.getId(), outputStream);
+    }
+
+    /** Zapíše celý kalendář uživatele s daným ID (viz export(User, OutputStream)). */
+    public void export(UUID userId, OutputStream outputStream) throws IOException {
+        Writer out = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 16 * 1024);
+        IcsWriter ics = new IcsWriter(out);
+        ics.begin("WeekFitter");
+
+        try {
+            readOnlyTx.executeWithoutResult(status -> {
+                try (Stream<IcsEventRow> rows = calendarEventRepository.streamIcsRowsByUserId(userId)) {
+                    writeEvents(rows.iterator(), ics);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        ics.end();
+    }
+
+    /** Seskupí po sobě jdoucí řádky stejné události a zapíše je jako jeden VEVENT. */
+    static void writeEvents(Iterator<IcsEventRow> rows, IcsWriter ics) throws IOException {
+        IcsEventRow current = null;
+        TreeSet<Integer> offsets = new TreeSet<>();
+
+        while (rows.hasNext()) {
+            IcsEventRow row = rows.next();
+            UUID id = row.getId();
+            if (current != null && !current.getId().equals(id)) {
+                ics.event(current, offsets);
+                offsets.clear();
+            }
+            current = row;
+
+            Integer offset = row.notificationOffset();
+            if (offset != null && offset > 0) offsets.add(offset);
+        }
+        if (current != null) ics.event(current, offsets);
+    }
+}
@@ -0,0 +1,207 @@
+package com.weekfitter.weekfitter_backend.service.ics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.weekfitter.weekfitter_backend.dto.FeedOwnerRow;
+import com.weekfitter.weekfitter_backend.model.User;
+import com.weekfitter.weekfitter_backend.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Odběr kalendáře přes tajnou adresu (GET /api/feed/{token}.ics).
+ *
+ * Kalendářové aplikace se na adresu dotazují každých pár minut, změny
+ * jsou přitom vzácné. Hotový feed se proto drží v paměti pod tokenem –
+ * včetně předpočítané gzip varianty, ETagu (z verze dat uživatele)
+ * a Last-Modified:
+ * - do stáří recheck se feed vrací bez jediného dotazu do databáze,
+ * - potom se jedním indexovaným dotazem ověří token a verze dat; při
+ *   shodě se jen obnoví čas ověření, jinak se feed vyrenderuje znovu.
+ *
+ * Render běží mimo zámky cache – do cache se ukládá jen hotový výsledek,
+ * takže pomalý export nebrzdí feedy ostatních tokenů. Souběžné požadavky
+ * na neaktuální feed stejného tokenu renderují jen jednou: první render
+ * zaregistruje rozpracovaný výsledek (CompletableFuture), ostatní na něj
+ * počkají. Velikost cache je omezena součtem bajtů feedů.
+ */
+@Service
+public class IcsFeedService {
+
+    /** Tvar tokenu – 32 náhodných bajtů v Base64 URL bez zarovnání. */
+    private static final Pattern TOKEN = Pattern.compile("[A-Za-z0-9_-]{43}");
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final UserRepository userRepository;
+    private final IcsExportService icsExportService;
+    private final Cache<String, Feed> feedsByToken;
+    private final ConcurrentMap<String, CompletableFuture<Feed>> rendering = new ConcurrentHashMap<>();
+    private final long recheckNanos;
+
+    public IcsFeedService(
+            UserRepository userRepository,
+            IcsExportService icsExportService,
+            MeterRegistry meterRegistry,
+            @Value("${weekfitter.feed.cache.max-bytes:67108864}") long maxBytes,
+            @Value("${weekfitter.feed.cache.ttl:1h}") Duration ttl,
+            @Value("${weekfitter.feed.recheck:30s}") Duration recheck
+    ) {
+        this.userRepository = userRepository;
+        this.icsExportService = icsExportService;
+        this.recheckNanos = recheck.toNanos();
+        this.feedsByToken = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String token, Feed feed) -> feed.plain.length + feed.gzip.length)
+                .expireAfterAccess(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, feedsByToken, "icsFeed");
+    }
+
+    /**
+     * Vyrenderovaný feed jedné verze kalendáře. Neměnný (kromě času
+     * posledního ověření) a sdílený mezi requesty.
+     */
+    public static final class Feed {
+        private final long version;
+        private final byte[] plain;
+        private final byte[] gzip;
+        private final long lastModified;
+        private volatile long checkedAt;
+
+        private Feed(long version, byte[] plain, byte[] gzip, long lastModified, long checkedAt) {
+            this.version = version;
+            this.plain = plain;
+            this.gzip = gzip;
+            this.lastModified = lastModified;
+            this.checkedAt = checkedAt;
+        }
+
+        /** Tělo odpovědi – gzip varianta, nebo nekomprimovaný text. */
+        public byte[] body(boolean gzipped) {
+            return gzipped ? gzip : plain;
+        }
+
+        /** Silný ETag varianty (každá varianta má vlastní). */
+        public String etag(boolean gzipped) {
+            return "\"feed-" + version + (gzipped ? "-gz\"" : "\"");
+        }
+
+        /** Čas vyrenderování verze (ms, zaokrouhleno na sekundy). */
+        public long lastModified() {
+            return lastModified;
+        }
+    }
+
+    /**
+     * Aktuální feed pro token.
+     *
+     * @return prázdný Optional pro neplatný nebo zrušený token
+     */
+    public Optional<Feed> find(String token) {
+        if (token == null || !TOKEN.matcher(token).matches()) return Optional.empty();
+
+        Feed cached = feedsByToken.getIfPresent(token);
+        if (cached != null && System.nanoTime() - cached.checkedAt < recheckNanos) {
+            return Optional.of(cached);
+        }
+
+        Optional<FeedOwnerRow> owner = userRepository.findFeedOwnerByToken(token);
+        if (owner.isEmpty()) {
+            feedsByToken.invalidate(token);
+            return Optional.empty();
+        }
+
+        FeedOwnerRow o = owner.get();
+        if (cached != null && cached.version == o.getCalendarVersion()) {
+            cached.checkedAt = System.nanoTime();
+            return Optional.of(cached);
+        }
+        return Optional.of(renderOnce(token, o));
+    }
+
+    /**
+     * Vyrenderuje feed mimo zámky cache a uloží ho. Běží-li pro token už
+     * jiný render, počká na jeho výsledek místo druhého renderu.
+     */
+    private Feed renderOnce(String token, FeedOwnerRow owner) {
+        CompletableFuture<Feed> mine = new CompletableFuture<>();
+        CompletableFuture<Feed> running = rendering.putIfAbsent(token, mine);
+        if (running != null) return running.join();
+
+        try {
+            Feed feed = render(owner, System.nanoTime());
+            // Novější verzi uloženou mezitím jiným requestem nepřepisovat
+            feedsByToken.asMap().merge(token, feed, (current, rendered) ->
+                    current.version > rendered.version ? current : rendered);
+            mine.complete(feed);
+            return feed;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            rendering.remove(token, mine);
+        }
+    }
+
+    /**
+     * Vygeneruje uživateli novou adresu odběru. Předchozí adresa přestane platit.
+     *
+     * @return nový token
+     */
+    public String rotateToken(User user) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        if (user.getFeedToken() != null) feedsByToken.invalidate(user.getFeedToken());
+        user.setFeedToken(token);
+        userRepository.save(user);
+        return token;
+    }
+
+    /** Zruší adresu odběru uživatele. */
+    public void revokeToken(User user) {
+        if (user.getFeedToken() == null) return;
+
+        feedsByToken.invalidate(user.getFeedToken());
+        user.setFeedToken(null);
+        userRepository.save(user);
+    }
+
+    /** Vyrenderuje feed a jeho gzip variantu. */
+    private Feed render(FeedOwnerRow owner, long now) {
+        try {
+            ByteArrayOutputStream plain = new ByteArrayOutputStream(16 * 1024);
+            icsExportService.export(owner.getUserId(), plain);
+            byte[] bytes = plain.toByteArray();
+
+            ByteArrayOutputStream gzip = new ByteArrayOutputStream(bytes.length / 4 + 64);
+            try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+                out.write(bytes);
+            }
+
+            long lastModified = System.currentTimeMillis() / 1000 * 1000;
+            return new Feed(owner.getCalendarVersion(), bytes, gzip.toByteArray(), lastModified, now);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.weekfitter.weekfitter_backend.service.ics;
+
+import com.weekfitter.weekfitter_backend.dto.ImportJobResponse;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Stav jedné úlohy importu kalendáře.
+ *
+ * Zapisuje pouze vlákno importu, čtou requesty na stav – pole jsou
+ * volatile a každé se zapisuje jen z jednoho vlákna.
+ */
+final class IcsImportJob {
+
+    enum Status { QUEUED, RUNNING, DONE, FAILED }
+
+    private final UUID id = UUID.randomUUID();
+    private final UUID userId;
+    private final long totalBytes;
+
+    private volatile Status status = Status.QUEUED;
+    private volatile long bytesRead;
+    private volatile int read;
+    private volatile int imported;
+    private volatile int skipped;
+    private volatile int simplified;
+    private volatile String error;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    IcsImportJob(UUID userId, long totalBytes) {
+        this.userId = userId;
+        this.totalBytes = totalBytes;
+    }
+
+    UUID id() { return id; }
+    UUID userId() { return userId; }
+
+    void started() {
+        startedAt = LocalDateTime.now();
+        status = Status.RUNNING;
+    }
+
+    void bytesRead(long bytes) { bytesRead = bytes; }
+    void eventRead() { read++; }
+    void skipped() { skipped++; }
+    void simplified() { simplified++; }
+    void imported(int count) { imported += count; }
+
+    void finished() {
+        bytesRead = totalBytes;
+        finishedAt = LocalDateTime.now();
+        status = Status.DONE;
+    }
+
+    void failed(String message) {
+        error = message;
+        finishedAt = LocalDateTime.now();
+        status = Status.FAILED;
+    }
+
+    ImportJobResponse toResponse() {
+        return new ImportJobResponse(id, status.name(), totalBytes, bytesRead, read, imported, skipped,
+                simplified, error, startedAt, finishedAt);
+    }
+}
@@ -0,0 +1,220 @@
+package com.weekfitter.weekfitter_backend.service.ics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.weekfitter.weekfitter_backend.dto.ImportJobResponse;
+import com.weekfitter.weekfitter_backend.model.CalendarEvent;
+import com.weekfitter.weekfitter_backend.model.User;
+import com.weekfitter.weekfitter_backend.service.CalendarEventService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+/**
+ * Import kalendáře ze souboru iCalendar (.ics), např. exportu z Google Calendar.
+ *
+ * Průběh:
+ * 1) nahraný soubor se uloží do dočasného souboru a request hned vrátí
+ *    ID úlohy (202 Accepted),
+ * 2) úloha běží na omezeném poolu vláken: IcsReader čte soubor proudově
+ *    po událostech, IcsEventMapper je převádí na CalendarEvent,
+ * 3) události se ukládají po dávkách batch-size – každá dávka ve vlastní
+ *    transakci (CalendarEventService.createEventsBulk) s JDBC batchingem.
+ *    Události delší než weekfitter.events.max-span-days se přeskočí
+ *    (kalendář je neuloží).
+ *
+ * V paměti je tak vždy jen jedna dávka entit a buffer čtení, nikdy celý
+ * soubor. Při chybě zůstávají dříve potvrzené dávky uložené; stav úlohy
+ * (GET /api/events/import/{id}) ukazuje, kolik událostí se uložilo.
+ *
+ * Uživatel může mít najednou jen jeden běžící import. Rozběhnuté úlohy
+ * se drží v mapě podle uživatele a nikdy neexpirují (na ní stojí kontrola
+ * jednoho importu); dokončené úlohy se přesunou do cache stavů, kde po
+ * status-ttl expirují.
+ */
+@Service
+public class IcsImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(IcsImportService.class);
+
+    private final CalendarEventService calendarEventService;
+    private final int batchSize;
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentMap<UUID, IcsImportJob> activeByUser = new ConcurrentHashMap<>();
+    private final Cache<UUID, IcsImportJob> finishedJobs;
+
+    public IcsImportService(
+            CalendarEventService calendarEventService,
+            @Value("${weekfitter.import.batch-size:500}") int batchSize,
+            @Value("${weekfitter.import.threads:1}") int threads,
+            @Value("${weekfitter.import.queue:16}") int queue,
+            @Value("${weekfitter.import.status-ttl:1h}") Duration statusTtl
+    ) {
+        this.calendarEventService = calendarEventService;
+        this.batchSize = Math.max(1, batchSize);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queue), r -> {
+                    Thread t = new Thread(r, "ics-import");
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.finishedJobs = Caffeine.newBuilder()
+                .expireAfterAccess(statusTtl)
+                .build();
+    }
+
+    /**
+     * Převezme nahraný soubor a naplánuje import.
+     *
+     * @throws IllegalArgumentException u prázdného souboru
+     * @throws IllegalStateException    pokud uživatel už import má rozběhnutý
+     *                                  nebo je fronta importů plná
+     */
+    public ImportJobResponse start(User user, MultipartFile file) throws IOException {
+        if (file == null || file.isEmpty()) throw new IllegalArgumentException("Soubor je prázdný.");
+
+        IcsImportJob job = register(user.getId(), file.getSize());
+        Path temp = null;
+        try {
+            temp = Files.createTempFile("weekfitter-import-", ".ics");
+            file.transferTo(temp);
+
+            Path uploaded = temp;
+            executor.execute(() -> run(job, user, uploaded));
+            return job.toResponse();
+
+        } catch (RejectedExecutionException e) {
+            activeByUser.remove(user.getId(), job);
+            Files.deleteIfExists(temp);
+            throw new IllegalStateException("Příliš mnoho importů najednou, zkuste to později.");
+        } catch (IOException | RuntimeException e) {
+            activeByUser.remove(user.getId(), job);
+            if (temp != null) Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    /** Založí úlohu, pokud uživatel nemá jinou rozběhnutou. */
+    private IcsImportJob register(UUID userId, long totalBytes) {
+        IcsImportJob job = new IcsImportJob(userId, totalBytes);
+        if (activeByUser.putIfAbsent(userId, job) != null)
+            throw new IllegalStateException("Import kalendáře už probíhá.");
+        return job;
+    }
+
+    /** Přesune dokončenou úlohu mezi stavy, které expirují. */
+    private void complete(IcsImportJob job) {
+        finishedJobs.put(job.id(), job);
+        activeByUser.remove(job.userId(), job);
+    }
+
+    /**
+     * Stav úlohy importu.
+     *
+     * @return stav, nebo null pokud úloha neexistuje, expirovala nebo patří jinému uživateli
+     */
+    public ImportJobResponse status(User user, UUID jobId) {
+        IcsImportJob job = activeByUser.get(user.getId());
+        if (job == null || !job.id().equals(jobId)) job = finishedJobs.getIfPresent(jobId);
+        if (job == null || !job.userId().equals(user.getId())) return null;
+        return job.toResponse();
+    }
+
+    private void run(IcsImportJob job, User user, Path file) {
+        job.started();
+        try (InputStream in = new CountingInputStream(Files.newInputStream(file), job);
+             IcsReader reader = new IcsReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+
+            importEvents(reader, job, user);
+            job.finished();
+            log.info("Import kalendáře {} dokončen", job.id());
+
+        } catch (Exception e) {
+            log.warn("Import kalendáře {} selhal", job.id(), e);
+            job.failed(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        } finally {
+            complete(job);
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Nepodařilo se smazat dočasný soubor {}", file, e);
+            }
+        }
+    }
+
+    /** Čte události a ukládá je po dávkách. */
+    void importEvents(IcsReader reader, IcsImportJob job, User user) throws IOException {
+        LocalDateTime now = ZonedDateTime.now(IcsWriter.APP_ZONE).toLocalDateTime();
+        List<CalendarEvent> events = new ArrayList<>(batchSize);
+        List<List<Integer>> offsets = new ArrayList<>(batchSize);
+
+        IcsReader.Component vevent;
+        while ((vevent = reader.nextEvent()) != null) {
+            job.eventRead();
+            IcsEventMapper.Mapped mapped = IcsEventMapper.map(vevent, now);
+            if (mapped == null || calendarEventService.exceedsMaxSpan(mapped.event())) {
+                job.skipped();
+                continue;
+            }
+            if (mapped.simplified()) job.simplified();
+
+            events.add(mapped.event());
+            offsets.add(mapped.offsets());
+            if (events.size() >= batchSize) {
+                saveBatch(user, events, offsets, job);
+                events = new ArrayList<>(batchSize);
+                offsets = new ArrayList<>(batchSize);
+            }
+        }
+        if (!events.isEmpty()) saveBatch(user, events, offsets, job);
+    }
+
+    private void saveBatch(User user, List<CalendarEvent> events, List<List<Integer>> offsets, IcsImportJob job) {
+        job.imported(calendarEventService.createEventsBulk(user, events, offsets).size());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /** Počítá přečtené bajty souboru pro průběh úlohy. */
+    private static final class CountingInputStream extends FilterInputStream {
+        private final IcsImportJob job;
+        private long count;
+
+        CountingInputStream(InputStream in, IcsImportJob job) {
+            super(in);
+            this.job = job;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) job.bytesRead(++count);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) job.bytesRead(count += n);
+            return n;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.weekfitter.weekfitter_backend.service.ics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.*;
+
+/**
+ * Proudový čtenář kalendáře ve formátu iCalendar (RFC 5545).
+ *
+ * Čte vstup po řádcích (včetně rozbalení zalomených řádků) a vrací
+ * události VEVENT jednu po druhé – v paměti je vždy jen rozpracovaná
+ * událost, nikdy celý soubor. Ostatní komponenty (VTIMEZONE, VTODO…)
+ * se přeskočí bez ukládání. Vnořené komponenty události (VALARM) jsou
+ * dostupné jako children.
+ *
+ * Ochrana proti neúměrně velkému vstupu: logický řádek se ořízne na
+ * MAX_LINE_CHARS znaků a komponenta drží nejvýše MAX_PROPERTIES vlastností.
+ *
+ * Instance není bezpečná pro souběžné použití.
+ */
+public final class IcsReader implements Closeable {
+
+    static final int MAX_LINE_CHARS = 64 * 1024;
+    static final int MAX_PROPERTIES = 256;
+
+    /** Vlastnost komponenty – název, parametry (klíče velkými písmeny) a surová hodnota. */
+    public static final class Property {
+        private final String name;
+        private final Map<String, String> params;
+        private final String value;
+
+        Property(String name, Map<String, String> params, String value) {
+            this.name = name;
+            this.params = params;
+            this.value = value;
+        }
+
+        public String name() { return name; }
+        public String param(String key) { return params.get(key); }
+        public String value() { return value; }
+    }
+
+    /** Komponenta (VEVENT, VALARM) s vlastnostmi v pořadí ze souboru. */
+    public static final class Component {
+        private final String name;
+        private final List<Property> properties = new ArrayList<>();
+        private final List<Component> children = new ArrayList<>();
+
+        Component(String name) {
+            this.name = name;
+        }
+
+        public String name() { return name; }
+        public List<Component> children() { return children; }
+
+        /** První vlastnost daného názvu (null, pokud chybí). */
+        public Property first(String propertyName) {
+            for (Property p : properties) {
+                if (p.name.equals(propertyName)) return p;
+            }
+            return null;
+        }
+
+        /** Všechny vlastnosti daného názvu (např. opakované EXDATE). */
+        public List<Property> all(String propertyName) {
+            List<Property> out = new ArrayList<>(1);
+            for (Property p : properties) {
+                if (p.name.equals(propertyName)) out.add(p);
+            }
+            return out;
+        }
+
+        private void add(Property p) {
+            if (properties.size() < MAX_PROPERTIES) properties.add(p);
+        }
+    }
+
+    private final Reader in;
+    private final char[] buffer = new char[64 * 1024];
+    private int position;
+    private int limit;
+    private final StringBuilder physical = new StringBuilder(128);
+    private String pending;
+    private boolean eof;
+
+    public IcsReader(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Další událost VEVENT ze vstupu.
+     *
+     * @return událost nebo null na konci vstupu
+     */
+    public Component nextEvent() throws IOException {
+        String line;
+        while ((line = nextLine()) != null) {
+            if (!isBegin(line)) continue;
+
+            String name = line.substring(6).trim().toUpperCase(Locale.ROOT);
+            if (name.equals("VEVENT")) return readComponent("VEVENT");
+            if (!name.equals("VCALENDAR")) skipComponent();
+        }
+        return null;
+    }
+
+    /**
+     * Načte komponentu až po její END (úvodní BEGIN už je přečtený).
+     * Vnořují se jen komponenty přímo v události, hlubší úrovně se přeskočí.
+     */
+    private Component readComponent(String name) throws IOException {
+        Component component = new Component(name);
+        String line;
+        while ((line = nextLine()) != null) {
+            if (isBegin(line)) {
+                String child = line.substring(6).trim().toUpperCase(Locale.ROOT);
+                if (!name.equals("VEVENT") || component.children.size() >= MAX_PROPERTIES) {
+                    skipComponent();
+                } else {
+                    component.children.add(readComponent(child));
+                }
+            } else if (isEnd(line)) {
+                return component;
+            } else {
+                Property p = parseProperty(line);
+                if (p != null) component.add(p);
+            }
+        }
+        // Neukončená komponenta na konci souboru – vrátí se, co je načteno
+        return component;
+    }
+
+    /** Přeskočí komponentu včetně vnořených (úvodní BEGIN už je přečtený). */
+    private void skipComponent() throws IOException {
+        int depth = 1;
+        String line;
+        while (depth > 0 && (line = nextLine()) != null) {
+            if (isBegin(line)) depth++;
+            else if (isEnd(line)) depth--;
+        }
+    }
+
+    private static boolean isBegin(String line) {
+        return line.regionMatches(true, 0, "BEGIN:", 0, 6);
+    }
+
+    private static boolean isEnd(String line) {
+        return line.regionMatches(true, 0, "END:", 0, 4);
+    }
+
+    /**
+     * Rozdělí řádek na název, parametry a hodnotu.
+     * Dvojtečky a středníky uvnitř uvozovek (hodnoty parametrů) se ignorují.
+     *
+     * @return vlastnost nebo null u řádku bez dvojtečky
+     */
+    static Property parseProperty(String line) {
+        int colon = -1;
+        boolean quoted = false;
+        List<Integer> semicolons = new ArrayList<>(2);
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') quoted = !quoted;
+            else if (!quoted && c == ';') semicolons.add(i);
+            else if (!quoted && c == ':') {
+                colon = i;
+                break;
+            }
+        }
+        if (colon <= 0) return null;
+
+        int nameEnd = semicolons.isEmpty() ? colon : semicolons.get(0);
+        String name = line.substring(0, nameEnd).trim().toUpperCase(Locale.ROOT);
+
+        Map<String, String> params = semicolons.isEmpty() ? Map.of() : new HashMap<>(4);
+        for (int k = 0; k < semicolons.size(); k++) {
+            int from = semicolons.get(k) + 1;
+            int to = k + 1 < semicolons.size() ? semicolons.get(k + 1) : colon;
+            String param = line.substring(from, to);
+            int eq = param.indexOf('=');
+            if (eq <= 0) continue;
+            String value = param.substring(eq + 1);
+            if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                value = value.substring(1, value.length() - 1);
+            }
+            params.put(param.substring(0, eq).trim().toUpperCase(Locale.ROOT), value);
+        }
+        return new Property(name, params, line.substring(colon + 1));
+    }
+
+    /**
+     * Další logický řádek – fyzické řádky začínající mezerou nebo tabulátorem
+     * se připojí k předchozímu (RFC 5545, 3.1). Prázdné řádky se přeskočí.
+     */
+    private String nextLine() throws IOException {
+        String line = pending != null ? pending : readPhysical();
+        pending = null;
+        while (line != null && line.isEmpty()) line = readPhysical();
+        if (line == null) return null;
+
+        StringBuilder sb = null;
+        String next;
+        while ((next = readPhysical()) != null && !next.isEmpty()
+                && (next.charAt(0) == ' ' || next.charAt(0) == '\t')) {
+            if (sb == null) sb = new StringBuilder(line);
+            if (sb.length() < MAX_LINE_CHARS) {
+                sb.append(next, 1, Math.min(next.length(), 1 + MAX_LINE_CHARS - sb.length()));
+            }
+        }
+        pending = next;
+        return sb != null ? sb.toString() : line;
+    }
+
+    /**
+     * Další fyzický řádek (bez CR/LF). Znaky nad MAX_LINE_CHARS se zahodí –
+     * ani soubor bez konců řádků se tak nenačte do paměti celý.
+     */
+    private String readPhysical() throws IOException {
+        if (eof) return null;
+
+        physical.setLength(0);
+        boolean any = false;
+        while (true) {
+            if (position == limit) {
+                limit = in.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    eof = true;
+                    return any ? physical.toString() : null;
+                }
+            }
+            any = true;
+            char c = buffer[position++];
+            if (c == '\n') return physical.toString();
+            if (c != '\r' && physical.length() < MAX_LINE_CHARS) physical.append(c);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
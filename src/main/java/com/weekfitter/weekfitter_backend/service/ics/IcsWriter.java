@@ -0,0 +1,219 @@
+package com.weekfitter.weekfitter_backend.service.ics;
+
+import com.weekfitter.weekfitter_backend.dto.IcsEventRow;
+import com.weekfitter.weekfitter_backend.service.recurrence.RecurrenceRule;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Zapisovač kalendáře ve formátu iCalendar (RFC 5545).
+ *
+ * Zapisuje přímo do předaného Writeru – VEVENT po VEVENT, bez skládání
+ * celého kalendáře v paměti. Řeší náležitosti formátu:
+ * - řádky ukončené CRLF a zalomené po 75 oktetech (UTF-8),
+ * - escapování textu (\\ ; , a konce řádků),
+ * - časy v zóně aplikace (TZID=Europe/Prague s definicí VTIMEZONE),
+ *   celodenní události jako VALUE=DATE,
+ * - opakování (RRULE, EXDATE) a upozornění (VALARM) podle offsetů notifikací.
+ *
+ * Instance není bezpečná pro souběžné použití.
+ */
+public final class IcsWriter {
+
+    /** Časová zóna aplikace – v ní jsou uložené časy událostí. */
+    public static final ZoneId APP_ZONE = ZoneId.of("Europe/Prague");
+
+    private static final int MAX_LINE_OCTETS = 75;
+
+    private static final DateTimeFormatter LOCAL = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter UTC = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+    private static final DateTimeFormatter DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    /** Pravidla středoevropského času (od roku 1996 beze změny). */
+    private static final String[] VTIMEZONE = {
+            "BEGIN:VTIMEZONE",
+            "TZID:Europe/Prague",
+            "BEGIN:DAYLIGHT",
+            "TZOFFSETFROM:+0100",
+            "TZOFFSETTO:+0200",
+            "TZNAME:CEST",
+            "DTSTART:19700329T020000",
+            "RRULE:FREQ=YEARLY;BYMONTH=3;BYDAY=-1SU",
+            "END:DAYLIGHT",
+            "BEGIN:STANDARD",
+            "TZOFFSETFROM:+0200",
+            "TZOFFSETTO:+0100",
+            "TZNAME:CET",
+            "DTSTART:19701025T030000",
+            "RRULE:FREQ=YEARLY;BYMONTH=10;BYDAY=-1SU",
+            "END:STANDARD",
+            "END:VTIMEZONE"
+    };
+
+    private final Writer out;
+    private final String dtstamp;
+
+    public IcsWriter(Writer out) {
+        this.out = out;
+        this.dtstamp = ZonedDateTime.now(ZoneOffset.UTC).format(UTC);
+    }
+
+    /** Zapíše hlavičku kalendáře včetně definice časové zóny. */
+    public void begin(String calendarName) throws IOException {
+        line("BEGIN:VCALENDAR");
+        line("VERSION:2.0");
+        line("PRODID:-//WeekFitter//Calendar Export//CS");
+        line("CALSCALE:GREGORIAN");
+        line("METHOD:PUBLISH");
+        if (calendarName != null) line("X-WR-CALNAME:" + escape(calendarName));
+        line("X-WR-TIMEZONE:" + APP_ZONE.getId());
+        for (String l : VTIMEZONE) line(l);
+    }
+
+    /**
+     * Zapíše jednu událost.
+     *
+     * @param e       data události (notifikace řádku se ignoruje)
+     * @param offsets offsety upozornění v minutách před začátkem
+     */
+    public void event(IcsEventRow e, Collection<Integer> offsets) throws IOException {
+        line("BEGIN:VEVENT");
+        line("UID:" + e.getId() + "@weekfitter");
+        line("DTSTAMP:" + dtstamp);
+
+        if (e.isAllDay()) {
+            LocalDate start = e.getStartTime().toLocalDate();
+            line("DTSTART;VALUE=DATE:" + start.format(DATE));
+            line("DTEND;VALUE=DATE:" + allDayEnd(start, e.getEndTime()).format(DATE));
+        } else {
+            line("DTSTART;TZID=" + APP_ZONE.getId() + ":" + e.getStartTime().format(LOCAL));
+            if (e.getEndTime() != null && !e.getEndTime().isBefore(e.getStartTime())) {
+                line("DTEND;TZID=" + APP_ZONE.getId() + ":" + e.getEndTime().format(LOCAL));
+            }
+        }
+
+        line("SUMMARY:" + escape(e.getTitle()));
+        String description = description(e);
+        if (description != null) line("DESCRIPTION:" + escape(description));
+        if (e.getCategory() != null) line("CATEGORIES:" + e.getCategory().name());
+
+        if (e.getRecurrenceRule() != null) {
+            line("RRULE:" + rrule(e.getRecurrenceRule(), e.isAllDay()));
+            Set<LocalDate> exceptions = RecurrenceRule.parseExceptions(e.getRecurrenceExceptions());
+            for (LocalDate d : exceptions) {
+                if (e.isAllDay()) {
+                    line("EXDATE;VALUE=DATE:" + d.format(DATE));
+                } else {
+                    line("EXDATE;TZID=" + APP_ZONE.getId() + ":" + d.atTime(e.getStartTime().toLocalTime()).format(LOCAL));
+                }
+            }
+        }
+
+        for (Integer minutes : offsets) {
+            line("BEGIN:VALARM");
+            line("ACTION:DISPLAY");
+            line("DESCRIPTION:" + escape(e.getTitle()));
+            line("TRIGGER:-PT" + minutes + "M");
+            line("END:VALARM");
+        }
+        line("END:VEVENT");
+    }
+
+    /** Zapíše konec kalendáře a vyprázdní buffer. */
+    public void end() throws IOException {
+        line("END:VCALENDAR");
+        out.flush();
+    }
+
+    /** Popis události doplněný o sport a vzdálenost (pokud jsou vyplněné). */
+    private static String description(IcsEventRow e) {
+        StringBuilder sb = new StringBuilder();
+        if (e.getDescription() != null && !e.getDescription().isBlank()) sb.append(e.getDescription());
+        if (e.getSportType() != null) {
+            if (!sb.isEmpty()) sb.append('\n');
+            sb.append("Sport: ").append(e.getSportType().name());
+            if (e.getDistance() != null && e.getDistance() > 0) sb.append(", ").append(e.getDistance()).append(" km");
+        }
+        return sb.isEmpty() ? null : sb.toString();
+    }
+
+    /** Konec celodenní události (exkluzivní datum, alespoň den po začátku). */
+    private static LocalDate allDayEnd(LocalDate start, LocalDateTime end) {
+        if (end == null) return start.plusDays(1);
+        LocalDate endDate = end.toLocalTime().equals(LocalTime.MIDNIGHT)
+                ? end.toLocalDate()
+                : end.toLocalDate().plusDays(1);
+        return endDate.isAfter(start) ? endDate : start.plusDays(1);
+    }
+
+    /**
+     * RRULE pro export – UNTIL je v aplikaci lokální čas, iCalendar ho
+     * u DTSTART s TZID vyžaduje v UTC a u celodenní události jako datum.
+     */
+    static String rrule(String canonical, boolean allDay) {
+        int i = canonical.indexOf("UNTIL=");
+        if (i < 0) return canonical;
+
+        int valueStart = i + "UNTIL=".length();
+        int valueEnd = canonical.indexOf(';', valueStart);
+        if (valueEnd < 0) valueEnd = canonical.length();
+
+        String value = canonical.substring(valueStart, valueEnd);
+        LocalDateTime until = value.length() == 8
+                ? LocalDate.parse(value, DATE).atTime(LocalTime.MAX).withNano(0)
+                : LocalDateTime.parse(value, LOCAL);
+        String converted = allDay
+                ? until.toLocalDate().format(DATE)
+                : until.atZone(APP_ZONE).withZoneSameInstant(ZoneOffset.UTC).format(UTC);
+        return canonical.substring(0, valueStart) + converted + canonical.substring(valueEnd);
+    }
+
+    /** Escapování hodnoty typu TEXT (RFC 5545, 3.3.11). */
+    static String escape(String text) {
+        if (text == null) return "";
+        StringBuilder sb = new StringBuilder(text.length() + 8);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\' -> sb.append("\\\\");
+                case ';' -> sb.append("\\;");
+                case ',' -> sb.append("\\,");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> { }
+                default -> sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Zapíše řádek zakončený CRLF, zalomený po nejvýše 75 oktetech UTF-8
+     * (pokračovací řádek začíná mezerou). Znak se nikdy nerozdělí.
+     */
+    private void line(String content) throws IOException {
+        int octets = 0;
+        int i = 0;
+        while (i < content.length()) {
+            int cp = content.codePointAt(i);
+            int len = cp < 0x80 ? 1 : cp < 0x800 ? 2 : cp < 0x10000 ? 3 : 4;
+            if (octets + len > MAX_LINE_OCTETS) {
+                out.write("\r\n ");
+                octets = 1;
+            }
+            if (Character.isBmpCodePoint(cp)) out.write(cp); else out.write(Character.toChars(cp));
+            octets += len;
+            i += Character.charCount(cp);
+        }
+        out.write("\r\n");
+    }
+}
@@ -0,0 +1,221 @@
+package com.weekfitter.weekfitter_backend.service.interval;
+
+import com.weekfitter.weekfitter_backend.dto.EventConflict;
+import com.weekfitter.weekfitter_backend.dto.EventInterval;
+import com.weekfitter.weekfitter_backend.service.recurrence.RecurrenceRule;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Neměnný index časových intervalů událostí jednoho uživatele.
+ *
+ * Jednorázové události jsou uložené v polích seřazených podle začátku
+ * (augmentované seřazené pole):
+ * - starts[i], ends[i] – začátek a konec v sekundách (lokální čas),
+ * - maxEnd[i] – maximum konců událostí 0..i (neklesající posloupnost).
+ *
+ * Dotaz na překryv s oknem [from, to):
+ * - hi = první událost se začátkem >= to (binární vyhledávání ve starts),
+ * - lo = první událost s maxEnd > from (binární vyhledávání v maxEnd) –
+ *   žádná dřívější událost do okna zasahovat nemůže,
+ * - kandidáti lo..hi se profiltrují podle vlastního konce.
+ * Složitost je O(log n + k), kde k je počet kandidátů v okolí okna.
+ *
+ * Opakované série se v indexu drží odděleně a rozbalují se až pro
+ * dotazované okno (stejně jako ve výpisu kalendáře).
+ *
+ * Změny (with/without) vracejí novou instanci (copy-on-write) – čtení
+ * tak nepotřebuje zámky a souběžný dotaz vždy vidí konzistentní snapshot.
+ */
+public final class EventIntervalIndex {
+
+    private static final EventIntervalIndex EMPTY = new EventIntervalIndex(new EventInterval[0], List.of());
+
+    private final EventInterval[] intervals;
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] maxEnd;
+    private final List<EventInterval> series;
+
+    private EventIntervalIndex(EventInterval[] sortedIntervals, List<EventInterval> series) {
+        int n = sortedIntervals.length;
+        this.intervals = sortedIntervals;
+        this.starts = new long[n];
+        this.ends = new long[n];
+        this.maxEnd = new long[n];
+        this.series = series;
+
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            starts[i] = seconds(sortedIntervals[i].getStartTime());
+            ends[i] = seconds(sortedIntervals[i].getEndTime());
+            max = Math.max(max, ends[i]);
+            maxEnd[i] = max;
+        }
+    }
+
+    /** Sestaví index z intervalů (v libovolném pořadí). */
+    public static EventIntervalIndex of(Collection<EventInterval> all) {
+        if (all.isEmpty()) return EMPTY;
+
+        List<EventInterval> single = new ArrayList<>(all.size());
+        List<EventInterval> series = new ArrayList<>();
+        for (EventInterval i : all) {
+            if (i == null || i.getStartTime() == null || i.getEndTime() == null) continue;
+            (i.isSeries() ? series : single).add(i);
+        }
+        single.sort(Comparator.comparing(EventInterval::getStartTime));
+        return new EventIntervalIndex(single.toArray(new EventInterval[0]), List.copyOf(series));
+    }
+
+    /** Počet uložených intervalů (série se počítá jednou). */
+    public int size() {
+        return intervals.length + series.size();
+    }
+
+    /** Nová instance s vloženým nebo nahrazeným intervalem (podle ID). */
+    public EventIntervalIndex with(EventInterval interval) {
+        EventIntervalIndex base = without(interval.getId());
+        if (interval.getStartTime() == null || interval.getEndTime() == null) return base;
+
+        if (interval.isSeries()) {
+            List<EventInterval> s = new ArrayList<>(base.series);
+            s.add(interval);
+            return new EventIntervalIndex(base.intervals, List.copyOf(s));
+        }
+
+        // Vložení na místo podle začátku – pole zůstane seřazené bez nového třídění
+        int pos = lowerBound(base.starts, seconds(interval.getStartTime()));
+        EventInterval[] next = new EventInterval[base.intervals.length + 1];
+        System.arraycopy(base.intervals, 0, next, 0, pos);
+        next[pos] = interval;
+        System.arraycopy(base.intervals, pos, next, pos + 1, base.intervals.length - pos);
+        return new EventIntervalIndex(next, base.series);
+    }
+
+    /** Nová instance bez intervalu s daným ID (nebo stejná, pokud v indexu není). */
+    public EventIntervalIndex without(UUID id) {
+        for (int i = 0; i < intervals.length; i++) {
+            if (intervals[i].getId().equals(id)) {
+                EventInterval[] next = new EventInterval[intervals.length - 1];
+                System.arraycopy(intervals, 0, next, 0, i);
+                System.arraycopy(intervals, i + 1, next, i, intervals.length - i - 1);
+                return new EventIntervalIndex(next, series);
+            }
+        }
+        for (EventInterval s : series) {
+            if (s.getId().equals(id)) {
+                List<EventInterval> rest = new ArrayList<>(series);
+                rest.remove(s);
+                return new EventIntervalIndex(intervals, List.copyOf(rest));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Intervaly (včetně výskytů sérií), které se překrývají s oknem [from, to).
+     *
+     * @return intervaly seřazené podle začátku
+     */
+    public List<EventInterval> overlapping(LocalDateTime from, LocalDateTime to) {
+        long f = seconds(from);
+        long t = seconds(to);
+
+        int hi = lowerBound(starts, t);
+        int lo = upperBound(maxEnd, f);
+
+        List<EventInterval> result = new ArrayList<>();
+        for (int i = lo; i < hi; i++) {
+            if (ends[i] > f) result.add(intervals[i]);
+        }
+
+        if (!series.isEmpty()) {
+            for (EventInterval s : series) {
+                RecurrenceRule rule = RecurrenceRule.parse(s.getRecurrenceRule());
+                long length = Duration.between(s.getStartTime(), s.getEndTime()).toMinutes();
+                for (LocalDateTime start : rule.occurrencesBetween(s.getStartTime(), length, from, to,
+                        RecurrenceRule.parseExceptions(s.getRecurrenceExceptions()))) {
+                    result.add(s.atOccurrence(start));
+                }
+            }
+            result.sort(Comparator.comparing(EventInterval::getStartTime));
+        }
+        return result;
+    }
+
+    /**
+     * Všechny kolize (dvojice překrývajících se událostí) v okně [from, to).
+     *
+     * Celodenní události se za kolizi nepovažují – typicky jde o poznámky
+     * (volno, závod, cestování), ne o obsazený čas.
+     *
+     * Zametání přes intervaly seřazené podle začátku: aktivní množina drží
+     * intervaly, které ještě neskončily. Složitost O(k log k + c), kde c je
+     * počet nalezených kolizí.
+     */
+    public List<EventConflict> conflicts(LocalDateTime from, LocalDateTime to) {
+        List<EventConflict> result = new ArrayList<>();
+        PriorityQueue<EventInterval> active = new PriorityQueue<>(Comparator.comparing(EventInterval::getEndTime));
+
+        for (EventInterval current : overlapping(from, to)) {
+            if (current.isAllDay()) continue;
+
+            while (!active.isEmpty() && !active.peek().getEndTime().isAfter(current.getStartTime())) {
+                active.poll();
+            }
+            for (EventInterval other : active) {
+                result.add(EventConflict.of(other, current));
+            }
+            active.add(current);
+        }
+        return result;
+    }
+
+    /**
+     * Kolize kandidáta (nové nebo upravované události) s ostatními událostmi.
+     *
+     * @param candidates intervaly kandidáta – u série jeho jednotlivé výskyty
+     * @param excludeId  ID upravované události, která se sama se sebou nekontroluje
+     */
+    public List<EventConflict> conflictsWith(List<EventInterval> candidates, UUID excludeId) {
+        List<EventConflict> result = new ArrayList<>();
+        for (EventInterval c : candidates) {
+            if (c.isAllDay()) continue;
+
+            for (EventInterval other : overlapping(c.getStartTime(), c.getEndTime())) {
+                if (other.isAllDay() || other.getId().equals(excludeId)) continue;
+                result.add(EventConflict.of(c, other));
+            }
+        }
+        return result;
+    }
+
+    /** Lokální čas v sekundách – pro porovnání stačí pevný offset. */
+    private static long seconds(LocalDateTime t) {
+        return t.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /** První index s hodnotou >= key. */
+    private static int lowerBound(long[] a, long key) {
+        int lo = 0, hi = a.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < key) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    /** První index s hodnotou > key. */
+    private static int upperBound(long[] a, long key) {
+        int lo = 0, hi = a.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] <= key) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,91 @@
+package com.weekfitter.weekfitter_backend.service.interval;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.weekfitter.weekfitter_backend.dto.EventConflict;
+import com.weekfitter.weekfitter_backend.dto.EventInterval;
+import com.weekfitter.weekfitter_backend.repository.CalendarEventRepository;
+import com.weekfitter.weekfitter_backend.service.UserIndexCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Správa indexů časových intervalů (EventIntervalIndex) jednotlivých uživatelů.
+ *
+ * Index uživatele se sestaví jedním projekčním dotazem při první potřebě
+ * a dále se udržuje inkrementálně – CalendarEventService hlásí každou
+ * uloženou a smazanou událost. Změna se do indexu promítne až po commitu
+ * transakce (UserIndexCache).
+ *
+ * Počet držených indexů je omezen (Caffeine, LRU) a položky expirují
+ * po TTL – index nečinného uživatele se při další potřebě sestaví znovu.
+ */
+@Service
+public class EventIntervalIndexService {
+
+    private final CalendarEventRepository calendarEventRepository;
+    private final UserIndexCache<EventIntervalIndex> indexByUser;
+
+    public EventIntervalIndexService(
+            CalendarEventRepository calendarEventRepository,
+            MeterRegistry meterRegistry,
+            @Value("${weekfitter.index.intervals.max-users:1000}") long maxUsers,
+            @Value("${weekfitter.index.intervals.ttl:30m}") Duration ttl
+    ) {
+        this.calendarEventRepository = calendarEventRepository;
+        this.indexByUser = new UserIndexCache<>(Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(ttl)
+                .recordStats(), null, meterRegistry, "eventIntervals");
+    }
+
+    /** Index uživatele (při výpadku se sestaví z databáze). */
+    public EventIntervalIndex indexFor(UUID userId) {
+        return indexByUser.get(userId,
+                id -> EventIntervalIndex.of(calendarEventRepository.findIntervalsByUserId(id)));
+    }
+
+    /** Události uživatele (včetně výskytů sérií) zasahující do okna [from, to). */
+    public List<EventInterval> findOverlapping(UUID userId, LocalDateTime from, LocalDateTime to) {
+        return indexFor(userId).overlapping(from, to);
+    }
+
+    /** Kolize mezi událostmi uživatele v okně [from, to). */
+    public List<EventConflict> findConflicts(UUID userId, LocalDateTime from, LocalDateTime to) {
+        return indexFor(userId).conflicts(from, to);
+    }
+
+    /**
+     * Kolize kandidáta s ostatními událostmi uživatele.
+     *
+     * @param candidates intervaly kandidáta (u série jeho výskyty)
+     * @param excludeId  ID upravované události (null u nové)
+     */
+    public List<EventConflict> findConflictsWith(UUID userId, List<EventInterval> candidates, UUID excludeId) {
+        return indexFor(userId).conflictsWith(candidates, excludeId);
+    }
+
+    /** Po commitu vloží nebo nahradí interval uložené události. */
+    public void put(UUID userId, EventInterval interval) {
+        if (interval == null) return;
+        indexByUser.update(userId, index -> index.with(interval));
+    }
+
+    /** Po commitu odebere interval smazané (nebo přesunuté) události. */
+    public void remove(UUID userId, UUID eventId) {
+        indexByUser.update(userId, index -> index.without(eventId));
+    }
+
+    /**
+     * Po commitu zahodí index uživatele (po hromadné změně je levnější
+     * index při další potřebě sestavit znovu než ho měnit po jedné události).
+     */
+    public void invalidate(UUID userId) {
+        indexByUser.invalidate(userId);
+    }
+}
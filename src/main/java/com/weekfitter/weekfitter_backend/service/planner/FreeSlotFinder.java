@@ -0,0 +1,190 @@
+package com.weekfitter.weekfitter_backend.service.planner;
+
+import com.weekfitter.weekfitter_backend.dto.EventInterval;
+import com.weekfitter.weekfitter_backend.dto.FreeSlot;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Vyhledávání volných úseků v kalendáři (kam se vejde např. 60min běh).
+ *
+ * Postup:
+ * 1) obsazené intervaly se převedou na minuty a rozšíří o rezervu (buffer)
+ *    před a po události; celodenní událost blokuje celé dny, které pokrývá,
+ * 2) intervaly se seřadí (primitivní řazení zakódovaných klíčů) a sloučí,
+ * 3) pro každý den okna se zametá pracovní okno (např. 6:00–21:00)
+ *    přes sloučené intervaly a mezery alespoň požadované délky se
+ *    zaznamenají jako volné úseky,
+ * 4) úseky se seřadí – nejdřív dny s nejmenší obsazeností (trénink se tak
+ *    rozkládá do celého týdne), potom podle začátku.
+ *
+ * Celý výpočet pracuje nad poli long bez alokace objektů na interval;
+ * pro typický týden (desítky událostí) trvá jednotky mikrosekund.
+ *
+ * Instance je neměnná a bezpečná pro souběžné použití.
+ */
+public final class FreeSlotFinder {
+
+    private static final long MINUTES_PER_DAY = 24 * 60;
+
+    /** Začátek pracovního okna v minutách od půlnoci. */
+    private final long dayStartMinute;
+    /** Konec pracovního okna v minutách od půlnoci (může být 1440 = půlnoc). */
+    private final long dayEndMinute;
+    /** Rezerva před a po obsazené události v minutách. */
+    private final int bufferMinutes;
+
+    /**
+     * @param dayStart      začátek pracovního okna
+     * @param dayEnd        konec pracovního okna (00:00 nebo čas před začátkem = do půlnoci)
+     * @param bufferMinutes rezerva kolem událostí (přesun, převlečení)
+     */
+    public FreeSlotFinder(LocalTime dayStart, LocalTime dayEnd, int bufferMinutes) {
+        if (bufferMinutes < 0)
+            throw new IllegalArgumentException("Rezerva kolem událostí nesmí být záporná.");
+
+        this.dayStartMinute = dayStart.toSecondOfDay() / 60;
+        long end = dayEnd.toSecondOfDay() / 60;
+        this.dayEndMinute = end <= dayStartMinute ? MINUTES_PER_DAY : end;
+        this.bufferMinutes = bufferMinutes;
+    }
+
+    /**
+     * Najde volné úseky v okně [from, to).
+     *
+     * @param busy            obsazené intervaly (včetně výskytů sérií) zasahující do okna
+     * @param from            začátek okna
+     * @param to              konec okna (bez)
+     * @param durationMinutes požadovaná délka aktivity
+     * @param limit           maximální počet vrácených úseků
+     * @return úseky seřazené podle vhodnosti
+     */
+    public List<FreeSlot> find(List<EventInterval> busy, LocalDateTime from, LocalDateTime to,
+                               int durationMinutes, int limit) {
+        if (durationMinutes <= 0)
+            throw new IllegalArgumentException("Délka aktivity musí být kladná.");
+        if (!from.isBefore(to))
+            throw new IllegalArgumentException("Neplatné časové okno: 'from' musí být před 'to'.");
+
+        long windowStart = minutes(from);
+        long windowEnd = minutes(to);
+
+        // 1) + 2) obsazené intervaly seřazené a sloučené
+        long[][] merged = mergeBusy(busy, windowStart);
+        long[] ms = merged[0];
+        long[] me = merged[1];
+        int m = ms.length;
+
+        // 3) zametání po dnech
+        List<FreeSlot> slots = new ArrayList<>();
+        int p = 0;
+        for (long day = Math.floorDiv(windowStart, MINUTES_PER_DAY) * MINUTES_PER_DAY;
+             day < windowEnd; day += MINUTES_PER_DAY) {
+
+            long ws = Math.max(windowStart, day + dayStartMinute);
+            long we = Math.min(windowEnd, day + dayEndMinute);
+            if (we - ws < durationMinutes) continue;
+
+            // Intervaly končící před pracovním oknem už nebudou potřeba ani další dny
+            while (p < m && me[p] <= ws) p++;
+
+            long busyMinutes = 0;
+            int firstSlot = slots.size();
+            long gapStart = ws;
+            for (int q = p; q < m && ms[q] < we; q++) {
+                if (ms[q] - gapStart >= durationMinutes) {
+                    slots.add(new FreeSlot(dateTime(gapStart), dateTime(ms[q]), 0));
+                }
+                busyMinutes += Math.min(me[q], we) - Math.max(ms[q], ws);
+                gapStart = Math.max(gapStart, me[q]);
+            }
+            if (we - gapStart >= durationMinutes) {
+                slots.add(new FreeSlot(dateTime(gapStart), dateTime(we), 0));
+            }
+
+            for (int i = firstSlot; i < slots.size(); i++) {
+                slots.get(i).setDayBusyMinutes(busyMinutes);
+            }
+        }
+
+        // 4) řazení podle vhodnosti
+        slots.sort(Comparator.comparingLong(FreeSlot::getDayBusyMinutes)
+                .thenComparing(FreeSlot::getStart));
+        return slots.size() > limit ? new ArrayList<>(slots.subList(0, limit)) : slots;
+    }
+
+    /**
+     * Převede obsazené intervaly na minuty, seřadí je a sloučí překrývající se.
+     *
+     * Řazí se bez boxingu: začátek (relativně k oknu) a pořadí intervalu
+     * se zakódují do jednoho long a seřadí se pole primitiv.
+     *
+     * @return dvojice polí {začátky, konce} sloučených intervalů
+     */
+    private long[][] mergeBusy(List<EventInterval> busy, long base) {
+        int n = 0;
+        long[] starts = new long[busy.size()];
+        long[] ends = new long[busy.size()];
+
+        for (EventInterval i : busy) {
+            if (i.getStartTime() == null || i.getEndTime() == null) continue;
+
+            long s;
+            long e;
+            if (i.isAllDay()) {
+                // Celodenní událost blokuje celé dny, které zasahuje
+                s = Math.floorDiv(minutes(i.getStartTime()), MINUTES_PER_DAY) * MINUTES_PER_DAY;
+                long end = minutes(i.getEndTime());
+                e = Math.max(s + MINUTES_PER_DAY, ceilToDay(end));
+            } else {
+                s = minutes(i.getStartTime()) - bufferMinutes;
+                e = minutes(i.getEndTime()) + bufferMinutes;
+            }
+            // Část před oknem není pro výpočet podstatná – ořez drží klíče řazení kladné
+            starts[n] = Math.max(s, base);
+            ends[n] = e;
+            n++;
+        }
+
+        // Klíč: (začátek - base) << 20 | index – začátek je ořezaný na okno, nikdy není záporný
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = ((starts[i] - base) << 20) | i;
+        }
+        Arrays.sort(keys);
+
+        long[] ms = new long[n];
+        long[] me = new long[n];
+        int m = 0;
+        for (int k = 0; k < n; k++) {
+            int i = (int) (keys[k] & 0xFFFFF);
+            if (m > 0 && starts[i] <= me[m - 1]) {
+                me[m - 1] = Math.max(me[m - 1], ends[i]);
+            } else {
+                ms[m] = starts[i];
+                me[m] = ends[i];
+                m++;
+            }
+        }
+        return new long[][]{Arrays.copyOf(ms, m), Arrays.copyOf(me, m)};
+    }
+
+    private static long ceilToDay(long minute) {
+        return Math.floorDiv(minute + MINUTES_PER_DAY - 1, MINUTES_PER_DAY) * MINUTES_PER_DAY;
+    }
+
+    /** Lokální čas v minutách – pro výpočet stačí pevný offset. */
+    private static long minutes(LocalDateTime t) {
+        return Math.floorDiv(t.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    private static LocalDateTime dateTime(long minutes) {
+        return LocalDateTime.ofEpochSecond(minutes * 60, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,72 @@
+package com.weekfitter.weekfitter_backend.service.planner;
+
+import com.weekfitter.weekfitter_backend.dto.FreeSlot;
+import com.weekfitter.weekfitter_backend.model.User;
+import com.weekfitter.weekfitter_backend.service.interval.EventIntervalIndexService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Hledání volných úseků pro plánování tréninku v týdnu.
+ *
+ * Obsazené intervaly bere z indexu intervalů uživatele (bez dotazu do
+ * databáze, pokud je index v paměti) a výpočet deleguje na FreeSlotFinder.
+ *
+ * Výchozí pracovní okno a rezerva kolem událostí jsou v konfiguraci
+ * (weekfitter.planner.*), request je může přepsat.
+ */
+@Service
+public class FreeSlotService {
+
+    /** Nejdelší okno, ve kterém se volné úseky hledají. */
+    private static final long MAX_WINDOW_DAYS = 62;
+
+    private final EventIntervalIndexService intervalIndexService;
+    private final LocalTime defaultDayStart;
+    private final LocalTime defaultDayEnd;
+    private final int bufferMinutes;
+    private final FreeSlotFinder defaultFinder;
+
+    public FreeSlotService(
+            EventIntervalIndexService intervalIndexService,
+            @Value("${weekfitter.planner.day-start:06:00}") LocalTime dayStart,
+            @Value("${weekfitter.planner.day-end:21:00}") LocalTime dayEnd,
+            @Value("${weekfitter.planner.buffer-minutes:15}") int bufferMinutes
+    ) {
+        this.intervalIndexService = intervalIndexService;
+        this.defaultDayStart = dayStart;
+        this.defaultDayEnd = dayEnd;
+        this.bufferMinutes = bufferMinutes;
+        this.defaultFinder = new FreeSlotFinder(dayStart, dayEnd, bufferMinutes);
+    }
+
+    /**
+     * Volné úseky uživatele v okně [from, to), do kterých se vejde aktivita dané délky.
+     *
+     * @param dayStart začátek pracovního okna (null = výchozí z konfigurace)
+     * @param dayEnd   konec pracovního okna (null = výchozí z konfigurace)
+     * @throws IllegalArgumentException při neplatném okně nebo délce
+     */
+    public List<FreeSlot> findFreeSlots(User user, LocalDateTime from, LocalDateTime to, int durationMinutes,
+                                        LocalTime dayStart, LocalTime dayEnd, int limit) {
+        if (from == null || to == null || !from.isBefore(to))
+            throw new IllegalArgumentException("Neplatné časové okno: 'from' musí být před 'to'.");
+        if (ChronoUnit.DAYS.between(from, to) > MAX_WINDOW_DAYS)
+            throw new IllegalArgumentException("Časové okno může mít nejvýše " + MAX_WINDOW_DAYS + " dní.");
+
+        FreeSlotFinder finder = (dayStart == null && dayEnd == null)
+                ? defaultFinder
+                : new FreeSlotFinder(
+                        dayStart != null ? dayStart : defaultDayStart,
+                        dayEnd != null ? dayEnd : defaultDayEnd,
+                        bufferMinutes);
+
+        return finder.find(intervalIndexService.findOverlapping(user.getId(), from, to),
+                from, to, durationMinutes, limit);
+    }
+}
@@ -0,0 +1,135 @@
+package com.weekfitter.weekfitter_backend.service.planner;
+
+import com.weekfitter.weekfitter_backend.dto.EventResponse;
+import com.weekfitter.weekfitter_backend.dto.PlanWeekRequest;
+import com.weekfitter.weekfitter_backend.dto.PlanWeekRequest.Workout;
+import com.weekfitter.weekfitter_backend.dto.PlanWeekResponse;
+import com.weekfitter.weekfitter_backend.model.CalendarEvent;
+import com.weekfitter.weekfitter_backend.model.User;
+import com.weekfitter.weekfitter_backend.service.CalendarEventService;
+import com.weekfitter.weekfitter_backend.service.interval.EventIntervalIndexService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+
+/**
+ * Automatické plánování tréninků do týdne (POST /api/events/plan-week).
+ *
+ * Obsazené intervaly týdne bere z indexu intervalů uživatele, rozmístění
+ * počítá WorkoutPlanner s časovým limitem a naplánované tréninky vytvoří
+ * jako události v jediné transakci (CalendarEventService.createEvents).
+ */
+@Service
+public class WorkoutPlanService {
+
+    /** Nejvyšší počet tréninků v jednom požadavku. */
+    private static final int MAX_WORKOUTS = 21;
+
+    private final EventIntervalIndexService intervalIndexService;
+    private final CalendarEventService calendarEventService;
+    private final LocalTime defaultDayStart;
+    private final LocalTime defaultDayEnd;
+    private final int bufferMinutes;
+    private final long budgetNanos;
+
+    public WorkoutPlanService(
+            EventIntervalIndexService intervalIndexService,
+            CalendarEventService calendarEventService,
+            @Value("${weekfitter.planner.day-start:06:00}") LocalTime dayStart,
+            @Value("${weekfitter.planner.day-end:21:00}") LocalTime dayEnd,
+            @Value("${weekfitter.planner.buffer-minutes:15}") int bufferMinutes,
+            @Value("${weekfitter.planner.time-budget-ms:30}") long budgetMillis
+    ) {
+        this.intervalIndexService = intervalIndexService;
+        this.calendarEventService = calendarEventService;
+        this.defaultDayStart = dayStart;
+        this.defaultDayEnd = dayEnd;
+        this.bufferMinutes = bufferMinutes;
+        this.budgetNanos = budgetMillis * 1_000_000;
+    }
+
+    /**
+     * Naplánuje tréninky do týdne a (pokud nejde o zkušební běh) je vytvoří.
+     *
+     * @param dryRun true = pouze vrátit návrh, nic neukládat
+     * @throws IllegalArgumentException při neplatném požadavku
+     */
+    public PlanWeekResponse planWeek(User user, PlanWeekRequest request, boolean dryRun) {
+        validate(request);
+
+        LocalDate anyDay = request.getWeekStart() != null ? request.getWeekStart() : LocalDate.now();
+        LocalDateTime from = anyDay.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay();
+        LocalDateTime to = from.plusWeeks(1);
+
+        WorkoutPlanner planner = new WorkoutPlanner(new FreeSlotFinder(
+                request.getDayStart() != null ? request.getDayStart() : defaultDayStart,
+                request.getDayEnd() != null ? request.getDayEnd() : defaultDayEnd,
+                bufferMinutes));
+
+        WorkoutPlanner.Plan plan = planner.plan(
+                intervalIndexService.findOverlapping(user.getId(), from, to), from, to, request, budgetNanos);
+
+        List<CalendarEvent> events = new ArrayList<>();
+        List<List<Integer>> notifications = new ArrayList<>();
+        List<Integer> unplaced = new ArrayList<>();
+        for (int i = 0; i < plan.size(); i++) {
+            LocalDateTime start = plan.startOf(i);
+            if (start == null) {
+                unplaced.add(i);
+                continue;
+            }
+            Workout w = request.getWorkouts().get(i);
+            events.add(toEvent(user, request, w, start));
+            notifications.add(w.getNotifications() != null ? w.getNotifications() : List.of());
+        }
+
+        if (!dryRun && !events.isEmpty()) {
+            events = calendarEventService.createEvents(events, notifications);
+        }
+
+        List<EventResponse> responses = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            List<Integer> offsets = notifications.get(i).stream()
+                    .filter(m -> m != null && m > 0)
+                    .sorted()
+                    .toList();
+            responses.add(EventResponse.fromEntity(events.get(i), offsets));
+        }
+        return new PlanWeekResponse(responses, unplaced, plan.isOptimal(), !dryRun && !events.isEmpty());
+    }
+
+    private static CalendarEvent toEvent(User user, PlanWeekRequest request, Workout w, LocalDateTime start) {
+        String title = (w.getTitle() != null && !w.getTitle().isBlank())
+                ? w.getTitle()
+                : (w.getSportType() != null ? w.getSportType().name() : "Trénink");
+
+        return CalendarEvent.builder()
+                .title(title)
+                .startTime(start)
+                .duration(w.getDuration().doubleValue())
+                .endTime(start.plusMinutes(w.getDuration()))
+                .category(request.getCategory())
+                .sportType(w.getSportType())
+                .distance(w.getDistance())
+                .user(user)
+                .build();
+    }
+
+    private static void validate(PlanWeekRequest request) {
+        if (request.getWorkouts() == null || request.getWorkouts().isEmpty())
+            throw new IllegalArgumentException("Seznam tréninků je prázdný.");
+        if (request.getWorkouts().size() > MAX_WORKOUTS)
+            throw new IllegalArgumentException("Najednou lze plánovat nejvýše " + MAX_WORKOUTS + " tréninků.");
+        for (Workout w : request.getWorkouts()) {
+            if (w.getDuration() == null || w.getDuration() <= 0 || w.getDuration() > 24 * 60)
+                throw new IllegalArgumentException("Délka tréninku musí být v rozsahu 1–1440 minut.");
+            if (w.getIntensity() == null) w.setIntensity(PlanWeekRequest.Intensity.EASY);
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.weekfitter.weekfitter_backend.service.planner;
+
+import com.weekfitter.weekfitter_backend.dto.EventInterval;
+import com.weekfitter.weekfitter_backend.dto.FreeSlot;
+import com.weekfitter.weekfitter_backend.dto.PlanWeekRequest;
+import com.weekfitter.weekfitter_backend.dto.PlanWeekRequest.Intensity;
+import com.weekfitter.weekfitter_backend.dto.PlanWeekRequest.TimeOfDay;
+import com.weekfitter.weekfitter_backend.dto.PlanWeekRequest.Workout;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Automatické rozmístění požadovaných tréninků do týdne ("fit my week").
+ *
+ * 1) Kandidáti: volné úseky týdne (FreeSlotFinder) se rozdělí na možné
+ *    začátky po STEP_MINUTES. Každý začátek dostane cenu podle vzdálenosti
+ *    od preferované části dne; pro každý trénink a den se ponechá jen
+ *    několik nejlepších kandidátů (omezení větvení).
+ * 2) Hledání: prohledávání do hloubky s ořezáváním (branch and bound).
+ *    Tréninky se přiřazují od nejnáročnějších; každý trénink může zůstat
+ *    i nenaplánovaný za vysokou penalizaci. Dolní mez = dosavadní cena +
+ *    nejlevnější kandidát každého zbývajícího tréninku. Omezení (odstup,
+ *    náročné dny, počet za den) se kontrolují inkrementálně jen vůči
+ *    již umístěným tréninkům.
+ * 3) Časový limit: první úplné řešení vzniká hladovým sestupem (první
+ *    větev), každé další ho jen zlepšuje. Po vypršení limitu se vrací
+ *    nejlepší dosud nalezené řešení.
+ *
+ * Instance je bezstavová; stav jednoho hledání drží vnitřní třída Search.
+ */
+public final class WorkoutPlanner {
+
+    /** Krok možných začátků tréninku v minutách. */
+    private static final int STEP_MINUTES = 30;
+
+    /** Počet ponechaných kandidátů na trénink a den. */
+    private static final int CANDIDATES_PER_DAY = 3;
+
+    /** Cena nenaplánovaného tréninku – vždy vyšší než jakékoliv umístění. */
+    private static final long UNPLACED_COST = 1_000_000;
+
+    private static final long MINUTES_PER_DAY = 24 * 60;
+
+    private final FreeSlotFinder freeSlotFinder;
+
+    public WorkoutPlanner(FreeSlotFinder freeSlotFinder) {
+        this.freeSlotFinder = freeSlotFinder;
+    }
+
+    /** Výsledek plánování. */
+    public static final class Plan {
+        /** Začátek tréninku podle pořadí v požadavku (null = nenaplánován). */
+        private final LocalDateTime[] starts;
+        private final boolean optimal;
+        private final long nodes;
+
+        Plan(LocalDateTime[] starts, boolean optimal, long nodes) {
+            this.starts = starts;
+            this.optimal = optimal;
+            this.nodes = nodes;
+        }
+
+        public LocalDateTime startOf(int workoutIndex) {
+            return starts[workoutIndex];
+        }
+
+        public int size() {
+            return starts.length;
+        }
+
+        /** Bylo prohledávání dokončeno před vyčerpáním časového limitu nebo limitu uzlů? */
+        public boolean isOptimal() {
+            return optimal;
+        }
+
+        /** Počet navštívených uzlů prohledávání. */
+        public long getNodes() {
+            return nodes;
+        }
+    }
+
+    /**
+     * Naplánuje tréninky do okna [from, to) kolem obsazených intervalů.
+     *
+     * @param busy        obsazené intervaly okna (existující události)
+     * @param request     tréninky a pravidla
+     * @param budgetNanos časový limit hledání
+     */
+    public Plan plan(List<EventInterval> busy, LocalDateTime from, LocalDateTime to,
+                     PlanWeekRequest request, long budgetNanos) {
+        return plan(busy, from, to, request, budgetNanos, Long.MAX_VALUE);
+    }
+
+    /**
+     * Jako plan s časovým limitem, navíc s limitem navštívených uzlů –
+     * na rozdíl od času nezávisí na zatížení stroje, výsledek je opakovatelný.
+     *
+     * @param maxNodes nejvyšší počet navštívených uzlů prohledávání
+     */
+    public Plan plan(List<EventInterval> busy, LocalDateTime from, LocalDateTime to,
+                     PlanWeekRequest request, long budgetNanos, long maxNodes) {
+        List<Workout> workouts = request.getWorkouts();
+        int n = workouts.size();
+
+        int shortest = Integer.MAX_VALUE;
+        for (Workout w : workouts) shortest = Math.min(shortest, w.getDuration());
+
+        List<FreeSlot> gaps = new ArrayList<>(freeSlotFinder.find(busy, from, to, shortest, Integer.MAX_VALUE));
+        gaps.sort(Comparator.comparing(FreeSlot::getStart));
+
+        // Pořadí přiřazování: náročné a delší tréninky dřív (méně možností → silnější ořez)
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, Comparator
+                .comparing((Integer i) -> workouts.get(i).getIntensity() != Intensity.HARD)
+                .thenComparing(i -> -workouts.get(i).getDuration()));
+
+        long[][] candStart = new long[n][];
+        long[][] candCost = new long[n][];
+        for (int k = 0; k < n; k++) {
+            Workout w = workouts.get(order[k]);
+            buildCandidates(gaps, w.getDuration(), request.getPreferredTimeOfDay(), k, candStart, candCost);
+        }
+
+        Search search = new Search(workouts, order, candStart, candCost, request, budgetNanos, maxNodes);
+        search.run();
+
+        LocalDateTime[] starts = new LocalDateTime[n];
+        for (int k = 0; k < n; k++) {
+            if (search.best[k] >= 0) {
+                starts[order[k]] = dateTime(candStart[k][search.best[k]]);
+            }
+        }
+        return new Plan(starts, !search.aborted, search.nodes);
+    }
+
+    /**
+     * Kandidátní začátky jednoho tréninku seřazené podle ceny
+     * (nejvýše CANDIDATES_PER_DAY na den).
+     */
+    private static void buildCandidates(List<FreeSlot> gaps, int duration, TimeOfDay preferred, int k,
+                                        long[][] candStart, long[][] candCost) {
+        Map<Long, List<long[]>> byDay = new TreeMap<>();
+        for (FreeSlot gap : gaps) {
+            long end = minutes(gap.getEnd());
+            long first = ceilTo(minutes(gap.getStart()), STEP_MINUTES);
+            for (long s = first; s + duration <= end; s += STEP_MINUTES) {
+                long day = Math.floorDiv(s, MINUTES_PER_DAY);
+                byDay.computeIfAbsent(day, d -> new ArrayList<>())
+                        .add(new long[]{s, preferenceCost(s, duration, preferred)});
+            }
+        }
+
+        List<long[]> all = new ArrayList<>();
+        for (List<long[]> day : byDay.values()) {
+            day.sort(Comparator.comparingLong((long[] c) -> c[1]).thenComparingLong(c -> c[0]));
+            all.addAll(day.subList(0, Math.min(CANDIDATES_PER_DAY, day.size())));
+        }
+        all.sort(Comparator.comparingLong((long[] c) -> c[1]).thenComparingLong(c -> c[0]));
+
+        candStart[k] = new long[all.size()];
+        candCost[k] = new long[all.size()];
+        for (int i = 0; i < all.size(); i++) {
+            candStart[k][i] = all.get(i)[0];
+            candCost[k][i] = all.get(i)[1];
+        }
+    }
+
+    /** Cena začátku – vzdálenost středu tréninku od středu preferované části dne (minuty). */
+    private static long preferenceCost(long start, int duration, TimeOfDay preferred) {
+        LocalTime center = switch (preferred == null ? TimeOfDay.ANY : preferred) {
+            case MORNING -> LocalTime.of(7, 0);
+            case MIDDAY -> LocalTime.of(12, 30);
+            case EVENING -> LocalTime.of(18, 0);
+            case ANY -> null;
+        };
+        if (center == null) return 0;
+
+        long mid = Math.floorMod(start + duration / 2, MINUTES_PER_DAY);
+        return Math.abs(mid - center.toSecondOfDay() / 60);
+    }
+
+    /** Stav jednoho prohledávání. */
+    private static final class Search {
+        private final int n;
+        private final long[][] candStart;
+        private final long[][] candCost;
+        private final int[] duration;
+        private final boolean[] hard;
+
+        private final boolean noConsecutiveHard;
+        private final long restGap;
+        private final int maxPerDay;
+
+        /** Nejlevnější možnost tréninku k (kandidát nebo nenaplánování) – pro dolní mez. */
+        private final long[] minCost;
+        /** Součet minCost od k do konce. */
+        private final long[] suffixMin;
+
+        private final int[] current;
+        private final int[] best;
+        private long bestCost = Long.MAX_VALUE;
+
+        private final long deadline;
+        private final long maxNodes;
+        private long nodes;
+        /** Hledání skončilo vyčerpáním času nebo uzlů, best nemusí být optimální. */
+        private boolean aborted;
+
+        Search(List<Workout> workouts, Integer[] order, long[][] candStart, long[][] candCost,
+               PlanWeekRequest request, long budgetNanos, long maxNodes) {
+            this.n = order.length;
+            this.candStart = candStart;
+            this.candCost = candCost;
+            this.duration = new int[n];
+            this.hard = new boolean[n];
+            for (int k = 0; k < n; k++) {
+                Workout w = workouts.get(order[k]);
+                duration[k] = w.getDuration();
+                hard[k] = w.getIntensity() == Intensity.HARD;
+            }
+            this.noConsecutiveHard = request.isNoConsecutiveHardDays();
+            this.restGap = Math.max(0, request.getMinRestGapMinutes());
+            this.maxPerDay = Math.max(1, request.getMaxPerDay());
+
+            this.minCost = new long[n];
+            this.suffixMin = new long[n + 1];
+            for (int k = n - 1; k >= 0; k--) {
+                minCost[k] = candCost[k].length > 0 ? Math.min(candCost[k][0], UNPLACED_COST) : UNPLACED_COST;
+                suffixMin[k] = suffixMin[k + 1] + minCost[k];
+            }
+
+            this.current = new int[n];
+            this.best = new int[n];
+            Arrays.fill(best, -1);
+            this.deadline = System.nanoTime() + budgetNanos;
+            this.maxNodes = maxNodes;
+        }
+
+        void run() {
+            dfs(0, 0);
+        }
+
+        private void dfs(int k, long cost) {
+            if (aborted) return;
+            if (++nodes >= maxNodes || ((nodes & 255) == 0 && System.nanoTime() > deadline)) {
+                aborted = true;
+                return;
+            }
+
+            if (k == n) {
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    System.arraycopy(current, 0, best, 0, n);
+                }
+                return;
+            }
+
+            // Kandidáti jsou seřazení podle ceny – jakmile mez přestane stačit, další už také ne
+            for (int c = 0; c < candStart[k].length; c++) {
+                long next = cost + candCost[k][c];
+                if (next + suffixMin[k + 1] >= bestCost) break;
+                if (!feasible(k, c)) continue;
+
+                current[k] = c;
+                dfs(k + 1, next);
+                if (aborted) return;
+            }
+
+            long next = cost + UNPLACED_COST;
+            if (next + suffixMin[k + 1] < bestCost) {
+                current[k] = -1;
+                dfs(k + 1, next);
+            }
+        }
+
+        /** Lze trénink k umístit na kandidáta c vzhledem k už umístěným tréninkům? */
+        private boolean feasible(int k, int c) {
+            long start = candStart[k][c];
+            long end = start + duration[k];
+            long day = Math.floorDiv(start, MINUTES_PER_DAY);
+            int sameDay = 0;
+
+            for (int j = 0; j < k; j++) {
+                if (current[j] < 0) continue;
+
+                long s = candStart[j][current[j]];
+                long e = s + duration[j];
+                if (start < e + restGap && s < end + restGap) return false;
+
+                long d = Math.floorDiv(s, MINUTES_PER_DAY);
+                if (d == day && ++sameDay >= maxPerDay) return false;
+                if (noConsecutiveHard && hard[k] && hard[j] && Math.abs(d - day) <= 1) return false;
+            }
+            return true;
+        }
+    }
+
+    private static long ceilTo(long value, int step) {
+        return Math.floorDiv(value + step - 1, step) * step;
+    }
+
+    private static long minutes(LocalDateTime t) {
+        return Math.floorDiv(t.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    private static LocalDateTime dateTime(long minutes) {
+        return LocalDateTime.ofEpochSecond(minutes * 60, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,338 @@
+package com.weekfitter.weekfitter_backend.service.recurrence;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+
+/**
+ * Pravidlo opakování události – podmnožina RRULE z iCalendar (RFC 5545).
+ *
+ * Podporované části:
+ * - FREQ=DAILY | WEEKLY (povinné),
+ * - INTERVAL=n (každý n-tý den / týden, výchozí 1),
+ * - BYDAY=MO,WE,FR (pouze u WEEKLY; výchozí je den začátku série),
+ * - COUNT=n (počet výskytů včetně prvního),
+ * - UNTIL=yyyyMMdd | yyyyMMdd'T'HHmmss (poslední možný začátek, včetně).
+ *
+ * Výjimky (vynechané výskyty) se zadávají zvlášť jako seznam dat – série
+ * má nejvýše jeden výskyt denně, datum tedy výskyt jednoznačně určuje.
+ * Výjimky se podle RFC 5545 do COUNT započítávají.
+ *
+ * Série se v databázi ukládá jako jediný řádek (master) a výskyty se
+ * dopočítávají až pro požadované časové okno. Výpočet nepotřebuje
+ * procházet výskyty od začátku série – pozice v sérii se určí aritmeticky.
+ *
+ * Instance je neměnná.
+ */
+public final class RecurrenceRule {
+
+    /** Frekvence opakování. */
+    public enum Frequency { DAILY, WEEKLY }
+
+    /** Pojistka proti rozbalení obřího okna (např. denní série přes desítky let). */
+    public static final int MAX_OCCURRENCES_PER_EXPANSION = 2000;
+
+    private static final String[] DAY_CODES = {"MO", "TU", "WE", "TH", "FR", "SA", "SU"};
+
+    private final Frequency frequency;
+    private final int interval;
+    /** Dny v týdnu seřazené od pondělí (jen WEEKLY; prázdné = den začátku série). */
+    private final List<DayOfWeek> byDay;
+    private final Integer count;
+    private final LocalDateTime until;
+
+    private RecurrenceRule(Frequency frequency, int interval, List<DayOfWeek> byDay,
+                           Integer count, LocalDateTime until) {
+        this.frequency = frequency;
+        this.interval = interval;
+        this.byDay = byDay;
+        this.count = count;
+        this.until = until;
+    }
+
+    public Frequency getFrequency() { return frequency; }
+    public int getInterval() { return interval; }
+    public List<DayOfWeek> getByDay() { return byDay; }
+    public Integer getCount() { return count; }
+    public LocalDateTime getUntil() { return until; }
+
+    /** Je série konečná (COUNT nebo UNTIL)? */
+    public boolean isFinite() {
+        return count != null || until != null;
+    }
+
+    // ==========================
+    // Parsování a formátování
+    // ==========================
+
+    /**
+     * Naparsuje text pravidla, např. "FREQ=WEEKLY;BYDAY=MO,TH;COUNT=20".
+     * Volitelný prefix "RRULE:" je povolen.
+     *
+     * @throws IllegalArgumentException pokud pravidlo není platné nebo podporované
+     */
+    public static RecurrenceRule parse(String text) {
+        if (text == null || text.isBlank())
+            throw new IllegalArgumentException("Pravidlo opakování je prázdné.");
+
+        String body = text.trim();
+        if (body.regionMatches(true, 0, "RRULE:", 0, 6)) body = body.substring(6);
+
+        Frequency frequency = null;
+        int interval = 1;
+        List<DayOfWeek> byDay = new ArrayList<>();
+        Integer count = null;
+        LocalDateTime until = null;
+
+        for (String part : body.split(";")) {
+            if (part.isBlank()) continue;
+            int eq = part.indexOf('=');
+            if (eq <= 0) throw new IllegalArgumentException("Neplatná část pravidla opakování: " + part);
+
+            String key = part.substring(0, eq).trim().toUpperCase(Locale.ROOT);
+            String value = part.substring(eq + 1).trim().toUpperCase(Locale.ROOT);
+
+            try {
+                switch (key) {
+                    case "FREQ" -> frequency = Frequency.valueOf(value);
+                    case "INTERVAL" -> interval = Integer.parseInt(value);
+                    case "COUNT" -> count = Integer.parseInt(value);
+                    case "UNTIL" -> until = parseUntil(value);
+                    case "BYDAY" -> {
+                        for (String code : value.split(",")) byDay.add(parseDay(code.trim()));
+                    }
+                    case "WKST" -> { /* týden vždy začíná pondělím */ }
+                    default -> throw new IllegalArgumentException("Nepodporovaná část pravidla opakování: " + key);
+                }
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                if (e instanceof IllegalArgumentException iae && iae.getMessage() != null
+                        && iae.getMessage().startsWith("Nepodporovaná")) throw iae;
+                throw new IllegalArgumentException("Neplatná hodnota " + key + " v pravidle opakování: " + value);
+            }
+        }
+
+        if (frequency == null) throw new IllegalArgumentException("Pravidlo opakování musí obsahovat FREQ.");
+        if (interval < 1) throw new IllegalArgumentException("INTERVAL musí být alespoň 1.");
+        if (count != null && count < 1) throw new IllegalArgumentException("COUNT musí být alespoň 1.");
+        if (count != null && until != null)
+            throw new IllegalArgumentException("COUNT a UNTIL nelze kombinovat.");
+        if (frequency == Frequency.DAILY && !byDay.isEmpty())
+            throw new IllegalArgumentException("BYDAY je podporováno pouze u FREQ=WEEKLY.");
+
+        List<DayOfWeek> days = byDay.stream().distinct().sorted().toList();
+        return new RecurrenceRule(frequency, interval, days, count, until);
+    }
+
+    /** Kanonický textový tvar pravidla (bez prefixu RRULE:). */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("FREQ=").append(frequency);
+        if (interval != 1) sb.append(";INTERVAL=").append(interval);
+        if (!byDay.isEmpty()) {
+            sb.append(";BYDAY=");
+            for (int i = 0; i < byDay.size(); i++) {
+                if (i > 0) sb.append(',');
+                sb.append(DAY_CODES[byDay.get(i).ordinal()]);
+            }
+        }
+        if (count != null) sb.append(";COUNT=").append(count);
+        if (until != null) {
+            sb.append(";UNTIL=").append(until.toLocalDate().toString().replace("-", ""))
+              .append('T').append(String.format("%02d%02d%02d", until.getHour(), until.getMinute(), until.getSecond()));
+        }
+        return sb.toString();
+    }
+
+    /** Naparsuje seznam výjimek uložený v databázi ("2025-11-03,2025-11-10"). */
+    public static Set<LocalDate> parseExceptions(String stored) {
+        if (stored == null || stored.isBlank()) return Collections.emptySet();
+        Set<LocalDate> dates = new TreeSet<>();
+        for (String s : stored.split(",")) {
+            if (!s.isBlank()) dates.add(LocalDate.parse(s.trim()));
+        }
+        return dates;
+    }
+
+    /** Převede výjimky do tvaru pro uložení v databázi (null pro prázdný seznam). */
+    public static String formatExceptions(Collection<LocalDate> dates) {
+        if (dates == null || dates.isEmpty()) return null;
+        StringJoiner joiner = new StringJoiner(",");
+        new TreeSet<>(dates).forEach(d -> joiner.add(d.toString()));
+        return joiner.toString();
+    }
+
+    private static LocalDateTime parseUntil(String value) {
+        String v = value.endsWith("Z") ? value.substring(0, value.length() - 1) : value;
+        LocalDate date = LocalDate.of(
+                Integer.parseInt(v.substring(0, 4)),
+                Integer.parseInt(v.substring(4, 6)),
+                Integer.parseInt(v.substring(6, 8)));
+        if (v.length() == 8) return date.atTime(23, 59, 59);
+        if (v.length() != 15 || v.charAt(8) != 'T') throw new IllegalArgumentException("UNTIL");
+        return date.atTime(
+                Integer.parseInt(v.substring(9, 11)),
+                Integer.parseInt(v.substring(11, 13)),
+                Integer.parseInt(v.substring(13, 15)));
+    }
+
+    private static DayOfWeek parseDay(String code) {
+        for (int i = 0; i < DAY_CODES.length; i++) {
+            if (DAY_CODES[i].equals(code)) return DayOfWeek.of(i + 1);
+        }
+        throw new IllegalArgumentException("BYDAY");
+    }
+
+    // ==========================
+    // Výpočet výskytů
+    // ==========================
+
+    /**
+     * Začátky výskytů série, které se překrývají s oknem [from, to).
+     *
+     * @param seriesStart začátek prvního výskytu
+     * @param lengthMinutes délka jednoho výskytu v minutách
+     * @param from        začátek okna
+     * @param to          konec okna (bez)
+     * @param exceptions  data vynechaných výskytů
+     * @return začátky výskytů seřazené vzestupně (nejvýše MAX_OCCURRENCES_PER_EXPANSION)
+     */
+    public List<LocalDateTime> occurrencesBetween(LocalDateTime seriesStart, long lengthMinutes,
+                                                  LocalDateTime from, LocalDateTime to,
+                                                  Set<LocalDate> exceptions) {
+        List<LocalDateTime> result = new ArrayList<>();
+        // Výskyt zasahuje do okna, pokud start < to a start + délka > from
+        LocalDateTime earliestStart = from.minusMinutes(Math.max(lengthMinutes, 0));
+
+        Cursor c = new Cursor(seriesStart, earliestStart);
+        while (c.current != null && c.current.isBefore(to) && result.size() < MAX_OCCURRENCES_PER_EXPANSION) {
+            if (c.current.plusMinutes(lengthMinutes).isAfter(from)
+                    && !exceptions.contains(c.current.toLocalDate())) {
+                result.add(c.current);
+            }
+            c.advance();
+        }
+        return result;
+    }
+
+    /**
+     * První výskyt (bez výjimek), který začíná v čase t nebo později.
+     *
+     * @return začátek výskytu nebo null, pokud série už skončila
+     */
+    public LocalDateTime firstOccurrenceAtOrAfter(LocalDateTime seriesStart, LocalDateTime t,
+                                                  Set<LocalDate> exceptions) {
+        Cursor c = new Cursor(seriesStart, t);
+        for (int guard = 0; c.current != null && guard < MAX_OCCURRENCES_PER_EXPANSION; guard++) {
+            if (!exceptions.contains(c.current.toLocalDate())) return c.current;
+            c.advance();
+        }
+        return null;
+    }
+
+    /**
+     * Začátek posledního výskytu série (bez ohledu na výjimky).
+     *
+     * @return začátek posledního výskytu nebo null u nekonečné série
+     */
+    public LocalDateTime lastOccurrenceStart(LocalDateTime seriesStart) {
+        if (!isFinite()) return null;
+
+        if (count != null) {
+            return occurrenceAt(seriesStart, count - 1);
+        }
+
+        // UNTIL – poslední výskyt není pozdější než until
+        if (until.isBefore(seriesStart)) return seriesStart;
+        Cursor c = new Cursor(seriesStart, until.minusWeeks((long) interval + 1));
+        LocalDateTime last = seriesStart;
+        while (c.current != null) {
+            last = c.current;
+            c.advance();
+        }
+        return last;
+    }
+
+    /** Začátek výskytu s daným pořadím (0 = první), bez kontroly konce série. */
+    private LocalDateTime occurrenceAt(LocalDateTime seriesStart, long index) {
+        if (frequency == Frequency.DAILY) {
+            return seriesStart.plusDays(index * interval);
+        }
+        List<DayOfWeek> days = effectiveDays(seriesStart);
+        int firstCycle = firstCycleCount(seriesStart, days);
+        if (index < firstCycle) {
+            int skipped = days.size() - firstCycle;
+            return dayInWeek(mondayOf(seriesStart), days.get(skipped + (int) index), seriesStart);
+        }
+        long rest = index - firstCycle;
+        long cycle = 1 + rest / days.size();
+        int pos = (int) (rest % days.size());
+        return dayInWeek(mondayOf(seriesStart).plusWeeks(cycle * interval), days.get(pos), seriesStart);
+    }
+
+    private List<DayOfWeek> effectiveDays(LocalDateTime seriesStart) {
+        return byDay.isEmpty() ? List.of(seriesStart.getDayOfWeek()) : byDay;
+    }
+
+    /** Počet výskytů v prvním týdnu série (dny před začátkem se přeskakují). */
+    private static int firstCycleCount(LocalDateTime seriesStart, List<DayOfWeek> days) {
+        int n = 0;
+        for (DayOfWeek d : days) {
+            if (d.compareTo(seriesStart.getDayOfWeek()) >= 0) n++;
+        }
+        return n;
+    }
+
+    private static LocalDate mondayOf(LocalDateTime t) {
+        return t.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    private static LocalDateTime dayInWeek(LocalDate monday, DayOfWeek day, LocalDateTime seriesStart) {
+        return monday.plusDays(day.ordinal()).atTime(seriesStart.toLocalTime());
+    }
+
+    /**
+     * Iterátor výskytů série začínající prvním výskytem v čase "notBefore" nebo později.
+     *
+     * Na správnou pozici skočí aritmeticky (podle počtu celých cyklů)
+     * a zároveň zná pořadové číslo výskytu kvůli COUNT.
+     */
+    private final class Cursor {
+        private final LocalDateTime seriesStart;
+        private final List<DayOfWeek> days;
+        private long index;
+        private LocalDateTime current;
+
+        Cursor(LocalDateTime seriesStart, LocalDateTime notBefore) {
+            this.seriesStart = seriesStart;
+            this.days = effectiveDays(seriesStart);
+
+            if (!notBefore.isAfter(seriesStart)) {
+                index = 0;
+            } else if (frequency == Frequency.DAILY) {
+                long daysBetween = ChronoUnit.DAYS.between(seriesStart.toLocalDate(), notBefore.toLocalDate());
+                index = Math.max(0, daysBetween / interval - 1);
+            } else {
+                long weeks = ChronoUnit.WEEKS.between(mondayOf(seriesStart), mondayOf(notBefore));
+                long cycle = Math.max(0, weeks / interval - 1);
+                index = (cycle == 0) ? 0 : firstCycleCount(seriesStart, days) + (cycle - 1) * days.size();
+            }
+
+            current = valid(index) ? occurrenceAt(seriesStart, index) : null;
+            while (current != null && current.isBefore(notBefore)) advance();
+        }
+
+        void advance() {
+            index++;
+            current = valid(index) ? occurrenceAt(seriesStart, index) : null;
+        }
+
+        private boolean valid(long i) {
+            if (count != null && i >= count) return false;
+            return until == null || !occurrenceAt(seriesStart, i).isAfter(until);
+        }
+    }
+}
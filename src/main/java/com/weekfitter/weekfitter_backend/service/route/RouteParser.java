@@ -0,0 +1,144 @@
+package com.weekfitter.weekfitter_backend.service.route;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Streamový parser tras GPX a TCX (StAX).
+ *
+ * Dokument se čte po událostech XMLStreamReader – strom se nesestavuje,
+ * body se rovnou ukládají do primitivních polí RouteTrack. Formát se pozná
+ * podle elementů, ne podle přípony:
+ * - GPX: trkpt / rtept s atributy lat a lon, vnořené ele a time;
+ *   každý trkseg začíná nový úsek,
+ * - TCX: Trackpoint s Position (LatitudeDegrees, LongitudeDegrees),
+ *   AltitudeMeters a Time; body bez polohy (jen tep) se přeskočí,
+ *   každý Lap/Track začíná nový úsek.
+ *
+ * Jmenné prostory se ignorují (porovnává se lokální název), DTD a externí
+ * entity jsou vypnuté.
+ */
+public final class RouteParser {
+
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    private RouteParser() {
+    }
+
+    /**
+     * Načte trasu ze souboru GPX nebo TCX.
+     *
+     * @param maxPoints nejvyšší počet bodů – delší trasa se odmítne
+     * @throws IllegalArgumentException pro neplatné XML nebo příliš dlouhou trasu
+     */
+    public static RouteTrack parse(InputStream in, int maxPoints) {
+        RouteTrack track = new RouteTrack();
+        XMLStreamReader r = null;
+        try {
+            r = FACTORY.createXMLStreamReader(in);
+
+            boolean inPoint = false;
+            double lat = Double.NaN;
+            double lon = Double.NaN;
+            double ele = Double.NaN;
+            Long time = null;
+
+            while (r.hasNext()) {
+                int event = r.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = r.getLocalName();
+                    switch (name) {
+                        case "trkseg", "rte", "Track", "Lap" -> track.breakSegment();
+                        case "trkpt", "rtept" -> {
+                            inPoint = true;
+                            lat = coordinate(r.getAttributeValue(null, "lat"));
+                            lon = coordinate(r.getAttributeValue(null, "lon"));
+                            ele = Double.NaN;
+                            time = null;
+                        }
+                        case "Trackpoint" -> {
+                            inPoint = true;
+                            lat = Double.NaN;
+                            lon = Double.NaN;
+                            ele = Double.NaN;
+                            time = null;
+                        }
+                        case "ele", "AltitudeMeters" -> {
+                            if (inPoint) ele = number(r.getElementText());
+                        }
+                        case "time", "Time" -> {
+                            if (inPoint) time = epochSecond(r.getElementText());
+                        }
+                        case "LatitudeDegrees" -> {
+                            if (inPoint) lat = coordinate(r.getElementText());
+                        }
+                        case "LongitudeDegrees" -> {
+                            if (inPoint) lon = coordinate(r.getElementText());
+                        }
+                        default -> {
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && inPoint) {
+                    String name = r.getLocalName();
+                    if (name.equals("trkpt") || name.equals("rtept") || name.equals("Trackpoint")) {
+                        inPoint = false;
+                        if (valid(lat, lon)) {
+                            if (track.size() >= maxPoints) {
+                                throw new IllegalArgumentException("Trasa má více než " + maxPoints + " bodů.");
+                            }
+                            track.add(lat, lon, ele, time);
+                        }
+                    }
+                }
+            }
+            return track;
+        } catch (XMLStreamException e) {
+            throw new IllegalArgumentException("Neplatný soubor trasy: " + e.getMessage(), e);
+        } finally {
+            if (r != null) {
+                try {
+                    r.close();
+                } catch (XMLStreamException ignored) {
+                    // vstup zavírá volající
+                }
+            }
+        }
+    }
+
+    private static boolean valid(double lat, double lon) {
+        return lat >= -90 && lat <= 90 && lon >= -180 && lon <= 180;
+    }
+
+    private static double coordinate(String text) {
+        return text == null ? Double.NaN : number(text);
+    }
+
+    private static double number(String text) {
+        try {
+            return Double.parseDouble(text.trim());
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static Long epochSecond(String text) {
+        try {
+            return OffsetDateTime.parse(text.trim()).toEpochSecond();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+}
@@ -0,0 +1,163 @@
+package com.weekfitter.weekfitter_backend.service.route;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weekfitter.weekfitter_backend.dto.RoutePreview;
+import com.weekfitter.weekfitter_backend.model.CalendarEvent;
+import com.weekfitter.weekfitter_backend.service.UploadStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Náhledy tras připojených k událostem (GPX, TCX).
+ *
+ * Trasa se jednou přečte streamovým parserem (RouteParser), spočítají se
+ * souhrnné hodnoty a zjednodušená čára a výsledek se uloží jako JSON vedle
+ * souboru ("trasa.gpx.preview.json"). Další zobrazení kalendáře čtou jen
+ * tento malý soubor – dlouhá trasa s desítkami tisíc bodů se znovu
+ * neparsuje. Náhled platí, dokud není starší než soubor trasy.
+ */
+@Service
+public class RoutePreviewService {
+
+    private static final Logger log = LoggerFactory.getLogger(RoutePreviewService.class);
+
+    static final String PREVIEW_SUFFIX = ".preview.json";
+
+    private final UploadStorage uploadStorage;
+    private final ObjectMapper objectMapper;
+    private final long maxBytes;
+    private final int maxPoints;
+    private final double toleranceMeters;
+    private final int maxPreviewPoints;
+
+    public RoutePreviewService(
+            UploadStorage uploadStorage,
+            ObjectMapper objectMapper,
+            @Value("${weekfitter.route.max-bytes:67108864}") long maxBytes,
+            @Value("${weekfitter.route.max-points:500000}") int maxPoints,
+            @Value("${weekfitter.route.tolerance-meters:10}") double toleranceMeters,
+            @Value("${weekfitter.route.max-preview-points:2000}") int maxPreviewPoints
+    ) {
+        this.uploadStorage = uploadStorage;
+        this.objectMapper = objectMapper;
+        this.maxBytes = maxBytes;
+        this.maxPoints = maxPoints;
+        this.toleranceMeters = toleranceMeters;
+        this.maxPreviewPoints = maxPreviewPoints;
+    }
+
+    /**
+     * Náhled trasy z připojeného souboru události uživatele ownerId.
+     *
+     * @return prázdný Optional, pokud cesta nevede na čitelný soubor GPX/TCX
+     *         nebo na soubor jiného uživatele (UploadStorage.resolve)
+     */
+    public Optional<RoutePreview> preview(UUID ownerId, String filePath) {
+        if (!isRoute(filePath)) return Optional.empty();
+
+        Path file = uploadStorage.resolve(ownerId, filePath).orElse(null);
+        if (file == null) return Optional.empty();
+
+        Path sidecar = file.resolveSibling(file.getFileName() + PREVIEW_SUFFIX);
+        RoutePreview cached = readSidecar(file, sidecar);
+        if (cached != null) return Optional.of(cached);
+
+        try {
+            if (Files.size(file) > maxBytes) return Optional.empty();
+            RouteTrack track;
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 64 * 1024)) {
+                track = RouteParser.parse(in, maxPoints);
+            }
+            if (track.size() == 0) return Optional.empty();
+
+            RoutePreview preview = track.preview(toleranceMeters, maxPreviewPoints);
+            writeSidecar(sidecar, preview);
+            return Optional.of(preview);
+        } catch (IOException | IllegalArgumentException e) {
+            log.debug("Soubor trasy {} nelze přečíst: {}", filePath, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Doplní do události vzdálenost a čas v pohybu z připojené trasy –
+     * jen hodnoty, které uživatel sám nezadal.
+     *
+     * @param replaceEnd délka se doplní i u události s koncem
+     *                   (viz GarminWorkoutService.applyEstimate)
+     */
+    public void applyRoute(CalendarEvent event, boolean replaceEnd) {
+        if (event.getUser() == null) return;
+        preview(event.getUser().getId(), event.getFilePath()).ifPresent(p -> {
+            if (event.getDistance() == null && p.getDistanceMeters() > 0) {
+                event.setDistance(Math.round(p.getDistanceMeters() / 10.0) / 100.0);
+            }
+            boolean hasEnd = event.getEndTime() != null && event.getStartTime() != null
+                    && event.getEndTime().isAfter(event.getStartTime());
+            if (event.getDuration() == null && (replaceEnd || !hasEnd) && p.getMovingTimeSeconds() > 0) {
+                event.setDuration((double) Math.max(1, Math.round(p.getMovingTimeSeconds() / 60.0)));
+            }
+        });
+    }
+
+    private static boolean isRoute(String filePath) {
+        if (filePath == null) return false;
+        String lower = filePath.toLowerCase(Locale.ROOT);
+        return lower.endsWith(".gpx") || lower.endsWith(".tcx");
+    }
+
+    /**
+     * Uložený náhled, pokud existuje a není starší než trasa. Náhled ve
+     * starším formátu (jedna čára přes všechny úseky) se vytvoří znovu.
+     */
+    private RoutePreview readSidecar(Path file, Path sidecar) {
+        try {
+            if (!Files.isRegularFile(sidecar)) return null;
+            if (Files.getLastModifiedTime(sidecar).compareTo(Files.getLastModifiedTime(file)) < 0) return null;
+            RoutePreview preview = objectMapper.readValue(sidecar.toFile(), RoutePreview.class);
+            return preview.getPolylines() != null ? preview : null;
+        } catch (IOException e) {
+            log.debug("Náhled trasy {} nelze přečíst: {}", sidecar, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Zapíše náhled přes dočasný soubor a přesun – souběžný čtenář nikdy
+     * nevidí rozepsaný JSON. Chyba zápisu náhled jen neuloží.
+     */
+    private void writeSidecar(Path sidecar, RoutePreview preview) {
+        Path tmp = null;
+        try {
+            tmp = Files.createTempFile(sidecar.getParent(), ".route", ".tmp");
+            objectMapper.writeValue(tmp.toFile(), preview);
+            try {
+                Files.move(tmp, sidecar, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, sidecar, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            log.warn("Náhled trasy {} nelze uložit: {}", sidecar, e.getMessage());
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ignored) {
+                    // dočasný soubor zůstane
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.weekfitter.weekfitter_backend.service.route;
+
+import com.weekfitter.weekfitter_backend.dto.RoutePreview;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Body trasy v primitivních polích (zeměpisná šířka a délka, výška, čas)
+ * a výpočty nad nimi – délka (haversine), stoupání, čas v pohybu
+ * a zjednodušení Douglas–Peucker pro náhled.
+ *
+ * Trasa může mít více úseků (GPX trkseg) – mezi posledním bodem úseku
+ * a prvním bodem dalšího se vzdálenost ani čas nepočítají a náhled mezi
+ * nimi nekreslí čáru.
+ *
+ * Instanci plní RouteParser, po naplnění se nemění.
+ */
+public final class RouteTrack {
+
+    /** Střední poloměr Země (m). */
+    static final double EARTH_RADIUS = 6_371_008.8;
+
+    /** Změna výšky, od které se počítá stoupání (potlačení šumu GPS). */
+    static final double ELEVATION_THRESHOLD = 3.0;
+
+    /** Nejnižší rychlost, která se počítá jako pohyb (m/s). */
+    static final double MOVING_SPEED = 0.5;
+
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    private int count;
+    private double[] lat = new double[1024];
+    private double[] lon = new double[1024];
+    private double[] ele = new double[1024];
+    private long[] time = new long[1024];
+    private boolean[] segmentStart = new boolean[1024];
+    private boolean nextStartsSegment = true;
+
+    /** Počet bodů. */
+    public int size() {
+        return count;
+    }
+
+    /** Další bod začne nový úsek. */
+    void breakSegment() {
+        nextStartsSegment = true;
+    }
+
+    /**
+     * Přidá bod.
+     *
+     * @param elevation výška v metrech, nebo NaN
+     * @param epochSecond čas, nebo null
+     */
+    void add(double latitude, double longitude, double elevation, Long epochSecond) {
+        if (count == lat.length) {
+            int capacity = count * 2;
+            lat = Arrays.copyOf(lat, capacity);
+            lon = Arrays.copyOf(lon, capacity);
+            ele = Arrays.copyOf(ele, capacity);
+            time = Arrays.copyOf(time, capacity);
+            segmentStart = Arrays.copyOf(segmentStart, capacity);
+        }
+        lat[count] = latitude;
+        lon[count] = longitude;
+        ele[count] = elevation;
+        time[count] = epochSecond != null ? epochSecond : NO_TIME;
+        segmentStart[count] = nextStartsSegment;
+        nextStartsSegment = false;
+        count++;
+    }
+
+    /** Délka trasy v metrech. */
+    public double distance() {
+        double total = 0;
+        for (int i = 1; i < count; i++) {
+            if (!segmentStart[i]) total += haversine(lat[i - 1], lon[i - 1], lat[i], lon[i]);
+        }
+        return total;
+    }
+
+    /**
+     * Součet stoupání v metrech s hysterezí. Stoupání začne po překročení
+     * prahu nad posledním minimem a pak se počítá od dosaženého maxima;
+     * klesání (a nové minimum) začne až po poklesu o práh pod maximum.
+     * Drobné výkyvy GPS (110 → 109 → 112) se tak nesčítají.
+     */
+    public double elevationGain() {
+        double gain = 0;
+        double low = Double.NaN;
+        double high = Double.NaN;
+        boolean climbing = false;
+        for (int i = 0; i < count; i++) {
+            double e = ele[i];
+            if (Double.isNaN(e)) continue;
+            if (Double.isNaN(low)) {
+                low = e;
+            } else if (climbing) {
+                if (e > high) {
+                    gain += e - high;
+                    high = e;
+                } else if (high - e >= ELEVATION_THRESHOLD) {
+                    climbing = false;
+                    low = e;
+                }
+            } else if (e < low) {
+                low = e;
+            } else if (e - low >= ELEVATION_THRESHOLD) {
+                gain += e - low;
+                high = e;
+                climbing = true;
+            }
+        }
+        return gain;
+    }
+
+    /** Čas v pohybu – součet intervalů mezi body s rychlostí aspoň MOVING_SPEED. */
+    public long movingTime() {
+        long total = 0;
+        for (int i = 1; i < count; i++) {
+            if (segmentStart[i] || time[i] == NO_TIME || time[i - 1] == NO_TIME) continue;
+            long dt = time[i] - time[i - 1];
+            if (dt <= 0) continue;
+            double d = haversine(lat[i - 1], lon[i - 1], lat[i], lon[i]);
+            if (d / dt >= MOVING_SPEED) total += dt;
+        }
+        return total;
+    }
+
+    /**
+     * Náhled trasy se zjednodušenou čarou – každý úsek zvlášť, mezi úseky
+     * (přerušený záznam) se čára nekreslí.
+     *
+     * @param toleranceMeters největší odchylka zjednodušené čáry od trasy
+     * @param maxPoints       nejvyšší počet bodů všech čar – při překročení
+     *                        se tolerance zdvojnásobuje a zjednodušují se už
+     *                        zjednodušené čáry (ne znovu celá trasa); každý
+     *                        úsek si ponechá aspoň první a poslední bod
+     */
+    public RoutePreview preview(double toleranceMeters, int maxPoints) {
+        double minLat = Double.POSITIVE_INFINITY, minLon = Double.POSITIVE_INFINITY;
+        double maxLat = Double.NEGATIVE_INFINITY, maxLon = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            minLat = Math.min(minLat, lat[i]);
+            maxLat = Math.max(maxLat, lat[i]);
+            minLon = Math.min(minLon, lon[i]);
+            maxLon = Math.max(maxLon, lon[i]);
+        }
+        if (count == 0) minLat = minLon = maxLat = maxLon = 0;
+
+        List<int[]> segments = new ArrayList<>();
+        int minPoints = 0;
+        for (int from = 0; from < count; ) {
+            int to = from + 1;
+            while (to < count && !segmentStart[to]) to++;
+            segments.add(simplify(radial(from, to, toleranceMeters), toleranceMeters));
+            minPoints += Math.min(2, to - from);
+            from = to;
+        }
+
+        double tolerance = toleranceMeters;
+        int kept = keptPoints(segments);
+        while (kept > Math.max(minPoints, maxPoints)) {
+            tolerance *= 2;
+            for (int s = 0; s < segments.size(); s++) segments.set(s, simplify(segments.get(s), tolerance));
+            kept = keptPoints(segments);
+        }
+
+        List<String> polylines = new ArrayList<>(segments.size());
+        for (int[] segment : segments) polylines.add(encode(segment));
+        return new RoutePreview(distance(), elevationGain(), movingTime(), count, kept,
+                polylines, minLat, minLon, maxLat, maxLon);
+    }
+
+    private static int keptPoints(List<int[]> segments) {
+        int kept = 0;
+        for (int[] segment : segments) kept += segment.length;
+        return kept;
+    }
+
+    /**
+     * Předvýběr podle vzdálenosti v úseku [from, to) – bod bližší než
+     * tolerance k poslednímu ponechanému bodu se vynechá (první a poslední
+     * bod úseku zůstávají). Husté záznamy (1 bod za sekundu) se tak zmenší
+     * ještě před Douglas–Peucker.
+     *
+     * @return indexy ponechaných bodů (vzestupně)
+     */
+    int[] radial(int from, int to, double toleranceMeters) {
+        if (to - from <= 2) {
+            int[] all = new int[to - from];
+            for (int i = from; i < to; i++) all[i - from] = i;
+            return all;
+        }
+
+        int[] out = new int[to - from];
+        int kept = 0;
+        out[kept++] = from;
+        int previous = from;
+        for (int i = from + 1; i < to - 1; i++) {
+            if (haversine(lat[previous], lon[previous], lat[i], lon[i]) >= toleranceMeters) {
+                out[kept++] = i;
+                previous = i;
+            }
+        }
+        out[kept++] = to - 1;
+        return Arrays.copyOf(out, kept);
+    }
+
+    /**
+     * Douglas–Peucker nad vybranými body promítnutými do roviny (ekvidistantní
+     * projekce kolem středu trasy – pro náhled dostatečně přesná).
+     * Iterativně se zásobníkem úseků, bez rekurze.
+     *
+     * @param points indexy bodů (vzestupně)
+     * @return podmnožina points, která zůstane
+     */
+    int[] simplify(int[] points, double toleranceMeters) {
+        if (points.length < 3) return points;
+
+        int n = points.length;
+        double lat0 = Math.toRadians((lat[points[0]] + lat[points[n - 1]]) / 2);
+        double kx = Math.toRadians(1) * EARTH_RADIUS * Math.cos(lat0);
+        double ky = Math.toRadians(1) * EARTH_RADIUS;
+        double tolerance2 = toleranceMeters * toleranceMeters;
+
+        boolean[] keep = new boolean[n];
+        keep[0] = true;
+        keep[n - 1] = true;
+
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = n - 1;
+        while (top > 0) {
+            int last = stack[--top];
+            int first = stack[--top];
+
+            int a = points[first], b = points[last];
+            double ax = lon[a] * kx, ay = lat[a] * ky;
+            double dx = lon[b] * kx - ax, dy = lat[b] * ky - ay;
+            double length2 = dx * dx + dy * dy;
+
+            double maxDistance2 = -1;
+            int index = -1;
+            for (int k = first + 1; k < last; k++) {
+                int i = points[k];
+                double px = lon[i] * kx - ax, py = lat[i] * ky - ay;
+                double d2;
+                if (length2 == 0) {
+                    d2 = px * px + py * py;
+                } else {
+                    double t = Math.max(0, Math.min(1, (px * dx + py * dy) / length2));
+                    double ex = px - t * dx, ey = py - t * dy;
+                    d2 = ex * ex + ey * ey;
+                }
+                if (d2 > maxDistance2) {
+                    maxDistance2 = d2;
+                    index = k;
+                }
+            }
+
+            if (index >= 0 && maxDistance2 > tolerance2) {
+                keep[index] = true;
+                if (top + 4 > stack.length) stack = Arrays.copyOf(stack, stack.length * 2);
+                stack[top++] = first;
+                stack[top++] = index;
+                stack[top++] = index;
+                stack[top++] = last;
+            }
+        }
+
+        int kept = 0;
+        for (boolean k : keep) if (k) kept++;
+        int[] out = new int[kept];
+        for (int k = 0, j = 0; k < n; k++) if (keep[k]) out[j++] = points[k];
+        return out;
+    }
+
+    /** Google Encoded Polyline vybraných bodů (přesnost 1e-5). */
+    String encode(int[] indexes) {
+        StringBuilder sb = new StringBuilder(indexes.length * 6);
+        long prevLat = 0;
+        long prevLon = 0;
+        for (int i : indexes) {
+            long la = Math.round(lat[i] * 1e5);
+            long lo = Math.round(lon[i] * 1e5);
+            encodeValue(la - prevLat, sb);
+            encodeValue(lo - prevLon, sb);
+            prevLat = la;
+            prevLon = lo;
+        }
+        return sb.toString();
+    }
+
+    private static void encodeValue(long value, StringBuilder sb) {
+        long v = value < 0 ? ~(value << 1) : value << 1;
+        while (v >= 0x20) {
+            sb.append((char) ((0x20 | (v & 0x1F)) + 63));
+            v >>= 5;
+        }
+        sb.append((char) (v + 63));
+    }
+
+    /** Vzdálenost dvou bodů po povrchu Země (m). */
+    static double haversine(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
@@ -0,0 +1,138 @@
+package com.weekfitter.weekfitter_backend.service.search;
+
+import com.weekfitter.weekfitter_backend.dto.EventResponse;
+import com.weekfitter.weekfitter_backend.dto.EventSearchResponse;
+import com.weekfitter.weekfitter_backend.dto.SearchCursor;
+import com.weekfitter.weekfitter_backend.dto.SearchHit;
+import com.weekfitter.weekfitter_backend.model.User;
+import com.weekfitter.weekfitter_backend.repository.CalendarEventRepository;
+import com.weekfitter.weekfitter_backend.service.NotificationService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Fulltextové vyhledávání v událostech uživatele (GET /api/events/search).
+ *
+ * Hledá v názvu, popisu a sportovním popisu přes generované sloupce
+ * search_vector (tsvector, GIN) a search_text (trigramy, GIN) – viz
+ * schema.sql. Každé slovo dotazu se hledá jako prefix ("interv" najde
+ * "intervaly"), dotaz od 3 znaků navíc i uprostřed slov. Bez rozšíření
+ * pg_trgm vyhledávání funguje dál, jen hledání uprostřed slov nemá index.
+ *
+ * Výsledky jsou řazené podle relevance a stránkované kurzorem
+ * (rank, startTime, id) – další stránka nepřepočítává předchozí.
+ */
+@Service
+public class EventSearchService {
+
+    /** Nejdelší přijatý dotaz (znaky). */
+    static final int MAX_QUERY_LENGTH = 100;
+
+    /** Nejvyšší počet slov dotazu. */
+    private static final int MAX_TERMS = 8;
+
+    /** Nejkratší dotaz pro hledání uprostřed slov (trigramový index potřebuje 3 znaky). */
+    private static final int MIN_INFIX_LENGTH = 3;
+
+    private final CalendarEventRepository calendarEventRepository;
+    private final NotificationService notificationService;
+
+    public EventSearchService(CalendarEventRepository calendarEventRepository,
+                              NotificationService notificationService) {
+        this.calendarEventRepository = calendarEventRepository;
+        this.notificationService = notificationService;
+    }
+
+    /**
+     * Jedna stránka výsledků vyhledávání.
+     *
+     * @param cursor pozice poslední události předchozí stránky (null = první stránka)
+     * @throws IllegalArgumentException u prázdného nebo příliš dlouhého dotazu
+     */
+    @Transactional(readOnly = true)
+    public EventSearchResponse search(User user, String query, SearchCursor cursor, int limit) {
+        String text = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        if (text.length() > MAX_QUERY_LENGTH)
+            throw new IllegalArgumentException("Hledaný text může mít nejvýše " + MAX_QUERY_LENGTH + " znaků.");
+
+        String tsquery = toTsQuery(text);
+        if (tsquery == null) throw new IllegalArgumentException("Zadejte hledaný text.");
+
+        boolean infix = text.length() >= MIN_INFIX_LENGTH;
+        String pattern = "%" + escapeLike(text) + "%";
+
+        // Načte se o jeden výsledek víc – podle něj se pozná další stránka
+        List<SearchHit> hits = cursor == null
+                ? calendarEventRepository.searchFirstPage(user.getId(), tsquery, text, infix, pattern, limit + 1)
+                : calendarEventRepository.searchPageAfter(user.getId(), tsquery, text, infix, pattern,
+                        cursor.getRank(), cursor.getStartTime(), cursor.getId(), limit + 1);
+
+        boolean hasMore = hits.size() > limit;
+        if (hasMore) hits = hits.subList(0, limit);
+
+        SearchHit last = hits.isEmpty() ? null : hits.get(hits.size() - 1);
+        String nextCursor = hasMore
+                ? new SearchCursor(last.getRank(), last.getStartTime(), last.getId()).encode()
+                : null;
+
+        return new EventSearchResponse(load(user, hits), nextCursor);
+    }
+
+    /** Načte události výsledků (jeden dotaz) v pořadí relevance, včetně offsetů notifikací. */
+    private List<EventResponse> load(User user, List<SearchHit> hits) {
+        if (hits.isEmpty()) return List.of();
+
+        List<UUID> ids = hits.stream().map(SearchHit::getId).toList();
+        Map<UUID, EventResponse> byId = new HashMap<>();
+        for (EventResponse r : calendarEventRepository.findResponsesByUserIdAndIds(user.getId(), ids)) {
+            byId.put(r.getId(), r);
+        }
+
+        List<EventResponse> ordered = new ArrayList<>(ids.size());
+        Map<UUID, LocalDateTime> startById = new HashMap<>();
+        for (UUID id : ids) {
+            EventResponse r = byId.get(id);
+            if (r == null) continue;
+            ordered.add(r);
+            if (r.getStartTime() != null) startById.put(id, r.getStartTime());
+        }
+
+        Map<UUID, List<Integer>> offsets = notificationService.getNotificationOffsets(startById);
+        for (EventResponse r : ordered) {
+            r.setNotifications(offsets.getOrDefault(r.getId(), Collections.emptyList()));
+        }
+        return ordered;
+    }
+
+    /**
+     * Dotaz pro to_tsquery – slova (písmena a číslice) jako prefixy spojené AND,
+     * např. "intervaly 400" → "intervaly:* & 400:*". Jiné znaky se zahodí,
+     * do dotazu se tak nedostane syntaxe tsquery.
+     *
+     * @return dotaz, nebo null, pokud text neobsahuje žádné slovo
+     */
+    static String toTsQuery(String text) {
+        StringJoiner joiner = new StringJoiner(" & ");
+        int terms = 0;
+        for (String term : text.split("[^\\p{L}\\p{N}]+")) {
+            if (term.isEmpty()) continue;
+            joiner.add(term + ":*");
+            if (++terms == MAX_TERMS) break;
+        }
+        return terms == 0 ? null : joiner.toString();
+    }
+
+    /** Escapování zástupných znaků LIKE (výchozí escape znak je zpětné lomítko). */
+    static String escapeLike(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' || c == '%' || c == '_') sb.append('\\');
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
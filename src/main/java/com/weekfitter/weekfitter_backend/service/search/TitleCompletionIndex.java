@@ -0,0 +1,327 @@
+package com.weekfitter.weekfitter_backend.service.search;
+
+import com.weekfitter.weekfitter_backend.dto.TitleCountRow;
+import com.weekfitter.weekfitter_backend.dto.TitleSuggestion;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Neměnný index názvů událostí jednoho uživatele pro doplňování při psaní
+ * ("Inter" → "Intervaly 10x400").
+ *
+ * Rozložení v primitivních polích (bez objektu na název):
+ * - keyChars/keyStarts – normalizované názvy (malá písmena bez diakritiky)
+ *   seřazené lexikograficky a uložené za sebou v jednom poli znaků,
+ * - titleChars/titleStarts – zobrazované názvy ve stejném pořadí,
+ * - counts[i] – počet událostí s názvem i,
+ * - best – segmentový strom nad counts (index nejčastějšího názvu v úseku).
+ *
+ * Názvy se stejným prefixem tvoří v seřazeném poli souvislý úsek [lo, hi),
+ * najdou se dvěma binárními vyhledáváními. Nejčastější názvy úseku vybírá
+ * best-first průchod: z fronty se vezme úsek s nejčetnějším názvem, ten se
+ * vrátí a zbytek úseku se rozdělí na dva. Dotaz má složitost
+ * O(log n + k log n) bez ohledu na to, kolik názvů prefixu odpovídá.
+ *
+ * Názvy lišící se jen velikostí písmen nebo diakritikou se slučují;
+ * zobrazí se nejčastější varianta. Změny (with) vracejí novou instanci
+ * (copy-on-write) – čtení nepotřebuje zámky. Změna četnosti existujícího
+ * názvu sdílí pole názvů s původní instancí, zkopíruje jen counts a best
+ * a přepočítá list a jeho cestu ke kořeni (O(log n) po kopii). Název, jehož
+ * četnost klesne na nulu, v poli zůstane (návrhy ho vynechávají) až do
+ * příštího sestavení z databáze. Jen zcela nový název se vkládá – posunem
+ * polí a sestavením stromu, bez řazení a normalizace ostatních názvů.
+ */
+public final class TitleCompletionIndex {
+
+    static final TitleCompletionIndex EMPTY = build(new TreeMap<>());
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final char[] keyChars;
+    private final int[] keyStarts;
+    private final char[] titleChars;
+    private final int[] titleStarts;
+    private final int[] counts;
+    private final int[] best;
+    private final int size;
+
+    private TitleCompletionIndex(char[] keyChars, int[] keyStarts, char[] titleChars, int[] titleStarts, int[] counts) {
+        this(keyChars, keyStarts, titleChars, titleStarts, counts, new int[2 * counts.length]);
+
+        // Iterativní segmentový strom – listy na pozicích size..2*size-1
+        for (int i = 0; i < size; i++) best[size + i] = i;
+        for (int i = size - 1; i > 0; i--) best[i] = better(best[2 * i], best[2 * i + 1]);
+    }
+
+    private TitleCompletionIndex(char[] keyChars, int[] keyStarts, char[] titleChars, int[] titleStarts, int[] counts,
+                                 int[] best) {
+        this.keyChars = keyChars;
+        this.keyStarts = keyStarts;
+        this.titleChars = titleChars;
+        this.titleStarts = titleStarts;
+        this.counts = counts;
+        this.best = best;
+        this.size = counts.length;
+    }
+
+    /** Rozpracovaný název při sestavování indexu. */
+    private static final class Entry {
+        private final String title;
+        private long count;
+        private long titleCount;
+
+        private Entry(String title) {
+            this.title = title;
+        }
+    }
+
+    /** Sestaví index z počtů událostí podle názvu (řádky z databáze). */
+    public static TitleCompletionIndex of(Collection<TitleCountRow> rows) {
+        // Varianty stejného klíče se sečtou, zobrazí se ta nejčastější
+        TreeMap<String, Entry> entries = new TreeMap<>();
+        Map<String, Long> variantCounts = new HashMap<>();
+        for (TitleCountRow row : rows) {
+            if (row.getTitle() == null || row.getTitle().isBlank() || row.getCount() <= 0) continue;
+            String title = row.getTitle().trim();
+            String key = normalize(title);
+            long variantCount = variantCounts.merge(title, row.getCount(), Long::sum);
+
+            Entry e = entries.get(key);
+            if (e == null || variantCount > e.titleCount) {
+                Entry replacement = new Entry(title);
+                replacement.count = e != null ? e.count : 0;
+                replacement.titleCount = variantCount;
+                entries.put(key, e = replacement);
+            }
+            e.count += row.getCount();
+        }
+        return build(entries);
+    }
+
+    /**
+     * Nová instance po změně názvu jedné události.
+     *
+     * @param removed název, který ubyl (null u nové události)
+     * @param added   název, který přibyl (null u smazané události)
+     */
+    public TitleCompletionIndex with(String removed, String added) {
+        String removedKey = removed == null || removed.isBlank() ? null : normalize(removed.trim());
+        String addedKey = added == null || added.isBlank() ? null : normalize(added.trim());
+        if (Objects.equals(removedKey, addedKey)) return this;
+
+        TitleCompletionIndex index = this;
+        int addedAt = addedKey != null ? indexOf(addedKey) : -1;
+        if (addedKey != null && addedAt < 0) {
+            index = inserted(addedKey, added.trim());
+            addedAt = -1;
+        }
+        int removedAt = removedKey != null ? index.indexOf(removedKey) : -1;
+        if (removedAt >= 0 && index.counts[removedAt] == 0) removedAt = -1;
+        if (removedAt < 0 && addedAt < 0) return index;
+
+        int[] newCounts = index.counts.clone();
+        TitleCompletionIndex changed = new TitleCompletionIndex(index.keyChars, index.keyStarts,
+                index.titleChars, index.titleStarts, newCounts, index.best.clone());
+        if (removedAt >= 0) {
+            newCounts[removedAt]--;
+            changed.updatePath(removedAt);
+        }
+        if (addedAt >= 0) {
+            if (newCounts[addedAt] < Integer.MAX_VALUE) newCounts[addedAt]++;
+            changed.updatePath(addedAt);
+        }
+        return changed;
+    }
+
+    /** Přepočítá cestu segmentového stromu od listu i ke kořeni (po změně counts[i]). */
+    private void updatePath(int i) {
+        for (int p = (size + i) >> 1; p > 0; p >>= 1) best[p] = better(best[2 * p], best[2 * p + 1]);
+    }
+
+    /** Index klíče, nebo -1. */
+    private int indexOf(String key) {
+        int i = lowerBound(key);
+        return i < size && compare(i, key, false) == 0 ? i : -1;
+    }
+
+    /** Nová instance s dosud chybějícím názvem (četnost 1) na jeho místě v pořadí. */
+    private TitleCompletionIndex inserted(String key, String title) {
+        int at = lowerBound(key);
+        int keyAt = keyStarts[at];
+        int titleAt = titleStarts[at];
+
+        char[] newKeyChars = new char[keyChars.length + key.length()];
+        System.arraycopy(keyChars, 0, newKeyChars, 0, keyAt);
+        key.getChars(0, key.length(), newKeyChars, keyAt);
+        System.arraycopy(keyChars, keyAt, newKeyChars, keyAt + key.length(), keyChars.length - keyAt);
+
+        char[] newTitleChars = new char[titleChars.length + title.length()];
+        System.arraycopy(titleChars, 0, newTitleChars, 0, titleAt);
+        title.getChars(0, title.length(), newTitleChars, titleAt);
+        System.arraycopy(titleChars, titleAt, newTitleChars, titleAt + title.length(), titleChars.length - titleAt);
+
+        int[] newKeyStarts = new int[size + 2];
+        int[] newTitleStarts = new int[size + 2];
+        int[] newCounts = new int[size + 1];
+        System.arraycopy(keyStarts, 0, newKeyStarts, 0, at + 1);
+        System.arraycopy(titleStarts, 0, newTitleStarts, 0, at + 1);
+        System.arraycopy(counts, 0, newCounts, 0, at);
+        for (int i = at; i <= size; i++) {
+            newKeyStarts[i + 1] = keyStarts[i] + key.length();
+            newTitleStarts[i + 1] = titleStarts[i] + title.length();
+        }
+        newCounts[at] = 1;
+        System.arraycopy(counts, at, newCounts, at + 1, size - at);
+
+        return new TitleCompletionIndex(newKeyChars, newKeyStarts, newTitleChars, newTitleStarts, newCounts);
+    }
+
+    private static TitleCompletionIndex build(SortedMap<String, Entry> entries) {
+        int n = entries.size();
+        int[] keyStarts = new int[n + 1];
+        int[] titleStarts = new int[n + 1];
+        int[] counts = new int[n];
+
+        int keyLength = 0;
+        int titleLength = 0;
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            keyLength += e.getKey().length();
+            titleLength += e.getValue().title.length();
+        }
+        char[] keyChars = new char[keyLength];
+        char[] titleChars = new char[titleLength];
+
+        int i = 0;
+        int k = 0;
+        int t = 0;
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            String key = e.getKey();
+            String title = e.getValue().title;
+            key.getChars(0, key.length(), keyChars, k);
+            title.getChars(0, title.length(), titleChars, t);
+            keyStarts[i] = k;
+            titleStarts[i] = t;
+            counts[i] = (int) Math.min(Integer.MAX_VALUE, e.getValue().count);
+            k += key.length();
+            t += title.length();
+            i++;
+        }
+        keyStarts[n] = k;
+        titleStarts[n] = t;
+        return new TitleCompletionIndex(keyChars, keyStarts, titleChars, titleStarts, counts);
+    }
+
+    /** Počet různých názvů (včetně těch, jejichž četnost klesla na nulu). */
+    public int size() {
+        return size;
+    }
+
+    /** Přibližná velikost indexu v paměti (bajty) – váha v cache. */
+    public long memoryBytes() {
+        return 2L * (keyChars.length + titleChars.length)
+                + 4L * (keyStarts.length + titleStarts.length + counts.length + best.length)
+                + 7 * 16 + 32;
+    }
+
+    /**
+     * Nejčastější názvy začínající prefixem (bez ohledu na velikost písmen
+     * a diakritiku), seřazené sestupně podle četnosti.
+     *
+     * @param prefix začátek názvu (prázdný = nejčastější názvy vůbec)
+     * @param limit  nejvyšší počet návrhů
+     */
+    public List<TitleSuggestion> complete(String prefix, int limit) {
+        if (size == 0 || limit <= 0) return List.of();
+
+        String p = prefix == null ? "" : normalize(prefix.trim());
+        int lo = lowerBound(p);
+        int hi = prefixEnd(p, lo);
+        if (lo >= hi) return List.of();
+
+        // Úseky [lo, hi) seřazené podle svého nejčetnějšího názvu: {nejlepší, lo, hi}
+        PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> a[0] == b[0] ? 0 : better(a[0], b[0]) == a[0] ? -1 : 1);
+        ranges.add(new int[]{query(lo, hi), lo, hi});
+
+        List<TitleSuggestion> out = new ArrayList<>(Math.min(limit, hi - lo));
+        while (out.size() < limit && !ranges.isEmpty()) {
+            int[] r = ranges.poll();
+            int i = r[0];
+            // Nejčetnější zbývající název má nulovou četnost – ostatní také
+            if (counts[i] == 0) break;
+            out.add(new TitleSuggestion(title(i), counts[i]));
+            if (r[1] < i) ranges.add(new int[]{query(r[1], i), r[1], i});
+            if (i + 1 < r[2]) ranges.add(new int[]{query(i + 1, r[2]), i + 1, r[2]});
+        }
+        return out;
+    }
+
+    /** Index nejčetnějšího názvu v úseku [from, to) (při shodě dřívější). */
+    private int query(int from, int to) {
+        int result = -1;
+        for (int l = from + size, r = to + size; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) result = result < 0 ? best[l++] : better(result, best[l++]);
+            if ((r & 1) == 1) result = result < 0 ? best[--r] : better(result, best[--r]);
+        }
+        return result;
+    }
+
+    private int better(int a, int b) {
+        if (counts[a] != counts[b]) return counts[a] > counts[b] ? a : b;
+        return Math.min(a, b);
+    }
+
+    /** První klíč >= prefix. */
+    private int lowerBound(String prefix) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(mid, prefix, false) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** První klíč od from, který prefixem nezačíná. */
+    private int prefixEnd(String prefix, int from) {
+        int lo = from;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(mid, prefix, true) <= 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Porovná klíč i s textem (jako String.compareTo).
+     *
+     * @param prefixOnly porovnat jen prvních prefix.length() znaků klíče
+     */
+    private int compare(int i, String text, boolean prefixOnly) {
+        int start = keyStarts[i];
+        int length = keyStarts[i + 1] - start;
+        if (prefixOnly) length = Math.min(length, text.length());
+
+        int n = Math.min(length, text.length());
+        for (int j = 0; j < n; j++) {
+            char c = keyChars[start + j];
+            char d = text.charAt(j);
+            if (c != d) return c - d;
+        }
+        return length - text.length();
+    }
+
+    private String title(int i) {
+        return new String(titleChars, titleStarts[i], titleStarts[i + 1] - titleStarts[i]);
+    }
+
+    /** Klíč pro porovnání – malá písmena bez diakritiky ("Běh" → "beh"). */
+    static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,85 @@
+package com.weekfitter.weekfitter_backend.service.search;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.weekfitter.weekfitter_backend.dto.TitleSuggestion;
+import com.weekfitter.weekfitter_backend.repository.CalendarEventRepository;
+import com.weekfitter.weekfitter_backend.service.UserIndexCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Návrhy názvů pro rychlé zakládání událostí (GET /api/events/suggest).
+ *
+ * Index názvů uživatele (TitleCompletionIndex) se sestaví jedním
+ * agregačním dotazem při prvním psaní a dále se udržuje inkrementálně –
+ * CalendarEventService hlásí změny názvů při založení, úpravě a smazání
+ * události. Změna se do indexu promítne až po commitu transakce
+ * (UserIndexCache).
+ *
+ * Paměť indexů je omezena součtem jejich velikostí (Caffeine, LRU);
+ * indexy nečinných uživatelů navíc expirují po TTL a při další potřebě
+ * se sestaví znovu.
+ */
+@Service
+public class TitleSuggestService {
+
+    private final CalendarEventRepository calendarEventRepository;
+    private final UserIndexCache<TitleCompletionIndex> indexByUser;
+    private final int maxTitles;
+
+    public TitleSuggestService(
+            CalendarEventRepository calendarEventRepository,
+            MeterRegistry meterRegistry,
+            @Value("${weekfitter.suggest.max-bytes:16777216}") long maxBytes,
+            @Value("${weekfitter.suggest.ttl:30m}") Duration ttl,
+            @Value("${weekfitter.suggest.max-titles:20000}") int maxTitles
+    ) {
+        this.calendarEventRepository = calendarEventRepository;
+        this.maxTitles = maxTitles;
+        this.indexByUser = new UserIndexCache<>(Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .expireAfterAccess(ttl)
+                .recordStats(),
+                index -> (int) Math.min(Integer.MAX_VALUE, index.memoryBytes()),
+                meterRegistry, "titleCompletions");
+    }
+
+    /**
+     * Nejčastější názvy událostí uživatele začínající prefixem.
+     *
+     * @param prefix napsaný začátek názvu (prázdný = nejčastější názvy)
+     * @param limit  nejvyšší počet návrhů
+     */
+    public List<TitleSuggestion> suggest(UUID userId, String prefix, int limit) {
+        return indexFor(userId).complete(prefix, limit);
+    }
+
+    /** Index uživatele (při výpadku se sestaví z databáze). */
+    TitleCompletionIndex indexFor(UUID userId) {
+        return indexByUser.get(userId, id -> TitleCompletionIndex.of(
+                calendarEventRepository.findTitleCountsByUserId(id, Limit.of(maxTitles))));
+    }
+
+    /**
+     * Po commitu promítne změnu názvu jedné události.
+     *
+     * @param before název před změnou (null u nové události)
+     * @param after  název po změně (null u smazané události)
+     */
+    public void titleChanged(UUID userId, String before, String after) {
+        if (userId == null || Objects.equals(before, after)) return;
+        indexByUser.update(userId, index -> index.with(before, after));
+    }
+
+    /** Po commitu zahodí index uživatele (po hromadné změně). */
+    public void invalidate(UUID userId) {
+        indexByUser.invalidate(userId);
+    }
+}
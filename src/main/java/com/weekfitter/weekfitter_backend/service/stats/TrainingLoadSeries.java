@@ -0,0 +1,192 @@
+package com.weekfitter.weekfitter_backend.service.stats;
+
+import com.weekfitter.weekfitter_backend.dto.TrainingLoadPoint;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Denní řada tréninkové zátěže jednoho uživatele.
+ *
+ * Drží tři pole primitiv indexovaná dnem od počátku řady (origin):
+ * zátěž dne, akutní zátěž (EWMA 7 dní) a chronickou zátěž (EWMA 42 dní).
+ * Jeden rok historie zabírá necelých 9 kB.
+ *
+ * EWMA dne i závisí jen na dni i - 1 a zátěži dne i, takže změna zátěže
+ * jednoho dne ovlivní pouze dny od něj dál. Změny se proto jen zaznamenají
+ * (addLoad) a při dalším čtení se přepočítá pouze přípona od nejstaršího
+ * změněného dne – při více změnách najednou jen jednou.
+ *
+ * Mimo rozsah řady: před počátkem je zátěž nulová, za koncem se průměry
+ * jen exponenciálně utlumují (dopočítají se při čtení, pole se nezvětšuje).
+ *
+ * Řada se prodlužuje jen v pevných mezích [first, last] – zátěž dne mimo
+ * ně se nezapočítá, takže ani událost v roce 1 nebo 9999 nezvětší pole
+ * nad velikost mezí.
+ *
+ * Instance je bezpečná pro souběžné použití (metody jsou synchronizované).
+ */
+public final class TrainingLoadSeries {
+
+    /** Časová konstanta akutní zátěže (dny). */
+    public static final int ACUTE_DAYS = 7;
+
+    /** Časová konstanta chronické zátěže (dny). */
+    public static final int CHRONIC_DAYS = 42;
+
+    /** Počet dní, za které se počítá změna chronické zátěže (ramp rate). */
+    private static final int RAMP_DAYS = 7;
+
+    private static final double ACUTE_DECAY = Math.exp(-1.0 / ACUTE_DAYS);
+    private static final double CHRONIC_DECAY = Math.exp(-1.0 / CHRONIC_DAYS);
+
+    private final LocalDate first;
+    private final LocalDate last;
+    private LocalDate origin;
+    private int length;
+    private double[] load;
+    private double[] acute;
+    private double[] chronic;
+
+    /** Nejstarší den, od kterého průměry neodpovídají zátěži (length = aktuální). */
+    private int dirtyFrom;
+
+    /**
+     * @param origin první den řady (posune se do mezí)
+     * @param days   počáteční počet dní (řada se podle potřeby prodlouží)
+     * @param first  nejstarší den, jehož zátěž se započítá
+     * @param last   poslední den, jehož zátěž se započítá
+     */
+    public TrainingLoadSeries(LocalDate origin, int days, LocalDate first, LocalDate last) {
+        if (last.isBefore(first)) throw new IllegalArgumentException("Konec řady nesmí být před začátkem.");
+        LocalDate clamped = origin.isBefore(first) ? first : origin.isAfter(last) ? last : origin;
+        this.first = first;
+        this.last = last;
+        this.origin = clamped;
+        this.length = (int) Math.max(1, Math.min(days, ChronoUnit.DAYS.between(clamped, last) + 1));
+        this.load = new double[length];
+        this.acute = new double[length];
+        this.chronic = new double[length];
+        this.dirtyFrom = 0;
+    }
+
+    public synchronized LocalDate origin() {
+        return origin;
+    }
+
+    /** Poslední den řady. */
+    public synchronized LocalDate end() {
+        return origin.plusDays(length - 1);
+    }
+
+    /**
+     * Přičte zátěž ke dni (záporná hodnota zátěž odečte).
+     * Den mimo rozsah řadu prodlouží, den mimo meze [first, last] se ignoruje.
+     */
+    public synchronized void addLoad(LocalDate day, double delta) {
+        if (delta == 0 || day.isBefore(first) || day.isAfter(last)) return;
+
+        int i = indexOf(day);
+        if (i < 0) {
+            prepend(-i);
+            i = 0;
+        } else if (i >= length) {
+            grow(i + 1);
+        }
+        load[i] += delta;
+        dirtyFrom = Math.min(dirtyFrom, i);
+    }
+
+    /** Zátěž dne (0 mimo rozsah řady). */
+    public synchronized double loadAt(LocalDate day) {
+        int i = indexOf(day);
+        return i >= 0 && i < length ? load[i] : 0;
+    }
+
+    /**
+     * Body řady pro dny [from, to] (včetně).
+     * Před vrácením přepočítá případnou neaktuální příponu.
+     */
+    public synchronized List<TrainingLoadPoint> points(LocalDate from, LocalDate to) {
+        recomputeDirty();
+
+        List<TrainingLoadPoint> out = new ArrayList<>((int) ChronoUnit.DAYS.between(from, to) + 1);
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            int i = indexOf(day);
+            double a = acuteAt(i);
+            double c = chronicAt(i);
+            double ramp = c - chronicAt(i - RAMP_DAYS);
+            out.add(new TrainingLoadPoint(day, i >= 0 && i < length ? load[i] : 0, a, c, ramp,
+                    c > 0 ? a / c : null));
+        }
+        return out;
+    }
+
+    /**
+     * Přepočítá průměry od nejstaršího změněného dne do konce řady.
+     *
+     * @return počet přepočítaných dní
+     */
+    synchronized int recomputeDirty() {
+        int from = dirtyFrom;
+        if (from >= length) return 0;
+
+        double a = from > 0 ? acute[from - 1] : 0;
+        double c = from > 0 ? chronic[from - 1] : 0;
+        for (int i = from; i < length; i++) {
+            a = a * ACUTE_DECAY + load[i] * (1 - ACUTE_DECAY);
+            c = c * CHRONIC_DECAY + load[i] * (1 - CHRONIC_DECAY);
+            acute[i] = a;
+            chronic[i] = c;
+        }
+        dirtyFrom = length;
+        return length - from;
+    }
+
+    /** Akutní zátěž dne s indexem i (i mimo rozsah: 0 před, útlum za koncem). */
+    private double acuteAt(int i) {
+        if (i < 0) return 0;
+        if (i < length) return acute[i];
+        return acute[length - 1] * Math.pow(ACUTE_DECAY, i - (length - 1));
+    }
+
+    /** Chronická zátěž dne s indexem i (viz acuteAt). */
+    private double chronicAt(int i) {
+        if (i < 0) return 0;
+        if (i < length) return chronic[i];
+        return chronic[length - 1] * Math.pow(CHRONIC_DECAY, i - (length - 1));
+    }
+
+    private int indexOf(LocalDate day) {
+        return Math.toIntExact(ChronoUnit.DAYS.between(origin, day));
+    }
+
+    /** Prodlouží řadu na alespoň newLength dní (kapacita roste geometricky). */
+    private void grow(int newLength) {
+        if (newLength > load.length) {
+            int capacity = Math.max(newLength, load.length + (load.length >> 1));
+            load = Arrays.copyOf(load, capacity);
+            acute = Arrays.copyOf(acute, capacity);
+            chronic = Arrays.copyOf(chronic, capacity);
+        }
+        // Nové dny jsou bez zátěže, průměry se v nich musí dopočítat (útlum)
+        dirtyFrom = Math.min(dirtyFrom, length);
+        length = newLength;
+    }
+
+    /** Posune počátek řady o days dní dříve – přepočet celé řady je nevyhnutelný. */
+    private void prepend(int days) {
+        int capacity = length + days;
+        double[] newLoad = new double[capacity];
+        System.arraycopy(load, 0, newLoad, days, length);
+        load = newLoad;
+        acute = new double[capacity];
+        chronic = new double[capacity];
+        origin = origin.minusDays(days);
+        length = capacity;
+        dirtyFrom = 0;
+    }
+}
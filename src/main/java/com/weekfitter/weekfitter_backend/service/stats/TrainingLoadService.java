@@ -0,0 +1,209 @@
+package com.weekfitter.weekfitter_backend.service.stats;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.weekfitter.weekfitter_backend.dto.TrainingLoadPoint;
+import com.weekfitter.weekfitter_backend.dto.TrainingLoadRow;
+import com.weekfitter.weekfitter_backend.model.ActivityType;
+import com.weekfitter.weekfitter_backend.model.CalendarEvent;
+import com.weekfitter.weekfitter_backend.model.User;
+import com.weekfitter.weekfitter_backend.repository.CalendarEventRepository;
+import com.weekfitter.weekfitter_backend.service.UserIndexCache;
+import com.weekfitter.weekfitter_backend.service.recurrence.RecurrenceRule;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Tréninková zátěž uživatele – akutní (7 dní) a chronická (42 dní) zátěž
+ * a jejich poměr a trend (GET /api/stats/load).
+ *
+ * Řada uživatele (TrainingLoadSeries) se sestaví jedním projekčním dotazem
+ * ze sportovních událostí (kategorie SPORT) při první potřebě. Dále ji
+ * CalendarEventService udržuje inkrementálně – každá změna jednorázové
+ * události se promítne jako rozdíl zátěže dne a při čtení se přepočítá jen
+ * přípona řady od změněného dne. Změna opakované série řadu zahodí (sestaví
+ * se znovu). Změny se promítají až po commitu transakce (UserIndexCache).
+ *
+ * Výskyty sérií se do řady rozbalují do horizontu (dnes + forecast-days),
+ * řada se proto sestavuje znovu i se změnou dne. Řada pokrývá nejvýše
+ * history-days dní zpět a future-days dní dopředu od dneška – události
+ * mimo tyto meze se do zátěže nezapočítají a řadu nezvětší.
+ *
+ * Počet držených řad je omezen (Caffeine, LRU) a položky expirují po TTL.
+ */
+@Service
+public class TrainingLoadService {
+
+    /** Nejdelší rozsah jednoho dotazu (dny). */
+    private static final long MAX_RANGE_DAYS = 3 * 366;
+
+    private final CalendarEventRepository calendarEventRepository;
+    private final UserIndexCache<Entry> seriesByUser;
+    private final int forecastDays;
+    private final int historyDays;
+    private final int futureDays;
+
+    public TrainingLoadService(
+            CalendarEventRepository calendarEventRepository,
+            MeterRegistry meterRegistry,
+            @Value("${weekfitter.stats.load.max-users:1000}") long maxUsers,
+            @Value("${weekfitter.stats.load.ttl:30m}") Duration ttl,
+            @Value("${weekfitter.stats.load.forecast-days:14}") int forecastDays,
+            @Value("${weekfitter.stats.load.history-days:1830}") int historyDays,
+            @Value("${weekfitter.stats.load.future-days:366}") int futureDays
+    ) {
+        this.calendarEventRepository = calendarEventRepository;
+        this.forecastDays = forecastDays;
+        this.historyDays = historyDays;
+        this.futureDays = Math.max(futureDays, forecastDays);
+        this.seriesByUser = new UserIndexCache<>(Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(ttl)
+                .recordStats(), null, meterRegistry, "trainingLoad");
+    }
+
+    /** Řada uživatele a den, ke kterému byla sestavena. */
+    private static final class Entry {
+        private final TrainingLoadSeries series;
+        private final LocalDate builtOn;
+
+        private Entry(TrainingLoadSeries series, LocalDate builtOn) {
+            this.series = series;
+            this.builtOn = builtOn;
+        }
+    }
+
+    /**
+     * Příspěvek jedné sportovní události do řady zátěže.
+     * Neměnný – zachycuje stav události v okamžiku vytvoření.
+     */
+    public static final class Contribution {
+        private final UUID userId;
+        private final LocalDate day;
+        private final double load;
+        private final boolean series;
+
+        private Contribution(UUID userId, LocalDate day, double load, boolean series) {
+            this.userId = userId;
+            this.day = day;
+            this.load = load;
+            this.series = series;
+        }
+
+        /**
+         * Příspěvek události v jejím aktuálním stavu.
+         *
+         * @return null, pokud se událost do zátěže nezapočítává
+         *         (bez vlastníka nebo začátku, jiná kategorie než SPORT)
+         */
+        public static Contribution of(CalendarEvent e) {
+            if (e == null || e.getUser() == null || e.getStartTime() == null
+                    || e.getCategory() != ActivityType.SPORT) return null;
+
+            return new Contribution(e.getUser().getId(), e.getStartTime().toLocalDate(),
+                    TrainingLoadRow.of(e).load(), e.isRecurring());
+        }
+
+        private boolean sameAs(Contribution o) {
+            return !series && !o.series && userId.equals(o.userId) && day.equals(o.day) && load == o.load;
+        }
+    }
+
+    /**
+     * Promítne změnu jedné události do řad zátěže (po commitu).
+     *
+     * @param before příspěvek před změnou (null u nové události)
+     * @param after  příspěvek po změně (null u smazané události)
+     */
+    public void apply(Contribution before, Contribution after) {
+        if (before == null && after == null) return;
+        if (before != null && after != null && before.sameAs(after)) return;
+
+        if (before != null) change(before, -1);
+        if (after != null) change(after, 1);
+    }
+
+    /** Po commitu zahodí řadu uživatele (hromadné změny, řada se sestaví znovu). */
+    public void invalidate(UUID userId) {
+        seriesByUser.invalidate(userId);
+    }
+
+    private void change(Contribution c, int sign) {
+        if (c.series) {
+            seriesByUser.invalidate(c.userId);
+            return;
+        }
+        seriesByUser.update(c.userId, entry -> {
+            entry.series.addLoad(c.day, sign * c.load);
+            return entry;
+        });
+    }
+
+    /**
+     * Zátěž uživatele pro dny [from, to] (včetně).
+     *
+     * @throws IllegalArgumentException při neplatném nebo příliš dlouhém rozsahu
+     */
+    @Transactional(readOnly = true)
+    public List<TrainingLoadPoint> getLoad(User user, LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from))
+            throw new IllegalArgumentException("Neplatný rozsah: 'from' nesmí být po 'to'.");
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS)
+            throw new IllegalArgumentException("Rozsah může mít nejvýše " + MAX_RANGE_DAYS + " dní.");
+
+        return seriesFor(user.getId()).points(from, to);
+    }
+
+    /** Řada uživatele (sestavená z databáze, pokud není v paměti nebo je ze včerejška). */
+    TrainingLoadSeries seriesFor(UUID userId) {
+        LocalDate today = LocalDate.now();
+        return seriesByUser.get(userId, id -> new Entry(build(id, today), today),
+                entry -> entry.builtOn.equals(today)).series;
+    }
+
+    /** Sestaví řadu ze všech sportovních událostí uživatele. */
+    private TrainingLoadSeries build(UUID userId, LocalDate today) {
+        List<TrainingLoadRow> rows = calendarEventRepository.findTrainingLoadRowsByUserId(userId, ActivityType.SPORT);
+
+        LocalDate origin = rows.stream()
+                .map(r -> r.getStartTime().toLocalDate())
+                .min(LocalDate::compareTo)
+                .orElse(today);
+        LocalDate horizon = today.plusDays(forecastDays);
+        TrainingLoadSeries series = new TrainingLoadSeries(origin, (int) ChronoUnit.DAYS.between(origin, horizon) + 1,
+                today.minusDays(historyDays), today.plusDays(futureDays));
+
+        for (TrainingLoadRow r : rows) {
+            if (r.isSeries()) {
+                addOccurrences(series, r, horizon.plusDays(1).atStartOfDay());
+            } else {
+                series.addLoad(r.getStartTime().toLocalDate(), r.load());
+            }
+        }
+        return series;
+    }
+
+    /** Přičte zátěž výskytů série začínajících před horizontem. */
+    private static void addOccurrences(TrainingLoadSeries series, TrainingLoadRow r, LocalDateTime horizon) {
+        if (!r.getStartTime().isBefore(horizon)) return;
+
+        LocalDateTime end = Objects.requireNonNullElse(r.getEndTime(), r.getStartTime().plusHours(1));
+        long lengthMinutes = Duration.between(r.getStartTime(), end).toMinutes();
+        double load = r.load();
+
+        RecurrenceRule rule = RecurrenceRule.parse(r.getRecurrenceRule());
+        for (LocalDateTime start : rule.occurrencesBetween(r.getStartTime(), lengthMinutes, r.getStartTime(), horizon,
+                RecurrenceRule.parseExceptions(r.getRecurrenceExceptions()))) {
+            series.addLoad(start.toLocalDate(), load);
+        }
+    }
+}
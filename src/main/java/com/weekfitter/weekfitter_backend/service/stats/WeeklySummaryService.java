@@ -0,0 +1,220 @@
+package com.weekfitter.weekfitter_backend.service.stats;
+
+import com.weekfitter.weekfitter_backend.dto.EventResponse;
+import com.weekfitter.weekfitter_backend.dto.WeeklySummaryResponse;
+import com.weekfitter.weekfitter_backend.model.CalendarEvent;
+import com.weekfitter.weekfitter_backend.model.SportType;
+import com.weekfitter.weekfitter_backend.model.User;
+import com.weekfitter.weekfitter_backend.model.WeeklyTrainingSummary;
+import com.weekfitter.weekfitter_backend.repository.CalendarEventRepository;
+import com.weekfitter.weekfitter_backend.repository.WeeklyTrainingSummaryRepository;
+import com.weekfitter.weekfitter_backend.service.recurrence.RecurrenceRule;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+
+/**
+ * Průběžně udržované týdenní souhrny tréninků (tabulka weekly_training_summary).
+ *
+ * CalendarEventService při každém vytvoření, úpravě a smazání předá příspěvek
+ * události před změnou a po ní (Contribution); do souhrnu se zapíše jen jejich
+ * rozdíl jedním upsertem, bez přepočtu ze všech událostí. Při úpravě, která
+ * nemění sport, týden, vzdálenost ani délku, se nezapisuje nic.
+ *
+ * Opakované série se do tabulky nezapisují (jejich výskyty nejsou uložené
+ * a nekonečná série by neměla konec) – při čtení se výskyty v rozsahu
+ * dopočítají a přičtou k uloženým řádkům.
+ *
+ * Pro hromadné operace je k dispozici množinový přepočet rozsahu (recompute),
+ * prázdná tabulka se při startu aplikace naplní z existujících událostí.
+ */
+@Service
+@RequiredArgsConstructor
+public class WeeklySummaryService {
+
+    private static final Logger log = LoggerFactory.getLogger(WeeklySummaryService.class);
+
+    /** Nejdelší rozsah jednoho dotazu na souhrny (cca 3 roky). */
+    private static final long MAX_RANGE_WEEKS = 160;
+
+    private final WeeklyTrainingSummaryRepository summaryRepository;
+    private final CalendarEventRepository calendarEventRepository;
+
+    /**
+     * Příspěvek jedné jednorázové sportovní události do týdenního souhrnu.
+     * Neměnný – zachycuje stav události v okamžiku vytvoření.
+     */
+    public static final class Contribution {
+        private final UUID userId;
+        private final LocalDate weekStart;
+        private final SportType sportType;
+        private final double distance;
+        private final double duration;
+
+        private Contribution(UUID userId, LocalDate weekStart, SportType sportType, double distance, double duration) {
+            this.userId = userId;
+            this.weekStart = weekStart;
+            this.sportType = sportType;
+            this.distance = distance;
+            this.duration = duration;
+        }
+
+        /**
+         * Příspěvek události v jejím aktuálním stavu.
+         *
+         * @return null, pokud se událost do souhrnů nezapočítává
+         *         (bez vlastníka, začátku nebo sportu, opakovaná série)
+         */
+        public static Contribution of(CalendarEvent e) {
+            if (e == null || e.getUser() == null || e.getStartTime() == null
+                    || e.getSportType() == null || e.isRecurring()) return null;
+
+            return new Contribution(
+                    e.getUser().getId(),
+                    weekStartOf(e.getStartTime().toLocalDate()),
+                    e.getSportType(),
+                    e.getDistance() != null ? e.getDistance() : 0,
+                    durationMinutes(e.getDuration(), e.getStartTime(), e.getEndTime()));
+        }
+
+        private boolean sameKey(Contribution o) {
+            return userId.equals(o.userId) && weekStart.equals(o.weekStart) && sportType == o.sportType;
+        }
+
+        private boolean sameValues(Contribution o) {
+            return sameKey(o) && distance == o.distance && duration == o.duration;
+        }
+    }
+
+    /**
+     * Zapíše do souhrnů změnu jedné události.
+     *
+     * @param before příspěvek před změnou (null u nové události)
+     * @param after  příspěvek po změně (null u smazané události)
+     */
+    @Transactional
+    public void apply(Contribution before, Contribution after) {
+        if (before != null && after != null) {
+            if (before.sameValues(after)) return;
+            if (before.sameKey(after)) {
+                add(after, after.distance - before.distance, after.duration - before.duration, 0);
+                return;
+            }
+        }
+        if (before != null) {
+            add(before, -before.distance, -before.duration, -1);
+            summaryRepository.deleteIfEmpty(before.userId, before.weekStart, before.sportType.name());
+        }
+        if (after != null) {
+            add(after, after.distance, after.duration, 1);
+        }
+    }
+
+    private void add(Contribution key, double distance, double duration, int sessions) {
+        summaryRepository.applyDelta(key.userId, key.weekStart, key.sportType.name(), distance, duration, sessions);
+    }
+
+    /**
+     * Přepočítá souhrny uživatele pro týdny pokrývající [from, to) ze zdrojových
+     * událostí (po hromadných operacích, kde se rozdíly po jedné nevyplatí).
+     */
+    @Transactional
+    public void recompute(UUID userId, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime end = weekStartOf(to.minusNanos(1).toLocalDate()).plusWeeks(1).atStartOfDay();
+        summaryRepository.deleteRange(userId, from, end);
+        summaryRepository.insertRecomputed(userId, from, end);
+    }
+
+    /** Naplní prázdnou tabulku souhrnů z existujících událostí (první nasazení). */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillIfEmpty() {
+        if (summaryRepository.count() > 0) return;
+        int rows = summaryRepository.backfillAll();
+        if (rows > 0) log.info("Týdenní souhrny tréninků naplněny: {} řádků", rows);
+    }
+
+    /**
+     * Týdenní souhrny uživatele pro týdny od týdne data from do týdne data to (včetně),
+     * seřazené podle týdne a sportu. Obsahují i výskyty opakovaných sérií.
+     *
+     * @throws IllegalArgumentException při neplatném nebo příliš dlouhém rozsahu
+     */
+    @Transactional(readOnly = true)
+    public List<WeeklySummaryResponse> getWeekly(User user, LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from))
+            throw new IllegalArgumentException("Neplatný rozsah: 'from' nesmí být po 'to'.");
+
+        LocalDate fromWeek = weekStartOf(from);
+        LocalDate toWeek = weekStartOf(to);
+        if (ChronoUnit.WEEKS.between(fromWeek, toWeek) >= MAX_RANGE_WEEKS)
+            throw new IllegalArgumentException("Rozsah může mít nejvýše " + MAX_RANGE_WEEKS + " týdnů.");
+
+        Map<String, WeeklySummaryResponse> byKey = new TreeMap<>();
+        for (WeeklyTrainingSummary s : summaryRepository
+                .findByUserIdAndWeekStartBetweenOrderByWeekStartAscSportTypeAsc(user.getId(), fromWeek, toWeek)) {
+            byKey.put(key(s.getWeekStart(), s.getSportType()), new WeeklySummaryResponse(
+                    s.getWeekStart(), s.getSportType(), s.getTotalDistance(), s.getTotalDuration(), s.getSessionCount()));
+        }
+
+        LocalDateTime windowStart = fromWeek.atStartOfDay();
+        LocalDateTime windowEnd = toWeek.plusWeeks(1).atStartOfDay();
+        for (EventResponse series : calendarEventRepository.findSeriesByUserIdInRange(user.getId(), windowStart, windowEnd)) {
+            if (series.getSportType() == null || series.getEndTime() == null) continue;
+            addSeries(series, windowStart, windowEnd, byKey);
+        }
+        return new ArrayList<>(byKey.values());
+    }
+
+    /** Přičte výskyty série začínající v [from, to) k souhrnům jejich týdnů. */
+    private static void addSeries(EventResponse series, LocalDateTime from, LocalDateTime to,
+                                  Map<String, WeeklySummaryResponse> byKey) {
+        RecurrenceRule rule = RecurrenceRule.parse(series.getRecurrenceRule());
+        long lengthMinutes = Duration.between(series.getStartTime(), series.getEndTime()).toMinutes();
+        Set<LocalDate> exceptions = series.getRecurrenceExceptions() == null
+                ? Collections.emptySet()
+                : new HashSet<>(series.getRecurrenceExceptions());
+
+        double distance = series.getDistance() != null ? series.getDistance() : 0;
+        double duration = durationMinutes(series.getDuration(), series.getStartTime(), series.getEndTime());
+
+        for (LocalDateTime start : rule.occurrencesBetween(series.getStartTime(), lengthMinutes, from, to, exceptions)) {
+            if (start.isBefore(from)) continue;
+
+            LocalDate week = weekStartOf(start.toLocalDate());
+            WeeklySummaryResponse s = byKey.computeIfAbsent(key(week, series.getSportType()),
+                    k -> new WeeklySummaryResponse(week, series.getSportType(), 0, 0, 0));
+            s.setTotalDistance(s.getTotalDistance() + distance);
+            s.setTotalDuration(s.getTotalDuration() + duration);
+            s.setSessionCount(s.getSessionCount() + 1);
+        }
+    }
+
+    /** Klíč řazení: ISO datum se řadí lexikograficky správně. */
+    private static String key(LocalDate week, SportType sportType) {
+        return week + "|" + sportType.name();
+    }
+
+    /** Délka tréninku: duration, pokud je kladné, jinak rozdíl začátku a konce. */
+    private static double durationMinutes(Double duration, LocalDateTime start, LocalDateTime end) {
+        if (duration != null && duration > 0) return duration;
+        if (start == null || end == null) return 0;
+        return Duration.between(start, end).getSeconds() / 60.0;
+    }
+
+    private static LocalDate weekStartOf(LocalDate day) {
+        return day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+}
@@ -0,0 +1,273 @@
+package com.weekfitter.weekfitter_backend.service.workout;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.weekfitter.weekfitter_backend.dto.WorkoutStep;
+import com.weekfitter.weekfitter_backend.dto.WorkoutSummary;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Proudový parser tréninku exportovaného z Garmin Connect
+ * (workoutSegments → workoutSteps → RepeatGroupDTO s vnořenými kroky).
+ *
+ * Čte přímo tokeny JsonParseru bez stromu (JsonNode) ani mapování na
+ * třídy – z objemného exportu (autor, lokalizace, cílové zóny…) se
+ * vytáhnou jen potřebná pole, zbytek se přeskočí přes skipChildren.
+ *
+ * Odhad tréninku:
+ * - vzdálenost = součet kroků s podmínkou distance (× opakování),
+ * - délka = kroky s podmínkou time / fixed.rest (sekundy) + vzdálenostní
+ *   kroky přepočtené průměrnou rychlostí (avgTrainingSpeed, jinak výchozí
+ *   rychlost sportu); kroky ukončené tlačítkem (lap.button) se nepočítají,
+ * - u bloku se skipLastRestStep se odpočinek po posledním opakování vynechá.
+ * Pokud z kroků nic nevyjde, použije se odhad uložený Garminem.
+ *
+ * Třída je bezstavová.
+ */
+public final class GarminWorkoutParser {
+
+    /** Nejhlubší vnoření opakovaných bloků. */
+    static final int MAX_DEPTH = 8;
+
+    /** Nejvyšší počet kroků tréninku (včetně vnořených). */
+    static final int MAX_STEPS = 2000;
+
+    /** Nejvyšší počet opakování bloku, se kterým se počítá v odhadu. */
+    private static final int MAX_ITERATIONS = 1000;
+
+    private static final String REPEAT = "repeat";
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private GarminWorkoutParser() {
+    }
+
+    /**
+     * Přečte trénink.
+     *
+     * @throws IllegalArgumentException pokud obsah není trénink z Garmin Connect
+     */
+    public static WorkoutSummary parse(byte[] content) {
+        try (JsonParser p = JSON.createParser(content)) {
+            return new Reader(p).workout();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Neplatný soubor tréninku.", e);
+        }
+    }
+
+    /** Stav čtení jednoho souboru (počítadlo kroků). */
+    private static final class Reader {
+        private final JsonParser p;
+        private int stepCount;
+
+        private Reader(JsonParser p) {
+            this.p = p;
+        }
+
+        WorkoutSummary workout() throws IOException {
+            if (p.nextToken() != JsonToken.START_OBJECT) throw new IllegalArgumentException("Soubor není trénink Garmin.");
+
+            String name = null;
+            String sport = null;
+            Double speed = null;
+            double garminDistance = 0;
+            double garminDuration = 0;
+            boolean segmentsFound = false;
+            List<WorkoutStep> steps = new ArrayList<>();
+
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken value = p.nextToken();
+                switch (field) {
+                    case "workoutName" -> name = text(value);
+                    case "sportType" -> sport = key(value, "sportTypeKey");
+                    case "avgTrainingSpeed" -> speed = number(value);
+                    case "estimatedDistanceInMeters" -> garminDistance = orZero(number(value));
+                    case "estimatedDurationInSecs" -> garminDuration = orZero(number(value));
+                    case "workoutSegments" -> {
+                        segmentsFound = value == JsonToken.START_ARRAY;
+                        segments(value, steps);
+                    }
+                    default -> p.skipChildren();
+                }
+            }
+            if (!segmentsFound) throw new IllegalArgumentException("Soubor neobsahuje kroky tréninku.");
+
+            double metersPerSecond = speed != null && speed > 0 ? speed : defaultSpeed(sport);
+            double distance = distance(steps);
+            double duration = duration(steps, metersPerSecond);
+            if (distance <= 0) distance = garminDistance;
+            if (duration <= 0) duration = garminDuration;
+
+            return new WorkoutSummary(name, sport, List.copyOf(steps), distance, Math.round(duration));
+        }
+
+        /** Kroky všech segmentů za sebou (segmenty jsou u multisportu). */
+        private void segments(JsonToken value, List<WorkoutStep> out) throws IOException {
+            if (value != JsonToken.START_ARRAY) {
+                p.skipChildren();
+                return;
+            }
+            JsonToken t;
+            while ((t = p.nextToken()) != JsonToken.END_ARRAY && t != null) {
+                if (t != JsonToken.START_OBJECT) {
+                    p.skipChildren();
+                    continue;
+                }
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = p.currentName();
+                    JsonToken v = p.nextToken();
+                    if (field.equals("workoutSteps")) steps(v, out, 1);
+                    else p.skipChildren();
+                }
+            }
+        }
+
+        private void steps(JsonToken value, List<WorkoutStep> out, int depth) throws IOException {
+            if (value != JsonToken.START_ARRAY) {
+                p.skipChildren();
+                return;
+            }
+            if (depth > MAX_DEPTH) throw new IllegalArgumentException("Příliš hluboko vnořené kroky tréninku.");
+
+            JsonToken t;
+            while ((t = p.nextToken()) != JsonToken.END_ARRAY && t != null) {
+                if (t != JsonToken.START_OBJECT) {
+                    p.skipChildren();
+                    continue;
+                }
+                if (++stepCount > MAX_STEPS) throw new IllegalArgumentException("Trénink má příliš mnoho kroků.");
+                out.add(step(depth));
+            }
+        }
+
+        private WorkoutStep step(int depth) throws IOException {
+            String dtoType = null;
+            String type = null;
+            String endCondition = null;
+            Double endValue = null;
+            String description = null;
+            Integer iterations = null;
+            boolean skipLastRest = false;
+            List<WorkoutStep> children = new ArrayList<>();
+
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken value = p.nextToken();
+                switch (field) {
+                    case "type" -> dtoType = text(value);
+                    case "stepType" -> type = key(value, "stepTypeKey");
+                    case "endCondition" -> endCondition = key(value, "conditionTypeKey");
+                    case "endConditionValue" -> endValue = number(value);
+                    case "description" -> description = text(value);
+                    case "numberOfIterations" -> {
+                        Double n = number(value);
+                        if (n != null) iterations = (int) Math.max(0, Math.min(MAX_ITERATIONS, n));
+                    }
+                    case "skipLastRestStep" -> skipLastRest = value == JsonToken.VALUE_TRUE;
+                    case "workoutSteps" -> steps(value, children, depth + 1);
+                    default -> p.skipChildren();
+                }
+            }
+
+            boolean repeat = "RepeatGroupDTO".equals(dtoType) || iterations != null;
+            if (repeat) {
+                return new WorkoutStep(REPEAT, endCondition, endValue, trim(description),
+                        iterations != null ? iterations : 1, skipLastRest, List.copyOf(children));
+            }
+            return new WorkoutStep(type, endCondition, endValue, trim(description), null, false, List.of());
+        }
+
+        /** Hodnota pole klíče ve vnořeném objektu ({"stepTypeKey": "warmup", …}). */
+        private String key(JsonToken value, String keyField) throws IOException {
+            if (value != JsonToken.START_OBJECT) {
+                p.skipChildren();
+                return null;
+            }
+            String result = null;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken v = p.nextToken();
+                if (field.equals(keyField)) result = text(v);
+                else p.skipChildren();
+            }
+            return result;
+        }
+
+        private String text(JsonToken value) throws IOException {
+            if (value == JsonToken.VALUE_STRING) return p.getText();
+            p.skipChildren();
+            return null;
+        }
+
+        private Double number(JsonToken value) throws IOException {
+            if (value == JsonToken.VALUE_NUMBER_INT || value == JsonToken.VALUE_NUMBER_FLOAT) return p.getDoubleValue();
+            p.skipChildren();
+            return null;
+        }
+    }
+
+    /** Vzdálenost kroků v metrech. */
+    static double distance(List<WorkoutStep> steps) {
+        double total = 0;
+        for (WorkoutStep s : steps) {
+            if (s.isRepeat()) {
+                total += s.getIterations() * distance(s.getSteps());
+            } else if ("distance".equals(s.getEndCondition()) && s.getEndConditionValue() != null) {
+                total += Math.max(0, s.getEndConditionValue());
+            }
+        }
+        return total;
+    }
+
+    /** Délka kroků v sekundách. */
+    static double duration(List<WorkoutStep> steps, double metersPerSecond) {
+        double total = 0;
+        for (WorkoutStep s : steps) {
+            if (s.isRepeat()) {
+                total += s.getIterations() * duration(s.getSteps(), metersPerSecond);
+                WorkoutStep last = s.getSteps().isEmpty() ? null : s.getSteps().get(s.getSteps().size() - 1);
+                if (s.isSkipLastRest() && s.getIterations() > 0 && last != null && "rest".equals(last.getType())) {
+                    total -= duration(List.of(last), metersPerSecond);
+                }
+                continue;
+            }
+
+            Double value = s.getEndConditionValue();
+            if (value == null || value <= 0 || s.getEndCondition() == null) continue;
+            switch (s.getEndCondition()) {
+                case "time", "fixed.rest" -> total += value;
+                case "distance" -> total += value / metersPerSecond;
+                default -> {
+                    // lap.button, heart.rate… – délka není známá
+                }
+            }
+        }
+        return total;
+    }
+
+    /** Výchozí průměrná rychlost sportu (m/s), pokud ji export neuvádí. */
+    static double defaultSpeed(String sport) {
+        if (sport == null) return 2.5;
+        String s = sport.toLowerCase(Locale.ROOT);
+        if (s.contains("swim")) return 0.8;
+        if (s.contains("cycl") || s.contains("bik")) return 7.0;
+        if (s.contains("walk") || s.contains("hik")) return 1.4;
+        return 2.8;
+    }
+
+    private static double orZero(Double value) {
+        return value != null ? value : 0;
+    }
+
+    private static String trim(String text) {
+        if (text == null) return null;
+        String t = text.strip();
+        return t.isEmpty() ? null : t;
+    }
+}
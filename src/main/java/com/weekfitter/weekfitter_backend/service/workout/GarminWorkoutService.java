@@ -0,0 +1,147 @@
+package com.weekfitter.weekfitter_backend.service.workout;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.weekfitter.weekfitter_backend.dto.WorkoutSummary;
+import com.weekfitter.weekfitter_backend.model.ActivityType;
+import com.weekfitter.weekfitter_backend.model.CalendarEvent;
+import com.weekfitter.weekfitter_backend.model.SportType;
+import com.weekfitter.weekfitter_backend.service.UploadStorage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Tréninky připojené k událostem jako JSON export z Garmin Connect
+ * (CalendarEvent.filePath, např. "uploads/Pool Swimming Workout 2.11.json").
+ *
+ * Soubor se přečte GarminWorkoutParserem a souhrn (kroky, odhad vzdálenosti
+ * a délky) se uloží do cache podle SHA-256 obsahu – stejný trénink připojený
+ * k mnoha událostem (opakovaný týdenní plán) se parsuje jednou, změněný
+ * soubor pod stejnou cestou se naopak načte znovu.
+ *
+ * Čtou se jen soubory uvnitř adresáře nahraných souborů (UploadStorage)
+ * a do velikosti max-bytes.
+ */
+@Service
+public class GarminWorkoutService {
+
+    private static final Logger log = LoggerFactory.getLogger(GarminWorkoutService.class);
+
+    private final UploadStorage uploadStorage;
+    private final long maxBytes;
+    private final Cache<String, WorkoutSummary> summariesByHash;
+
+    public GarminWorkoutService(
+            UploadStorage uploadStorage,
+            MeterRegistry meterRegistry,
+            @Value("${weekfitter.workout.max-bytes:2097152}") long maxBytes,
+            @Value("${weekfitter.workout.cache.max-entries:2000}") long maxEntries,
+            @Value("${weekfitter.workout.cache.ttl:6h}") Duration ttl
+    ) {
+        this.uploadStorage = uploadStorage;
+        this.maxBytes = maxBytes;
+        this.summariesByHash = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterAccess(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, summariesByHash, "garminWorkouts");
+    }
+
+    /**
+     * Souhrn tréninku z připojeného souboru události uživatele ownerId.
+     *
+     * @return prázdný Optional, pokud cesta nevede na čitelný trénink Garmin
+     *         nebo na soubor jiného uživatele (UploadStorage.resolve)
+     */
+    public Optional<WorkoutSummary> summary(UUID ownerId, String filePath) {
+        if (!isWorkoutFile(filePath)) return Optional.empty();
+
+        Path file = uploadStorage.resolve(ownerId, filePath).orElse(null);
+        if (file == null) return Optional.empty();
+
+        try {
+            byte[] content = read(file);
+            if (content == null) return Optional.empty();
+            return Optional.of(summariesByHash.get(sha256(content), hash -> GarminWorkoutParser.parse(content)));
+        } catch (IOException | IllegalArgumentException e) {
+            log.debug("Soubor tréninku {} nelze přečíst: {}", filePath, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Doplní do události odhad z připojeného tréninku – jen hodnoty,
+     * které uživatel sám nezadal (vzdálenost, délka, sport).
+     *
+     * Délka se doplní, jen pokud událost nemá trvání ani platný konec
+     * (nebo konec smí nahradit); sport jen u události kategorie SPORT.
+     *
+     * @param replaceEnd délka se doplní i u události s koncem (připojení
+     *                   souboru k uložené události, konec se z ní přepočítá)
+     */
+    public void applyEstimate(CalendarEvent event, boolean replaceEnd) {
+        if (event.getUser() == null) return;
+        summary(event.getUser().getId(), event.getFilePath()).ifPresent(w -> {
+            if (event.getDistance() == null && w.getDistanceMeters() > 0) {
+                event.setDistance(Math.round(w.getDistanceMeters() / 10.0) / 100.0);
+            }
+            boolean hasEnd = event.getEndTime() != null && event.getStartTime() != null
+                    && event.getEndTime().isAfter(event.getStartTime());
+            if (event.getDuration() == null && (replaceEnd || !hasEnd) && w.getDurationSeconds() > 0) {
+                event.setDuration((double) Math.max(1, Math.round(w.getDurationSeconds() / 60.0)));
+            }
+            if (event.getSportType() == null && event.getCategory() == ActivityType.SPORT) {
+                event.setSportType(sportType(w.getSport()));
+            }
+        });
+    }
+
+    /** Je cesta JSON souborem (jiné přílohy – GPX, obrázky – se nečtou)? */
+    private static boolean isWorkoutFile(String filePath) {
+        return filePath != null && filePath.toLowerCase(Locale.ROOT).endsWith(".json");
+    }
+
+    /** Obsah souboru, nebo null u příliš velkého souboru. */
+    private byte[] read(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] content = in.readNBytes((int) Math.min(Integer.MAX_VALUE - 8, maxBytes + 1));
+            return content.length > maxBytes ? null : content;
+        }
+    }
+
+    static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Sport Garminu → SportType aplikace. */
+    static SportType sportType(String garminSport) {
+        if (garminSport == null) return SportType.OTHER;
+        String s = garminSport.toLowerCase(Locale.ROOT);
+        if (s.contains("swim")) return SportType.SWIMMING;
+        if (s.contains("run")) return SportType.RUNNING;
+        if (s.contains("cycl") || s.contains("bik")) return SportType.CYCLING;
+        return SportType.OTHER;
+    }
+}
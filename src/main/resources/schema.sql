@@ -0,0 +1,69 @@
+-- ============================================================
+-- Doplňky schématu, které Hibernate (ddl-auto=update) neumí.
+-- Spouští se po inicializaci JPA (defer-datasource-initialization)
+-- při každém startu, proto jsou všechny příkazy idempotentní.
+-- ============================================================
+
+-- Fulltextové vyhledávání v událostech (GET /api/events/search)
+--  - search_vector: slova názvu (váha A), sportovního popisu (B) a popisu (C),
+--    slovník 'simple' (bez stemmingu – PostgreSQL nemá český slovník),
+--  - search_text: spojený text malými písmeny pro trigramové hledání částí slov.
+-- Oba sloupce jsou generované – databáze je udržuje sama při každém INSERT/UPDATE.
+
+ALTER TABLE calendar_events ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple'::regconfig, coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('simple'::regconfig, coalesce(sport_description, '')), 'B') ||
+        setweight(to_tsvector('simple'::regconfig, coalesce(description, '')), 'C')
+    ) STORED;
+
+ALTER TABLE calendar_events ADD COLUMN IF NOT EXISTS search_text text
+    GENERATED ALWAYS AS (
+        lower(coalesce(title, '') || ' ' || coalesce(sport_description, '') || ' ' || coalesce(description, ''))
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_calendar_events_search
+    ON calendar_events USING gin (search_vector);
+
+-- Trigramy (pg_trgm) pro hledání uprostřed slov a podobnost v relevanci.
+-- Na spravovaném PostgreSQL nemusí mít role aplikace právo rozšíření
+-- vytvořit – start se tím nezastaví: hledání uprostřed slov pak běží
+-- bez indexu (LIKE nad výsledky uživatele) a relevance bez podobnosti.
+-- Dotazy volají search_similarity, která podle dostupnosti pg_trgm vrací
+-- word_similarity, nebo 0.
+-- Těla bloků jsou v apostrofech: skript se dělí na příkazy podle středníků
+-- a dolarové uvozovky při tom nerozpozná.
+DO '
+BEGIN
+    CREATE EXTENSION IF NOT EXISTS pg_trgm;
+EXCEPTION WHEN OTHERS THEN
+    RAISE WARNING ''Rozšíření pg_trgm nelze vytvořit (%), vyhledávání poběží bez trigramů.'', SQLERRM;
+END';
+
+DO '
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_extension WHERE extname = ''pg_trgm'') THEN
+        CREATE OR REPLACE FUNCTION search_similarity(query text, content text) RETURNS real
+            LANGUAGE sql IMMUTABLE PARALLEL SAFE
+            AS ''SELECT word_similarity(query, content)'';
+        CREATE INDEX IF NOT EXISTS idx_calendar_events_search_trgm
+            ON calendar_events USING gin (search_text gin_trgm_ops);
+    ELSE
+        CREATE OR REPLACE FUNCTION search_similarity(query text, content text) RETURNS real
+            LANGUAGE sql IMMUTABLE PARALLEL SAFE
+            AS ''SELECT CAST(0 AS real)'';
+    END IF;
+END';
+
+-- Týdenní souhrny (WeeklyTrainingSummary mapuje jen user_id) patří
+-- uživateli – smazáním uživatele zmizí i jeho souhrny. Osiřelé řádky
+-- se před přidáním cizího klíče odstraní; při dalších startech se nic neděje.
+DO '
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ''fk_weekly_summary_user'') THEN
+        DELETE FROM weekly_training_summary s
+            WHERE NOT EXISTS (SELECT 1 FROM users u WHERE u.id = s.user_id);
+        ALTER TABLE weekly_training_summary ADD CONSTRAINT fk_weekly_summary_user
+            FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE;
+    END IF;
+END';
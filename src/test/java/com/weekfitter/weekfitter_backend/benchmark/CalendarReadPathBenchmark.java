@@ -0,0 +1,141 @@
+package com.weekfitter.weekfitter_backend.benchmark;
+
+import com.weekfitter.weekfitter_backend.WeekfitterBackendApplication;
+import com.weekfitter.weekfitter_backend.dto.EventResponse;
+import com.weekfitter.weekfitter_backend.model.CalendarEvent;
+import com.weekfitter.weekfitter_backend.model.NotificationType;
+import com.weekfitter.weekfitter_backend.model.User;
+import com.weekfitter.weekfitter_backend.repository.CalendarEventRepository;
+import com.weekfitter.weekfitter_backend.repository.NotificationRepository;
+import com.weekfitter.weekfitter_backend.repository.UserRepository;
+import com.weekfitter.weekfitter_backend.service.CalendarCacheService;
+import com.weekfitter.weekfitter_backend.service.CalendarEventService;
+import com.weekfitter.weekfitter_backend.service.NotificationService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark porovnávající dvě cesty čtení kalendáře:
+ *
+ * - entity: načtení spravovaných entit CalendarEvent a jejich převod na EventResponse
+ *   (původní cesta controlleru),
+ * - projection: DTO projekce v read-only transakci (CalendarEventService.getEventResponses
+ *   s vyprázdněnou cache, tedy vždy dotaz do databáze),
+ * - cached: stejné volání obsloužené z CalendarCacheService (pro srovnání).
+ *
+ * Obě databázové cesty načítají offsety notifikací stejným hromadným dotazem,
+ * liší se tedy pouze hydratací entit.
+ *
+ * Benchmark pracuje se skutečnou databází z konfigurace aplikace
+ * (SPRING_DATASOURCE_*). Při startu vytvoří dočasného uživatele s událostmi
+ * a po skončení ho smaže.
+ *
+ * Spuštění: metoda main (např. z IDE) nad test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CalendarReadPathBenchmark {
+
+    /** Počet událostí dočasného uživatele. */
+    @Param({"500", "2000"})
+    public int eventCount;
+
+    private ConfigurableApplicationContext context;
+    private CalendarEventService calendarEventService;
+    private CalendarCacheService calendarCacheService;
+    private NotificationService notificationService;
+    private User user;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(WeekfitterBackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .run();
+
+        calendarEventService = context.getBean(CalendarEventService.class);
+        calendarCacheService = context.getBean(CalendarCacheService.class);
+        notificationService = context.getBean(NotificationService.class);
+
+        user = context.getBean(UserRepository.class).save(User.builder()
+                .firstName("Benchmark")
+                .lastName("User")
+                .email("benchmark-" + UUID.randomUUID() + "@weekfitter.local")
+                .password("-")
+                .build());
+
+        LocalDateTime start = LocalDateTime.now().minusYears(2).withHour(7).withMinute(0);
+        List<CalendarEvent> events = new ArrayList<>(eventCount);
+        for (int i = 0; i < eventCount; i++) {
+            events.add(CalendarEvent.builder()
+                    .title("Trénink " + i)
+                    .startTime(start.plusHours(9L * i))
+                    .duration(60.0)
+                    .user(user)
+                    .build());
+        }
+        for (CalendarEvent e : context.getBean(CalendarEventRepository.class).saveAll(events)) {
+            notificationService.createNotification(e, e.getStartTime().minusMinutes(30), NotificationType.MINUTES_30);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        NotificationRepository notificationRepository = context.getBean(NotificationRepository.class);
+        CalendarEventRepository calendarEventRepository = context.getBean(CalendarEventRepository.class);
+
+        notificationRepository.deleteAll(notificationRepository.findByUserId(user.getId()));
+        calendarEventRepository.deleteAll(calendarEventRepository.findByUser(user));
+        context.getBean(UserRepository.class).delete(user);
+        context.close();
+    }
+
+    /** Původní cesta: entity → offsety → DTO. */
+    @Benchmark
+    public List<EventResponse> entityPath() {
+        List<CalendarEvent> events = calendarEventService.getEventsByUser(user);
+        Map<UUID, LocalDateTime> startById = new HashMap<>();
+        for (CalendarEvent e : events) startById.put(e.getId(), e.getStartTime());
+        Map<UUID, List<Integer>> offsets = notificationService.getNotificationOffsets(startById);
+
+        List<EventResponse> response = new ArrayList<>(events.size());
+        for (CalendarEvent e : events) {
+            response.add(EventResponse.fromEntity(e, offsets.getOrDefault(e.getId(), Collections.emptyList())));
+        }
+        return response;
+    }
+
+    /**
+     * Projekční cesta: DTO přímo z dotazu v read-only transakci. Cache se
+     * před každým voláním vyprázdní, jinak by se měřil jen zásah cache.
+     */
+    @Benchmark
+    public List<EventResponse> projectionPath() {
+        calendarCacheService.invalidate(user.getId());
+        return calendarEventService.getEventResponses(user, null, null);
+    }
+
+    /** Výpis obsloužený z cache (po prvním volání). */
+    @Benchmark
+    public List<EventResponse> cachedPath() {
+        return calendarEventService.getEventResponses(user, null, null);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CalendarReadPathBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
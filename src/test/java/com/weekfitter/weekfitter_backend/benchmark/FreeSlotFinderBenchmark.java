@@ -0,0 +1,90 @@
+package com.weekfitter.weekfitter_backend.benchmark;
+
+import com.weekfitter.weekfitter_backend.dto.EventInterval;
+import com.weekfitter.weekfitter_backend.dto.FreeSlot;
+import com.weekfitter.weekfitter_backend.service.interval.EventIntervalIndex;
+import com.weekfitter.weekfitter_backend.service.planner.FreeSlotFinder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark hledání volných úseků pro jeden týden.
+ *
+ * - findSlots: samotný FreeSlotFinder nad připravenými intervaly týdne,
+ * - indexAndFindSlots: výběr intervalů týdne z indexu uživatele s celou
+ *   historií (tak jako GET /api/events/free-slots) + hledání úseků.
+ *
+ * Cíl: typický týden (desítky událostí) hluboko pod 1 ms.
+ * Benchmark nepotřebuje databázi ani Spring kontext.
+ *
+ * Spuštění: metoda main (např. z IDE) nad test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FreeSlotFinderBenchmark {
+
+    /** Počet událostí v týdnu. */
+    @Param({"20", "60"})
+    public int eventsPerWeek;
+
+    /** Délka historie uživatele v týdnech (velikost indexu). */
+    @Param({"104"})
+    public int weeksOfHistory;
+
+    private final FreeSlotFinder finder = new FreeSlotFinder(LocalTime.of(6, 0), LocalTime.of(21, 0), 15);
+
+    private EventIntervalIndex index;
+    private List<EventInterval> week;
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(7);
+        LocalDateTime origin = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        List<EventInterval> all = new ArrayList<>();
+        for (int w = 0; w < weeksOfHistory; w++) {
+            for (int i = 0; i < eventsPerWeek; i++) {
+                LocalDateTime start = origin.plusWeeks(w)
+                        .plusDays(random.nextInt(7))
+                        .plusMinutes(6 * 60 + 15L * random.nextInt(56));
+                boolean allDay = random.nextInt(40) == 0;
+                all.add(new EventInterval(UUID.randomUUID(), start,
+                        start.plusMinutes(30 + 15L * random.nextInt(8)), allDay, null, null));
+            }
+        }
+        index = EventIntervalIndex.of(all);
+
+        from = origin.plusWeeks(weeksOfHistory / 2);
+        to = from.plusWeeks(1);
+        week = index.overlapping(from, to);
+    }
+
+    @Benchmark
+    public List<FreeSlot> findSlots() {
+        return finder.find(week, from, to, 60, 10);
+    }
+
+    @Benchmark
+    public List<FreeSlot> indexAndFindSlots() {
+        return finder.find(index.overlapping(from, to), from, to, 60, 10);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FreeSlotFinderBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,86 @@
+package com.weekfitter.weekfitter_backend.benchmark;
+
+import com.weekfitter.weekfitter_backend.dto.TrainingLoadPoint;
+import com.weekfitter.weekfitter_backend.service.stats.TrainingLoadSeries;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark přepočtu tréninkové zátěže po úpravě jednoho tréninku.
+ *
+ * - editMidHistory: změna tréninku uprostřed historie + čtení posledního
+ *   týdne (přepočítá se jen přípona řady),
+ * - editRecent: změna tréninku z minulého týdne (typický případ),
+ * - editFirstDay: změna prvního dne – odpovídá přepočtu celé historie.
+ *
+ * Benchmark nepotřebuje databázi ani Spring kontext.
+ *
+ * Spuštění: metoda main (např. z IDE) nad test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrainingLoadBenchmark {
+
+    /** Délka historie v letech. */
+    @Param({"1", "5", "10"})
+    public int years;
+
+    private TrainingLoadSeries series;
+    private LocalDate origin;
+    private LocalDate end;
+    private LocalDate middle;
+    private double sign = 1;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(7);
+        origin = LocalDate.of(2015, 1, 1);
+        end = origin.plusYears(years);
+        middle = origin.plusDays(java.time.temporal.ChronoUnit.DAYS.between(origin, end) / 2);
+
+        series = new TrainingLoadSeries(origin, 1, origin, end);
+        for (LocalDate d = origin; d.isBefore(end); d = d.plusDays(1)) {
+            if (random.nextInt(7) < 5) series.addLoad(d, 30 + random.nextInt(90));
+        }
+        series.points(end, end);
+    }
+
+    @Benchmark
+    public List<TrainingLoadPoint> editMidHistory() {
+        return edit(middle);
+    }
+
+    @Benchmark
+    public List<TrainingLoadPoint> editRecent() {
+        return edit(end.minusDays(7));
+    }
+
+    @Benchmark
+    public List<TrainingLoadPoint> editFirstDay() {
+        return edit(origin);
+    }
+
+    private List<TrainingLoadPoint> edit(LocalDate day) {
+        // Střídavé znaménko drží řadu stabilní přes všechny iterace
+        sign = -sign;
+        series.addLoad(day, sign * 15);
+        return series.points(end.minusDays(6), end);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TrainingLoadBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
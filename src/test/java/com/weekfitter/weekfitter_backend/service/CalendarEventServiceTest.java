@@ -0,0 +1,460 @@
+package com.weekfitter.weekfitter_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weekfitter.weekfitter_backend.dto.CopyEventsResponse;
+import com.weekfitter.weekfitter_backend.dto.CopyWindowCounts;
+import com.weekfitter.weekfitter_backend.dto.EventInterval;
+import com.weekfitter.weekfitter_backend.event.CalendarChangedEvent;
+import com.weekfitter.weekfitter_backend.model.CalendarEvent;
+import com.weekfitter.weekfitter_backend.model.Notification;
+import com.weekfitter.weekfitter_backend.model.User;
+import com.weekfitter.weekfitter_backend.repository.CalendarEventRepository;
+import com.weekfitter.weekfitter_backend.repository.CalendarEventTombstoneRepository;
+import com.weekfitter.weekfitter_backend.repository.NotificationRepository;
+import com.weekfitter.weekfitter_backend.repository.UserRepository;
+import com.weekfitter.weekfitter_backend.service.activity.FitActivityService;
+import com.weekfitter.weekfitter_backend.service.interval.EventIntervalIndexService;
+import com.weekfitter.weekfitter_backend.service.route.RoutePreviewService;
+import com.weekfitter.weekfitter_backend.service.search.TitleSuggestService;
+import com.weekfitter.weekfitter_backend.service.stats.TrainingLoadService;
+import com.weekfitter.weekfitter_backend.service.stats.WeeklySummaryService;
+import com.weekfitter.weekfitter_backend.service.workout.GarminWorkoutService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit testy zápisových cest CalendarEventService, které obcházejí
+ * ukládání po jedné entitě – persistence context a repository jsou mocky.
+ */
+class CalendarEventServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 3, 7, 0);
+
+    private final NotificationRepository notificationRepository = mock(NotificationRepository.class);
+    private final CalendarEventRepository calendarEventRepository = mock(CalendarEventRepository.class);
+    private final EventIntervalIndexService intervalIndexService = mock(EventIntervalIndexService.class);
+    private final WeeklySummaryService weeklySummaryService = mock(WeeklySummaryService.class);
+    private final TrainingLoadService trainingLoadService = mock(TrainingLoadService.class);
+    private final TitleSuggestService titleSuggestService = mock(TitleSuggestService.class);
+    private final GarminWorkoutService garminWorkoutService = mock(GarminWorkoutService.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final CalendarEventTombstoneRepository tombstoneRepository = mock(CalendarEventTombstoneRepository.class);
+
+    private final User user = User.builder().id(UUID.randomUUID()).email("bulk@weekfitter.local").build();
+
+    private CalendarEventService service;
+
+    @TempDir
+    Path uploads;
+
+    @BeforeEach
+    void setUp() {
+        service = newService(garminWorkoutService, mock(FitActivityService.class), mock(RoutePreviewService.class),
+                new UploadStorage("uploads"));
+    }
+
+    private CalendarEventService newService(GarminWorkoutService workouts, FitActivityService activities,
+                                            RoutePreviewService routes, UploadStorage uploadStorage) {
+        NotificationService notificationService = new NotificationService(
+                notificationRepository, mock(EmailService.class), mock(ApplicationEventPublisher.class));
+        CalendarEventService created = new CalendarEventService(
+                notificationRepository,
+                calendarEventRepository,
+                tombstoneRepository,
+                mock(UserRepository.class),
+                notificationService,
+                mock(CalendarCacheService.class),
+                intervalIndexService,
+                weeklySummaryService,
+                trainingLoadService,
+                titleSuggestService,
+                workouts,
+                activities,
+                routes,
+                uploadStorage,
+                eventPublisher,
+                mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(created, "entityManager", entityManager);
+        ReflectionTestUtils.setField(created, "bulkChunkSize", 2);
+        ReflectionTestUtils.setField(created, "maxEventSpanDays", 31);
+        return created;
+    }
+
+    /**
+     * Dávky po 2: události dávky, pak jejich notifikace, flush a clear.
+     * ID se vrací ve stejném pořadí, odvozená data se zneplatní jednou.
+     */
+    @Test
+    void bulkCreatePersistsInChunksWithNotifications() {
+        // ID přiděluje Hibernate při persist
+        doAnswer(inv -> {
+            if (inv.getArgument(0) instanceof CalendarEvent e) e.setId(UUID.randomUUID());
+            return null;
+        }).when(entityManager).persist(any());
+
+        List<CalendarEvent> events = new ArrayList<>();
+        List<List<Integer>> notifications = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            events.add(CalendarEvent.builder().id(UUID.randomUUID()).title("T" + i).startTime(START.plusDays(i)).build());
+            notifications.add(i == 2 ? List.of() : List.of(30));
+        }
+
+        List<UUID> ids = service.createEventsBulk(user, events, notifications);
+
+        assertThat(ids).hasSize(5).doesNotHaveDuplicates();
+        for (int i = 0; i < 5; i++) {
+            assertThat(ids.get(i)).isEqualTo(events.get(i).getId());
+            assertThat(events.get(i).getUser()).isSameAs(user);
+            assertThat(events.get(i).getEndTime()).isEqualTo(START.plusDays(i).plusHours(1));
+        }
+
+        ArgumentCaptor<Object> persisted = ArgumentCaptor.forClass(Object.class);
+        InOrder order = inOrder(entityManager);
+        // dávka 1: e0, e1, n0, n1
+        order.verify(entityManager, times(2)).persist(any(CalendarEvent.class));
+        order.verify(entityManager, times(2)).persist(any(Notification.class));
+        order.verify(entityManager).flush();
+        order.verify(entityManager).clear();
+        // dávka 2: e2 (bez notifikací), e3, n3
+        order.verify(entityManager, times(2)).persist(any(CalendarEvent.class));
+        order.verify(entityManager, times(1)).persist(any(Notification.class));
+        order.verify(entityManager).flush();
+        order.verify(entityManager).clear();
+        // dávka 3: e4, n4
+        order.verify(entityManager).persist(any(CalendarEvent.class));
+        order.verify(entityManager).persist(any(Notification.class));
+        order.verify(entityManager).flush();
+        order.verify(entityManager).clear();
+
+        verify(entityManager, times(9)).persist(persisted.capture());
+        List<Notification> created = persisted.getAllValues().stream()
+                .filter(Notification.class::isInstance).map(Notification.class::cast).toList();
+        assertThat(created).extracting(n -> n.getEvent().getTitle()).containsExactly("T0", "T1", "T3", "T4");
+        assertThat(created).allSatisfy(n -> {
+            assertThat(n.getUser()).isSameAs(user);
+            assertThat(n.getNotifyAt()).isEqualTo(n.getEvent().getStartTime().minusMinutes(30));
+        });
+
+        ArgumentCaptor<CalendarChangedEvent> changed = ArgumentCaptor.forClass(CalendarChangedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(changed.capture());
+        assertThat(changed.getValue().getUserId()).isEqualTo(user.getId());
+        assertThat(changed.getValue().getEventIds()).containsExactlyInAnyOrderElementsOf(ids);
+        verify(intervalIndexService).invalidate(user.getId());
+        verify(trainingLoadService).invalidate(user.getId());
+        verify(titleSuggestService).invalidate(user.getId());
+        verify(weeklySummaryService).recompute(user.getId(), START, START.plusDays(5));
+        verifyNoInteractions(calendarEventRepository);
+    }
+
+    /**
+     * Posunou se jen události, které projekční dotaz vrátí pro vlastníka –
+     * cizí ID z požadavku do UPDATE nepropadnou. Změna se oznámí se všemi
+     * posunutými ID (zvýšení verze a change_version) a odvozená data se
+     * zneplatní pro týdny před posunem i po něm.
+     */
+    @Test
+    void shiftMovesOnlyOwnedEventsAndInvalidatesDerivedData() {
+        UUID own1 = UUID.randomUUID();
+        UUID own2 = UUID.randomUUID();
+        UUID foreign = UUID.randomUUID();
+        List<UUID> requested = List.of(own1, own2, foreign);
+        when(calendarEventRepository.findSingleIntervalsByIds(user.getId(), requested)).thenReturn(List.of(
+                new EventInterval(own2, START.plusDays(3), START.plusDays(3).plusHours(1), false, null, null),
+                new EventInterval(own1, START, START.plusHours(1), false, null, null)));
+
+        List<UUID> shifted = service.shiftEvents(user, requested, null, null, -2 * 24 * 60);
+
+        assertThat(shifted).containsExactlyInAnyOrder(own1, own2);
+        verify(calendarEventRepository).shiftByIds(List.of(own2, own1), -2 * 24 * 60);
+        verify(notificationRepository).shiftByEventIds(List.of(own2, own1), -2 * 24 * 60);
+
+        ArgumentCaptor<CalendarChangedEvent> changed = ArgumentCaptor.forClass(CalendarChangedEvent.class);
+        verify(eventPublisher).publishEvent(changed.capture());
+        assertThat(changed.getValue().getUserId()).isEqualTo(user.getId());
+        assertThat(changed.getValue().getEventIds()).containsExactlyInAnyOrder(own1, own2);
+
+        verify(intervalIndexService).invalidate(user.getId());
+        verify(trainingLoadService).invalidate(user.getId());
+        verify(weeklySummaryService).recompute(user.getId(), START.minusDays(2), START.plusDays(4));
+    }
+
+    /** Výběr oknem; bez vlastních jednorázových událostí se nic nezapisuje ani neoznamuje. */
+    @Test
+    void shiftWithoutOwnedEventsWritesNothing() {
+        when(calendarEventRepository.findSingleIntervalsStartingIn(user.getId(), START, START.plusDays(7)))
+                .thenReturn(List.of());
+
+        assertThat(service.shiftEvents(user, null, START, START.plusDays(7), 60)).isEmpty();
+
+        verify(calendarEventRepository, never()).shiftByIds(anyCollection(), anyInt());
+        verify(notificationRepository, never()).shiftByEventIds(anyCollection(), anyInt());
+        verifyNoInteractions(eventPublisher, intervalIndexService, trainingLoadService, weeklySummaryService);
+    }
+
+    /** Posun dopředu přepočítá souhrny od nejstaršího začátku po nejpozdější nový začátek. */
+    @Test
+    void shiftForwardRecomputesUpToShiftedEnd() {
+        UUID id = UUID.randomUUID();
+        when(calendarEventRepository.findSingleIntervalsStartingIn(eq(user.getId()), any(), any()))
+                .thenReturn(List.of(new EventInterval(id, START, START.plusHours(1), false, null, null)));
+
+        service.shiftEvents(user, List.of(), START, START.plusDays(7), 7 * 24 * 60);
+
+        verify(calendarEventRepository).shiftByIds(List.of(id), 7 * 24 * 60);
+        verify(weeklySummaryService).recompute(user.getId(), START, START.plusDays(8));
+    }
+
+    /**
+     * Kopie okna: verze uživatele se zvýší před kopírováním (kopie nesou novou
+     * verzi), dotaz dostane posun v minutách a počty se vrátí beze změny.
+     */
+    @Test
+    void copyBumpsVersionFirstAndInvalidatesTargetWeek() {
+        CopyWindowCounts counts = mock(CopyWindowCounts.class);
+        when(counts.getEvents()).thenReturn(5L);
+        when(counts.getNotifications()).thenReturn(3L);
+        when(calendarEventRepository.copyWindow(user.getId(), START, START.plusDays(7), 14 * 24 * 60)).thenReturn(counts);
+
+        CopyEventsResponse response = service.copyEvents(user, START, START.plusDays(7), START.plusDays(14));
+
+        assertThat(response.getEvents()).isEqualTo(5);
+        assertThat(response.getNotifications()).isEqualTo(3);
+
+        InOrder order = inOrder(eventPublisher, calendarEventRepository);
+        ArgumentCaptor<CalendarChangedEvent> changed = ArgumentCaptor.forClass(CalendarChangedEvent.class);
+        order.verify(eventPublisher).publishEvent(changed.capture());
+        order.verify(calendarEventRepository).copyWindow(user.getId(), START, START.plusDays(7), 14 * 24 * 60);
+        assertThat(changed.getValue().getUserId()).isEqualTo(user.getId());
+
+        verify(intervalIndexService).invalidate(user.getId());
+        verify(trainingLoadService).invalidate(user.getId());
+        verify(titleSuggestService).invalidate(user.getId());
+        verify(weeklySummaryService).recompute(user.getId(), START.plusDays(14), START.plusDays(21));
+    }
+
+    /** Prázdné okno nic nezneplatňuje. */
+    @Test
+    void copyOfEmptyWindowKeepsDerivedData() {
+        CopyWindowCounts counts = mock(CopyWindowCounts.class);
+        when(calendarEventRepository.copyWindow(eq(user.getId()), any(), any(), anyInt())).thenReturn(counts);
+
+        CopyEventsResponse response = service.copyEvents(user, START, START.plusDays(7), START.minusDays(7));
+
+        assertThat(response.getEvents()).isZero();
+        assertThat(response.getNotifications()).isZero();
+        verify(calendarEventRepository).copyWindow(user.getId(), START, START.plusDays(7), -7 * 24 * 60);
+        verifyNoInteractions(intervalIndexService, trainingLoadService, titleSuggestService, weeklySummaryService);
+    }
+
+    /** Cizí přílohu ani soubor mimo vlastní přílohy nelze připojit zadáním cesty. */
+    @Test
+    void createRejectsFilePathOutsideOwnAttachments() {
+        String foreign = "uploads/attachments/" + UUID.randomUUID() + "/e/u/run.gpx";
+
+        for (String path : List.of(foreign, "uploads/Pool.json", "uploads/user_photos/p.jpg", "../etc/passwd")) {
+            CalendarEvent event = CalendarEvent.builder().user(user).title("Běh").startTime(START).filePath(path).build();
+            assertThatThrownBy(() -> service.createEvent(event))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("nepatří");
+        }
+        verify(calendarEventRepository, never()).save(any());
+    }
+
+    /** Vlastní příloha se uloží v jednotném zápisu, sdílená cesta jiné vlastní události beze změny. */
+    @Test
+    void createAcceptsOwnAttachmentAndPathOfOwnEvent() {
+        when(calendarEventRepository.save(any(CalendarEvent.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(calendarEventRepository.existsByUserIdAndFilePath(user.getId(), "uploads/Pool.json")).thenReturn(true);
+
+        String own = "uploads/attachments/" + user.getId() + "/e/./u/run.gpx";
+        CalendarEvent attached = service.createEvent(
+                CalendarEvent.builder().user(user).title("Běh").startTime(START).filePath(own).build());
+        assertThat(attached.getFilePath()).isEqualTo("uploads/attachments/" + user.getId() + "/e/u/run.gpx");
+
+        CalendarEvent shared = service.createEvent(
+                CalendarEvent.builder().user(user).title("Plavání").startTime(START).filePath("uploads/Pool.json").build());
+        assertThat(shared.getFilePath()).isEqualTo("uploads/Pool.json");
+
+        CalendarEvent cleared = service.createEvent(
+                CalendarEvent.builder().user(user).title("Kolo").startTime(START).filePath("").build());
+        assertThat(cleared.getFilePath()).isEmpty();
+    }
+
+    /** Úprava ověřuje jen nově zadanou cestu – vůči vlastníkovi události. */
+    @Test
+    void updateRejectsForeignFilePath() {
+        UUID id = UUID.randomUUID();
+        CalendarEvent existing = CalendarEvent.builder().id(id).user(user).title("Běh").startTime(START)
+                .filePath("uploads/Pool.json").build();
+        when(calendarEventRepository.findById(id)).thenReturn(Optional.of(existing));
+        when(calendarEventRepository.save(any(CalendarEvent.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        String foreign = "uploads/attachments/" + UUID.randomUUID() + "/e/u/run.gpx";
+        assertThatThrownBy(() -> service.updateEvent(id, CalendarEvent.builder().user(user).filePath(foreign).build()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(existing.getFilePath()).isEqualTo("uploads/Pool.json");
+
+        CalendarEvent unchanged = service.updateEvent(id, CalendarEvent.builder().user(user).filePath("uploads/Pool.json").build());
+        assertThat(unchanged.getFilePath()).isEqualTo("uploads/Pool.json");
+        verify(calendarEventRepository, never()).existsByUserIdAndFilePath(user.getId(), "uploads/Pool.json");
+    }
+
+    /** Hromadné zakládání odmítne celou dávku s cizí cestou. */
+    @Test
+    void bulkCreateRejectsForeignFilePath() {
+        List<CalendarEvent> events = List.of(
+                CalendarEvent.builder().title("A").startTime(START).build(),
+                CalendarEvent.builder().title("B").startTime(START).filePath("uploads/other.fit").build());
+
+        assertThatThrownBy(() -> service.createEventsBulk(user, events, List.of(List.of(), List.of())))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    /** Hromadné zakládání doplní hodnoty z připojeného souboru stejně jako createEvent. */
+    @Test
+    void bulkCreateAppliesAttachedFile() {
+        doAnswer(inv -> {
+            inv.<CalendarEvent>getArgument(0).setDuration(45.0);
+            return null;
+        }).when(garminWorkoutService).applyEstimate(any(), anyBoolean());
+        String workout = "uploads/attachments/" + user.getId() + "/e/u/w.json";
+        CalendarEvent event = CalendarEvent.builder().title("Intervaly").startTime(START).filePath(workout).build();
+
+        service.createEventsBulk(user, List.of(event), List.of(List.of()));
+
+        verify(garminWorkoutService).applyEstimate(event, false);
+        assertThat(event.getFilePath()).isEqualTo(workout);
+        assertThat(event.getEndTime()).isEqualTo(START.plusMinutes(45));
+    }
+
+    /**
+     * Připojení souboru k uložené události (konec z prepareNew) doplní délku
+     * a posune z ní konec – se skutečnými službami tréninku, aktivity a trasy.
+     */
+    @Test
+    void attachFileFillsDurationAndMovesDefaultEnd() throws IOException {
+        UploadStorage storage = new UploadStorage(uploads.toString());
+        CalendarEventService real = newService(
+                new GarminWorkoutService(storage, new SimpleMeterRegistry(), 1024 * 1024, 100, Duration.ofHours(1)),
+                new FitActivityService(storage, 1024 * 1024),
+                new RoutePreviewService(storage, new ObjectMapper(), 1024 * 1024, 100_000, 10, 2000),
+                storage);
+        Path route = storage.attachmentsDir(user.getId()).resolve("e/u/run.gpx");
+        Files.createDirectories(route.getParent());
+        Files.writeString(route, """
+                <gpx><trk><trkseg>
+                  <trkpt lat="50.00" lon="14.0"><time>2025-03-01T07:00:00Z</time></trkpt>
+                  <trkpt lat="50.01" lon="14.0"><time>2025-03-01T07:05:00Z</time></trkpt>
+                </trkseg></trk></gpx>
+                """);
+
+        UUID id = UUID.randomUUID();
+        CalendarEvent existing = CalendarEvent.builder().id(id).user(user).title("Běh").startTime(START)
+                .endTime(START.plusHours(1)).build();
+        when(calendarEventRepository.findById(id)).thenReturn(Optional.of(existing));
+        when(calendarEventRepository.save(any(CalendarEvent.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        CalendarEvent saved = real.attachFile(id, storage.filePath(route));
+
+        assertThat(saved.getDistance()).isEqualTo(1.11);
+        assertThat(saved.getDuration()).isEqualTo(5.0);
+        assertThat(saved.getEndTime()).isEqualTo(START.plusMinutes(5));
+        ArgumentCaptor<EventInterval> interval = ArgumentCaptor.forClass(EventInterval.class);
+        verify(intervalIndexService).put(eq(user.getId()), interval.capture());
+        assertThat(interval.getValue().getEndTime()).isEqualTo(START.plusMinutes(5));
+
+        // Délku zadanou uživatelem soubor nepřepíše
+        CalendarEvent timed = CalendarEvent.builder().id(id).user(user).title("Běh").startTime(START)
+                .duration(50.0).endTime(START.plusMinutes(50)).build();
+        when(calendarEventRepository.findById(id)).thenReturn(Optional.of(timed));
+        assertThat(real.attachFile(id, storage.filePath(route)).getEndTime()).isEqualTo(START.plusMinutes(50));
+    }
+
+    /** Událost delší než limit okna se neuloží – dotaz na okno by ji nenašel. */
+    @Test
+    void rejectsEventsLongerThanMaxSpan() {
+        assertThatThrownBy(() -> service.createEvent(CalendarEvent.builder().user(user).title("Soustředění")
+                .startTime(START).endTime(START.plusDays(40)).build()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.createEventsBulk(user, List.of(CalendarEvent.builder().title("Soustředění")
+                .startTime(START).endTime(START.plusDays(32)).build()), List.of(List.of())))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        UUID id = UUID.randomUUID();
+        CalendarEvent existing = CalendarEvent.builder().id(id).user(user).title("Běh").startTime(START)
+                .endTime(START.plusHours(1)).build();
+        when(calendarEventRepository.findById(id)).thenReturn(Optional.of(existing));
+        assertThatThrownBy(() -> service.updateEvent(id, CalendarEvent.builder().user(user)
+                .endTime(START.plusDays(32)).build()))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(calendarEventRepository, never()).save(any());
+
+        when(calendarEventRepository.save(any(CalendarEvent.class))).thenAnswer(inv -> inv.getArgument(0));
+        CalendarEvent month = service.createEvent(CalendarEvent.builder().user(user).title("Kemp")
+                .startTime(START).endTime(START.plusDays(31)).build());
+        assertThat(month.getEndTime()).isEqualTo(START.plusDays(31));
+    }
+
+    /** Úprava nikdy nemění vlastníka – user z requestu se ignoruje. */
+    @Test
+    void updateKeepsOwner() {
+        UUID id = UUID.randomUUID();
+        CalendarEvent existing = CalendarEvent.builder().id(id).user(user).title("Běh").startTime(START)
+                .endTime(START.plusHours(1)).build();
+        when(calendarEventRepository.findById(id)).thenReturn(Optional.of(existing));
+        when(calendarEventRepository.save(any(CalendarEvent.class))).thenAnswer(inv -> inv.getArgument(0));
+        User other = User.builder().id(UUID.randomUUID()).build();
+
+        CalendarEvent saved = service.updateEvent(id, CalendarEvent.builder().user(other).title("Kolo").build());
+
+        assertThat(saved.getUser()).isSameAs(user);
+        assertThat(saved.getTitle()).isEqualTo("Kolo");
+        verify(intervalIndexService).put(eq(user.getId()), any());
+        verify(intervalIndexService, never()).put(eq(other.getId()), any());
+        verify(intervalIndexService, never()).remove(any(), any());
+        verify(tombstoneRepository, never()).save(any());
+    }
+
+    /** Watermark starší než smazané tombstony (retence) vede na celý snapshot. */
+    @Test
+    void changesSinceBeforePrunedTombstonesReturnSnapshot() {
+        User synced = User.builder().id(user.getId()).calendarVersion(20).tombstonesPrunedVersion(8).build();
+        when(calendarEventRepository.findResponsesByUserId(user.getId())).thenReturn(new ArrayList<>());
+        when(calendarEventRepository.findResponsesChangedSince(eq(user.getId()), anyLong())).thenReturn(new ArrayList<>());
+
+        assertThat(service.getChangesSince(synced, 5L).isFull()).isTrue();
+        assertThat(service.getChangesSince(synced, 8L).isFull()).isFalse();
+        verify(tombstoneRepository).findDeletedEventIdsSince(user.getId(), 8L);
+        verify(tombstoneRepository, never()).findDeletedEventIdsSince(user.getId(), 5L);
+    }
+}
@@ -0,0 +1,171 @@
+package com.weekfitter.weekfitter_backend.service;
+
+import com.weekfitter.weekfitter_backend.dto.NotificationOffsetRow;
+import com.weekfitter.weekfitter_backend.event.CalendarChangedEvent;
+import com.weekfitter.weekfitter_backend.model.CalendarEvent;
+import com.weekfitter.weekfitter_backend.model.Notification;
+import com.weekfitter.weekfitter_backend.model.NotificationType;
+import com.weekfitter.weekfitter_backend.model.User;
+import com.weekfitter.weekfitter_backend.repository.NotificationRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit testy pro hromadné načítání offsetů notifikací v NotificationService
+ * a pro oznamování změn kalendáře při zakládání notifikací.
+ *
+ * Repository je nahrazeno mockem, takže každé volání jeho metody odpovídá
+ * jednomu SQL dotazu. Testy tak ověřují, že výpis kalendáře nevede
+ * k problému N+1 dotazů.
+ */
+class NotificationServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 11, 3, 8, 0);
+
+    private final NotificationRepository notificationRepository = mock(NotificationRepository.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final NotificationService notificationService =
+            new NotificationService(notificationRepository, mock(EmailService.class), eventPublisher);
+
+    /**
+     * Počet dotazů musí být konstantní (právě jeden) bez ohledu na počet událostí.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 2000})
+    void offsetsForManyEventsUseSingleQuery(int eventCount) {
+        List<CalendarEvent> events = new ArrayList<>();
+        List<NotificationOffsetRow> rows = new ArrayList<>();
+        for (int i = 0; i < eventCount; i++) {
+            CalendarEvent e = event(START.plusDays(i));
+            events.add(e);
+            rows.add(new NotificationOffsetRow(e.getId(), e.getStartTime().minusMinutes(30), null));
+        }
+        when(notificationRepository.findOffsetRowsByEventIds(anyCollection())).thenReturn(rows);
+
+        Map<UUID, List<Integer>> offsets = notificationService.getNotificationOffsets(starts(events));
+
+        assertThat(offsets).hasSize(eventCount);
+        assertThat(offsets.values()).allSatisfy(o -> assertThat(o).containsExactly(30));
+        assertThat(offsets.get(events.get(eventCount - 1).getId())).containsExactly(30);
+        verify(notificationRepository, times(1)).findOffsetRowsByEventIds(anyCollection());
+        verify(notificationRepository, never()).findAllByEventId(any());
+        verifyNoMoreInteractions(notificationRepository);
+    }
+
+    /**
+     * Offsety se počítají vůči začátku vlastní události a jsou seřazené vzestupně;
+     * notifikace po začátku události se ignorují.
+     */
+    @Test
+    void offsetsAreGroupedPerEventAndSorted() {
+        CalendarEvent first = event(START);
+        CalendarEvent second = event(START.plusHours(3));
+
+        when(notificationRepository.findOffsetRowsByEventIds(anyCollection())).thenReturn(List.of(
+                new NotificationOffsetRow(first.getId(), START.minusDays(1), null),
+                new NotificationOffsetRow(first.getId(), START.minusMinutes(5), null),
+                new NotificationOffsetRow(second.getId(), second.getStartTime().minusHours(1), null),
+                new NotificationOffsetRow(second.getId(), second.getStartTime().plusMinutes(10), null)
+        ));
+
+        Map<UUID, List<Integer>> offsets =
+                notificationService.getNotificationOffsets(starts(List.of(first, second)));
+
+        assertThat(offsets.get(first.getId())).containsExactly(5, 1440);
+        assertThat(offsets.get(second.getId())).containsExactly(60);
+    }
+
+    /**
+     * Standardní offset se bere z typu notifikace – notifikace série míří na
+     * pozdější výskyt, rozdíl vůči začátku série by byl chybný.
+     */
+    @Test
+    void offsetOfTypedNotificationComesFromType() {
+        CalendarEvent series = event(START);
+        series.setRecurrenceRule("FREQ=WEEKLY");
+
+        when(notificationRepository.findOffsetRowsByEventIds(anyCollection())).thenReturn(List.of(
+                new NotificationOffsetRow(series.getId(), START.plusWeeks(3).minusMinutes(30), NotificationType.MINUTES_30)
+        ));
+
+        Map<UUID, List<Integer>> offsets = notificationService.getNotificationOffsets(starts(List.of(series)));
+
+        assertThat(offsets.get(series.getId())).containsExactly(30);
+    }
+
+    /**
+     * Prázdný vstup nesmí vyvolat žádný dotaz.
+     */
+    @Test
+    void emptyInputRunsNoQuery() {
+        assertThat(notificationService.getNotificationOffsets(Map.of())).isEmpty();
+        verifyNoInteractions(notificationRepository);
+    }
+
+    /**
+     * Hromadné zakládání událostí ukládá notifikace samo v dávkách –
+     * sestavení nesmí nic zapisovat ani publikovat.
+     */
+    @Test
+    void buildNotificationsDoesNotSave() {
+        CalendarEvent e = event(START);
+        e.setUser(User.builder().id(UUID.randomUUID()).build());
+
+        List<Notification> built =
+                notificationService.buildNotifications(e, Arrays.asList(30, null, -5, 1440));
+
+        assertThat(built).extracting(Notification::getNotifyAt)
+                .containsExactly(START.minusMinutes(30), START.minusDays(1));
+        verifyNoInteractions(notificationRepository);
+    }
+
+    /**
+     * Vytvoření i nahrazení více notifikací je jedna změna kalendáře –
+     * verze se zvýší jednou, ne za každý řádek.
+     */
+    @Test
+    void notificationsOfOneEventPublishOneChange() {
+        CalendarEvent e = event(START);
+        e.setUser(User.builder().id(UUID.randomUUID()).build());
+
+        notificationService.createNotifications(e, List.of(5, 30, 60));
+        verify(notificationRepository).saveAll(argThat(list -> ((Collection<?>) list).size() == 3));
+        verify(notificationRepository, never()).save(any());
+        verify(eventPublisher, times(1)).publishEvent(any(CalendarChangedEvent.class));
+
+        when(notificationRepository.deleteAllByEventId(e.getId())).thenReturn(3);
+        notificationService.replaceNotifications(e, List.of(15, 1440));
+        verify(eventPublisher, times(2)).publishEvent(any(CalendarChangedEvent.class));
+
+        // nic k vytvoření ani smazání → žádná změna
+        when(notificationRepository.deleteAllByEventId(e.getId())).thenReturn(0);
+        notificationService.replaceNotifications(e, List.of());
+        notificationService.createNotifications(e, null);
+        verifyNoMoreInteractions(eventPublisher);
+    }
+
+    private static Map<UUID, LocalDateTime> starts(List<CalendarEvent> events) {
+        Map<UUID, LocalDateTime> startById = new HashMap<>();
+        for (CalendarEvent e : events) startById.put(e.getId(), e.getStartTime());
+        return startById;
+    }
+
+    private static CalendarEvent event(LocalDateTime start) {
+        CalendarEvent e = new CalendarEvent();
+        e.setId(UUID.randomUUID());
+        e.setTitle("Trénink");
+        e.setStartTime(start);
+        e.setEndTime(start.plusHours(1));
+        return e;
+    }
+}
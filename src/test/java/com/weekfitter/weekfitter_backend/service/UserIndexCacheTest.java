@@ -0,0 +1,90 @@
+package com.weekfitter.weekfitter_backend.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit testy cache inkrementálních indexů – změna se promítne až po commitu
+ * a index sestavený souběžně se změnou ji nedostane podruhé.
+ */
+class UserIndexCacheTest {
+
+    private final UUID userId = UUID.randomUUID();
+    private final AtomicInteger database = new AtomicInteger();
+    private final AtomicInteger builds = new AtomicInteger();
+    private UserIndexCache<Integer> cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserIndexCache<>(Caffeine.newBuilder(), null, new SimpleMeterRegistry(), "test");
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private int index() {
+        return cache.get(userId, id -> {
+            builds.incrementAndGet();
+            return database.get();
+        });
+    }
+
+    private void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+    }
+
+    @Test
+    void appliesChangeAfterCommit() {
+        assertThat(index()).isZero();
+
+        database.incrementAndGet();
+        cache.update(userId, v -> v + 1);
+        assertThat(index()).isZero();
+
+        commit();
+        assertThat(index()).isEqualTo(1);
+        assertThat(builds).hasValue(1);
+    }
+
+    /** Index sestavený po zápisu, ale před promítnutím rozdílu, už změnu obsahuje. */
+    @Test
+    void indexBuiltAfterChangeIsRebuiltInsteadOfCountedTwice() {
+        database.incrementAndGet();
+        cache.update(userId, v -> v + 1);
+        assertThat(index()).isEqualTo(1);
+
+        commit();
+        assertThat(index()).isEqualTo(1);
+        assertThat(builds).hasValue(2);
+    }
+
+    @Test
+    void dropsIndexOnChangeOutsideTransaction() {
+        TransactionSynchronizationManager.clearSynchronization();
+        assertThat(index()).isZero();
+
+        database.incrementAndGet();
+        cache.update(userId, v -> v + 1);
+        assertThat(index()).isEqualTo(1);
+        assertThat(builds).hasValue(2);
+
+        TransactionSynchronizationManager.initSynchronization();
+    }
+}
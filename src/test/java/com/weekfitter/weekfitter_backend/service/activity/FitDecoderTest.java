@@ -0,0 +1,220 @@
+package com.weekfitter.weekfitter_backend.service.activity;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit testy dekodéru FIT nad uměle sestavenými soubory – definice
+ * a data, komprimovaný čas, vývojářská pole, pořadí bajtů, CRC.
+ */
+class FitDecoderTest {
+
+    /** 2025-03-01T07:00:00Z v čase FIT. */
+    private static final long START = Instant.parse("2025-03-01T07:00:00Z").getEpochSecond() - FitDecoder.FIT_EPOCH;
+
+    @Test
+    void decodesRecordsAndSession() {
+        Fit fit = new Fit();
+        // record: timestamp, heart_rate, speed, distance, power
+        fit.definition(0, 20, false, 253, 4, 3, 1, 6, 2, 5, 4, 7, 2);
+        for (int i = 0; i < 3; i++) {
+            fit.header(0).u32(START + i * 5L).u8(140 + i).u16(2500).u32(i * 1250L).u16(i == 1 ? 0xFFFF : 200);
+        }
+        // session: start_time, sport, total_elapsed_time, total_timer_time, total_distance
+        fit.definition(1, 18, false, 2, 4, 5, 1, 7, 4, 8, 4, 9, 4);
+        fit.header(1).u32(START).u8(1).u32(12_000).u32(10_000).u32(2_600);
+
+        FitActivity a = FitDecoder.decode(fit.build(true));
+
+        assertThat(a.getCount()).isEqualTo(3);
+        assertThat(a.getTime()).containsExactly(0, 5, 10);
+        assertThat(a.getHeartRate()).containsExactly(140, 141, 142);
+        assertThat(a.getSpeed()).containsExactly(2.5f, 2.5f, 2.5f);
+        assertThat(a.getDistance()).containsExactly(0f, 12.5f, 25f);
+        assertThat(a.getPower()).containsExactly(200, -1, 200);
+
+        assertThat(a.getStartTime()).isEqualTo(Instant.parse("2025-03-01T07:00:00Z"));
+        assertThat(a.getSport()).isEqualTo("running");
+        assertThat(a.getDistanceMeters()).isEqualTo(26.0);
+        assertThat(a.getDurationSeconds()).isEqualTo(10);
+    }
+
+    /**
+     * Komprimovaná hlavička času (posun v 5 bitech, přetečení přes 32 s),
+     * big-endian definice a vývojářská pole, která se přeskočí.
+     */
+    @Test
+    void handlesCompressedTimestampsDeveloperFieldsAndBigEndian() {
+        Fit fit = new Fit();
+        fit.definition(0, 20, true, 253, 4, 3, 1);
+        fit.header(0).u32be(START).u8(120);
+
+        // record bez času (jen tep) + 2 bajty vývojářského pole
+        fit.definitionWithDeveloperField(1, 20, 3, 1, 2);
+        long[] times = {START + 3, START + 31, START + 40};
+        for (long t : times) {
+            fit.compressed(1, (int) (t & 0x1F)).u8(130).u16(0xBEEF);
+        }
+
+        FitActivity a = FitDecoder.decode(fit.build(true));
+
+        assertThat(a.getTime()).containsExactly(0, 3, 31, 40);
+        assertThat(a.getHeartRate()).containsExactly(120, 130, 130, 130);
+        assertThat(a.getSpeed()[1]).isNaN();
+        // bez session: délka z časů záznamů
+        assertThat(a.getDurationSeconds()).isEqualTo(40);
+        assertThat(a.getSport()).isNull();
+    }
+
+    @Test
+    void skipsOtherMessagesAndReadsChainedFiles() {
+        Fit first = new Fit();
+        first.definition(0, 0, false, 0, 1, 4, 4);  // file_id: type, time_created
+        first.header(0).u8(4).u32(START);
+        first.definition(1, 20, false, 253, 4, 5, 4);
+        first.header(1).u32(START).u32(0);
+
+        Fit second = new Fit();
+        second.definition(3, 20, false, 253, 4, 5, 4);
+        second.header(3).u32(START + 60).u32(30_000);
+
+        ByteBuffer a = first.build(true);
+        ByteBuffer b = second.build(true);
+        ByteBuffer chained = ByteBuffer.allocate(a.limit() + b.limit()).put(a).put(b).flip();
+
+        FitActivity activity = FitDecoder.decode(chained);
+
+        assertThat(activity.getTime()).containsExactly(0, 60);
+        assertThat(activity.getDistanceMeters()).isEqualTo(300.0);
+    }
+
+    @Test
+    void rejectsCorruptedAndForeignFiles() {
+        Fit fit = new Fit();
+        fit.definition(0, 20, false, 253, 4);
+        fit.header(0).u32(START);
+        ByteBuffer buf = fit.build(true);
+        buf.put(16, (byte) (buf.get(16) ^ 0x01));
+
+        assertThatThrownBy(() -> FitDecoder.decode(buf)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FitDecoder.decode(ByteBuffer.wrap("{\"json\": true}".getBytes())))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        Fit undefined = new Fit();
+        undefined.header(2).u32(START);
+        assertThatThrownBy(() -> FitDecoder.decode(undefined.build(false)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /** Useknutý nebo přepsaný soubor se buď přečte, nebo skončí IllegalArgumentException. */
+    @Test
+    void truncatedOrDamagedFileFailsOnlyWithIllegalArgument() {
+        Fit fit = new Fit();
+        fit.definitionWithDeveloperField(0, 20, 253, 4, 3);
+        for (int i = 0; i < 20; i++) fit.header(0).u32(START + i).u8(1).u8(2).u8(3);
+        fit.definition(1, 18, true, 2, 4, 9, 4);
+        fit.header(1).u32be(START).u32be(12_345);
+        ByteBuffer valid = fit.build(false);
+
+        for (int length = 0; length <= valid.limit(); length++) {
+            for (int damaged = -1; damaged < length; damaged++) {
+                ByteBuffer buf = ByteBuffer.allocate(length);
+                buf.put(valid.duplicate().limit(length)).flip();
+                if (damaged >= 0) buf.put(damaged, (byte) 0xFF);
+
+                try {
+                    FitDecoder.decode(buf);
+                } catch (IllegalArgumentException expected) {
+                    // neplatný soubor
+                }
+            }
+        }
+    }
+
+    /** Vícehodinová aktivita (~10 MB záznamů) – sloupce rostou, záznamy se nepřeskakují. */
+    @Test
+    void decodesLargeFile() {
+        Fit fit = new Fit();
+        fit.definition(0, 20, false, 253, 4, 3, 1, 6, 2, 5, 4, 7, 2);
+        int n = 800_000;
+        for (int i = 0; i < n; i++) {
+            fit.header(0).u32(START + i).u8(150).u16(3000).u32(i * 300L).u16(250);
+        }
+        ByteBuffer buf = fit.build(true);
+        assertThat(buf.limit()).isGreaterThan(10_000_000);
+
+        FitActivity a = FitDecoder.decode(buf);
+
+        assertThat(a.getCount()).isEqualTo(n);
+        assertThat(a.getTime()[n - 1]).isEqualTo(n - 1);
+        assertThat(a.getDistanceMeters()).isEqualTo((n - 1) * 3.0);
+    }
+
+    /** Sestavení souboru FIT pro testy. */
+    private static final class Fit {
+        private final ByteArrayOutputStream data = new ByteArrayOutputStream();
+
+        /** Definice: dvojice (číslo pole, velikost). */
+        Fit definition(int local, int global, boolean bigEndian, int... fields) {
+            u8(0x40 | local).u8(0).u8(bigEndian ? 1 : 0);
+            if (bigEndian) u16be(global);
+            else u16(global);
+            u8(fields.length / 2);
+            for (int i = 0; i < fields.length; i += 2) u8(fields[i]).u8(fields[i + 1]).u8(0);
+            return this;
+        }
+
+        /** Definice s jedním vývojářským polem zadané velikosti. */
+        Fit definitionWithDeveloperField(int local, int global, int field, int size, int devSize) {
+            u8(0x60 | local).u8(0).u8(0).u16(global).u8(1).u8(field).u8(size).u8(0);
+            return u8(1).u8(0).u8(devSize).u8(0);
+        }
+
+        Fit header(int local) {
+            return u8(local);
+        }
+
+        Fit compressed(int local, int offset) {
+            return u8(0x80 | (local << 5) | offset);
+        }
+
+        Fit u8(int v) {
+            data.write(v);
+            return this;
+        }
+
+        Fit u16(int v) {
+            return u8(v & 0xFF).u8((v >> 8) & 0xFF);
+        }
+
+        Fit u16be(int v) {
+            return u8((v >> 8) & 0xFF).u8(v & 0xFF);
+        }
+
+        Fit u32(long v) {
+            return u16((int) (v & 0xFFFF)).u16((int) ((v >> 16) & 0xFFFF));
+        }
+
+        Fit u32be(long v) {
+            return u16be((int) ((v >> 16) & 0xFFFF)).u16be((int) (v & 0xFFFF));
+        }
+
+        ByteBuffer build(boolean withCrc) {
+            byte[] body = data.toByteArray();
+            ByteBuffer buf = ByteBuffer.allocate(14 + body.length + 2);
+            buf.put((byte) 14).put((byte) 0x20).put((byte) 0x08).put((byte) 0x08);
+            buf.put((byte) body.length).put((byte) (body.length >> 8)).put((byte) (body.length >> 16)).put((byte) (body.length >> 24));
+            buf.put(".FIT".getBytes()).put((byte) 0).put((byte) 0);
+            buf.put(body);
+            int crc = withCrc ? FitDecoder.crc(buf, 0, 14 + body.length) : 0;
+            buf.put((byte) crc).put((byte) (crc >> 8));
+            return buf.flip();
+        }
+    }
+}
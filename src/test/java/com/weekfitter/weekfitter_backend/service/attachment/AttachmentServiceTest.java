@@ -0,0 +1,157 @@
+package com.weekfitter.weekfitter_backend.service.attachment;
+
+import com.weekfitter.weekfitter_backend.repository.CalendarEventRepository;
+import com.weekfitter.weekfitter_backend.service.UploadStorage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit testy příloh – uložení nahraného souboru, výběr rozsahu podle
+ * Range/If-Range, zápis části souboru a mazání nepoužívaných příloh
+ * (jen v adresáři vlastníka).
+ */
+class AttachmentServiceTest {
+
+    private static final UUID OWNER = UUID.randomUUID();
+
+    @TempDir
+    Path uploads;
+
+    private final CalendarEventRepository repository = mock(CalendarEventRepository.class);
+
+    private AttachmentService service() {
+        return new AttachmentService(new UploadStorage(uploads.toString()), repository);
+    }
+
+    @Test
+    void storesUploadUnderOwnerAndEventDirectory() throws IOException {
+        UUID eventId = UUID.randomUUID();
+        AttachmentService service = service();
+
+        String filePath = service.store(OWNER, eventId, new MockMultipartFile("file", "../Běh 10 km.gpx", "application/gpx+xml", "<gpx/>".getBytes()));
+
+        assertThat(filePath).startsWith(uploads.getFileName() + "/attachments/" + OWNER + "/" + eventId + "/").endsWith("/Beh 10 km.gpx");
+        AttachmentFile file = service.file(OWNER, filePath).orElseThrow();
+        assertThat(file.getPath()).startsWith(uploads.resolve("attachments").resolve(OWNER.toString()));
+        assertThat(Files.readString(file.getPath())).isEqualTo("<gpx/>");
+        assertThat(file.getSize()).isEqualTo(6);
+        assertThat(file.getEtag()).matches("\"[0-9a-f]+-[0-9a-f]+\"");
+
+        // příloha jiného uživatele se nestáhne
+        assertThat(service.file(UUID.randomUUID(), filePath)).isEmpty();
+        assertThat(service.file(null, filePath)).isEmpty();
+
+        assertThatThrownBy(() -> service.store(OWNER, eventId, new MockMultipartFile("file", "x.gpx", null, new byte[0])))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void sanitizesFileNames() {
+        assertThat(AttachmentService.fileName("C:\\Users\\a\\trasa.gpx")).isEqualTo("trasa.gpx");
+        assertThat(AttachmentService.fileName("..")).isEqualTo("attachment");
+        assertThat(AttachmentService.fileName(".bashrc")).isEqualTo("bashrc");
+        assertThat(AttachmentService.fileName("a<b>:c?.fit")).isEqualTo("a_b__c_.fit");
+        assertThat(AttachmentService.fileName("Plavání – 2×400.fit")).isEqualTo("Plavani _ 2_400.fit");
+        assertThat(AttachmentService.fileName(null)).isEqualTo("attachment");
+        String longName = AttachmentService.fileName("x".repeat(300) + ".json");
+        assertThat(longName).hasSize(100).endsWith(".json");
+    }
+
+    @Test
+    void selectsSingleRange() throws IOException {
+        AttachmentFile file = file(1000);
+
+        assertRange(AttachmentService.range(null, null, file), 0, 999, false);
+        assertRange(AttachmentService.range("bytes=100-199", null, file), 100, 199, true);
+        assertRange(AttachmentService.range("bytes=900-", null, file), 900, 999, true);
+        assertRange(AttachmentService.range("bytes=-100", null, file), 900, 999, true);
+        assertRange(AttachmentService.range("bytes=990-5000", null, file), 990, 999, true);
+        // If-Range: shoda ETagu → rozsah, jinak celý soubor
+        assertRange(AttachmentService.range("bytes=0-9", file.getEtag(), file), 0, 9, true);
+        assertRange(AttachmentService.range("bytes=0-9", "\"jiny\"", file), 0, 999, false);
+        // neplatná hlavička a více rozsahů → celý soubor
+        assertRange(AttachmentService.range("items=0-9", null, file), 0, 999, false);
+        assertRange(AttachmentService.range("bytes=0-9,20-29", null, file), 0, 999, false);
+        // za koncem souboru → 416
+        assertThat(AttachmentService.range("bytes=1000-", null, file)).isNull();
+    }
+
+    @Test
+    void transfersRequestedPart() throws IOException {
+        AttachmentFile file = file(200_000);
+        byte[] content = Files.readAllBytes(file.getPath());
+        AttachmentService.Range range = AttachmentService.range("bytes=1000-150999", null, file);
+
+        // bez sendfile – zápis přes FileChannel.transferTo
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        service().transfer(file, range, new MockHttpServletRequest(), response);
+        byte[] body = response.getContentAsByteArray();
+        assertThat(body).hasSize(150_000);
+        assertThat(body[0]).isEqualTo(content[1000]);
+        assertThat(body[149_999]).isEqualTo(content[150_999]);
+
+        // Tomcat se sendfile – soubor se předá kontejneru, do odpovědi se nic nezapisuje
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        MockHttpServletResponse sendfile = new MockHttpServletResponse();
+        service().transfer(file, range, request, sendfile);
+        assertThat(sendfile.getContentAsByteArray()).isEmpty();
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.filename")).isEqualTo(file.getPath().toString());
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(1000L);
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(151_000L);
+    }
+
+    @Test
+    void releasesOnlyUnreferencedUploadsOfOwner() throws IOException {
+        UUID eventId = UUID.randomUUID();
+        AttachmentService service = service();
+        String shared = service.store(OWNER, eventId, new MockMultipartFile("file", "a.fit", null, new byte[]{1}));
+        String unused = service.store(OWNER, eventId, new MockMultipartFile("file", "b.fit", null, new byte[]{2}));
+        Path legacy = Files.writeString(uploads.resolve("legacy.json"), "{}");
+        when(repository.existsByUserIdAndFilePath(OWNER, shared)).thenReturn(true);
+
+        service.release(OWNER, shared);
+        service.release(OWNER, unused);
+        service.release(OWNER, uploads.getFileName() + "/legacy.json");
+
+        assertThat(service.file(OWNER, shared)).isPresent();
+        assertThat(service.file(OWNER, unused)).isEmpty();
+        assertThat(legacy).exists();
+
+        // cizí uživatel přílohu nesmaže, ani když na ni sám neodkazuje
+        when(repository.existsByUserIdAndFilePath(OWNER, shared)).thenReturn(false);
+        service.release(UUID.randomUUID(), shared);
+        assertThat(service.file(OWNER, shared)).isPresent();
+
+        // odkaz se hledá v jednotném zápisu cesty
+        service.release(OWNER, shared.substring(uploads.getFileName().toString().length() + 1));
+        assertThat(uploads.resolve("attachments").resolve(OWNER.toString()).resolve(eventId.toString())).doesNotExist();
+        verify(repository, never()).existsByUserIdAndFilePath(any(), eq(shared.substring(uploads.getFileName().toString().length() + 1)));
+    }
+
+    private AttachmentFile file(int size) throws IOException {
+        byte[] content = new byte[size];
+        for (int i = 0; i < size; i++) content[i] = (byte) (i * 31);
+        Files.write(uploads.resolve("data.bin"), content);
+        return service().file(OWNER, "data.bin").orElseThrow();
+    }
+
+    private static void assertRange(AttachmentService.Range range, long start, long end, boolean partial) {
+        assertThat(range).isNotNull();
+        assertThat(range.getStart()).isEqualTo(start);
+        assertThat(range.getEnd()).isEqualTo(end);
+        assertThat(range.isPartial()).isEqualTo(partial);
+    }
+}
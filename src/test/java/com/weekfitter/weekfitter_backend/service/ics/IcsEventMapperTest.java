@@ -0,0 +1,107 @@
+package com.weekfitter.weekfitter_backend.service.ics;
+
+import com.weekfitter.weekfitter_backend.model.CalendarEvent;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit testy převodu VEVENT na událost – časové zóny, celodenní události,
+ * opakování, upozornění a přeskakované události.
+ */
+class IcsEventMapperTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @Test
+    void utcAndZonedTimesAreConvertedToAppZone() throws IOException {
+        IcsEventMapper.Mapped m = map(
+                "SUMMARY:Běh\\, lehký",
+                "DTSTART:20250310T170000Z",
+                "DTEND;TZID=America/New_York:20250310T140000");
+
+        CalendarEvent e = m.event();
+        assertThat(e.getTitle()).isEqualTo("Běh, lehký");
+        assertThat(e.getStartTime()).isEqualTo(LocalDateTime.of(2025, 3, 10, 18, 0));
+        // New York je 10. 3. už na letním čase (UTC-4), Praha ještě ne (UTC+1)
+        assertThat(e.getEndTime()).isEqualTo(LocalDateTime.of(2025, 3, 10, 19, 0));
+        assertThat(e.getDuration()).isEqualTo(60.0);
+    }
+
+    @Test
+    void dateValuesMakeAllDayEvent() throws IOException {
+        CalendarEvent e = map("SUMMARY:Závod", "DTSTART;VALUE=DATE:20250601").event();
+
+        assertThat(e.isAllDay()).isTrue();
+        assertThat(e.getStartTime()).isEqualTo(LocalDateTime.of(2025, 6, 1, 0, 0));
+        assertThat(e.getEndTime()).isEqualTo(LocalDateTime.of(2025, 6, 2, 0, 0));
+    }
+
+    @Test
+    void supportedRuleIsKeptWithLocalUntilAndExceptions() throws IOException {
+        IcsEventMapper.Mapped m = map(
+                "SUMMARY:Plavání",
+                "DTSTART;TZID=Europe/Prague:20250106T070000",
+                "DURATION:PT45M",
+                "RRULE:FREQ=WEEKLY;BYDAY=MO,WE;UNTIL=20250630T050000Z",
+                "EXDATE;TZID=Europe/Prague:20250113T070000,20250115T070000");
+
+        CalendarEvent e = m.event();
+        assertThat(m.simplified()).isFalse();
+        assertThat(e.getEndTime()).isEqualTo(LocalDateTime.of(2025, 1, 6, 7, 45));
+        assertThat(e.getRecurrenceRule()).isEqualTo("FREQ=WEEKLY;BYDAY=MO,WE;UNTIL=20250630T070000");
+        assertThat(e.getRecurrenceExceptions()).isEqualTo("2025-01-13,2025-01-15");
+    }
+
+    @Test
+    void unsupportedRuleKeepsFirstOccurrence() throws IOException {
+        IcsEventMapper.Mapped m = map("SUMMARY:Měsíční", "DTSTART:20250106T070000", "RRULE:FREQ=MONTHLY;BYDAY=1MO");
+
+        assertThat(m.simplified()).isTrue();
+        assertThat(m.event().getRecurrenceRule()).isNull();
+    }
+
+    @Test
+    void alarmsBecomeOffsetsExceptPastOnes() throws IOException {
+        IcsEventMapper.Mapped future = map(
+                "SUMMARY:Trénink",
+                "DTSTART:20250310T180000",
+                "BEGIN:VALARM", "TRIGGER:-PT30M", "END:VALARM",
+                "BEGIN:VALARM", "TRIGGER;RELATED=START:-P1D", "END:VALARM",
+                "BEGIN:VALARM", "TRIGGER:PT5M", "END:VALARM",
+                "BEGIN:VALARM", "TRIGGER;VALUE=DATE-TIME:20250310T170000Z", "END:VALARM");
+        assertThat(future.offsets()).containsExactly(30, 1440);
+
+        IcsEventMapper.Mapped past = map(
+                "SUMMARY:Loni",
+                "DTSTART:20240310T180000",
+                "BEGIN:VALARM", "TRIGGER:-PT30M", "END:VALARM");
+        assertThat(past.offsets()).isEmpty();
+    }
+
+    @Test
+    void cancelledEventsAndOverriddenOccurrencesAreSkipped() throws IOException {
+        assertThat(map("SUMMARY:Zrušeno", "DTSTART:20250310T180000", "STATUS:CANCELLED")).isNull();
+        assertThat(map("SUMMARY:Přesunuto", "DTSTART:20250311T180000", "RECURRENCE-ID:20250310T180000")).isNull();
+        assertThat(map("SUMMARY:Bez začátku")).isNull();
+    }
+
+    @Test
+    void longTextIsTruncatedAndMissingTitleReplaced() throws IOException {
+        CalendarEvent e = map("DTSTART:20250310T180000", "DESCRIPTION:" + "a".repeat(1000)).event();
+
+        assertThat(e.getTitle()).isEqualTo("(bez názvu)");
+        assertThat(e.getDescription()).hasSize(IcsEventMapper.MAX_TEXT);
+    }
+
+    private static IcsEventMapper.Mapped map(String... lines) throws IOException {
+        String ics = "BEGIN:VEVENT\r\n" + String.join("\r\n", lines) + "\r\nEND:VEVENT\r\n";
+        try (IcsReader reader = new IcsReader(new StringReader(ics))) {
+            return IcsEventMapper.map(reader.nextEvent(), NOW);
+        }
+    }
+}
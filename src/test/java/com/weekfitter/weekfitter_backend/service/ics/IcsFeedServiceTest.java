@@ -0,0 +1,134 @@
+package com.weekfitter.weekfitter_backend.service.ics;
+
+import com.weekfitter.weekfitter_backend.dto.FeedOwnerRow;
+import com.weekfitter.weekfitter_backend.model.User;
+import com.weekfitter.weekfitter_backend.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit testy cache odběru kalendáře – opakované dotazy bez změny verze
+ * nesmí renderovat, změna verze musí, neplatný token nesmí jít do databáze.
+ */
+class IcsFeedServiceTest {
+
+    private static final String TOKEN = "a".repeat(43);
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final IcsExportService exportService = mock(IcsExportService.class);
+
+    @Test
+    void unchangedVersionIsServedWithoutRendering() throws Exception {
+        IcsFeedService service = service(Duration.ZERO);
+        when(userRepository.findFeedOwnerByToken(TOKEN)).thenReturn(Optional.of(new FeedOwnerRow(USER_ID, 5)));
+
+        IcsFeedService.Feed first = service.find(TOKEN).orElseThrow();
+        IcsFeedService.Feed second = service.find(TOKEN).orElseThrow();
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.etag(false)).isEqualTo("\"feed-5\"");
+        assertThat(first.etag(true)).isEqualTo("\"feed-5-gz\"");
+        verify(exportService, times(1)).export(eq(USER_ID), any(OutputStream.class));
+    }
+
+    @Test
+    void changedVersionRendersAgain() throws Exception {
+        IcsFeedService service = service(Duration.ZERO);
+        when(userRepository.findFeedOwnerByToken(TOKEN))
+                .thenReturn(Optional.of(new FeedOwnerRow(USER_ID, 5)))
+                .thenReturn(Optional.of(new FeedOwnerRow(USER_ID, 6)));
+
+        service.find(TOKEN);
+        IcsFeedService.Feed updated = service.find(TOKEN).orElseThrow();
+
+        assertThat(updated.etag(false)).isEqualTo("\"feed-6\"");
+        verify(exportService, times(2)).export(eq(USER_ID), any(OutputStream.class));
+    }
+
+    @Test
+    void freshFeedSkipsDatabase() {
+        IcsFeedService service = service(Duration.ofMinutes(1));
+        when(userRepository.findFeedOwnerByToken(TOKEN)).thenReturn(Optional.of(new FeedOwnerRow(USER_ID, 1)));
+
+        service.find(TOKEN);
+        service.find(TOKEN);
+        service.find(TOKEN);
+
+        verify(userRepository, times(1)).findFeedOwnerByToken(TOKEN);
+    }
+
+    @Test
+    void malformedTokenIsRejectedWithoutQuery() {
+        IcsFeedService service = service(Duration.ZERO);
+
+        assertThat(service.find("short")).isEmpty();
+        assertThat(service.find(null)).isEmpty();
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void revokedTokenStopsServing() {
+        IcsFeedService service = service(Duration.ofMinutes(1));
+        when(userRepository.findFeedOwnerByToken(TOKEN)).thenReturn(Optional.of(new FeedOwnerRow(USER_ID, 1)));
+        service.find(TOKEN);
+
+        User user = User.builder().id(USER_ID).feedToken(TOKEN).build();
+        service.revokeToken(user);
+        when(userRepository.findFeedOwnerByToken(TOKEN)).thenReturn(Optional.empty());
+
+        assertThat(user.getFeedToken()).isNull();
+        assertThat(service.find(TOKEN)).isEmpty();
+    }
+
+    /**
+     * Render neběží pod zámkem cache – feed jiného tokenu se obslouží,
+     * zatímco první render stojí, a souběžný požadavek na stejný token
+     * počká na rozpracovaný render místo druhého.
+     */
+    @Test
+    void renderRunsOutsideCacheLockAndOncePerToken() throws Exception {
+        IcsFeedService service = service(Duration.ZERO);
+        String otherToken = "b".repeat(43);
+        UUID otherUser = UUID.randomUUID();
+        when(userRepository.findFeedOwnerByToken(TOKEN)).thenReturn(Optional.of(new FeedOwnerRow(USER_ID, 1)));
+        when(userRepository.findFeedOwnerByToken(otherToken)).thenReturn(Optional.of(new FeedOwnerRow(otherUser, 1)));
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(inv -> {
+            started.countDown();
+            assertThat(release.await(5, TimeUnit.SECONDS)).isTrue();
+            return null;
+        }).when(exportService).export(eq(USER_ID), any(OutputStream.class));
+
+        CompletableFuture<IcsFeedService.Feed> first = CompletableFuture.supplyAsync(() -> service.find(TOKEN).orElseThrow());
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<IcsFeedService.Feed> second = CompletableFuture.supplyAsync(() -> service.find(TOKEN).orElseThrow());
+
+        assertThat(service.find(otherToken)).isPresent();
+        assertThat(second).isNotDone();
+
+        release.countDown();
+        assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(first.get(5, TimeUnit.SECONDS));
+        verify(exportService, times(1)).export(eq(USER_ID), any(OutputStream.class));
+    }
+
+    private IcsFeedService service(Duration recheck) {
+        return new IcsFeedService(userRepository, exportService, new SimpleMeterRegistry(),
+                1 << 20, Duration.ofHours(1), recheck);
+    }
+}
@@ -0,0 +1,83 @@
+package com.weekfitter.weekfitter_backend.service.ics;
+
+import com.weekfitter.weekfitter_backend.dto.ImportJobResponse;
+import com.weekfitter.weekfitter_backend.model.User;
+import com.weekfitter.weekfitter_backend.service.CalendarEventService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit testy úloh importu – rozběhnutá úloha nesmí expirovat ani po
+ * status-ttl, jinak by šel spustit druhý import téhož uživatele.
+ */
+class IcsImportServiceTest {
+
+    private static final String ICS = String.join("\r\n",
+            "BEGIN:VCALENDAR",
+            "BEGIN:VEVENT",
+            "SUMMARY:Běh",
+            "DTSTART:20250310T170000Z",
+            "END:VEVENT",
+            "END:VCALENDAR", "");
+
+    private final CalendarEventService calendarEventService = mock(CalendarEventService.class);
+    private final User user = User.builder().id(UUID.randomUUID()).build();
+    private IcsImportService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) service.shutdown();
+    }
+
+    @Test
+    void runningJobOutlivesStatusTtlAndBlocksSecondImport() throws Exception {
+        CountDownLatch saving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(calendarEventService.createEventsBulk(any(), anyList(), anyList())).thenAnswer(inv -> {
+            saving.countDown();
+            assertThat(release.await(5, TimeUnit.SECONDS)).isTrue();
+            return List.of(UUID.randomUUID());
+        });
+        service = new IcsImportService(calendarEventService, 500, 1, 4, Duration.ofMillis(1));
+
+        ImportJobResponse job = service.start(user, file());
+        assertThat(saving.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(20);
+
+        assertThat(service.status(user, job.getId()).getStatus()).isEqualTo("RUNNING");
+        assertThatThrownBy(() -> service.start(user, file()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("už probíhá");
+        assertThat(service.status(User.builder().id(UUID.randomUUID()).build(), job.getId())).isNull();
+
+        release.countDown();
+        ImportJobResponse next = null;
+        for (long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5); next == null && System.nanoTime() < deadline; ) {
+            try {
+                next = service.start(user, file());
+            } catch (IllegalStateException e) {
+                Thread.sleep(5);
+            }
+        }
+        assertThat(next).isNotNull();
+        assertThat(next.getId()).isNotEqualTo(job.getId());
+    }
+
+    private static MockMultipartFile file() {
+        return new MockMultipartFile("file", "calendar.ics", "text/calendar", ICS.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,82 @@
+package com.weekfitter.weekfitter_backend.service.ics;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit testy proudového čtení iCalendar – rozbalení zalomených řádků,
+ * parametry v uvozovkách, přeskočení jiných komponent a oříznutí
+ * neúměrně dlouhých řádků.
+ */
+class IcsReaderTest {
+
+    @Test
+    void readsEventsOneByOneSkippingOtherComponents() throws IOException {
+        String ics = String.join("\r\n",
+                "BEGIN:VCALENDAR",
+                "BEGIN:VTIMEZONE",
+                "TZID:Europe/Prague",
+                "BEGIN:STANDARD",
+                "DTSTART:19701025T030000",
+                "END:STANDARD",
+                "END:VTIMEZONE",
+                "BEGIN:VEVENT",
+                "SUMMARY:První",
+                "BEGIN:VALARM",
+                "TRIGGER:-PT15M",
+                "END:VALARM",
+                "END:VEVENT",
+                "BEGIN:VTODO",
+                "SUMMARY:Úkol",
+                "END:VTODO",
+                "BEGIN:VEVENT",
+                "SUMMARY:Druhá",
+                "END:VEVENT",
+                "END:VCALENDAR", "");
+
+        try (IcsReader reader = new IcsReader(new StringReader(ics))) {
+            IcsReader.Component first = reader.nextEvent();
+            assertThat(first.first("SUMMARY").value()).isEqualTo("První");
+            assertThat(first.children()).hasSize(1);
+            assertThat(first.children().get(0).first("TRIGGER").value()).isEqualTo("-PT15M");
+
+            assertThat(reader.nextEvent().first("SUMMARY").value()).isEqualTo("Druhá");
+            assertThat(reader.nextEvent()).isNull();
+        }
+    }
+
+    @Test
+    void foldedLinesAreUnfolded() throws IOException {
+        String ics = "BEGIN:VEVENT\r\nDESCRIPTION:Dlouhý \r\n popis\r\n\tna třech řádcích\r\nEND:VEVENT\r\n";
+
+        try (IcsReader reader = new IcsReader(new StringReader(ics))) {
+            assertThat(reader.nextEvent().first("DESCRIPTION").value()).isEqualTo("Dlouhý popisna třech řádcích");
+        }
+    }
+
+    @Test
+    void quotedParametersMayContainSeparators() {
+        IcsReader.Property p = IcsReader.parseProperty("DTSTART;X-LABEL=\"a:b;c\";TZID=Europe/Prague:20250310T180000");
+
+        assertThat(p.name()).isEqualTo("DTSTART");
+        assertThat(p.param("X-LABEL")).isEqualTo("a:b;c");
+        assertThat(p.param("TZID")).isEqualTo("Europe/Prague");
+        assertThat(p.value()).isEqualTo("20250310T180000");
+    }
+
+    @Test
+    void overlongLinesAreTruncated() throws IOException {
+        String huge = "x".repeat(IcsReader.MAX_LINE_CHARS * 3);
+        String ics = "BEGIN:VEVENT\nDESCRIPTION:" + huge + "\nSUMMARY:Po\nEND:VEVENT\n";
+
+        try (IcsReader reader = new IcsReader(new StringReader(ics))) {
+            IcsReader.Component event = reader.nextEvent();
+            assertThat(event.first("DESCRIPTION").value().length()).isLessThan(IcsReader.MAX_LINE_CHARS);
+            assertThat(event.first("SUMMARY").value()).isEqualTo("Po");
+        }
+    }
+}
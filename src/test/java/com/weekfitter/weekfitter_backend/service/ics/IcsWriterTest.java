@@ -0,0 +1,99 @@
+package com.weekfitter.weekfitter_backend.service.ics;
+
+import com.weekfitter.weekfitter_backend.dto.IcsEventRow;
+import com.weekfitter.weekfitter_backend.model.ActivityType;
+import com.weekfitter.weekfitter_backend.model.SportType;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit testy zápisu iCalendar – zalamování řádků, escapování, celodenní
+ * události, převod UNTIL a alarmy ze seskupených řádků notifikací.
+ */
+class IcsWriterTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 10, 18, 0);
+
+    @Test
+    void longLinesAreFoldedAt75OctetsWithoutSplittingCharacters() throws IOException {
+        String title = "Běh ".repeat(40);
+        String ics = write(row(UUID.randomUUID(), title, false, null), List.of());
+
+        for (String line : ics.split("\r\n")) {
+            assertThat(line.getBytes(StandardCharsets.UTF_8).length).isLessThanOrEqualTo(75);
+        }
+        String unfolded = ics.replace("\r\n ", "");
+        assertThat(unfolded).contains("SUMMARY:" + title + "\r\n");
+    }
+
+    @Test
+    void textIsEscaped() {
+        assertThat(IcsWriter.escape("a;b,c\\d\r\ne")).isEqualTo("a\\;b\\,c\\\\d\\ne");
+    }
+
+    @Test
+    void allDayEventUsesDateValuesWithExclusiveEnd() throws IOException {
+        IcsEventRow e = row(UUID.randomUUID(), "Závod", true, null);
+        e.setStartTime(START.toLocalDate().atStartOfDay());
+        e.setEndTime(START.toLocalDate().atTime(23, 59));
+
+        String ics = write(e, List.of());
+
+        assertThat(ics).contains("DTSTART;VALUE=DATE:20250310\r\n", "DTEND;VALUE=DATE:20250311\r\n");
+    }
+
+    @Test
+    void untilIsConvertedToUtc() {
+        // 1. 7. 2025 (letní čas, UTC+2) a 1. 1. 2025 (zimní čas, UTC+1)
+        assertThat(IcsWriter.rrule("FREQ=WEEKLY;BYDAY=MO;UNTIL=20250701T180000", false))
+                .isEqualTo("FREQ=WEEKLY;BYDAY=MO;UNTIL=20250701T160000Z");
+        assertThat(IcsWriter.rrule("FREQ=DAILY;UNTIL=20250101T180000", false))
+                .isEqualTo("FREQ=DAILY;UNTIL=20250101T170000Z");
+        assertThat(IcsWriter.rrule("FREQ=DAILY;UNTIL=20250101T180000", true))
+                .isEqualTo("FREQ=DAILY;UNTIL=20250101");
+        assertThat(IcsWriter.rrule("FREQ=DAILY;COUNT=5", false)).isEqualTo("FREQ=DAILY;COUNT=5");
+    }
+
+    @Test
+    void rowsOfOneEventAreGroupedIntoOneEventWithAlarms() throws IOException {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        IcsEventRow a1 = row(first, "Intervaly", false, START.minusMinutes(30));
+        IcsEventRow a2 = row(first, "Intervaly", false, START.minusMinutes(60));
+        IcsEventRow b = row(second, "Plavání", false, null);
+
+        StringWriter out = new StringWriter();
+        IcsWriter ics = new IcsWriter(out);
+        IcsExportService.writeEvents(Arrays.asList(a1, a2, b).iterator(), ics);
+        String text = out.toString();
+
+        assertThat(text.split("BEGIN:VEVENT", -1)).hasSize(3);
+        assertThat(text.split("BEGIN:VALARM", -1)).hasSize(3);
+        assertThat(text.indexOf("TRIGGER:-PT30M")).isLessThan(text.indexOf("TRIGGER:-PT60M"));
+        assertThat(text).contains("UID:" + first + "@weekfitter", "UID:" + second + "@weekfitter",
+                "DTSTART;TZID=Europe/Prague:20250310T180000", "DESCRIPTION:Sport: RUNNING\\, 10.0 km");
+    }
+
+    private static String write(IcsEventRow e, List<Integer> offsets) throws IOException {
+        StringWriter out = new StringWriter();
+        IcsWriter ics = new IcsWriter(out);
+        ics.begin("Test");
+        ics.event(e, offsets);
+        ics.end();
+        return out.toString();
+    }
+
+    private static IcsEventRow row(UUID id, String title, boolean allDay, LocalDateTime notifyAt) {
+        return new IcsEventRow(id, title, null, START, START.plusHours(1), allDay, ActivityType.SPORT,
+                SportType.RUNNING, 10.0, null, null, notifyAt, null);
+    }
+}
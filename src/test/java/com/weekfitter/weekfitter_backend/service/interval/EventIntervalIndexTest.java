@@ -0,0 +1,94 @@
+package com.weekfitter.weekfitter_backend.service.interval;
+
+import com.weekfitter.weekfitter_backend.dto.EventConflict;
+import com.weekfitter.weekfitter_backend.dto.EventInterval;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit testy indexu intervalů – dotazy na překryv porovnává s naivním
+ * průchodem všech událostí a ověřuje detekci kolizí.
+ */
+class EventIntervalIndexTest {
+
+    private static final LocalDateTime T = LocalDateTime.of(2025, 11, 3, 8, 0);
+
+    /** Index musí vracet stejné události jako průchod celého seznamu. */
+    @Test
+    void overlappingMatchesNaiveScan() {
+        Random random = new Random(42);
+        List<EventInterval> all = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            LocalDateTime start = T.plusMinutes(random.nextInt(60 * 24 * 365));
+            // Občas velmi dlouhá událost (soustředění, dovolená)
+            long length = random.nextInt(50) == 0 ? 60L * 24 * 10 : 15 + random.nextInt(180);
+            all.add(interval(start, start.plusMinutes(length), false));
+        }
+        EventIntervalIndex index = EventIntervalIndex.of(all);
+
+        for (int q = 0; q < 200; q++) {
+            LocalDateTime from = T.plusMinutes(random.nextInt(60 * 24 * 365));
+            LocalDateTime to = from.plusDays(1 + random.nextInt(7));
+
+            Set<UUID> expected = new HashSet<>();
+            for (EventInterval i : all) {
+                if (i.getStartTime().isBefore(to) && i.getEndTime().isAfter(from)) expected.add(i.getId());
+            }
+
+            assertThat(index.overlapping(from, to)).extracting(EventInterval::getId)
+                    .containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+
+    @Test
+    void findsConflictsAndIgnoresAllDayEvents() {
+        EventInterval run = interval(T, T.plusHours(1), false);
+        EventInterval gym = interval(T.plusMinutes(30), T.plusHours(2), false);
+        EventInterval swim = interval(T.plusHours(2), T.plusHours(3), false);
+        EventInterval rest = interval(T.withHour(0), T.withHour(0).plusDays(1), true);
+
+        List<EventConflict> conflicts = EventIntervalIndex.of(List.of(run, gym, swim, rest))
+                .conflicts(T.withHour(0), T.plusDays(1));
+
+        assertThat(conflicts).hasSize(1);
+        assertThat(conflicts.get(0).getEventId()).isEqualTo(run.getId());
+        assertThat(conflicts.get(0).getConflictingEventId()).isEqualTo(gym.getId());
+    }
+
+    /** Výskyty série se kontrolují jako samostatné intervaly. */
+    @Test
+    void seriesOccurrencesTakePartInConflicts() {
+        EventInterval weekly = new EventInterval(UUID.randomUUID(), T, T.plusHours(1), false,
+                "FREQ=WEEKLY", null);
+        EventInterval later = interval(T.plusWeeks(10).plusMinutes(30), T.plusWeeks(10).plusHours(2), false);
+        EventIntervalIndex index = EventIntervalIndex.of(List.of(weekly, later));
+
+        List<EventConflict> conflicts = index.conflictsWith(List.of(later), later.getId());
+        assertThat(conflicts).singleElement()
+                .satisfies(c -> assertThat(c.getConflictingStart()).isEqualTo(T.plusWeeks(10)));
+    }
+
+    @Test
+    void incrementalChangesKeepIndexSorted() {
+        EventInterval a = interval(T, T.plusHours(1), false);
+        EventInterval b = interval(T.plusHours(5), T.plusHours(6), false);
+        EventIntervalIndex index = EventIntervalIndex.of(List.of(a, b));
+
+        EventInterval moved = new EventInterval(a.getId(), T.plusHours(3), T.plusHours(4), false, null, null);
+        EventInterval c = interval(T.plusHours(2), T.plusHours(3), false);
+        index = index.with(moved).with(c).without(b.getId());
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.overlapping(T, T.plusDays(1))).extracting(EventInterval::getId)
+                .containsExactly(c.getId(), a.getId());
+        assertThat(index.overlapping(T, T.plusHours(1))).isEmpty();
+    }
+
+    private static EventInterval interval(LocalDateTime start, LocalDateTime end, boolean allDay) {
+        return new EventInterval(UUID.randomUUID(), start, end, allDay, null, null);
+    }
+}
@@ -0,0 +1,82 @@
+package com.weekfitter.weekfitter_backend.service.planner;
+
+import com.weekfitter.weekfitter_backend.dto.EventInterval;
+import com.weekfitter.weekfitter_backend.dto.FreeSlot;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit testy hledání volných úseků.
+ */
+class FreeSlotFinderTest {
+
+    /** Pondělí 3. 11. 2025. */
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2025, 11, 3, 0, 0);
+
+    private final FreeSlotFinder finder = new FreeSlotFinder(LocalTime.of(6, 0), LocalTime.of(21, 0), 15);
+
+    @Test
+    void findsGapsAroundEventsWithinWorkingWindow() {
+        List<EventInterval> busy = List.of(
+                interval(MONDAY.withHour(8), MONDAY.withHour(16), false),
+                interval(MONDAY.withHour(17), MONDAY.withHour(18), false));
+
+        List<FreeSlot> slots = finder.find(busy, MONDAY, MONDAY.plusDays(1), 60, 10);
+
+        // 6:00–7:45 a 18:15–21:00; mezera 16:15–16:45 je na 60 minut krátká
+        assertThat(slots).extracting(FreeSlot::getStart)
+                .containsExactly(MONDAY.withHour(6), MONDAY.withHour(18).withMinute(15));
+        assertThat(slots.get(0).getEnd()).isEqualTo(MONDAY.withHour(7).withMinute(45));
+        assertThat(slots.get(1).getEnd()).isEqualTo(MONDAY.withHour(21));
+    }
+
+    @Test
+    void allDayEventBlocksWholeDay() {
+        List<EventInterval> busy = List.of(interval(MONDAY.plusDays(1), MONDAY.plusDays(1).plusHours(1), true));
+
+        List<FreeSlot> slots = finder.find(busy, MONDAY, MONDAY.plusDays(3), 60, 10);
+
+        assertThat(slots).extracting(s -> s.getStart().toLocalDate())
+                .containsExactlyInAnyOrder(MONDAY.toLocalDate(), MONDAY.plusDays(2).toLocalDate());
+    }
+
+    /** Méně vytížené dny mají přednost, v rámci dne rozhoduje začátek. */
+    @Test
+    void ranksLessBusyDaysFirst() {
+        List<EventInterval> busy = List.of(
+                interval(MONDAY.withHour(9), MONDAY.withHour(12), false),
+                interval(MONDAY.plusDays(1).withHour(9), MONDAY.plusDays(1).withHour(10), false));
+
+        List<FreeSlot> slots = finder.find(busy, MONDAY, MONDAY.plusDays(3), 60, 3);
+
+        assertThat(slots).hasSize(3);
+        assertThat(slots.get(0).getStart()).isEqualTo(MONDAY.plusDays(2).withHour(6));
+        assertThat(slots.get(0).getDayBusyMinutes()).isZero();
+        assertThat(slots.get(1).getStart().toLocalDate()).isEqualTo(MONDAY.plusDays(1).toLocalDate());
+    }
+
+    @Test
+    void overlappingEventsAreMerged() {
+        List<EventInterval> busy = List.of(
+                interval(MONDAY.withHour(10), MONDAY.withHour(12), false),
+                interval(MONDAY.withHour(6), MONDAY.withHour(11), false),
+                interval(MONDAY.withHour(11), MONDAY.withHour(20), false));
+
+        List<FreeSlot> slots = finder.find(busy, MONDAY, MONDAY.plusDays(1), 30, 10);
+
+        assertThat(slots).singleElement().satisfies(s -> {
+            assertThat(s.getStart()).isEqualTo(MONDAY.withHour(20).withMinute(15));
+            assertThat(s.getDayBusyMinutes()).isEqualTo(14 * 60 + 15);
+        });
+    }
+
+    private static EventInterval interval(LocalDateTime start, LocalDateTime end, boolean allDay) {
+        return new EventInterval(UUID.randomUUID(), start, end, allDay, null, null);
+    }
+}
@@ -0,0 +1,135 @@
+package com.weekfitter.weekfitter_backend.service.planner;
+
+import com.weekfitter.weekfitter_backend.dto.EventInterval;
+import com.weekfitter.weekfitter_backend.dto.PlanWeekRequest;
+import com.weekfitter.weekfitter_backend.dto.PlanWeekRequest.Intensity;
+import com.weekfitter.weekfitter_backend.dto.PlanWeekRequest.TimeOfDay;
+import com.weekfitter.weekfitter_backend.dto.PlanWeekRequest.Workout;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.stream.IntStream;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit testy automatického plánovače tréninků.
+ */
+class WorkoutPlannerTest {
+
+    /** Pondělí 3. 11. 2025. */
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2025, 11, 3, 0, 0);
+
+    /** Limit uzlů prohledávání v testu přeplněného kalendáře. */
+    private static final long NODE_BUDGET = 20_000;
+
+    private final WorkoutPlanner planner =
+            new WorkoutPlanner(new FreeSlotFinder(LocalTime.of(6, 0), LocalTime.of(21, 0), 15));
+
+    @Test
+    void hardSessionsAreNotOnConsecutiveDays() {
+        PlanWeekRequest request = request(
+                workout(60, Intensity.HARD), workout(60, Intensity.HARD),
+                workout(60, Intensity.HARD), workout(45, Intensity.EASY));
+
+        WorkoutPlanner.Plan plan = planner.plan(List.of(), MONDAY, MONDAY.plusWeeks(1), request,
+                TimeUnit.MILLISECONDS.toNanos(50));
+
+        List<Long> hardDays = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            assertThat(plan.startOf(i)).isNotNull();
+            hardDays.add(plan.startOf(i).toLocalDate().toEpochDay());
+        }
+        Collections.sort(hardDays);
+        assertThat(hardDays.get(1) - hardDays.get(0)).isGreaterThan(1);
+        assertThat(hardDays.get(2) - hardDays.get(1)).isGreaterThan(1);
+        assertThat(plan.startOf(3)).isNotNull();
+        assertThat(plan.isOptimal()).isTrue();
+    }
+
+    @Test
+    void respectsExistingEventsAndPreferredTime() {
+        // Každé ráno obsazeno 6:00–9:00
+        List<EventInterval> busy = new ArrayList<>();
+        for (int d = 0; d < 7; d++) {
+            busy.add(interval(MONDAY.plusDays(d).withHour(6), MONDAY.plusDays(d).withHour(9)));
+        }
+        PlanWeekRequest request = request(workout(60, Intensity.EASY));
+        request.setPreferredTimeOfDay(TimeOfDay.MORNING);
+
+        WorkoutPlanner.Plan plan = planner.plan(busy, MONDAY, MONDAY.plusWeeks(1), request,
+                TimeUnit.MILLISECONDS.toNanos(50));
+
+        // Nejbližší možný začátek po 9:00 + rezerva 15 min, zarovnaný na 30 min
+        assertThat(plan.startOf(0).toLocalTime()).isEqualTo(LocalTime.of(9, 30));
+    }
+
+    @Test
+    void workoutThatDoesNotFitStaysUnplaced() {
+        PlanWeekRequest request = request(workout(60, Intensity.EASY), workout(60, Intensity.EASY));
+        request.setMaxPerDay(1);
+
+        // Volný je jen jeden den
+        List<EventInterval> busy = List.of(interval(MONDAY.plusDays(1), MONDAY.plusDays(7)));
+        WorkoutPlanner.Plan plan = planner.plan(busy, MONDAY, MONDAY.plusWeeks(1), request,
+                TimeUnit.MILLISECONDS.toNanos(50));
+
+        assertThat(Arrays.asList(plan.startOf(0), plan.startOf(1))).containsOnlyOnce((LocalDateTime) null);
+    }
+
+    /** Přeplněný kalendář a mnoho tréninků – hledání musí skončit v limitu. */
+    @Test
+    void crowdedCalendarStaysWithinBudget() {
+        Random random = new Random(3);
+        List<EventInterval> busy = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            LocalDateTime start = MONDAY.plusDays(random.nextInt(7)).plusMinutes(6 * 60 + 15L * random.nextInt(56));
+            busy.add(interval(start, start.plusMinutes(30 + 15L * random.nextInt(4))));
+        }
+        Workout[] workouts = new Workout[14];
+        for (int i = 0; i < workouts.length; i++) {
+            workouts[i] = workout(45 + 15 * (i % 3), i % 2 == 0 ? Intensity.HARD : Intensity.EASY);
+        }
+        PlanWeekRequest request = request(workouts);
+        request.setMaxPerDay(2);
+        request.setMinRestGapMinutes(60);
+
+        // časový limit prakticky neomezený – hledání zastaví jen limit uzlů
+        WorkoutPlanner.Plan plan = planner.plan(busy, MONDAY, MONDAY.plusWeeks(1), request,
+                TimeUnit.MINUTES.toNanos(1), NODE_BUDGET);
+        assertThat(plan.getNodes()).isEqualTo(NODE_BUDGET);
+        assertThat(plan.isOptimal()).isFalse();
+        // i přerušené hledání vrací nejlepší dosud nalezené řešení
+        long placed = IntStream.range(0, plan.size()).filter(i -> plan.startOf(i) != null).count();
+        assertThat(placed).isPositive();
+
+        // stejný kalendář s menším počtem tréninků se prohledá celý
+        PlanWeekRequest small = request(workouts[0], workouts[1], workouts[2]);
+        small.setMaxPerDay(2);
+        small.setMinRestGapMinutes(60);
+        WorkoutPlanner.Plan complete = planner.plan(busy, MONDAY, MONDAY.plusWeeks(1), small,
+                TimeUnit.MINUTES.toNanos(1), NODE_BUDGET);
+        assertThat(complete.isOptimal()).isTrue();
+        assertThat(complete.getNodes()).isLessThan(NODE_BUDGET);
+    }
+
+    private static PlanWeekRequest request(Workout... workouts) {
+        PlanWeekRequest r = new PlanWeekRequest();
+        r.setWorkouts(List.of(workouts));
+        return r;
+    }
+
+    private static Workout workout(int duration, Intensity intensity) {
+        Workout w = new Workout();
+        w.setDuration(duration);
+        w.setIntensity(intensity);
+        return w;
+    }
+
+    private static EventInterval interval(LocalDateTime start, LocalDateTime end) {
+        return new EventInterval(UUID.randomUUID(), start, end, false, null, null);
+    }
+}
@@ -0,0 +1,96 @@
+package com.weekfitter.weekfitter_backend.service.recurrence;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit testy pravidla opakování – parsování a rozbalení výskytů do okna.
+ */
+class RecurrenceRuleTest {
+
+    /** Pondělí 3. 11. 2025 v 18:00. */
+    private static final LocalDateTime START = LocalDateTime.of(2025, 11, 3, 18, 0);
+
+    @Test
+    void parsesAndNormalizesRule() {
+        RecurrenceRule rule = RecurrenceRule.parse("RRULE:freq=weekly;byday=TH,MO;interval=2;count=10");
+
+        assertThat(rule.toString()).isEqualTo("FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,TH;COUNT=10");
+        assertThat(rule.isFinite()).isTrue();
+    }
+
+    @Test
+    void rejectsUnsupportedRule() {
+        assertThatThrownBy(() -> RecurrenceRule.parse("FREQ=MONTHLY"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RecurrenceRule.parse("FREQ=DAILY;BYMONTH=1"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RecurrenceRule.parse("INTERVAL=2"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Týdenní série po/čt – do týdenního okna o rok později spadnou právě dva výskyty
+     * a jejich výpočet nezávisí na procházení předchozích týdnů.
+     */
+    @Test
+    void expandsWeeklyByDayInDistantWindow() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=MO,TH");
+        LocalDateTime from = LocalDateTime.of(2026, 11, 2, 0, 0);
+
+        List<LocalDateTime> occurrences = rule.occurrencesBetween(START, 60, from, from.plusWeeks(1), Set.of());
+
+        assertThat(occurrences).containsExactly(
+                LocalDateTime.of(2026, 11, 2, 18, 0),
+                LocalDateTime.of(2026, 11, 5, 18, 0));
+    }
+
+    /** COUNT se počítá od začátku série, výjimky se do něj započítávají. */
+    @Test
+    void respectsCountAndExceptions() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=DAILY;INTERVAL=2;COUNT=4");
+        Set<LocalDate> exceptions = Set.of(LocalDate.of(2025, 11, 5));
+
+        List<LocalDateTime> occurrences = rule.occurrencesBetween(
+                START, 60, START.minusDays(1), START.plusMonths(1), exceptions);
+
+        assertThat(occurrences).containsExactly(
+                START, START.plusDays(4), START.plusDays(6));
+        assertThat(rule.lastOccurrenceStart(START)).isEqualTo(START.plusDays(6));
+    }
+
+    /** Výskyt, který začal před oknem a zasahuje do něj, se vrací také. */
+    @Test
+    void includesOccurrenceOverlappingWindowStart() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=DAILY");
+        LocalDateTime from = START.plusDays(10).plusMinutes(30);
+
+        List<LocalDateTime> occurrences = rule.occurrencesBetween(START, 60, from, from.plusHours(1), Set.of());
+
+        assertThat(occurrences).containsExactly(START.plusDays(10));
+    }
+
+    @Test
+    void untilLimitsSeries() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=WEEKLY;UNTIL=20251124");
+
+        assertThat(rule.lastOccurrenceStart(START)).isEqualTo(START.plusWeeks(3));
+        assertThat(rule.firstOccurrenceAtOrAfter(START, START.plusWeeks(3).plusMinutes(1), Set.of())).isNull();
+    }
+
+    @Test
+    void nextOccurrenceSkipsExceptions() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=MO,WE");
+        Set<LocalDate> exceptions = Set.of(LocalDate.of(2025, 11, 5));
+
+        assertThat(rule.firstOccurrenceAtOrAfter(START, START.plusMinutes(1), exceptions))
+                .isEqualTo(START.plusWeeks(1));
+    }
+}
@@ -0,0 +1,183 @@
+package com.weekfitter.weekfitter_backend.service.route;
+
+import com.weekfitter.weekfitter_backend.dto.RoutePreview;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit testy parseru tras – GPX s úseky, TCX s body bez polohy, výpočty
+ * délky, stoupání a času v pohybu, zjednodušení a kódování čáry.
+ */
+class RouteParserTest {
+
+    /** Jedna setina stupně zeměpisné šířky (~1112 m). */
+    private static final double STEP = 0.01;
+
+    @Test
+    void parsesGpxSegmentsAndMetrics() {
+        String gpx = """
+                <?xml version="1.0"?>
+                <gpx xmlns="http://www.topografix.com/GPX/1/1" version="1.1">
+                  <trk><trkseg>
+                    <trkpt lat="50.00" lon="14.0"><ele>200</ele><time>2025-03-01T07:00:00Z</time></trkpt>
+                    <trkpt lat="50.01" lon="14.0"><ele>201</ele><time>2025-03-01T07:05:00Z</time></trkpt>
+                    <trkpt lat="50.02" lon="14.0"><ele>210</ele><time>2025-03-01T07:10:00Z</time></trkpt>
+                  </trkseg><trkseg>
+                    <trkpt lat="50.03" lon="14.0"><ele>205</ele><time>2025-03-01T08:00:00Z</time></trkpt>
+                    <trkpt lat="50.03" lon="14.0"><ele>212</ele><time>2025-03-01T08:10:00Z</time></trkpt>
+                    <trkpt lat="50.04" lon="14.0"><time>2025-03-01T08:15:00+00:00</time></trkpt>
+                  </trkseg></trk>
+                </gpx>
+                """;
+
+        RouteTrack track = parse(gpx);
+
+        assertThat(track.size()).isEqualTo(6);
+        // 3 úseky po setině stupně, mezera mezi trkseg se nepočítá
+        double step = RouteTrack.haversine(50.00, 14.0, 50.01, 14.0);
+        assertThat(step).isCloseTo(1112, within(1.0));
+        assertThat(track.distance()).isCloseTo(step * 3, within(1.0));
+        // 200 → 210 (+10), pokles na 205, 205 → 212 (+7); +1 pod prahem se sečte až s dalším bodem
+        assertThat(track.elevationGain()).isCloseTo(17, within(1e-9));
+        // stání 10 min na místě se do pohybu nepočítá
+        assertThat(track.movingTime()).isEqualTo(15 * 60);
+    }
+
+    @Test
+    void parsesTcxAndSkipsPointsWithoutPosition() {
+        String tcx = """
+                <TrainingCenterDatabase xmlns="http://www.garmin.com/xmlschemas/TrainingCenterDatabase/v2">
+                  <Activities><Activity Sport="Running"><Lap StartTime="2025-03-01T07:00:00Z"><Track>
+                    <Trackpoint><Time>2025-03-01T07:00:00Z</Time>
+                      <Position><LatitudeDegrees>50.0</LatitudeDegrees><LongitudeDegrees>14.0</LongitudeDegrees></Position>
+                      <AltitudeMeters>300</AltitudeMeters></Trackpoint>
+                    <Trackpoint><Time>2025-03-01T07:02:00Z</Time><HeartRateBpm><Value>150</Value></HeartRateBpm></Trackpoint>
+                    <Trackpoint><Time>2025-03-01T07:05:00Z</Time>
+                      <Position><LatitudeDegrees>50.01</LatitudeDegrees><LongitudeDegrees>14.0</LongitudeDegrees></Position>
+                      <AltitudeMeters>290</AltitudeMeters></Trackpoint>
+                  </Track></Lap></Activity></Activities>
+                </TrainingCenterDatabase>
+                """;
+
+        RouteTrack track = parse(tcx);
+
+        assertThat(track.size()).isEqualTo(2);
+        assertThat(track.distance()).isCloseTo(1112, within(1.0));
+        assertThat(track.elevationGain()).isZero();
+        assertThat(track.movingTime()).isEqualTo(300);
+    }
+
+    /** Body na přímce se zahodí, výrazný zlom zůstane; čára odpovídá referenčnímu kódování. */
+    @Test
+    void simplifiesAndEncodesPolyline() {
+        StringBuilder gpx = new StringBuilder("<gpx><trk><trkseg>");
+        for (int i = 0; i <= 100; i++) point(gpx, 50 + i * STEP / 100, 14.0);
+        for (int i = 1; i <= 100; i++) point(gpx, 50 + STEP, 14.0 + i * STEP / 100);
+        gpx.append("</trkseg></trk></gpx>");
+
+        RoutePreview preview = parse(gpx.toString()).preview(10, 2000);
+
+        assertThat(preview.getPointCount()).isEqualTo(201);
+        assertThat(preview.getPreviewPointCount()).isEqualTo(3);
+        assertThat(preview.getPolylines()).hasSize(1);
+        assertThat(preview.getMinLat()).isEqualTo(50.0);
+        assertThat(preview.getMaxLon()).isCloseTo(14.01, within(1e-12));
+
+        // referenční příklad formátu: (38.5, -120.2), (40.7, -120.95), (43.252, -126.453)
+        RouteTrack reference = parse("""
+                <gpx><rte>
+                  <rtept lat="38.5" lon="-120.2"/><rtept lat="40.7" lon="-120.95"/><rtept lat="43.252" lon="-126.453"/>
+                </rte></gpx>
+                """);
+        assertThat(reference.encode(new int[]{0, 1, 2})).isEqualTo("_p~iF~ps|U_ulLnnqC_mqNvxq`@");
+    }
+
+    /** Výkyv pod prahem uprostřed stoupání se nepočítá dvakrát. */
+    @Test
+    void elevationGainUsesHysteresis() {
+        StringBuilder gpx = new StringBuilder("<gpx><trk><trkseg>");
+        double[] elevations = {100, 110, 109, 112, 108, 109.5, 104, 106};
+        for (int i = 0; i < elevations.length; i++) {
+            gpx.append("<trkpt lat=\"").append(50 + i * STEP).append("\" lon=\"14.0\"><ele>")
+                    .append(elevations[i]).append("</ele></trkpt>");
+        }
+        gpx.append("</trkseg></trk></gpx>");
+
+        // 100 → 112 (+12; 110 → 109 → 112 přidá jen 2), pokles 112 → 104, 104 → 106 pod prahem
+        assertThat(parse(gpx.toString()).elevationGain()).isCloseTo(12, within(1e-9));
+    }
+
+    /** Každý úsek má vlastní čáru – mezera mezi úseky se nekreslí ani nezjednoduší. */
+    @Test
+    void previewKeepsSegmentsApart() {
+        StringBuilder gpx = new StringBuilder("<gpx><trk><trkseg>");
+        for (int i = 0; i <= 100; i++) point(gpx, 50 + i * STEP / 100, 14.0);
+        gpx.append("</trkseg><trkseg>");
+        point(gpx, 50 + STEP, 14.0 + STEP);
+        gpx.append("</trkseg><trkseg>");
+        for (int i = 0; i <= 100; i++) point(gpx, 50 + STEP * 2, 14.0 + i * STEP / 100);
+        gpx.append("</trkseg></trk></gpx>");
+        RouteTrack track = parse(gpx.toString());
+
+        RoutePreview preview = track.preview(10, 2000);
+
+        assertThat(preview.getPolylines()).containsExactly(
+                track.encode(new int[]{0, 100}), track.encode(new int[]{101}), track.encode(new int[]{102, 202}));
+        assertThat(preview.getPreviewPointCount()).isEqualTo(5);
+        // limit pod počtem krajních bodů úseků čáry nerozbije
+        assertThat(track.preview(10, 2).getPreviewPointCount()).isEqualTo(5);
+    }
+
+    /**
+     * Klikatá trasa s 50 000 body – husté body předvýběr vynechá, a když se
+     * čára nevejde do limitu, tolerance se zvyšuje.
+     */
+    @Test
+    void capsPreviewPoints() {
+        StringBuilder gpx = new StringBuilder("<gpx><trk><trkseg>");
+        for (int i = 0; i < 50_000; i++) {
+            double t = i / 50_000.0;
+            point(gpx, 50 + t * 0.3 + 0.002 * Math.sin(i / 40.0), 14.0 + 0.01 * Math.sin(t * 60));
+        }
+        gpx.append("</trkseg></trk></gpx>");
+        RouteTrack track = parse(gpx.toString());
+
+        RoutePreview preview = track.preview(10, 2000);
+        RoutePreview capped = track.preview(10, 100);
+
+        assertThat(preview.getPointCount()).isEqualTo(50_000);
+        assertThat(preview.getPreviewPointCount()).isBetween(101, 2000);
+        assertThat(capped.getPreviewPointCount()).isBetween(2, 100);
+        assertThat(capped.getDistanceMeters()).isEqualTo(preview.getDistanceMeters());
+    }
+
+    @Test
+    void rejectsInvalidXmlAndTooManyPoints() {
+        assertThatThrownBy(() -> parse("<gpx><trk>")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RouteParser.parse(stream("<gpx><trk><trkseg>"
+                + "<trkpt lat=\"50\" lon=\"14\"/><trkpt lat=\"50\" lon=\"14\"/></trkseg></trk></gpx>"), 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        // externí entity se nerozbalují
+        assertThatThrownBy(() -> parse("<!DOCTYPE gpx [<!ENTITY x SYSTEM \"file:///etc/passwd\">]>"
+                + "<gpx><trk><trkseg><trkpt lat=\"50\" lon=\"14\"><ele>&x;</ele></trkpt></trkseg></trk></gpx>"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void point(StringBuilder sb, double lat, double lon) {
+        sb.append("<trkpt lat=\"").append(lat).append("\" lon=\"").append(lon).append("\"/>");
+    }
+
+    private static RouteTrack parse(String xml) {
+        return RouteParser.parse(stream(xml), 1_000_000);
+    }
+
+    private static ByteArrayInputStream stream(String xml) {
+        return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+    }
+}
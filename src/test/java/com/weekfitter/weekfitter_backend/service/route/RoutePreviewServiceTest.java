@@ -0,0 +1,125 @@
+package com.weekfitter.weekfitter_backend.service.route;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weekfitter.weekfitter_backend.dto.RoutePreview;
+import com.weekfitter.weekfitter_backend.model.CalendarEvent;
+import com.weekfitter.weekfitter_backend.model.User;
+import com.weekfitter.weekfitter_backend.service.UploadStorage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit testy náhledů tras – uložení náhledu vedle souboru, jeho opakované
+ * použití a zneplatnění novějším souborem trasy, čtení jen souborů vlastníka.
+ */
+class RoutePreviewServiceTest {
+
+    private static final String GPX = """
+            <gpx><trk><trkseg>
+              <trkpt lat="50.00" lon="14.0"><time>2025-03-01T07:00:00Z</time></trkpt>
+              <trkpt lat="50.01" lon="14.0"><time>2025-03-01T07:05:00Z</time></trkpt>
+            </trkseg></trk></gpx>
+            """;
+
+    private static final User OWNER = User.builder().id(UUID.randomUUID()).build();
+
+    @TempDir
+    Path uploads;
+
+    private RoutePreviewService service() {
+        return new RoutePreviewService(new UploadStorage(uploads.toString()), new ObjectMapper(), 1024 * 1024, 100_000, 10, 2000);
+    }
+
+    @Test
+    void storesPreviewNextToFileAndReusesIt() throws IOException {
+        Path file = uploads.resolve("run.gpx");
+        Files.writeString(file, GPX);
+        Files.setLastModifiedTime(file, FileTime.from(Instant.parse("2025-03-01T08:00:00Z")));
+        RoutePreviewService service = service();
+
+        RoutePreview first = service.preview(OWNER.getId(), "run.gpx").orElseThrow();
+        Path sidecar = uploads.resolve("run.gpx" + RoutePreviewService.PREVIEW_SUFFIX);
+        assertThat(sidecar).exists();
+        assertThat(first.getDistanceMeters()).isGreaterThan(1100);
+
+        // náhled se čte ze souboru vedle trasy, trasa se neparsuje
+        RoutePreview stored = new ObjectMapper().readValue(sidecar.toFile(), RoutePreview.class);
+        stored.setPolylines(List.of("cached"));
+        new ObjectMapper().writeValue(sidecar.toFile(), stored);
+        assertThat(service.preview(OWNER.getId(), "run.gpx").orElseThrow().getPolylines()).containsExactly("cached");
+
+        // novější trasa náhled zneplatní
+        Files.writeString(file, GPX.replace("50.01", "50.02"));
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(60)));
+        RoutePreview updated = service.preview(OWNER.getId(), "run.gpx").orElseThrow();
+        assertThat(updated.getPolylines()).doesNotContain("cached");
+        assertThat(updated.getDistanceMeters()).isGreaterThan(2200);
+    }
+
+    @Test
+    void ignoresOtherAndBrokenFiles() throws IOException {
+        Files.writeString(uploads.resolve("broken.gpx"), "<gpx><trk>");
+        Files.writeString(uploads.resolve("empty.tcx"), "<TrainingCenterDatabase/>");
+        RoutePreviewService service = service();
+
+        assertThat(service.preview(OWNER.getId(), "broken.gpx")).isEmpty();
+        assertThat(service.preview(OWNER.getId(), "empty.tcx")).isEmpty();
+        assertThat(service.preview(OWNER.getId(), "missing.gpx")).isEmpty();
+        assertThat(service.preview(OWNER.getId(), "workout.json")).isEmpty();
+        assertThat(service.preview(OWNER.getId(), "../run.gpx")).isEmpty();
+        assertThat(uploads.resolve("broken.gpx" + RoutePreviewService.PREVIEW_SUFFIX)).doesNotExist();
+    }
+
+    /** Trasa se čte jen z adresáře příloh vlastníka události. */
+    @Test
+    void readsAttachmentsOnlyOfOwner() throws IOException {
+        UploadStorage storage = new UploadStorage(uploads.toString());
+        Path own = storage.attachmentsDir(OWNER.getId()).resolve("e1/u1/run.gpx");
+        Path foreign = storage.attachmentsDir(UUID.randomUUID()).resolve("e2/u2/run.gpx");
+        Files.createDirectories(own.getParent());
+        Files.createDirectories(foreign.getParent());
+        Files.writeString(own, GPX);
+        Files.writeString(foreign, GPX);
+        RoutePreviewService service = service();
+
+        assertThat(service.preview(OWNER.getId(), storage.filePath(own))).isPresent();
+        assertThat(service.preview(OWNER.getId(), storage.filePath(foreign))).isEmpty();
+        assertThat(foreign.resolveSibling("run.gpx" + RoutePreviewService.PREVIEW_SUFFIX)).doesNotExist();
+
+        CalendarEvent event = new CalendarEvent();
+        event.setUser(OWNER);
+        event.setFilePath(storage.filePath(foreign));
+        service.applyRoute(event, false);
+        assertThat(event.getDistance()).isNull();
+    }
+
+    @Test
+    void fillsMissingDistanceAndDuration() throws IOException {
+        Files.writeString(uploads.resolve("run.gpx"), GPX);
+        CalendarEvent event = new CalendarEvent();
+        event.setUser(OWNER);
+        event.setFilePath("run.gpx");
+
+        service().applyRoute(event, false);
+
+        assertThat(event.getDistance()).isEqualTo(1.11);
+        assertThat(event.getDuration()).isEqualTo(5.0);
+
+        CalendarEvent own = new CalendarEvent();
+        own.setUser(OWNER);
+        own.setFilePath("run.gpx");
+        own.setDistance(5.0);
+        service().applyRoute(own, false);
+        assertThat(own.getDistance()).isEqualTo(5.0);
+    }
+}
@@ -0,0 +1,59 @@
+package com.weekfitter.weekfitter_backend.service.search;
+
+import com.weekfitter.weekfitter_backend.dto.SearchCursor;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit testy sestavení dotazu vyhledávání a kurzoru stránkování.
+ */
+class EventSearchServiceTest {
+
+    @Test
+    void buildsPrefixQueryFromWords() {
+        assertThat(EventSearchService.toTsQuery("intervaly 10x400")).isEqualTo("intervaly:* & 10x400:*");
+        assertThat(EventSearchService.toTsQuery("lehký   běh")).isEqualTo("lehký:* & běh:*");
+    }
+
+    /** Syntaxe tsquery z uživatelského vstupu se do dotazu nedostane. */
+    @Test
+    void dropsTsQueryOperators() {
+        assertThat(EventSearchService.toTsQuery("běh & !(plavání) | kolo:*")).isEqualTo("běh:* & plavání:* & kolo:*");
+        assertThat(EventSearchService.toTsQuery("&|!()")).isNull();
+        assertThat(EventSearchService.toTsQuery("")).isNull();
+    }
+
+    @Test
+    void limitsNumberOfTerms() {
+        String query = EventSearchService.toTsQuery("a b c d e f g h i j");
+
+        assertThat(query.split(" & ")).hasSize(8);
+    }
+
+    @Test
+    void escapesLikeWildcards() {
+        assertThat(EventSearchService.escapeLike("50%_x")).isEqualTo("50\\%\\_x");
+        assertThat(EventSearchService.escapeLike("a\\b")).isEqualTo("a\\\\b");
+    }
+
+    @Test
+    void cursorRoundTripKeepsExactRank() {
+        SearchCursor cursor = new SearchCursor(0.1f + 0.2f, LocalDateTime.of(2025, 3, 1, 7, 30), UUID.randomUUID());
+
+        SearchCursor decoded = SearchCursor.decode(cursor.encode());
+
+        assertThat(decoded).isEqualTo(cursor);
+        assertThat(Float.floatToIntBits(decoded.getRank())).isEqualTo(Float.floatToIntBits(cursor.getRank()));
+    }
+
+    @Test
+    void rejectsInvalidCursor() {
+        assertThatThrownBy(() -> SearchCursor.decode("nesmysl"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
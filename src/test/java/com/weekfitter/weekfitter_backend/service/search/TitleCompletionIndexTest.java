@@ -0,0 +1,149 @@
+package com.weekfitter.weekfitter_backend.service.search;
+
+import com.weekfitter.weekfitter_backend.dto.TitleCountRow;
+import com.weekfitter.weekfitter_backend.dto.TitleSuggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit testy indexu názvů – výběr nejčastějších názvů s prefixem,
+ * slučování variant a inkrementální změny.
+ */
+class TitleCompletionIndexTest {
+
+    private static final TitleCompletionIndex INDEX = TitleCompletionIndex.of(List.of(
+            new TitleCountRow("Intervaly 10x400", 12),
+            new TitleCountRow("Intervaly 5x1000", 4),
+            new TitleCountRow("Interní porada", 7),
+            new TitleCountRow("Lehký běh", 30),
+            new TitleCountRow("Posilovna", 9)
+    ));
+
+    @Test
+    void completesPrefixByFrequency() {
+        assertThat(INDEX.complete("inter", 10))
+                .extracting(TitleSuggestion::getTitle)
+                .containsExactly("Intervaly 10x400", "Interní porada", "Intervaly 5x1000");
+        assertThat(INDEX.complete("Intervaly", 1))
+                .containsExactly(new TitleSuggestion("Intervaly 10x400", 12));
+        assertThat(INDEX.complete("x", 5)).isEmpty();
+    }
+
+    @Test
+    void ignoresCaseAndDiacritics() {
+        assertThat(INDEX.complete("LEHKY B", 5))
+                .containsExactly(new TitleSuggestion("Lehký běh", 30));
+        assertThat(INDEX.complete("interni", 5))
+                .extracting(TitleSuggestion::getTitle)
+                .containsExactly("Interní porada");
+    }
+
+    @Test
+    void emptyPrefixReturnsMostFrequent() {
+        assertThat(INDEX.complete("", 2))
+                .extracting(TitleSuggestion::getTitle)
+                .containsExactly("Lehký běh", "Intervaly 10x400");
+    }
+
+    /** Varianty lišící se velikostí písmen se sečtou, zobrazí se ta nejčastější. */
+    @Test
+    void mergesVariantsOfSameTitle() {
+        TitleCompletionIndex index = TitleCompletionIndex.of(List.of(
+                new TitleCountRow("plavání", 2),
+                new TitleCountRow("Plavání", 5),
+                new TitleCountRow("PLAVÁNÍ ", 1)
+        ));
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.complete("pla", 5)).containsExactly(new TitleSuggestion("Plavání", 8));
+    }
+
+    @Test
+    void appliesTitleChanges() {
+        TitleCompletionIndex index = INDEX
+                .with(null, "Intervaly 5x1000")
+                .with("Posilovna", "Intervaly 5x1000");
+
+        assertThat(index.complete("intervaly 5", 5)).containsExactly(new TitleSuggestion("Intervaly 5x1000", 6));
+        assertThat(index.complete("posil", 5)).containsExactly(new TitleSuggestion("Posilovna", 8));
+
+        TitleCompletionIndex added = index.with(null, "Kolo");
+        assertThat(added.complete("kolo", 5)).containsExactly(new TitleSuggestion("Kolo", 1));
+        assertThat(added.with("Kolo", null).complete("kolo", 5)).isEmpty();
+        assertThat(INDEX.complete("kolo", 5)).isEmpty();
+    }
+
+    /** Výsledek best-first výběru odpovídá prostému seřazení všech shod. */
+    @Test
+    void matchesBruteForceOnRandomTitles() {
+        Random random = new Random(42);
+        Map<String, Long> counts = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            String title = "t" + Integer.toString(random.nextInt(5000), 36);
+            counts.merge(title, 1L + random.nextInt(50), Long::sum);
+        }
+        List<TitleCountRow> rows = new ArrayList<>();
+        counts.forEach((title, count) -> rows.add(new TitleCountRow(title, count)));
+        TitleCompletionIndex index = TitleCompletionIndex.of(rows);
+
+        for (String prefix : List.of("", "t", "t1", "t2a", "tz", "q")) {
+            List<Long> expected = counts.entrySet().stream()
+                    .filter(e -> e.getKey().startsWith(prefix))
+                    .map(Map.Entry::getValue)
+                    .sorted(Comparator.reverseOrder())
+                    .limit(10)
+                    .toList();
+
+            assertThat(index.complete(prefix, 10))
+                    .extracting(s -> (long) s.getCount())
+                    .containsExactlyElementsOf(expected);
+        }
+    }
+
+    /**
+     * Série změn (přejmenování, přidání nových názvů, smazání až na nulu)
+     * dá stejné návrhy jako index sestavený znovu z výsledných počtů.
+     */
+    @Test
+    void incrementalChangesMatchRebuild() {
+        Random random = new Random(7);
+        Map<String, Long> counts = new HashMap<>();
+        for (int i = 0; i < 300; i++) counts.merge("t" + Integer.toString(random.nextInt(400), 36), 1L, Long::sum);
+        List<TitleCountRow> rows = new ArrayList<>();
+        counts.forEach((title, count) -> rows.add(new TitleCountRow(title, count)));
+        TitleCompletionIndex index = TitleCompletionIndex.of(rows);
+
+        List<String> events = new ArrayList<>();
+        counts.forEach((title, count) -> { for (long c = 0; c < count; c++) events.add(title); });
+        for (int step = 0; step < 2000; step++) {
+            int op = random.nextInt(3);
+            String added = "t" + Integer.toString(random.nextInt(600), 36);
+            if (op == 0 || events.isEmpty()) {
+                index = index.with(null, added);
+                events.add(added);
+            } else {
+                String removed = events.remove(random.nextInt(events.size()));
+                if (op == 1) {
+                    index = index.with(removed, null);
+                } else {
+                    index = index.with(removed, added);
+                    events.add(added);
+                }
+            }
+        }
+
+        Map<String, Long> expected = new HashMap<>();
+        for (String title : events) expected.merge(title, 1L, Long::sum);
+        List<TitleCountRow> expectedRows = new ArrayList<>();
+        expected.forEach((title, count) -> expectedRows.add(new TitleCountRow(title, count)));
+        TitleCompletionIndex rebuilt = TitleCompletionIndex.of(expectedRows);
+
+        for (String prefix : List.of("", "t", "t1", "t2", "ta", "tg", "q")) {
+            assertThat(index.complete(prefix, 20)).containsExactlyElementsOf(rebuilt.complete(prefix, 20));
+        }
+        assertThat(index.complete("", Integer.MAX_VALUE)).hasSize(expected.size());
+    }
+}
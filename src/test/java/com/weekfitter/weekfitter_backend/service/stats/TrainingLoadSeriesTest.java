@@ -0,0 +1,125 @@
+package com.weekfitter.weekfitter_backend.service.stats;
+
+import com.weekfitter.weekfitter_backend.dto.TrainingLoadPoint;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit testy řady tréninkové zátěže – inkrementální úpravy musí dát stejný
+ * výsledek jako sestavení celé řady znovu a přepočítat jen příponu.
+ */
+class TrainingLoadSeriesTest {
+
+    private static final LocalDate ORIGIN = LocalDate.of(2024, 1, 1);
+    private static final LocalDate FIRST = ORIGIN.minusYears(5);
+    private static final LocalDate LAST = ORIGIN.plusYears(5);
+
+    @Test
+    void midHistoryEditRecomputesOnlySuffixAndMatchesRebuild() {
+        double[] loads = randomLoads(730);
+        TrainingLoadSeries series = seriesOf(loads);
+        series.points(ORIGIN, ORIGIN.plusDays(729));
+
+        series.addLoad(ORIGIN.plusDays(500), 45);
+        assertThat(series.recomputeDirty()).isEqualTo(230);
+
+        loads[500] += 45;
+        assertSame(series, seriesOf(loads), ORIGIN, ORIGIN.plusDays(729));
+    }
+
+    /** Více změn před čtením se přepočítá jednou – od nejstaršího změněného dne. */
+    @Test
+    void batchedEditsRecomputeFromOldestChange() {
+        TrainingLoadSeries series = seriesOf(randomLoads(100));
+        series.recomputeDirty();
+
+        series.addLoad(ORIGIN.plusDays(90), 30);
+        series.addLoad(ORIGIN.plusDays(60), -10);
+        assertThat(series.recomputeDirty()).isEqualTo(40);
+    }
+
+    @Test
+    void growsInBothDirections() {
+        double[] loads = randomLoads(50);
+        TrainingLoadSeries series = seriesOf(loads);
+        series.points(ORIGIN, ORIGIN);
+
+        series.addLoad(ORIGIN.minusDays(10), 60);
+        series.addLoad(ORIGIN.plusDays(80), 60);
+
+        double[] expected = new double[91];
+        System.arraycopy(loads, 0, expected, 10, 50);
+        expected[0] = 60;
+        expected[90] = 60;
+        TrainingLoadSeries rebuilt = new TrainingLoadSeries(ORIGIN.minusDays(10), 1, FIRST, LAST);
+        for (int i = 0; i < expected.length; i++) rebuilt.addLoad(ORIGIN.minusDays(10).plusDays(i), expected[i]);
+
+        assertThat(series.origin()).isEqualTo(ORIGIN.minusDays(10));
+        assertSame(series, rebuilt, ORIGIN.minusDays(20), ORIGIN.plusDays(100));
+    }
+
+    /** Dny mimo meze řadu nezvětší – ani rok 1, ani rok 9999. */
+    @Test
+    void ignoresDaysOutsideBounds() {
+        TrainingLoadSeries series = new TrainingLoadSeries(LocalDate.of(1, 1, 1), 1, ORIGIN, ORIGIN.plusDays(99));
+        assertThat(series.origin()).isEqualTo(ORIGIN);
+
+        series.addLoad(LocalDate.of(1, 1, 1), 60);
+        series.addLoad(LocalDate.of(9999, 12, 31), 60);
+        series.addLoad(ORIGIN.minusDays(1), 60);
+        series.addLoad(ORIGIN.plusDays(100), 60);
+        assertThat(series.origin()).isEqualTo(ORIGIN);
+        assertThat(series.end()).isEqualTo(ORIGIN);
+
+        series.addLoad(ORIGIN.plusDays(99), 60);
+        assertThat(series.end()).isEqualTo(ORIGIN.plusDays(99));
+        assertThat(series.loadAt(ORIGIN.plusDays(99))).isEqualTo(60);
+        assertThat(series.loadAt(ORIGIN.plusDays(100))).isZero();
+    }
+
+    @Test
+    void averagesFollowConstantLoadAndDecayAfterEnd() {
+        TrainingLoadSeries series = new TrainingLoadSeries(ORIGIN, 1, FIRST, LAST);
+        for (int i = 0; i < 365; i++) series.addLoad(ORIGIN.plusDays(i), 60);
+
+        TrainingLoadPoint last = series.points(ORIGIN.plusDays(364), ORIGIN.plusDays(364)).get(0);
+        assertThat(last.getAcute()).isCloseTo(60, within(0.01));
+        assertThat(last.getChronic()).isCloseTo(60, within(0.05));
+        assertThat(last.getAcuteChronicRatio()).isCloseTo(1.0, within(0.01));
+
+        // Bez tréninku akutní zátěž klesá rychleji než chronická
+        TrainingLoadPoint rest = series.points(ORIGIN.plusDays(371), ORIGIN.plusDays(371)).get(0);
+        assertThat(rest.getLoad()).isZero();
+        assertThat(rest.getAcute()).isLessThan(rest.getChronic());
+        assertThat(rest.getRampRate()).isNegative();
+    }
+
+    private static void assertSame(TrainingLoadSeries actual, TrainingLoadSeries expected, LocalDate from, LocalDate to) {
+        List<TrainingLoadPoint> a = actual.points(from, to);
+        List<TrainingLoadPoint> e = expected.points(from, to);
+        for (int i = 0; i < e.size(); i++) {
+            assertThat(a.get(i).getLoad()).isCloseTo(e.get(i).getLoad(), within(1e-9));
+            assertThat(a.get(i).getAcute()).isCloseTo(e.get(i).getAcute(), within(1e-9));
+            assertThat(a.get(i).getChronic()).isCloseTo(e.get(i).getChronic(), within(1e-9));
+        }
+    }
+
+    private static TrainingLoadSeries seriesOf(double[] loads) {
+        TrainingLoadSeries series = new TrainingLoadSeries(ORIGIN, loads.length, FIRST, LAST);
+        for (int i = 0; i < loads.length; i++) series.addLoad(ORIGIN.plusDays(i), loads[i]);
+        return series;
+    }
+
+    private static double[] randomLoads(int days) {
+        Random random = new Random(days);
+        double[] loads = new double[days];
+        for (int i = 0; i < days; i++) loads[i] = random.nextInt(3) == 0 ? 0 : 20 + random.nextInt(100);
+        return loads;
+    }
+}
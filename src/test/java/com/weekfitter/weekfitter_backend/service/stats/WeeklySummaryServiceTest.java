@@ -0,0 +1,107 @@
+package com.weekfitter.weekfitter_backend.service.stats;
+
+import com.weekfitter.weekfitter_backend.model.CalendarEvent;
+import com.weekfitter.weekfitter_backend.model.SportType;
+import com.weekfitter.weekfitter_backend.model.User;
+import com.weekfitter.weekfitter_backend.repository.CalendarEventRepository;
+import com.weekfitter.weekfitter_backend.repository.WeeklyTrainingSummaryRepository;
+import com.weekfitter.weekfitter_backend.service.stats.WeeklySummaryService.Contribution;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit testy inkrementální údržby týdenních souhrnů – každá změna události
+ * se musí promítnout nejvýše dvěma rozdíly, nikdy přepočtem.
+ */
+class WeeklySummaryServiceTest {
+
+    private static final LocalDateTime WEDNESDAY = LocalDateTime.of(2025, 11, 5, 18, 0);
+    private static final LocalDate MONDAY = LocalDate.of(2025, 11, 3);
+
+    private final WeeklyTrainingSummaryRepository repository = mock(WeeklyTrainingSummaryRepository.class);
+    private final WeeklySummaryService service =
+            new WeeklySummaryService(repository, mock(CalendarEventRepository.class));
+
+    private final User user = User.builder().id(UUID.randomUUID()).build();
+
+    @Test
+    void newEventAddsOneSession() {
+        service.apply(null, Contribution.of(run(WEDNESDAY, 60.0, 10.0)));
+
+        verify(repository).applyDelta(user.getId(), MONDAY, SportType.RUNNING.name(), 10.0, 60.0, 1);
+        verifyNoMoreInteractions(repository);
+    }
+
+    @Test
+    void changeWithinWeekWritesSingleDelta() {
+        Contribution before = Contribution.of(run(WEDNESDAY, 60.0, 10.0));
+        Contribution after = Contribution.of(run(WEDNESDAY.plusDays(1), 75.0, 12.0));
+
+        service.apply(before, after);
+
+        verify(repository).applyDelta(user.getId(), MONDAY, SportType.RUNNING.name(), 2.0, 15.0, 0);
+        verifyNoMoreInteractions(repository);
+    }
+
+    @Test
+    void moveToAnotherWeekSubtractsAndAdds() {
+        Contribution before = Contribution.of(run(WEDNESDAY, 60.0, 10.0));
+        Contribution after = Contribution.of(run(WEDNESDAY.plusWeeks(1), 60.0, 10.0));
+
+        service.apply(before, after);
+
+        verify(repository).applyDelta(user.getId(), MONDAY, SportType.RUNNING.name(), -10.0, -60.0, -1);
+        verify(repository).deleteIfEmpty(user.getId(), MONDAY, SportType.RUNNING.name());
+        verify(repository).applyDelta(user.getId(), MONDAY.plusWeeks(1), SportType.RUNNING.name(), 10.0, 60.0, 1);
+    }
+
+    @Test
+    void unchangedTrainingValuesWriteNothing() {
+        // Např. změna názvu nebo popisu
+        service.apply(Contribution.of(run(WEDNESDAY, 60.0, 10.0)), Contribution.of(run(WEDNESDAY, 60.0, 10.0)));
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void seriesAndEventsWithoutSportDoNotContribute() {
+        CalendarEvent series = run(WEDNESDAY, 60.0, 10.0);
+        series.setRecurrenceRule("FREQ=WEEKLY");
+        CalendarEvent meeting = run(WEDNESDAY, 60.0, null);
+        meeting.setSportType(null);
+
+        assertThat(Contribution.of(series)).isNull();
+        assertThat(Contribution.of(meeting)).isNull();
+    }
+
+    /** Bez duration se délka počítá z konce události. */
+    @Test
+    void durationFallsBackToEndTime() {
+        CalendarEvent e = run(WEDNESDAY, null, null);
+        e.setEndTime(WEDNESDAY.plusMinutes(45));
+
+        service.apply(null, Contribution.of(e));
+
+        verify(repository).applyDelta(eq(user.getId()), eq(MONDAY), anyString(), eq(0.0), eq(45.0), eq(1));
+    }
+
+    private CalendarEvent run(LocalDateTime start, Double duration, Double distance) {
+        return CalendarEvent.builder()
+                .id(UUID.randomUUID())
+                .title("Běh")
+                .startTime(start)
+                .endTime(start.plusHours(1))
+                .duration(duration)
+                .distance(distance)
+                .sportType(SportType.RUNNING)
+                .user(user)
+                .build();
+    }
+}
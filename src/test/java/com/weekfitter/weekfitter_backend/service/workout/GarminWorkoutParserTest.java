@@ -0,0 +1,127 @@
+package com.weekfitter.weekfitter_backend.service.workout;
+
+import com.weekfitter.weekfitter_backend.dto.WorkoutStep;
+import com.weekfitter.weekfitter_backend.dto.WorkoutSummary;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit testy parseru tréninku Garmin – struktura kroků a odhad
+ * vzdálenosti a délky (opakování, vynechaný poslední odpočinek).
+ */
+class GarminWorkoutParserTest {
+
+    /** Zkrácený export plaveckého tréninku (tvar jako z Garmin Connect). */
+    private static final String SWIM = """
+            {
+              "workoutId": 1372507713,
+              "workoutName": "Pool Swimming Workout",
+              "description": null,
+              "sportType": {"sportTypeId": 4, "sportTypeKey": "swimming", "displayOrder": 3},
+              "author": {"userProfilePk": 1, "fullName": "Test", "userPro": false},
+              "estimatedDurationInSecs": 0,
+              "estimatedDistanceInMeters": 900.0,
+              "workoutSegments": [{
+                "segmentOrder": 1,
+                "sportType": {"sportTypeId": 4, "sportTypeKey": "swimming"},
+                "workoutSteps": [
+                  {"type": "ExecutableStepDTO", "stepOrder": 1,
+                   "stepType": {"stepTypeId": 1, "stepTypeKey": "warmup"},
+                   "description": "500 ( 200K, 50P, 200K, 50Z)\\n",
+                   "endCondition": {"conditionTypeId": 3, "conditionTypeKey": "distance", "displayable": true},
+                   "endConditionValue": 500.0,
+                   "preferredEndConditionUnit": {"unitId": 1, "unitKey": "meter", "factor": 100.0},
+                   "targetType": {"workoutTargetTypeId": 1, "workoutTargetTypeKey": "no.target"},
+                   "strokeType": {"strokeTypeId": 1, "strokeTypeKey": "any_stroke"}},
+                  {"type": "ExecutableStepDTO", "stepOrder": 2,
+                   "stepType": {"stepTypeId": 5, "stepTypeKey": "rest"},
+                   "endCondition": {"conditionTypeId": 1, "conditionTypeKey": "lap.button"},
+                   "endConditionValue": 200.0},
+                  {"type": "RepeatGroupDTO", "stepOrder": 3,
+                   "stepType": {"stepTypeId": 6, "stepTypeKey": "repeat"},
+                   "numberOfIterations": 4,
+                   "smartRepeat": false,
+                   "endCondition": {"conditionTypeId": 7, "conditionTypeKey": "iterations"},
+                   "endConditionValue": 4.0,
+                   "skipLastRestStep": true,
+                   "workoutSteps": [
+                     {"type": "ExecutableStepDTO", "stepOrder": 4,
+                      "stepType": {"stepTypeId": 3, "stepTypeKey": "interval"},
+                      "endCondition": {"conditionTypeId": 3, "conditionTypeKey": "distance"},
+                      "endConditionValue": 100.0},
+                     {"type": "ExecutableStepDTO", "stepOrder": 5,
+                      "stepType": {"stepTypeId": 5, "stepTypeKey": "rest"},
+                      "endCondition": {"conditionTypeId": 8, "conditionTypeKey": "fixed.rest"},
+                      "endConditionValue": 20.0}
+                   ]}
+                ]
+              }],
+              "avgTrainingSpeed": 0.8,
+              "estimateType": "TIME_ESTIMATED",
+              "shared": false
+            }
+            """;
+
+    @Test
+    void parsesStepsAndRepeatGroups() {
+        WorkoutSummary w = parse(SWIM);
+
+        assertThat(w.getName()).isEqualTo("Pool Swimming Workout");
+        assertThat(w.getSport()).isEqualTo("swimming");
+        assertThat(w.getSteps()).extracting(WorkoutStep::getType).containsExactly("warmup", "rest", "repeat");
+        assertThat(w.getSteps().get(0).getDescription()).isEqualTo("500 ( 200K, 50P, 200K, 50Z)");
+
+        WorkoutStep repeat = w.getSteps().get(2);
+        assertThat(repeat.getIterations()).isEqualTo(4);
+        assertThat(repeat.isSkipLastRest()).isTrue();
+        assertThat(repeat.getSteps()).extracting(WorkoutStep::getEndCondition).containsExactly("distance", "fixed.rest");
+    }
+
+    /**
+     * 500 + 4 × 100 m; délka 900 m / 0,8 m/s = 1125 s + 3 × 20 s odpočinku
+     * (po posledním opakování se vynechá), lap.button se nepočítá.
+     */
+    @Test
+    void estimatesDistanceAndDuration() {
+        WorkoutSummary w = parse(SWIM);
+
+        assertThat(w.getDistanceMeters()).isEqualTo(900.0);
+        assertThat(w.getDurationSeconds()).isEqualTo(1125 + 60);
+    }
+
+    @Test
+    void fallsBackToGarminEstimateAndDefaultSpeed() {
+        WorkoutSummary lapOnly = parse("""
+                {"workoutName": "Volno", "sportType": {"sportTypeKey": "running"},
+                 "estimatedDistanceInMeters": 5000, "estimatedDurationInSecs": 1800,
+                 "workoutSegments": [{"workoutSteps": [
+                   {"type": "ExecutableStepDTO", "stepType": {"stepTypeKey": "main"},
+                    "endCondition": {"conditionTypeKey": "lap.button"}, "endConditionValue": null}]}]}
+                """);
+        assertThat(lapOnly.getDistanceMeters()).isEqualTo(5000.0);
+        assertThat(lapOnly.getDurationSeconds()).isEqualTo(1800);
+
+        WorkoutSummary run = parse("""
+                {"sportType": {"sportTypeKey": "running"}, "avgTrainingSpeed": null,
+                 "workoutSegments": [{"workoutSteps": [
+                   {"type": "ExecutableStepDTO", "stepType": {"stepTypeKey": "main"},
+                    "endCondition": {"conditionTypeKey": "distance"}, "endConditionValue": 2800.0}]}]}
+                """);
+        assertThat(run.getDurationSeconds()).isEqualTo(1000);
+    }
+
+    @Test
+    void rejectsOtherJson() {
+        assertThatThrownBy(() -> parse("{\"name\": \"x\"}")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> parse("[1, 2]")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> parse("{\"workoutSegments\": [{\"workoutSteps\": [")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static WorkoutSummary parse(String json) {
+        return GarminWorkoutParser.parse(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
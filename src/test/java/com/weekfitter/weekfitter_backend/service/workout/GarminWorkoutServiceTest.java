@@ -0,0 +1,120 @@
+package com.weekfitter.weekfitter_backend.service.workout;
+
+import com.weekfitter.weekfitter_backend.dto.WorkoutSummary;
+import com.weekfitter.weekfitter_backend.model.ActivityType;
+import com.weekfitter.weekfitter_backend.model.CalendarEvent;
+import com.weekfitter.weekfitter_backend.model.SportType;
+import com.weekfitter.weekfitter_backend.model.User;
+import com.weekfitter.weekfitter_backend.service.UploadStorage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit testy načítání tréninků – cache podle obsahu, omezení na adresář
+ * nahraných souborů a přílohy vlastníka a doplnění odhadu do události.
+ */
+class GarminWorkoutServiceTest {
+
+    private static final String WORKOUT = """
+            {"workoutName": "Intervaly", "sportType": {"sportTypeKey": "running"}, "avgTrainingSpeed": 4.0,
+             "workoutSegments": [{"workoutSteps": [
+               {"type": "ExecutableStepDTO", "stepType": {"stepTypeKey": "main"},
+                "endCondition": {"conditionTypeKey": "distance"}, "endConditionValue": 6000.0}]}]}
+            """;
+
+    private static final User OWNER = User.builder().id(UUID.randomUUID()).build();
+
+    @TempDir
+    Path uploads;
+
+    private GarminWorkoutService service() {
+        return new GarminWorkoutService(new UploadStorage(uploads.toString()), new SimpleMeterRegistry(), 1024 * 1024, 100, Duration.ofHours(1));
+    }
+
+    /** Stejný obsah pod různými cestami se parsuje jednou (sdílená instance). */
+    @Test
+    void cachesByContentHash() throws IOException {
+        Files.writeString(uploads.resolve("a.json"), WORKOUT);
+        Files.writeString(uploads.resolve("b.json"), WORKOUT);
+        GarminWorkoutService service = service();
+
+        WorkoutSummary a = service.summary(OWNER.getId(), "a.json").orElseThrow();
+        WorkoutSummary b = service.summary(OWNER.getId(), uploads.getFileName() + "/b.json").orElseThrow();
+
+        assertThat(b).isSameAs(a);
+        assertThat(a.getDistanceMeters()).isEqualTo(6000.0);
+
+        Files.writeString(uploads.resolve("a.json"), WORKOUT.replace("6000.0", "8000.0"));
+        assertThat(service.summary(OWNER.getId(), "a.json").orElseThrow().getDistanceMeters()).isEqualTo(8000.0);
+    }
+
+    @Test
+    void ignoresMissingForeignAndInvalidFiles() throws IOException {
+        Files.writeString(uploads.resolve("broken.json"), "{\"workoutSegments\": ");
+        GarminWorkoutService service = service();
+
+        assertThat(service.summary(OWNER.getId(), "missing.json")).isEmpty();
+        assertThat(service.summary(OWNER.getId(), "../outside.json")).isEmpty();
+        assertThat(service.summary(OWNER.getId(), "/etc/passwd.json")).isEmpty();
+        assertThat(service.summary(OWNER.getId(), "broken.json")).isEmpty();
+        assertThat(service.summary(OWNER.getId(), "route.gpx")).isEmpty();
+        assertThat(service.summary(OWNER.getId(), null)).isEmpty();
+    }
+
+    /** Přílohy se čtou jen z adresáře vlastníka události. */
+    @Test
+    void readsAttachmentsOnlyOfOwner() throws IOException {
+        GarminWorkoutService service = service();
+        UploadStorage storage = new UploadStorage(uploads.toString());
+        Path own = storage.attachmentsDir(OWNER.getId()).resolve("e1/u1/w.json");
+        Path foreign = storage.attachmentsDir(UUID.randomUUID()).resolve("e2/u2/w.json");
+        Files.createDirectories(own.getParent());
+        Files.createDirectories(foreign.getParent());
+        Files.writeString(own, WORKOUT);
+        Files.writeString(foreign, WORKOUT);
+        Files.createDirectories(uploads.resolve("user_photos"));
+        Files.writeString(uploads.resolve("user_photos/p.json"), WORKOUT);
+
+        assertThat(service.summary(OWNER.getId(), storage.filePath(own))).isPresent();
+        assertThat(service.summary(OWNER.getId(), storage.filePath(foreign))).isEmpty();
+        assertThat(service.summary(OWNER.getId(), "user_photos/p.json")).isEmpty();
+        assertThat(service.summary(null, storage.filePath(own))).isEmpty();
+    }
+
+    @Test
+    void fillsOnlyMissingValues() throws IOException {
+        Files.writeString(uploads.resolve("w.json"), WORKOUT);
+        GarminWorkoutService service = service();
+
+        CalendarEvent empty = CalendarEvent.builder().user(OWNER).filePath("w.json").category(ActivityType.SPORT).build();
+        service.applyEstimate(empty, false);
+        assertThat(empty.getDistance()).isEqualTo(6.0);
+        assertThat(empty.getDuration()).isEqualTo(25.0);
+        assertThat(empty.getSportType()).isEqualTo(SportType.RUNNING);
+
+        CalendarEvent filled = CalendarEvent.builder().user(OWNER).filePath("w.json").distance(10.0).duration(60.0).build();
+        service.applyEstimate(filled, true);
+        assertThat(filled.getDistance()).isEqualTo(10.0);
+        assertThat(filled.getDuration()).isEqualTo(60.0);
+        assertThat(filled.getSportType()).isNull();
+
+        // Konec události brání doplnění délky, pokud ho volající nechce nahradit
+        LocalDateTime start = LocalDateTime.of(2025, 3, 3, 7, 0);
+        CalendarEvent withEnd = CalendarEvent.builder().user(OWNER).filePath("w.json")
+                .startTime(start).endTime(start.plusHours(1)).build();
+        service.applyEstimate(withEnd, false);
+        assertThat(withEnd.getDuration()).isNull();
+        service.applyEstimate(withEnd, true);
+        assertThat(withEnd.getDuration()).isEqualTo(25.0);
+    }
+}